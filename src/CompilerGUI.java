@@ -1,7 +1,13 @@
+import ast.AstPrinter;
 import ast.Node;
-import lexer.Lexer;
+import cache.CompilationCache;
+import compiler.CompilationResult;
+import compiler.CompilerPipeline;
+import diagnostics.Diagnostics;
 import lexer.Token;
-import parser.Parser;
+import project.ProjectWatcher;
+import project.WatchUpdate;
+import stats.CompilationStats;
 import symboltable.Symbol;
 import symboltable.SymbolTable;
 
@@ -9,38 +15,70 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class CompilerGUI extends JFrame {
+    // Un JTextArea con decenas de millones de caracteres deja de responder
+    private static final long AST_PANE_LIMIT = 2_000_000;
 
     private JTextArea lexerOutput;
     private JTextArea symbolTableOutput;
     private JTextArea parserOutput;
     private JTextArea semanticOutput;
+    private JLabel statusBar;
+    private JButton loadButton;
+    private CompilerPipeline pipeline;
+    private ProjectWatcher watcher; // null si no se vigila ningún directorio
+    // Errores vigentes de cada archivo vigilado; solo se toca en el hilo de Swing
+    private final Map<Path, List<String>> watchErrors = new TreeMap<>();
 
     public CompilerGUI() {
         setTitle("Compilador Java");
         setSize(1000, 600);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setLayout(new GridLayout(1, 4));
+        setLayout(new BorderLayout());
+
+        JPanel panels = new JPanel(new GridLayout(1, 4));
 
         lexerOutput = new JTextArea();
         symbolTableOutput = new JTextArea();
         parserOutput = new JTextArea();
         semanticOutput = new JTextArea();
 
-        add(createPanel("Analizador Léxico", lexerOutput));
-        add(createPanel("Tabla de Símbolos", symbolTableOutput));
-        add(createPanel("Analizador Sintáctico", parserOutput));
-        add(createPanel("Analizador Semántico", semanticOutput));
+        panels.add(createPanel("Analizador Léxico", lexerOutput));
+        panels.add(createPanel("Tabla de Símbolos", symbolTableOutput));
+        panels.add(createPanel("Analizador Sintáctico", parserOutput));
+        panels.add(createPanel("Analizador Semántico", semanticOutput));
+        add(panels, BorderLayout.CENTER);
+
+        statusBar = new JLabel(" ");
+        add(statusBar, BorderLayout.SOUTH);
+
+        try {
+            pipeline = new CompilerPipeline(new CompilationCache(CompilationCache.defaultDirectory()));
+        } catch (IOException ex) {
+            // Sin directorio de caché se compila igual, solo que sin reutilizar resultados
+            pipeline = new CompilerPipeline();
+        }
+        pipeline.setStats(new CompilationStats(true));
+        // Los errores se agregan al panel a medida que aparecen; llegan desde el hilo que compila
+        pipeline.setDiagnosticListener(diagnostic -> {
+            String line = diagnostic.message() + "\n";
+            SwingUtilities.invokeLater(() -> semanticOutput.append(line));
+        });
+        updateStatusBar();
 
         JMenuBar menuBar = new JMenuBar();
-        JButton loadButton = new JButton("Cargar Archivo");
+        loadButton = new JButton("Cargar Archivo");
         loadButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -48,6 +86,14 @@ public class CompilerGUI extends JFrame {
             }
         });
         menuBar.add(loadButton);
+        JButton watchButton = new JButton("Vigilar Directorio");
+        watchButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                watchDirectory();
+            }
+        });
+        menuBar.add(watchButton);
         setJMenuBar(menuBar);
 
         setVisible(true);
@@ -62,77 +108,165 @@ public class CompilerGUI extends JFrame {
         return panel;
     }
 
+    // La compilación corre en un hilo aparte: los errores llegan al panel mientras se analiza y la
+    // ventana sigue respondiendo. Los textos de los paneles también se arman fuera del hilo de Swing.
     private void loadFile() {
         JFileChooser fileChooser = new JFileChooser();
         int returnValue = fileChooser.showOpenDialog(this);
-        if (returnValue == JFileChooser.APPROVE_OPTION) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(fileChooser.getSelectedFile()))) {
-                StringBuilder content = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    content.append(line).append("\n");
+        if (returnValue != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = fileChooser.getSelectedFile().toPath();
+        semanticOutput.setText("");
+        statusBar.setText("Compilando " + file + "...");
+        // El pipeline no se comparte entre dos compilaciones a la vez
+        loadButton.setEnabled(false);
+        new SwingWorker<LoadedFile, Void>() {
+            @Override
+            protected LoadedFile doInBackground() throws IOException {
+                CompilationResult result = pipeline.compileFile(file);
+                CompilationStats.Phase phase = pipeline.getStats().begin("interfaz", file.toString());
+                LoadedFile loaded = new LoadedFile(result);
+                phase.end();
+                return loaded;
+            }
+
+            @Override
+            protected void done() {
+                loadButton.setEnabled(true);
+                try {
+                    showFile(get());
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    JOptionPane.showMessageDialog(CompilerGUI.this, cause instanceof IOException
+                            ? "Error al cargar el archivo: " + cause.getMessage()
+                            : "Error en el análisis: " + cause.getMessage());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
                 }
-                String code = content.toString();
+                updateStatusBar();
+            }
+        }.execute();
+    }
 
-                // Análisis léxico
-                Lexer lexer = new Lexer(code);
-                List<Token> tokens = lexer.tokenize();
+    // Los textos de los paneles para un archivo compilado
+    private static final class LoadedFile {
+        final CompilationResult result;
+        final String tokens;
+        final String ast;
+        final String symbols;
 
-                // Mostrar tokens
-                StringBuilder lexerOutputBuilder = new StringBuilder();
-                for (Token token : tokens) {
-                    lexerOutputBuilder.append(token).append("\n");
-                }
-                lexerOutput.setText(lexerOutputBuilder.toString());
+        LoadedFile(CompilationResult result) {
+            this.result = result;
+            StringBuilder lexerOutputBuilder = new StringBuilder();
+            for (Token token : result.getTokens()) {
+                lexerOutputBuilder.append(token).append("\n");
+            }
+            this.tokens = lexerOutputBuilder.toString();
+            Node astRoot = result.getAst();
+            this.ast = astRoot != null ? new AstPrinter().maxChars(AST_PANE_LIMIT).toString(astRoot) : "No se pudo generar el AST.";
+            this.symbols = symbols(result.getSymbolTable());
+        }
+
+        // Cada símbolo visible en algún ámbito está declarado en ese ámbito o en uno que lo
+        // contiene: alcanza con los locales de cada tabla y los predefinidos de la raíz, sin
+        // volver a juntar la cadena de padres por cada tabla (en un anidamiento profundo eso es
+        // cuadrático)
+        private static String symbols(SymbolTable root) {
+            StringBuilder symbolTableBuilder = new StringBuilder();
 
-                // Obtener la tabla de símbolos
-                SymbolTable symbolTable = lexer.getSymbolTable();
+            Set<String> seen = new HashSet<>();
 
-                // Análisis sintáctico y semántico
-                Parser parser = new Parser(tokens, symbolTable);
-                Node astRoot = parser.parse();
+            appendSymbols(root.getPredefinedSymbols().values(), seen, symbolTableBuilder);
+            for (SymbolTable table : root.getAllTables()) {
+                appendSymbols(table.getLocalSymbols().values(), seen, symbolTableBuilder);
+            }
+            return symbolTableBuilder.toString();
+        }
 
-                if (astRoot != null) {
-                    parserOutput.setText(astRoot.toString());
-                } else {
-                    parserOutput.setText("No se pudo generar el AST.");
+        private static void appendSymbols(Collection<Symbol> symbols, Set<String> seen, StringBuilder out) {
+            for (Symbol symbol : symbols) {
+                String entry = symbol.getName() + ": Type = " + symbol.getType() + ", Scope = " + symbol.getScope();
+                if (seen.add(entry)) {
+                    out.append(entry).append("\n");
                 }
+            }
+        }
+    }
 
-                SymbolTable root = parser.getGlobalSymbolTable();
-                StringBuilder symbolTableBuilder = new StringBuilder();
+    private void showFile(LoadedFile loaded) {
+        lexerOutput.setText(loaded.tokens);
+        parserOutput.setText(loaded.ast);
+        symbolTableOutput.setText(loaded.symbols);
 
-                Set<String> seen = new HashSet<>();
+        // Los errores semánticos ya están en el panel; falta decir cuántos no se muestran
+        Diagnostics diagnostics = loaded.result.getDiagnostics();
+        int repeated = diagnostics.totalCount() - diagnostics.size() - diagnostics.suppressedCount();
+        if (diagnostics.isEmpty()) {
+            semanticOutput.setText("No se encontraron errores semánticos.");
+        }
+        if (repeated > 0) {
+            semanticOutput.append(repeated + " errores repetidos sobre los mismos símbolos no se muestran\n");
+        }
+        if (diagnostics.suppressedCount() > 0) {
+            semanticOutput.append(diagnostics.suppressedCount() + " errores más no se muestran\n");
+        }
+    }
 
-                for (SymbolTable table : root.getAllTables()) {
-                    for (Symbol symbol : table.getAllSymbols().values()) {
-                        String entry = symbol.getName() + ": Type = " + symbol.getType() + ", Scope = " + symbol.getScope();
-                        if (!seen.contains(entry)) {
-                            seen.add(entry);
-                            symbolTableBuilder.append(entry).append("\n");
+    // Cada vez que se guarda un fuente del directorio se recompila en segundo plano y el panel
+    // semántico muestra los errores de todos los archivos
+    private void watchDirectory() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        if (watcher != null) {
+            watcher.close();
+        }
+        watchErrors.clear();
+        semanticOutput.setText("");
+        Path root = fileChooser.getSelectedFile().toPath();
+        try {
+            // El aviso llega en el hilo de compilación: el panel se actualiza en el de Swing, y
+            // solo si el vigilante que lo mandó sigue siendo el actual (volver a elegir el mismo
+            // directorio crea otro, y los avisos atrasados del anterior no cuentan)
+            AtomicReference<ProjectWatcher> self = new AtomicReference<>();
+            ProjectWatcher started = ProjectWatcher.start(root, ProjectWatcher.DEFAULT_DEBOUNCE_MILLIS,
+                    update -> SwingUtilities.invokeLater(() -> {
+                        if (watcher != null && watcher == self.get()) {
+                            showWatchUpdate(update);
                         }
-                    }
-                }
-
-                symbolTableOutput.setText(symbolTableBuilder.toString());
-
-                // Mostrar errores semánticos
-                List<String> semanticErrors = parser.getSemanticErrors();
-                if (semanticErrors.isEmpty()) {
-                    semanticOutput.setText("No se encontraron errores semánticos.");
-                } else {
-                    StringBuilder semanticText = new StringBuilder();
-                    for (String error : semanticErrors) {
-                        semanticText.append(error).append("\n");
-                    }
-                    semanticOutput.setText(semanticText.toString());
-                }
+                    }));
+            self.set(started);
+            watcher = started;
+            statusBar.setText("Vigilando " + watcher.getRoot());
+        } catch (IOException ex) {
+            watcher = null;
+            JOptionPane.showMessageDialog(this, "No se pudo vigilar el directorio: " + ex.getMessage());
+        }
+    }
 
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this, "Error al cargar el archivo: " + ex.getMessage());
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "Error en el análisis: " + ex.getMessage());
+    private void showWatchUpdate(WatchUpdate update) {
+        watchErrors.putAll(update.getErrors());
+        for (Path removed : update.getRemoved()) {
+            watchErrors.remove(removed);
+        }
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<Path, List<String>> entry : watchErrors.entrySet()) {
+            for (String error : entry.getValue()) {
+                text.append(watcher.getRoot().relativize(entry.getKey())).append(": ").append(error).append("\n");
             }
         }
+        semanticOutput.setText(text.length() > 0 ? text.toString() : "No se encontraron errores semánticos.");
+        statusBar.setText("Vigilando " + watcher.getRoot() + "  |  " + update.formatSummary());
+    }
+
+    private void updateStatusBar() {
+        CompilationCache cache = pipeline.getCache();
+        String cacheText = cache != null ? cache.getStatsSummary() : "Caché desactivada";
+        String phases = pipeline.getStats().formatLastFile();
+        statusBar.setText(phases.isEmpty() ? cacheText : cacheText + "  |  " + phases);
     }
 
     public static void main(String[] args) {
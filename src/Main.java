@@ -1,6 +1,270 @@
-import symboltable.SymbolTable;
+import ast.AstPrinter;
+import cache.CompilationCache;
+import compiler.CompilationResult;
+import compiler.CompilationSession;
+import compiler.CompilerPipeline;
+import daemon.CompileDaemon;
+import daemon.DaemonClient;
+import daemon.DaemonResponse;
+import diagnostics.Diagnostics;
+import interpreter.Interpreter;
+import interpreter.RuntimeError;
+import lsp.LspServer;
+import optimizer.Inliner;
+import project.Project;
+import project.ProjectWatcher;
+import project.SourceFile;
+import serialization.AstWriter;
+import stats.CompilationStats;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Compilador en línea de comandos
 public class Main {
+    private static final String USAGE = "Uso: java Main [--cache <dir>] [--no-cache] [--emit-ast] [--print-ast] [--inline] [--run] [--max-errors <n>] [--use-daemon] [--stats] <archivo>...\n" +
+            "       java Main --project <directorio> | --watch <directorio>\n" +
+            "       java Main --daemon | --stop-daemon | --lsp";
+
+    // El entero si es mayor que cero, o -1 si no es un número válido
+    private static int positive(String text) {
+        try {
+            int value = Integer.parseInt(text);
+            return value > 0 ? value : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     public static void main(String[] args) {
+        Path cacheDir = CompilationCache.defaultDirectory();
+        boolean useCache = true;
+        boolean emitAst = false;
+        boolean printAst = false;
+        boolean inline = false;
+        boolean run = false;
+        int maxErrors = Diagnostics.DEFAULT_LIMIT;
+        boolean useDaemon = false;
+        boolean showStats = false;
+        List<Path> files = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheDir = Paths.get(args[++i]);
+            } else if (args[i].equals("--no-cache")) {
+                useCache = false;
+            } else if (args[i].equals("--emit-ast")) {
+                emitAst = true;
+            } else if (args[i].equals("--print-ast")) {
+                printAst = true;
+            } else if (args[i].equals("--inline")) {
+                inline = true;
+            } else if (args[i].equals("--run")) {
+                run = true;
+            } else if (args[i].equals("--max-errors") && i + 1 < args.length) {
+                maxErrors = positive(args[++i]);
+                if (maxErrors < 0) {
+                    System.err.println("Error: --max-errors espera un entero positivo y no '" + args[i] + "'");
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            } else if (args[i].equals("--use-daemon")) {
+                useDaemon = true;
+            } else if (args[i].equals("--stats")) {
+                showStats = true;
+            } else if (args[i].equals("--daemon")) {
+                runDaemon();
+                return;
+            } else if (args[i].equals("--project") && i + 1 < args.length) {
+                runProject(Paths.get(args[++i]));
+                return;
+            } else if (args[i].equals("--watch") && i + 1 < args.length) {
+                runWatch(Paths.get(args[++i]));
+                return;
+            } else if (args[i].equals("--lsp")) {
+                runLanguageServer();
+                return;
+            } else if (args[i].equals("--stop-daemon")) {
+                boolean stopped = new DaemonClient().shutdown();
+                System.out.println(stopped ? "Daemon detenido." : "No hay un daemon en ejecución.");
+                return;
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+
+        if (files.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        CompilerPipeline pipeline;
+        try {
+            pipeline = useCache ? new CompilerPipeline(new CompilationCache(cacheDir)) : new CompilerPipeline();
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir la caché: " + e.getMessage());
+            pipeline = new CompilerPipeline();
+        }
+        if (showStats) {
+            pipeline.setStats(new CompilationStats(true));
+        }
+        pipeline.setMaxDiagnostics(maxErrors);
+        // Cada resultado se usa y se descarta antes del siguiente archivo: los buffers se reutilizan
+        pipeline.setSession(new CompilationSession());
+        // Cada error se muestra apenas se encuentra
+        Path[] current = new Path[1];
+        pipeline.setDiagnosticListener(diagnostic -> System.out.println(current[0] + ": " + diagnostic.message()));
+        DaemonClient client = useDaemon ? new DaemonClient() : null;
+
+        int errorCount = 0;
+        for (Path file : files) {
+            long start = System.nanoTime();
+            // Las salidas del AST, el inlining y la ejecución necesitan el resultado completo, que el daemon no devuelve
+            DaemonResponse response = client != null && !emitAst && !printAst && !inline && !run ? client.compileFile(file) : null;
+            if (response != null) {
+                if (!response.isSuccess()) {
+                    System.err.println(file + ": " + response.getMessage());
+                    errorCount++;
+                }
+                for (String error : response.getSemanticErrors()) {
+                    System.out.println(file + ": " + error);
+                }
+                errorCount += response.getSemanticErrors().size();
+                if (useDaemon) {
+                    System.out.printf("%s: compilado por el daemon en %.2f ms%n", file, (System.nanoTime() - start) / 1e6);
+                }
+                continue;
+            }
+
+            try {
+                current[0] = file;
+                CompilationResult result = pipeline.compileFile(file);
+                Diagnostics diagnostics = result.getDiagnostics();
+                int repeated = diagnostics.totalCount() - diagnostics.size() - diagnostics.suppressedCount();
+                if (repeated > 0) {
+                    System.out.println(file + ": " + repeated + " errores repetidos sobre los mismos símbolos no se muestran");
+                }
+                if (diagnostics.suppressedCount() > 0) {
+                    System.out.println(file + ": " + diagnostics.suppressedCount() + " errores más no se muestran (límite: " + maxErrors + ")");
+                }
+                errorCount += diagnostics.size() + diagnostics.suppressedCount();
+                if (inline && result.getAst() != null) {
+                    // Las salidas del AST muestran el resultado ya con las llamadas reemplazadas
+                    System.out.print(new Inliner().inline(result.getAst()).format());
+                }
+                if (emitAst) {
+                    // AST binario junto al fuente, para herramientas externas
+                    AstWriter.write(result.getAst(), Paths.get(file + ".ast"));
+                }
+                if (printAst) {
+                    Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+                    new AstPrinter().print(result.getAst(), out);
+                    out.flush();
+                }
+                if (run && result.getSemanticErrors().isEmpty() && result.getAst() != null) {
+                    // Después del inlining: se ejecuta el código ya reemplazado
+                    try {
+                        new Interpreter().load(result.getAst()).run();
+                    } catch (RuntimeError | IllegalArgumentException e) {
+                        System.out.println(file + ": Error en ejecución: " + e.getMessage());
+                        errorCount++;
+                    }
+                }
+                if (useDaemon) {
+                    System.out.printf("%s: compilado en proceso en %.2f ms%n", file, (System.nanoTime() - start) / 1e6);
+                }
+            } catch (IOException e) {
+                System.err.println("Error al cargar el archivo " + file + ": " + e.getMessage());
+                errorCount++;
+            } catch (RuntimeException e) {
+                System.err.println(file + ": Error en el análisis: " + e.getMessage());
+                errorCount++;
+            }
+        }
+
+        if (pipeline.getCache() != null) {
+            System.out.println(pipeline.getCache().getStatsSummary());
+        }
+        if (showStats) {
+            System.out.print(pipeline.getStats().formatSummary());
+        }
+        System.exit(errorCount == 0 ? 0 : 1);
+    }
+
+    // Compila juntos todos los fuentes del directorio: cada uno ve las clases y métodos de los demás
+    private static void runProject(Path directory) {
+        long start = System.nanoTime();
+        Project project;
+        try {
+            project = Project.load(directory);
+        } catch (IOException e) {
+            System.err.println("Error al cargar el proyecto " + directory + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        for (SourceFile file : project.getFiles()) {
+            for (String error : file.getErrors()) {
+                System.out.println(file.getPath() + ": " + error);
+            }
+        }
+        System.out.printf("%d archivos, %d dependencias entre archivos, %.1f ms%n", project.getFiles().size(),
+                project.getGraph().edgeCount(), (System.nanoTime() - start) / 1e6);
+        System.exit(project.errorCount() == 0 ? 0 : 1);
+    }
+
+    // Recompila cada vez que cambia un fuente del directorio y muestra los errores de lo recompilado
+    private static void runWatch(Path directory) {
+        System.out.println("Vigilando " + directory + " (Ctrl+C para terminar)");
+        ProjectWatcher watcher;
+        try {
+            watcher = ProjectWatcher.start(directory, ProjectWatcher.DEFAULT_DEBOUNCE_MILLIS, update -> {
+                for (Map.Entry<Path, List<String>> entry : update.getErrors().entrySet()) {
+                    for (String error : entry.getValue()) {
+                        System.out.println(entry.getKey() + ": " + error);
+                    }
+                }
+                for (Path removed : update.getRemoved()) {
+                    System.out.println(removed + ": borrado");
+                }
+                System.out.println(update.formatSummary());
+            });
+        } catch (IOException e) {
+            System.err.println("No se pudo vigilar " + directory + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        try {
+            watcher.awaitClose();
+        } catch (InterruptedException e) {
+            watcher.close();
+        }
+    }
+
+    // stdout queda reservado para el protocolo: nada más puede escribir ahí
+    private static void runLanguageServer() {
+        try {
+            System.exit(new LspServer(System.in, System.out).run());
+        } catch (IOException e) {
+            System.err.println("Error en el servidor LSP: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void runDaemon() {
+        Path socket = CompileDaemon.defaultSocket();
+        System.out.println("Daemon escuchando en " + socket);
+        try {
+            new CompileDaemon(socket).run();
+        } catch (IOException e) {
+            System.err.println("No se pudo iniciar el daemon: " + e.getMessage());
+            System.exit(1);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package analysis;
+
+import java.util.Arrays;
+
+// Los análisis de flujo de datos clásicos sobre un ControlFlowGraph. Cada uno arma gen/kill
+// por bloque recorriendo sus elementos y deja el punto fijo al DataflowSolver.
+public final class Analyses {
+    private Analyses() {
+    }
+
+    // Definiciones (ids de definición) que pueden llegar a cada punto sin ser pisadas.
+    // Hay tantos bits como definiciones, así que gen/kill densos ocuparían dos matrices más del
+    // tamaño del resultado: por bloque se guardan las variables que escribe y la última
+    // definición de cada una, y kill se aplica bit a bit con las definiciones de esas variables.
+    public static DataflowSolver.Result reachingDefinitions(ControlFlowGraph cfg) {
+        int definitions = cfg.definitionCount();
+        int variables = cfg.variableCount();
+        // Definiciones de cada variable (CSR)
+        int[] byVariableStart = new int[variables + 1];
+        for (int d = 0; d < definitions; d++) {
+            byVariableStart[cfg.definitionVariable[d] + 1]++;
+        }
+        for (int v = 0; v < variables; v++) {
+            byVariableStart[v + 1] += byVariableStart[v];
+        }
+        int[] byVariable = new int[definitions];
+        int[] fill = Arrays.copyOf(byVariableStart, variables);
+        for (int d = 0; d < definitions; d++) {
+            byVariable[fill[cfg.definitionVariable[d]]++] = d;
+        }
+
+        // Por bloque, la última definición de cada variable escrita (CSR)
+        int[] lastStart = new int[cfg.blockCount + 1];
+        int[] last = new int[definitions];
+        int[] lastOf = new int[variables];
+        Arrays.fill(lastOf, -1);
+        int count = 0;
+        for (int block = 0; block < cfg.blockCount; block++) {
+            lastStart[block] = count;
+            for (int i = cfg.elementStart[block]; i < cfg.elementStart[block + 1]; i++) {
+                int element = cfg.blockElements[i];
+                for (int j = cfg.definitionStart[element]; j < cfg.definitionStart[element + 1]; j++) {
+                    int definition = cfg.elementDefinitions[j];
+                    int variable = cfg.definitionVariable[definition];
+                    if (lastOf[variable] < 0) {
+                        last[count++] = definition;
+                    } else {
+                        last[lastOf[variable]] = definition;
+                        continue;
+                    }
+                    lastOf[variable] = count - 1;
+                }
+            }
+            for (int i = lastStart[block]; i < count; i++) {
+                lastOf[cfg.definitionVariable[last[i]]] = -1;
+            }
+        }
+        lastStart[cfg.blockCount] = count;
+
+        int words = (definitions + 63) >>> 6;
+        return DataflowSolver.solve(cfg, DataflowSolver.Direction.FORWARD, DataflowSolver.Meet.UNION, definitions,
+                (block, in, result) -> {
+                    System.arraycopy(in, 0, result, 0, words);
+                    for (int i = lastStart[block]; i < lastStart[block + 1]; i++) {
+                        int variable = cfg.definitionVariable[last[i]];
+                        for (int k = byVariableStart[variable]; k < byVariableStart[variable + 1]; k++) {
+                            BitMatrix.clear(result, byVariable[k]);
+                        }
+                        BitMatrix.set(result, last[i]);
+                    }
+                }, new long[words]);
+    }
+
+    // Variables cuyo valor actual puede leerse más adelante
+    public static DataflowSolver.Result liveVariables(ControlFlowGraph cfg) {
+        int variables = cfg.variableCount();
+        BitMatrix gen = new BitMatrix(cfg.blockCount, variables);
+        BitMatrix kill = new BitMatrix(cfg.blockCount, variables);
+        for (int block = 0; block < cfg.blockCount; block++) {
+            // De atrás hacia adelante; dentro de un elemento las lecturas van antes que las escrituras
+            for (int i = cfg.elementStart[block + 1] - 1; i >= cfg.elementStart[block]; i--) {
+                int element = cfg.blockElements[i];
+                for (int j = cfg.definitionStart[element]; j < cfg.definitionStart[element + 1]; j++) {
+                    int variable = cfg.definitionVariable[cfg.elementDefinitions[j]];
+                    gen.clear(block, variable);
+                    kill.set(block, variable);
+                }
+                for (int j = cfg.useStart[element]; j < cfg.useStart[element + 1]; j++) {
+                    gen.set(block, cfg.uses[j]);
+                }
+            }
+        }
+        return DataflowSolver.solve(cfg, DataflowSolver.Direction.BACKWARD, DataflowSolver.Meet.UNION,
+                gen, kill, new long[gen.words]);
+    }
+
+    // Variables asignadas en todos los caminos que llegan a cada punto. Una declaración sin
+    // valor vuelve a dejar la variable sin asignar (importa dentro de los bucles).
+    public static DataflowSolver.Result definiteAssignment(ControlFlowGraph cfg) {
+        int variables = cfg.variableCount();
+        BitMatrix gen = new BitMatrix(cfg.blockCount, variables);
+        BitMatrix kill = new BitMatrix(cfg.blockCount, variables);
+        for (int block = 0; block < cfg.blockCount; block++) {
+            for (int i = cfg.elementStart[block]; i < cfg.elementStart[block + 1]; i++) {
+                int element = cfg.blockElements[i];
+                if (cfg.declares[element] >= 0) {
+                    gen.clear(block, cfg.declares[element]);
+                    kill.set(block, cfg.declares[element]);
+                }
+                for (int j = cfg.definitionStart[element]; j < cfg.definitionStart[element + 1]; j++) {
+                    gen.set(block, cfg.definitionVariable[cfg.elementDefinitions[j]]);
+                }
+            }
+        }
+        return DataflowSolver.solve(cfg, DataflowSolver.Direction.FORWARD, DataflowSolver.Meet.INTERSECTION,
+                gen, kill, new long[gen.words]);
+    }
+}
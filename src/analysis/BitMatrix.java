@@ -0,0 +1,85 @@
+package analysis;
+
+import java.util.Arrays;
+
+// Un conjunto de bits por fila (por bloque del CFG), todas las filas en un único long[].
+// El DataflowSolver opera palabra por palabra directamente sobre 'data'.
+public final class BitMatrix {
+    final int rows;
+    final int bits;
+    final int words;
+    final long[] data;
+
+    public BitMatrix(int rows, int bits) {
+        this.rows = rows;
+        this.bits = bits;
+        this.words = (bits + 63) >>> 6;
+        this.data = new long[rows * words];
+    }
+
+    public boolean get(int row, int bit) {
+        return (data[row * words + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    public void set(int row, int bit) {
+        data[row * words + (bit >>> 6)] |= 1L << bit;
+    }
+
+    public void clear(int row, int bit) {
+        data[row * words + (bit >>> 6)] &= ~(1L << bit);
+    }
+
+    // Todos los bits válidos de la fila en 1 (los que sobran en la última palabra quedan en 0)
+    public void setAll(int row) {
+        int base = row * words;
+        Arrays.fill(data, base, base + words, -1L);
+        if ((bits & 63) != 0) {
+            data[base + words - 1] = (1L << (bits & 63)) - 1;
+        }
+    }
+
+    public void clearAll(int row) {
+        Arrays.fill(data, row * words, (row + 1) * words, 0L);
+    }
+
+    public int cardinality(int row) {
+        int count = 0;
+        for (int i = row * words; i < (row + 1) * words; i++) {
+            count += Long.bitCount(data[i]);
+        }
+        return count;
+    }
+
+    // Copia de una fila, para recorrer un bloque aplicando elemento por elemento
+    public long[] row(int row) {
+        return Arrays.copyOfRange(data, row * words, (row + 1) * words);
+    }
+
+    public static int cardinality(long[] row) {
+        int count = 0;
+        for (long word : row) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static boolean get(long[] row, int bit) {
+        return (row[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public static void set(long[] row, int bit) {
+        row[bit >>> 6] |= 1L << bit;
+    }
+
+    public static void clear(long[] row, int bit) {
+        row[bit >>> 6] &= ~(1L << bit);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int bits() {
+        return bits;
+    }
+}
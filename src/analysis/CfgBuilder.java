@@ -0,0 +1,500 @@
+package analysis;
+
+import ast.*;
+
+import java.util.*;
+
+// Arma el ControlFlowGraph de un método recorriendo su AST. Los ámbitos siguen los del Parser:
+// los parámetros en un ámbito propio, cada bloque { } en uno nuevo y la variable de un for en
+// el ámbito que contiene al for. Los nombres que no son variables locales (atributos, métodos,
+// símbolos globales) no se siguen.
+// No hay recursión sobre el árbol: cada sentencia compuesta agenda sus partes, y lo que hay que
+// hacer entre ellas, en una pila de trabajo pendiente. Los bloques se numeran en el mismo orden
+// que con un recorrido recursivo.
+final class CfgBuilder {
+    private final MethodDeclaration method;
+
+    private int blockCount;
+    private final IntList edgeFrom = new IntList();
+    private final IntList edgeTo = new IntList();
+    private final List<String> deadCause = new ArrayList<>();
+    private final IntList loopUpdates = new IntList();
+    // Pares (bloque de la copia excepcional de un finally, bloque original)
+    private final IntList duplicates = new IntList();
+
+    private final List<Node> elements = new ArrayList<>();
+    private final IntList elementBlock = new IntList();
+    private final IntList useStart = new IntList();
+    private final IntList uses = new IntList();
+    private final IntList definitionStart = new IntList();
+    private final IntList elementDefinitions = new IntList();
+    private final IntList declares = new IntList();
+    private final IntList definitionVariable = new IntList();
+    private final IntList definitionElement = new IntList();
+
+    private final List<String> variables = new ArrayList<>();
+    private final Deque<Map<String, Integer>> scopes = new ArrayDeque<>();
+    // Destinos de break (bucle o switch más interno) y de continue (bucle más interno)
+    private final IntList breakTargets = new IntList();
+    private final IntList continueTargets = new IntList();
+
+    private int current;
+    private final Deque<Runnable> work = new ArrayDeque<>();
+    // Pila de expression(), que termina vacía en cada llamada: se reutiliza
+    private final Deque<Object> expressionStack = new ArrayDeque<>();
+
+    CfgBuilder(MethodDeclaration method) {
+        this.method = method;
+    }
+
+    ControlFlowGraph build() {
+        current = newBlock(null);         // ENTRY
+        int exit = newBlock(null);        // EXIT
+        scopes.push(new HashMap<>());
+        for (VariableDeclaration parameter : method.parameters) {
+            int variable = declare(parameter.identifier);
+            element(parameter, List.of(), List.of(variable), -1);
+        }
+        if (method.body != null) {
+            schedule(() -> statement(method.body));
+            while (!work.isEmpty()) {
+                work.pop().run();
+            }
+        }
+        int fallThrough = current;
+        edge(current, exit);
+        scopes.pop();
+        return finish(fallThrough);
+    }
+
+    // -----------------------
+    // SENTENCIAS
+    // -----------------------
+
+    // Los pasos se ejecutan en orden, antes que cualquier trabajo agendado previamente
+    private void schedule(Runnable... steps) {
+        for (int i = steps.length - 1; i >= 0; i--) {
+            work.push(steps[i]);
+        }
+    }
+
+    private void statement(Node node) {
+        if (node instanceof BlockStatement) {
+            scopes.push(new HashMap<>());
+            List<Node> statements = ((BlockStatement) node).statements;
+            Runnable[] steps = new Runnable[statements.size() + 1];
+            for (int i = 0; i < statements.size(); i++) {
+                Node child = statements.get(i);
+                steps[i] = () -> statement(child);
+            }
+            steps[statements.size()] = scopes::pop;
+            schedule(steps);
+        } else if (node instanceof VariableDeclaration) {
+            VariableDeclaration decl = (VariableDeclaration) node;
+            // El inicializador se evalúa antes de que exista la variable
+            List<Integer> read = new ArrayList<>();
+            List<Integer> written = new ArrayList<>();
+            if (decl.initializer != null) {
+                expression(decl.initializer, read, written);
+            }
+            int variable = declare(decl.identifier);
+            if (decl.initializer != null) {
+                written.add(variable);
+                element(decl, read, written, -1);
+            } else {
+                element(decl, read, written, variable);
+            }
+        } else if (node instanceof IfStatement) {
+            IfStatement stmt = (IfStatement) node;
+            condition(stmt.condition);
+            int branch = current;
+            current = newBlock(null);
+            edge(branch, current);
+            schedule(() -> statement(stmt.thenBranch), () -> {
+                int thenEnd = current;
+                if (stmt.elseBranch == null) {
+                    join(thenEnd, branch);
+                    return;
+                }
+                current = newBlock(null);
+                edge(branch, current);
+                schedule(() -> statement(stmt.elseBranch), () -> join(thenEnd, current));
+            });
+        } else if (node instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) node;
+            int header = newBlock(null);
+            edge(current, header);
+            current = header;
+            condition(stmt.condition);
+            int after = newBlock(null);
+            edge(header, after);
+            loopBody(stmt.body, header, after, header, () -> current = after);
+        } else if (node instanceof ForStatement) {
+            ForStatement stmt = (ForStatement) node;
+            if (stmt.initializer != null) {
+                statement(stmt.initializer);
+            }
+            int header = newBlock(null);
+            edge(current, header);
+            current = header;
+            int after = newBlock(null);
+            if (stmt.condition != null) {
+                condition(stmt.condition);
+                edge(header, after);
+            }
+            int update = newBlock(null);
+            loopUpdates.add(update);
+            loopBody(stmt.body, header, after, update, () -> {
+                current = update;
+                if (stmt.update != null) {
+                    simple(stmt.update);
+                }
+                edge(update, header);
+                current = after;
+            });
+        } else if (node instanceof SwitchStatement) {
+            switchStatement((SwitchStatement) node);
+        } else if (node instanceof TryCatchStatement) {
+            tryStatement((TryCatchStatement) node);
+        } else if (node instanceof ReturnStatement) {
+            simple(node);
+            edge(current, ControlFlowGraph.EXIT);
+            current = newBlock("return");
+        } else if (node instanceof BreakStatement) {
+            if (breakTargets.size > 0) {
+                edge(current, breakTargets.last());
+            }
+            current = newBlock("break");
+        } else if (node instanceof ContinueStatement) {
+            if (continueTargets.size > 0) {
+                edge(current, continueTargets.last());
+            }
+            current = newBlock("continue");
+        } else if (node instanceof MethodDeclaration || node instanceof ClassDeclaration) {
+            // Declaraciones anidadas: tienen su propio grafo
+        } else if (node != null) {
+            simple(node);
+        }
+    }
+
+    // Bloque nuevo donde se juntan las dos ramas de un if
+    private void join(int thenEnd, int elseEnd) {
+        current = newBlock(null);
+        edge(thenEnd, current);
+        edge(elseEnd, current);
+    }
+
+    private void switchStatement(SwitchStatement stmt) {
+        condition(stmt.expression);
+        int dispatch = current;
+        int after = newBlock(null);
+        // Sin default, ningún caso puede coincidir
+        boolean hasDefault = false;
+        breakTargets.add(after);
+        scopes.push(new HashMap<>());
+        int[] previous = {-1};
+        List<Runnable> steps = new ArrayList<>();
+        for (CaseStatement label : stmt.cases) {
+            hasDefault |= label.isDefault();
+            steps.add(() -> {
+                current = newBlock(null);
+                edge(dispatch, current);
+                if (previous[0] >= 0) {
+                    edge(previous[0], current); // el caso anterior sigue en este si no hizo break
+                }
+            });
+            for (Node child : label.body.statements) {
+                steps.add(() -> statement(child));
+            }
+            steps.add(() -> previous[0] = current);
+        }
+        boolean exhaustive = hasDefault;
+        steps.add(() -> {
+            scopes.pop();
+            breakTargets.size--;
+            if (previous[0] >= 0) {
+                edge(previous[0], after);
+            }
+            if (!exhaustive) {
+                edge(dispatch, after);
+            }
+            current = after;
+        });
+        schedule(steps.toArray(new Runnable[0]));
+    }
+
+    // Cualquier elemento del try puede lanzar una excepción: cada catch recibe aristas desde el
+    // bloque anterior al try y desde todos los bloques del try. Con finally, el camino normal
+    // (fin del try y de cada catch) pasa por una copia del finally que sigue después del try, y
+    // el excepcional (excepción que ningún catch atrapa, o lanzada dentro de un catch) por otra
+    // copia que termina en EXIT. Como aproximación, return, break y continue dentro del try
+    // saltan a su destino sin pasar por el finally.
+    private void tryStatement(TryCatchStatement stmt) {
+        int before = current;
+        int firstTryBlock = blockCount;
+        current = newBlock(null);
+        edge(before, current);
+        IntList normalEnds = new IntList();
+        int[] lastTryBlock = new int[1];
+        boolean catchesAll = false;
+        List<Runnable> steps = new ArrayList<>();
+        steps.add(() -> statement(stmt.tryBlock));
+        steps.add(() -> {
+            lastTryBlock[0] = blockCount;
+            normalEnds.add(current);
+        });
+        for (CatchClause clause : stmt.catchClauses) {
+            steps.add(() -> {
+                current = newBlock(null);
+                edge(before, current);
+                for (int block = firstTryBlock; block < lastTryBlock[0]; block++) {
+                    edge(block, current);
+                }
+                scopes.push(new HashMap<>());
+                int variable = declare(clause.exceptionVariable);
+                element(clause, List.of(), List.of(variable), -1);
+            });
+            steps.add(() -> statement(clause.body));
+            steps.add(() -> {
+                scopes.pop();
+                normalEnds.add(current);
+            });
+            catchesAll |= CatchClause.catches(clause.exceptionType, "Exception");
+        }
+        boolean exceptionsCaught = catchesAll;
+        steps.add(() -> finallyCopies(stmt, before, firstTryBlock, lastTryBlock[0], normalEnds, exceptionsCaught));
+        schedule(steps.toArray(new Runnable[0]));
+    }
+
+    // Los bloques de los catch van justo después de los del try
+    private void finallyCopies(TryCatchStatement stmt, int before, int firstTryBlock, int lastTryBlock,
+                               IntList normalEnds, boolean catchesAll) {
+        int firstCatchBlock = lastTryBlock;
+        int lastCatchBlock = blockCount;
+
+        int after = newBlock(null);
+        if (stmt.finallyBlock == null) {
+            for (int i = 0; i < normalEnds.size; i++) {
+                edge(normalEnds.values[i], after);
+            }
+            current = after;
+            return;
+        }
+        int normal = newBlock(null);
+        for (int i = 0; i < normalEnds.size; i++) {
+            edge(normalEnds.values[i], normal);
+        }
+        current = normal;
+        schedule(() -> statement(stmt.finallyBlock), () -> {
+            edge(current, after);
+
+            int exceptional = newBlock(null);
+            if (!catchesAll) {
+                edge(before, exceptional);
+                for (int block = firstTryBlock; block < lastTryBlock; block++) {
+                    edge(block, exceptional);
+                }
+            }
+            for (int block = firstCatchBlock; block < lastCatchBlock; block++) {
+                edge(block, exceptional);
+            }
+            current = exceptional;
+            schedule(() -> statement(stmt.finallyBlock), () -> {
+                edge(current, ControlFlowGraph.EXIT); // la excepción sigue propagándose
+                // La segunda copia arma los mismos bloques en el mismo orden que la primera
+                for (int block = exceptional; block < blockCount; block++) {
+                    duplicates.add(block);
+                    duplicates.add(normal + (block - exceptional));
+                }
+                current = after;
+            });
+        });
+    }
+
+    // El cuerpo empieza en un bloque nuevo desde 'header' y termina saltando a 'next'; después
+    // sigue 'then'
+    private void loopBody(Node body, int header, int breakTarget, int continueTarget, Runnable then) {
+        current = newBlock(null);
+        edge(header, current);
+        breakTargets.add(breakTarget);
+        continueTargets.add(continueTarget);
+        schedule(() -> statement(body), () -> {
+            breakTargets.size--;
+            continueTargets.size--;
+            edge(current, continueTarget);
+        }, then);
+    }
+
+    private void condition(Node condition) {
+        simple(condition);
+    }
+
+    private void simple(Node node) {
+        List<Integer> read = new ArrayList<>();
+        List<Integer> written = new ArrayList<>();
+        expression(node, read, written);
+        element(node, read, written, -1);
+    }
+
+    // Lecturas y escrituras de variables locales, en orden de evaluación. En la pila, un nombre
+    // es la escritura de una asignación, que va después de evaluar el valor
+    private void expression(Node root, List<Integer> read, List<Integer> written) {
+        Deque<Object> stack = expressionStack;
+        if (root != null) stack.push(root);
+        while (!stack.isEmpty()) {
+            Object top = stack.pop();
+            if (top instanceof String) {
+                addVariable((String) top, written);
+                continue;
+            }
+            Node node = (Node) top;
+            if (node instanceof VariableReference) {
+                addVariable(((VariableReference) node).getName(), read);
+            } else if (node instanceof VariableReferenceExpression) {
+                addVariable(((VariableReferenceExpression) node).name, read);
+            } else if (node instanceof Assignment) {
+                Assignment assignment = (Assignment) node;
+                stack.push(assignment.identifier);
+                if (assignment.value != null) stack.push(assignment.value);
+            } else if (node instanceof AssignmentExpression && ((AssignmentExpression) node).target instanceof VariableReference) {
+                AssignmentExpression assignment = (AssignmentExpression) node;
+                stack.push(((VariableReference) assignment.target).getName());
+                if (assignment.value != null) stack.push(assignment.value);
+            } else if (node instanceof PostfixExpression && ((PostfixExpression) node).getTarget() instanceof VariableReference) {
+                String name = ((VariableReference) ((PostfixExpression) node).getTarget()).getName();
+                addVariable(name, read);
+                addVariable(name, written);
+            } else {
+                Node[] children = NodeStructure.children(node);
+                for (int i = children.length - 1; i >= 0; i--) {
+                    if (children[i] != null) stack.push(children[i]);
+                }
+            }
+        }
+    }
+
+    private void addVariable(String name, List<Integer> list) {
+        for (Map<String, Integer> scope : scopes) {
+            Integer variable = scope.get(name);
+            if (variable != null) {
+                list.add(variable);
+                return;
+            }
+        }
+    }
+
+    private int declare(String name) {
+        int variable = variables.size();
+        variables.add(name);
+        scopes.peek().put(name, variable);
+        return variable;
+    }
+
+    // -----------------------
+    // CONSTRUCCIÓN
+    // -----------------------
+
+    private int newBlock(String cause) {
+        deadCause.add(cause);
+        return blockCount++;
+    }
+
+    private void edge(int from, int to) {
+        edgeFrom.add(from);
+        edgeTo.add(to);
+    }
+
+    private void element(Node node, List<Integer> read, List<Integer> written, int declared) {
+        int id = elements.size();
+        elements.add(node);
+        elementBlock.add(current);
+        useStart.add(uses.size);
+        for (int variable : read) {
+            uses.add(variable);
+        }
+        definitionStart.add(elementDefinitions.size);
+        for (int variable : written) {
+            elementDefinitions.add(definitionVariable.size);
+            definitionVariable.add(variable);
+            definitionElement.add(id);
+        }
+        declares.add(declared);
+    }
+
+    private ControlFlowGraph finish(int fallThrough) {
+        int edges = edgeFrom.size;
+        int[] successorStart = new int[blockCount + 1];
+        int[] predecessorStart = new int[blockCount + 1];
+        for (int i = 0; i < edges; i++) {
+            successorStart[edgeFrom.values[i] + 1]++;
+            predecessorStart[edgeTo.values[i] + 1]++;
+        }
+        prefixSum(successorStart);
+        prefixSum(predecessorStart);
+        int[] successors = new int[edges];
+        int[] predecessors = new int[edges];
+        int[] nextSuccessor = Arrays.copyOf(successorStart, blockCount);
+        int[] nextPredecessor = Arrays.copyOf(predecessorStart, blockCount);
+        for (int i = 0; i < edges; i++) {
+            successors[nextSuccessor[edgeFrom.values[i]]++] = edgeTo.values[i];
+            predecessors[nextPredecessor[edgeTo.values[i]]++] = edgeFrom.values[i];
+        }
+
+        // Los elementos se agregan en orden de ejecución dentro de cada bloque, pero los bloques
+        // se intercalan (el de actualización de un for se llena después del cuerpo)
+        int count = elements.size();
+        int[] elementStart = new int[blockCount + 1];
+        for (int i = 0; i < count; i++) {
+            elementStart[elementBlock.values[i] + 1]++;
+        }
+        prefixSum(elementStart);
+        int[] blockElements = new int[count];
+        int[] nextElement = Arrays.copyOf(elementStart, blockCount);
+        for (int i = 0; i < count; i++) {
+            blockElements[nextElement[elementBlock.values[i]]++] = i;
+        }
+        useStart.add(uses.size);
+        definitionStart.add(elementDefinitions.size);
+        boolean[] loopUpdate = new boolean[blockCount];
+        for (int i = 0; i < loopUpdates.size; i++) {
+            loopUpdate[loopUpdates.values[i]] = true;
+        }
+        int[] duplicateOf = new int[blockCount];
+        Arrays.fill(duplicateOf, -1);
+        for (int i = 0; i < duplicates.size; i += 2) {
+            duplicateOf[duplicates.values[i]] = duplicates.values[i + 1];
+        }
+
+        return new ControlFlowGraph(method, blockCount, successorStart, successors, predecessorStart, predecessors,
+                elementStart, blockElements, elements.toArray(new Node[0]), useStart.toArray(), uses.toArray(),
+                definitionStart.toArray(), elementDefinitions.toArray(), declares.toArray(),
+                definitionVariable.toArray(), definitionElement.toArray(), variables.toArray(new String[0]),
+                deadCause.toArray(new String[0]), loopUpdate, duplicateOf, fallThrough);
+    }
+
+    private static void prefixSum(int[] values) {
+        for (int i = 1; i < values.length; i++) {
+            values[i] += values[i - 1];
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
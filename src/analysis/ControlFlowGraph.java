@@ -0,0 +1,192 @@
+package analysis;
+
+import ast.MethodDeclaration;
+import ast.Node;
+
+// Grafo de flujo de control de un método. Los bloques se numeran desde 0 (ENTRY, que además
+// contiene los parámetros y las primeras sentencias) y 1 (EXIT, vacío); el resto en el orden en
+// que aparecen en el fuente. Todo se guarda en arreglos planos (listas en formato CSR: el
+// bloque b usa las posiciones start[b] .. start[b + 1] - 1) para que el análisis de métodos
+// con decenas de miles de bloques no cree un objeto por bloque ni por arista.
+//
+// Cada bloque tiene una lista de elementos (sentencias simples o condiciones) en orden de
+// ejecución. Por elemento se guardan las variables locales que lee, las definiciones que hace y
+// la variable que declara sin inicializar. Las variables son las declaraciones del método
+// (parámetros incluidos): dos declaraciones con el mismo nombre son variables distintas.
+public final class ControlFlowGraph {
+    public static final int ENTRY = 0;
+    public static final int EXIT = 1;
+
+    final MethodDeclaration method;
+    final int blockCount;
+    final int[] successorStart;
+    final int[] successors;
+    final int[] predecessorStart;
+    final int[] predecessors;
+    final int[] elementStart;      // por bloque, en blockElements
+    final int[] blockElements;     // ids de elemento agrupados por bloque
+    final Node[] elements;         // por id de elemento
+    final int[] useStart;          // por elemento, en uses
+    final int[] uses;              // variables leídas
+    final int[] definitionStart;   // por elemento, en elementDefinitions
+    final int[] elementDefinitions;
+    final int[] declares;          // por elemento, variable declarada sin valor, o -1
+    final int[] definitionVariable;
+    final int[] definitionElement;
+    final String[] variables;
+    final String[] deadCause;      // por bloque: sentencia tras la que empieza sin predecesores
+    final boolean[] loopUpdate;    // bloques de actualización de un for: no se informan como inalcanzables
+    final int[] duplicateOf;       // en la copia excepcional de un finally, el bloque de la copia normal; si no -1
+    final int fallThrough;         // bloque que llega al final del cuerpo, -1 si no hay
+
+    ControlFlowGraph(MethodDeclaration method, int blockCount, int[] successorStart, int[] successors,
+                     int[] predecessorStart, int[] predecessors, int[] elementStart, int[] blockElements,
+                     Node[] elements, int[] useStart, int[] uses, int[] definitionStart, int[] elementDefinitions,
+                     int[] declares, int[] definitionVariable, int[] definitionElement, String[] variables,
+                     String[] deadCause, boolean[] loopUpdate, int[] duplicateOf, int fallThrough) {
+        this.method = method;
+        this.blockCount = blockCount;
+        this.successorStart = successorStart;
+        this.successors = successors;
+        this.predecessorStart = predecessorStart;
+        this.predecessors = predecessors;
+        this.elementStart = elementStart;
+        this.blockElements = blockElements;
+        this.elements = elements;
+        this.useStart = useStart;
+        this.uses = uses;
+        this.definitionStart = definitionStart;
+        this.elementDefinitions = elementDefinitions;
+        this.declares = declares;
+        this.definitionVariable = definitionVariable;
+        this.definitionElement = definitionElement;
+        this.variables = variables;
+        this.deadCause = deadCause;
+        this.loopUpdate = loopUpdate;
+        this.duplicateOf = duplicateOf;
+        this.fallThrough = fallThrough;
+    }
+
+    public static ControlFlowGraph build(MethodDeclaration method) {
+        return new CfgBuilder(method).build();
+    }
+
+    public MethodDeclaration getMethod() {
+        return method;
+    }
+
+    public int blockCount() {
+        return blockCount;
+    }
+
+    public int edgeCount() {
+        return successors.length;
+    }
+
+    public int successorCount(int block) {
+        return successorStart[block + 1] - successorStart[block];
+    }
+
+    public int successor(int block, int index) {
+        return successors[successorStart[block] + index];
+    }
+
+    public int predecessorCount(int block) {
+        return predecessorStart[block + 1] - predecessorStart[block];
+    }
+
+    public int predecessor(int block, int index) {
+        return predecessors[predecessorStart[block] + index];
+    }
+
+    public int elementCount(int block) {
+        return elementStart[block + 1] - elementStart[block];
+    }
+
+    // Id del elemento en la posición 'index' del bloque
+    public int element(int block, int index) {
+        return blockElements[elementStart[block] + index];
+    }
+
+    public Node elementNode(int element) {
+        return elements[element];
+    }
+
+    public int variableCount() {
+        return variables.length;
+    }
+
+    public String variableName(int variable) {
+        return variables[variable];
+    }
+
+    public int definitionCount() {
+        return definitionVariable.length;
+    }
+
+    public int definitionVariable(int definition) {
+        return definitionVariable[definition];
+    }
+
+    public int definitionElement(int definition) {
+        return definitionElement[definition];
+    }
+
+    public int fallThroughBlock() {
+        return fallThrough;
+    }
+
+    // Bloques alcanzables desde ENTRY
+    public boolean[] reachable() {
+        boolean[] seen = new boolean[blockCount];
+        int[] stack = new int[blockCount];
+        int top = 0;
+        stack[top++] = ENTRY;
+        seen[ENTRY] = true;
+        while (top > 0) {
+            int block = stack[--top];
+            for (int i = successorStart[block]; i < successorStart[block + 1]; i++) {
+                if (!seen[successors[i]]) {
+                    seen[successors[i]] = true;
+                    stack[top++] = successors[i];
+                }
+            }
+        }
+        return seen;
+    }
+
+    // Postorden de un recorrido en profundidad desde 'start' siguiendo sucesores (o
+    // predecesores); los bloques que no se alcanzan van al final
+    int[] postorder(int start, boolean forward) {
+        int[] edgeStart = forward ? successorStart : predecessorStart;
+        int[] edges = forward ? successors : predecessors;
+        int[] order = new int[blockCount];
+        int count = 0;
+        boolean[] seen = new boolean[blockCount];
+        int[] stack = new int[blockCount];
+        int[] next = new int[blockCount]; // próxima arista a mirar de cada bloque en la pila
+        for (int root = -1; root < blockCount; root++) {
+            int first = root < 0 ? start : root;
+            if (seen[first]) continue;
+            int top = 0;
+            stack[top++] = first;
+            seen[first] = true;
+            next[first] = edgeStart[first];
+            while (top > 0) {
+                int block = stack[top - 1];
+                if (next[block] < edgeStart[block + 1]) {
+                    int target = edges[next[block]++];
+                    if (!seen[target]) {
+                        seen[target] = true;
+                        next[target] = edgeStart[target];
+                        stack[top++] = target;
+                    }
+                } else {
+                    order[count++] = block;
+                    top--;
+                }
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,170 @@
+package analysis;
+
+// Resuelve problemas de flujo de datos sobre un ControlFlowGraph:
+//   hacia adelante: antes(b) = meet(después(p) para cada predecesor p)
+//                   después(b) = f_b(antes(b))
+//   hacia atrás:    lo mismo intercambiando antes/después y predecesores/sucesores
+// f_b es la función de transferencia del bloque; la forma habitual es gen/kill,
+// f_b(x) = gen(b) | (x & ~kill(b)), pero un análisis puede dar la suya (ver Transfer).
+// Lista de trabajo en orden de postorden inverso (o postorden, hacia atrás), que en grafos
+// reducibles converge en pocas pasadas. Los conjuntos son filas de una BitMatrix y cada paso
+// opera palabra por palabra sobre el long[] de la matriz. Solo se guarda el lado que produce
+// cada bloque; el otro se calcula al consultarlo.
+public final class DataflowSolver {
+    public enum Direction { FORWARD, BACKWARD }
+
+    // UNION para problemas "en algún camino", INTERSECTION para "en todos los caminos"
+    public enum Meet { UNION, INTERSECTION }
+
+    public interface Transfer {
+        // Escribe f_b(in) en 'result'
+        void apply(int block, long[] in, long[] result);
+    }
+
+    // Hechos al principio y al final de cada bloque, en orden de ejecución sea cual sea la dirección
+    public static final class Result {
+        private final ControlFlowGraph cfg;
+        private final boolean forward;
+        private final boolean intersection;
+        private final BitMatrix output;
+        private final long[] boundary;
+        private final long[] neutral;
+        public final int iterations; // bloques procesados
+
+        Result(ControlFlowGraph cfg, boolean forward, boolean intersection, BitMatrix output, long[] boundary,
+               long[] neutral, int iterations) {
+            this.cfg = cfg;
+            this.forward = forward;
+            this.intersection = intersection;
+            this.output = output;
+            this.boundary = boundary;
+            this.neutral = neutral;
+            this.iterations = iterations;
+        }
+
+        public long[] before(int block) {
+            return forward ? input(block) : output.row(block);
+        }
+
+        public long[] after(int block) {
+            return forward ? output.row(block) : input(block);
+        }
+
+        private long[] input(int block) {
+            long[] row = new long[output.words];
+            meet(cfg, forward, intersection, output, boundary, neutral, block, row);
+            return row;
+        }
+    }
+
+    private DataflowSolver() {
+    }
+
+    // 'boundary' son los hechos al entrar a ENTRY (hacia adelante) o al salir de EXIT (hacia atrás)
+    public static Result solve(ControlFlowGraph cfg, Direction direction, Meet meet,
+                               BitMatrix gen, BitMatrix kill, long[] boundary) {
+        long[] genData = gen.data;
+        long[] killData = kill.data;
+        int words = gen.words;
+        return solve(cfg, direction, meet, gen.bits, (block, in, result) -> {
+            int base = block * words;
+            for (int w = 0; w < words; w++) {
+                result[w] = genData[base + w] | (in[w] & ~killData[base + w]);
+            }
+        }, boundary);
+    }
+
+    public static Result solve(ControlFlowGraph cfg, Direction direction, Meet meet, int bits,
+                               Transfer transfer, long[] boundary) {
+        int blocks = cfg.blockCount;
+        boolean forward = direction == Direction.FORWARD;
+        boolean intersection = meet == Meet.INTERSECTION;
+
+        BitMatrix output = new BitMatrix(blocks, bits);
+        int words = output.words;
+        if (intersection) {
+            for (int block = 0; block < blocks; block++) {
+                output.setAll(block);
+            }
+        }
+        // Valor neutro del meet, para los bloques sin entradas (código inalcanzable)
+        BitMatrix neutralRow = new BitMatrix(1, bits);
+        if (intersection) {
+            neutralRow.setAll(0);
+        }
+        long[] neutral = neutralRow.data;
+        long[] out = output.data;
+        int[] nextStart = forward ? cfg.successorStart : cfg.predecessorStart;
+        int[] next = forward ? cfg.successors : cfg.predecessors;
+
+        // Cola circular con a lo sumo una entrada por bloque
+        int start = forward ? ControlFlowGraph.ENTRY : ControlFlowGraph.EXIT;
+        int[] order = cfg.postorder(start, forward);
+        int[] queue = new int[blocks];
+        boolean[] queued = new boolean[blocks];
+        for (int i = 0; i < blocks; i++) {
+            int block = order[blocks - 1 - i];
+            queue[i] = block;
+            queued[block] = true;
+        }
+        int head = 0;
+        int size = blocks;
+        int iterations = 0;
+        long[] in = new long[words];
+        long[] result = new long[words];
+
+        while (size > 0) {
+            int block = queue[head];
+            head = head + 1 == blocks ? 0 : head + 1;
+            size--;
+            queued[block] = false;
+            iterations++;
+
+            meet(cfg, forward, intersection, output, boundary, neutral, block, in);
+            transfer.apply(block, in, result);
+            int base = block * words;
+            boolean changed = false;
+            for (int w = 0; w < words; w++) {
+                if (result[w] != out[base + w]) {
+                    out[base + w] = result[w];
+                    changed = true;
+                }
+            }
+            if (changed) {
+                for (int e = nextStart[block]; e < nextStart[block + 1]; e++) {
+                    int target = next[e];
+                    if (!queued[target]) {
+                        queued[target] = true;
+                        queue[(head + size) % blocks] = target;
+                        size++;
+                    }
+                }
+            }
+        }
+        return new Result(cfg, forward, intersection, output, boundary, neutral, iterations);
+    }
+
+    // Junta en 'row' lo que llega al bloque desde sus predecesores (o sucesores)
+    private static void meet(ControlFlowGraph cfg, boolean forward, boolean intersection, BitMatrix output,
+                             long[] boundary, long[] neutral, int block, long[] row) {
+        int words = output.words;
+        long[] out = output.data;
+        int[] edgeStart = forward ? cfg.predecessorStart : cfg.successorStart;
+        int[] edges = forward ? cfg.predecessors : cfg.successors;
+        if (block == (forward ? ControlFlowGraph.ENTRY : ControlFlowGraph.EXIT)) {
+            System.arraycopy(boundary, 0, row, 0, words);
+        } else if (edgeStart[block] == edgeStart[block + 1]) {
+            System.arraycopy(neutral, 0, row, 0, words);
+        } else {
+            System.arraycopy(out, edges[edgeStart[block]] * words, row, 0, words);
+            for (int e = edgeStart[block] + 1; e < edgeStart[block + 1]; e++) {
+                int other = edges[e] * words;
+                if (intersection) {
+                    for (int w = 0; w < words; w++) row[w] &= out[other + w];
+                } else {
+                    for (int w = 0; w < words; w++) row[w] |= out[other + w];
+                }
+            }
+        }
+    }
+}
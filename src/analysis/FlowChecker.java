@@ -0,0 +1,132 @@
+package analysis;
+
+import ast.*;
+import diagnostics.Diagnostic;
+import diagnostics.DiagnosticCode;
+import diagnostics.Diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+// Chequeos semánticos que dependen del flujo de control, método por método:
+//   - código inalcanzable (después de return, break o continue, o de un try que no termina)
+//   - métodos que no son void y pueden terminar sin return
+//   - variables que pueden leerse antes de tener un valor
+public final class FlowChecker {
+    private FlowChecker() {
+    }
+
+    public static List<String> check(Node ast) {
+        List<String> errors = new ArrayList<>();
+        check(ast, (method, message) -> errors.add(message));
+        return errors;
+    }
+
+    public static void check(Node ast, BiConsumer<MethodDeclaration, String> report) {
+        checkAll(ast, (method, diagnostic) -> report.accept(method, diagnostic.message()));
+    }
+
+    // Los errores de flujo no tienen token: se informan con -1
+    public static void check(Node ast, Diagnostics diagnostics) {
+        checkAll(ast, (method, diagnostic) -> diagnostics.report(diagnostic));
+    }
+
+    // Informa cada error junto con el método donde está. Recorre el árbol en preorden con una
+    // pila explícita, así un programa muy anidado no desborda la pila
+    public static void checkAll(Node ast, BiConsumer<MethodDeclaration, Diagnostic> report) {
+        Deque<Node> stack = new ArrayDeque<>();
+        if (ast != null) stack.push(ast);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node instanceof MethodDeclaration) {
+                checkMethod(ControlFlowGraph.build((MethodDeclaration) node), report);
+            }
+            Node[] children = NodeStructure.children(node);
+            for (int i = children.length - 1; i >= 0; i--) {
+                if (children[i] != null) {
+                    stack.push(children[i]);
+                }
+            }
+        }
+    }
+
+    static void checkMethod(ControlFlowGraph cfg, BiConsumer<MethodDeclaration, Diagnostic> report) {
+        MethodDeclaration method = cfg.method;
+        boolean[] reachable = cfg.reachable();
+
+        // El código de un finally está dos veces en el grafo: alcanza con llegar a una de las
+        // copias, y los errores se informan sobre la normal. Una copia siempre es posterior a su
+        // original, así que recorriendo hacia atrás se resuelven también los finally anidados.
+        boolean[] reachableCode = reachable.clone();
+        for (int block = cfg.blockCount - 1; block >= 0; block--) {
+            if (cfg.duplicateOf[block] >= 0) {
+                reachableCode[cfg.duplicateOf[block]] |= reachableCode[block];
+                reachableCode[block] = true;
+            }
+        }
+
+        // Se informa solo el comienzo de cada tramo inalcanzable: lo que le sigue ya está cubierto
+        boolean[] covered = new boolean[cfg.blockCount];
+        int[] stack = new int[cfg.blockCount];
+        for (int block = 0; block < cfg.blockCount; block++) {
+            // Como en Java, que no se llegue a la actualización de un for no es un error
+            if (reachableCode[block] || covered[block] || cfg.elementCount(block) == 0 || cfg.loopUpdate[block]) {
+                continue;
+            }
+            String cause = cfg.deadCause[block];
+            report.accept(method, cause != null
+                    ? new Diagnostic(DiagnosticCode.UNREACHABLE_CODE_AFTER, -1, cause, method.name)
+                    : new Diagnostic(DiagnosticCode.UNREACHABLE_CODE, -1, method.name));
+            int top = 0;
+            stack[top++] = block;
+            covered[block] = true;
+            while (top > 0) {
+                int next = stack[--top];
+                for (int i = 0; i < cfg.successorCount(next); i++) {
+                    int target = cfg.successor(next, i);
+                    if (!reachableCode[target] && !covered[target]) {
+                        covered[target] = true;
+                        stack[top++] = target;
+                    }
+                }
+            }
+        }
+
+        if (!"void".equals(method.returnType) && cfg.fallThrough >= 0 && reachable[cfg.fallThrough]) {
+            report.accept(method, new Diagnostic(DiagnosticCode.MISSING_RETURN, -1, method.name, method.returnType));
+        }
+
+        if (cfg.variableCount() == 0) {
+            return;
+        }
+        DataflowSolver.Result assigned = Analyses.definiteAssignment(cfg);
+        // Por nombre: las copias de un finally declaran sus variables dos veces
+        Set<String> unassigned = new HashSet<>();
+        for (int block = 0; block < cfg.blockCount; block++) {
+            if (!reachable[block]) {
+                continue;
+            }
+            long[] state = assigned.before(block);
+            for (int i = cfg.elementStart[block]; i < cfg.elementStart[block + 1]; i++) {
+                int element = cfg.blockElements[i];
+                for (int j = cfg.useStart[element]; j < cfg.useStart[element + 1]; j++) {
+                    int variable = cfg.uses[j];
+                    if (!BitMatrix.get(state, variable) && unassigned.add(cfg.variables[variable])) {
+                        report.accept(method, new Diagnostic(DiagnosticCode.UNASSIGNED_VARIABLE, -1, cfg.variables[variable], method.name));
+                    }
+                }
+                if (cfg.declares[element] >= 0) {
+                    BitMatrix.clear(state, cfg.declares[element]);
+                }
+                for (int j = cfg.definitionStart[element]; j < cfg.definitionStart[element + 1]; j++) {
+                    BitMatrix.set(state, cfg.definitionVariable[cfg.elementDefinitions[j]]);
+                }
+            }
+        }
+    }
+}
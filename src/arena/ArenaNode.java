@@ -0,0 +1,63 @@
+package arena;
+
+import ast.Node;
+import ast.NodeKind;
+
+// Vista liviana de un nodo del arena: solo guarda el índice
+public final class ArenaNode {
+    private final AstArena arena;
+    private final int index;
+
+    ArenaNode(AstArena arena, int index) {
+        this.arena = arena;
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public NodeKind getKind() {
+        return arena.kind(index);
+    }
+
+    public boolean isAbsent() {
+        return arena.kind(index) == null;
+    }
+
+    public int getChildCount() {
+        return arena.childCount(index);
+    }
+
+    public ArenaNode getChild(int i) {
+        return new ArenaNode(arena, arena.child(index, i));
+    }
+
+    public ArenaNode getFirstChild() {
+        int child = arena.firstChild(index);
+        return child < 0 ? null : new ArenaNode(arena, child);
+    }
+
+    public ArenaNode getNextSibling() {
+        int sibling = arena.nextSibling(index);
+        return sibling < 0 ? null : new ArenaNode(arena, sibling);
+    }
+
+    // Nombre del identificador, operador o tipo según el nodo
+    public String getString(int i) {
+        return arena.stringPayload(index, i);
+    }
+
+    public int getInt(int i) {
+        return arena.intPayload(index, i);
+    }
+
+    public Node toNode() {
+        return arena.toNode(index);
+    }
+
+    @Override
+    public String toString() {
+        return "ArenaNode{" + "index=" + index + ", kind=" + getKind() + '}';
+    }
+}
@@ -0,0 +1,275 @@
+package arena;
+
+import ast.Node;
+import ast.NodeKind;
+import ast.NodeStructure;
+
+import java.util.*;
+
+// AST plano: cada nodo es un índice en arreglos primitivos contiguos en lugar de un objeto.
+// Los nodos se guardan en preorden, por eso el primer hijo de i (si tiene) es siempre i + 1:
+//   kinds[i]       tipo del nodo + 1 (0 = hijo ausente, p. ej. un else que no existe);
+//                  el bit HAS_CHILDREN indica si i + 1 es su primer hijo
+//   nextSibling[i] siguiente hermano o -1
+//   payload[i]     su único dato (entero o índice de string) o, si tiene dos, el índice
+//                  del primero en extraPayload
+// Un recorrido completo es un simple for sobre los índices.
+public class AstArena {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int HAS_CHILDREN = 0x80;
+    private static final int KIND_MASK = 0x7F;
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    private int[] payload = new int[INITIAL_CAPACITY];
+    private int[] extraPayload = new int[INITIAL_CAPACITY];
+    private int size = 0;
+    private int extraSize = 0;
+
+    private final ArrayList<String> strings = new ArrayList<>();
+    private Map<String, Integer> stringIndex = new HashMap<>();
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        extraSize = 0;
+        strings.clear();
+        stringIndex = new HashMap<>();
+    }
+
+    // -----------------------
+    // CONSTRUCCIÓN
+    // -----------------------
+
+    // Agrega un nodo al final; kind null crea un hijo ausente
+    public int add(NodeKind kind, Object[] values) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        kinds[index] = (byte) (kind == null ? 0 : kind.ordinal() + 1);
+        nextSibling[index] = -1;
+        payload[index] = 0;
+        int count = kind == null ? 0 : NodeStructure.payloadCount(kind);
+        if (count == 1) {
+            payload[index] = encode(values[0]);
+        } else if (count > 1) {
+            ensureExtraCapacity(extraSize + count);
+            payload[index] = extraSize;
+            for (int i = 0; i < count; i++) {
+                extraPayload[extraSize++] = encode(values[i]);
+            }
+        }
+        return index;
+    }
+
+    // Enlaza child como siguiente hijo de parent; previousChild es el último hijo enlazado
+    // (-1 si ninguno). Para respetar el preorden el primer hijo debe ser parent + 1.
+    public void appendChild(int parent, int previousChild, int child) {
+        if (previousChild < 0) {
+            if (child != parent + 1) {
+                throw new IllegalStateException("El primer hijo debe agregarse justo después del padre");
+            }
+            kinds[parent] |= (byte) HAS_CHILDREN;
+        } else {
+            nextSibling[previousChild] = child;
+        }
+    }
+
+    // Copia un subárbol de objetos al arena (preorden con pila explícita) y devuelve su índice
+    public int fromNode(Node root) {
+        if (root == null) {
+            return add(null, null);
+        }
+        Deque<Frame> stack = new ArrayDeque<>();
+        int rootIndex = add(NodeKind.of(root), NodeStructure.payload(root));
+        stack.push(new Frame(rootIndex, NodeStructure.children(root)));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.next == frame.children.length) {
+                stack.pop();
+                continue;
+            }
+            Node child = frame.children[frame.next++];
+            int childIndex = child == null ? add(null, null) : add(NodeKind.of(child), NodeStructure.payload(child));
+            appendChild(frame.index, frame.lastChild, childIndex);
+            frame.lastChild = childIndex;
+            if (child != null) {
+                Node[] grandChildren = NodeStructure.children(child);
+                if (grandChildren.length > 0) {
+                    stack.push(new Frame(childIndex, grandChildren));
+                }
+            }
+        }
+        return rootIndex;
+    }
+
+    private static final class Frame {
+        final int index;
+        final Node[] children;
+        int next = 0;
+        int lastChild = -1;
+
+        Frame(int index, Node[] children) {
+            this.index = index;
+            this.children = children;
+        }
+    }
+
+    // Libera la capacidad sobrante y el índice de strings una vez terminada la construcción
+    public void trimToSize() {
+        kinds = Arrays.copyOf(kinds, Math.max(size, 1));
+        nextSibling = Arrays.copyOf(nextSibling, Math.max(size, 1));
+        payload = Arrays.copyOf(payload, Math.max(size, 1));
+        extraPayload = Arrays.copyOf(extraPayload, Math.max(extraSize, 1));
+        stringIndex = null;
+        strings.trimToSize();
+    }
+
+    // Reconstruye el árbol de objetos equivalente (postorden con pila explícita)
+    public Node toNode(int root) {
+        if (kind(root) == null) {
+            return null;
+        }
+        Deque<int[]> stack = new ArrayDeque<>();   // {índice, hijo actual}
+        Deque<List<Node>> built = new ArrayDeque<>();
+        stack.push(new int[]{root, firstChild(root)});
+        built.push(new ArrayList<>());
+        Node result = null;
+        while (!stack.isEmpty()) {
+            int[] frame = stack.peek();
+            int child = frame[1];
+            if (child >= 0) {
+                frame[1] = nextSibling[child];
+                if (kinds[child] == 0) {
+                    built.peek().add(null);
+                } else {
+                    stack.push(new int[]{child, firstChild(child)});
+                    built.push(new ArrayList<>());
+                }
+                continue;
+            }
+            stack.pop();
+            List<Node> children = built.pop();
+            Node node = NodeStructure.build(kind(frame[0]), payload(frame[0]), children.toArray(new Node[0]));
+            if (stack.isEmpty()) {
+                result = node;
+            } else {
+                built.peek().add(node);
+            }
+        }
+        return result;
+    }
+
+    // -----------------------
+    // CONSULTA
+    // -----------------------
+
+    public NodeKind kind(int node) {
+        int tag = kinds[node] & KIND_MASK;
+        return tag == 0 ? null : NodeKind.fromOrdinal(tag - 1);
+    }
+
+    public int firstChild(int node) {
+        return (kinds[node] & HAS_CHILDREN) != 0 ? node + 1 : -1;
+    }
+
+    public int nextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    public int childCount(int node) {
+        int count = 0;
+        for (int child = firstChild(node); child >= 0; child = nextSibling[child]) {
+            count++;
+        }
+        return count;
+    }
+
+    public int child(int node, int index) {
+        int child = firstChild(node);
+        for (int i = 0; i < index && child >= 0; i++) {
+            child = nextSibling[child];
+        }
+        if (child < 0) {
+            throw new IndexOutOfBoundsException("Hijo " + index + " inexistente");
+        }
+        return child;
+    }
+
+    public int payloadCount(int node) {
+        NodeKind kind = kind(node);
+        return kind == null ? 0 : NodeStructure.payloadCount(kind);
+    }
+
+    public int intPayload(int node, int index) {
+        return rawPayload(node, index);
+    }
+
+    public String stringPayload(int node, int index) {
+        return strings.get(rawPayload(node, index));
+    }
+
+    public ArenaNode view(int node) {
+        return new ArenaNode(this, node);
+    }
+
+    // Bytes ocupados por los arreglos en uso (sin contar los strings compartidos)
+    public long usedBytes() {
+        return size * (1L + 4 + 4) + extraSize * 4L;
+    }
+
+    private int rawPayload(int node, int index) {
+        int count = payloadCount(node);
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Dato " + index + " de " + count);
+        }
+        return count == 1 ? payload[node] : extraPayload[payload[node] + index];
+    }
+
+    private Object[] payload(int node) {
+        NodeKind kind = kind(node);
+        Object[] values = new Object[payloadCount(node)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = NodeStructure.isIntPayload(kind, i) ? (Object) intPayload(node, i) : stringPayload(node, i);
+        }
+        return values;
+    }
+
+    private int encode(Object value) {
+        return value instanceof String ? intern((String) value) : (Integer) value;
+    }
+
+    private int intern(String value) {
+        if (stringIndex == null) {
+            // Se reconstruye si se agregan nodos después de trimToSize()
+            stringIndex = new HashMap<>();
+            for (int i = 0; i < strings.size(); i++) {
+                stringIndex.put(strings.get(i), i);
+            }
+        }
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > kinds.length) {
+            int newCapacity = Math.max(capacity, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, newCapacity);
+            nextSibling = Arrays.copyOf(nextSibling, newCapacity);
+            payload = Arrays.copyOf(payload, newCapacity);
+        }
+    }
+
+    private void ensureExtraCapacity(int capacity) {
+        if (capacity > extraPayload.length) {
+            extraPayload = Arrays.copyOf(extraPayload, Math.max(capacity, extraPayload.length * 2));
+        }
+    }
+}
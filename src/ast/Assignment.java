@@ -10,10 +10,7 @@ public class Assignment extends Expression {
     }
 
     @Override
-    public String toString() {
-        return "Assignment{" +
-                "identifier='" + identifier + '\'' +
-                ", value=" + value +
-                '}' + '\n';
+    Object[] textParts() {
+        return new Object[]{"Assignment{identifier='" + identifier + "', value=", value, "}\n"};
     }
 }
@@ -0,0 +1,125 @@
+package ast;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Escribe el AST en cualquier Appendable (Writer, StringBuilder...) en un solo recorrido,
+// un nodo por línea con sangría según la profundidad:
+//
+//   BlockStatement
+//     VariableDeclaration int total
+//       NumberLiteral 0
+//
+// A diferencia de toString(), no arma el texto de cada subárbol para copiarlo en el padre.
+public class AstPrinter {
+    private static final String TRUNCATED = "... (salida truncada)";
+
+    private String indent = "  ";
+    private long maxChars = Long.MAX_VALUE;
+
+    public AstPrinter indent(String indent) {
+        this.indent = indent;
+        return this;
+    }
+
+    // Límite aproximado de caracteres: al superarlo se corta en el nodo siguiente
+    public AstPrinter maxChars(long maxChars) {
+        this.maxChars = maxChars;
+        return this;
+    }
+
+    public String toString(Node root) {
+        StringBuilder out = new StringBuilder();
+        try {
+            print(root, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder no lanza IOException
+        }
+        return out.toString();
+    }
+
+    public void print(Node root, Appendable out) throws IOException {
+        if (root == null) {
+            return;
+        }
+        long written = 0;
+        // Cada entrada: nodo, profundidad y etiqueta (nombre del campo en el padre, o null)
+        Deque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{root, 0, null});
+        while (!stack.isEmpty()) {
+            if (written >= maxChars) {
+                out.append(TRUNCATED).append('\n');
+                return;
+            }
+            Object[] entry = stack.pop();
+            Node node = (Node) entry[0];
+            int depth = (Integer) entry[1];
+            String label = (String) entry[2];
+
+            if (!indent.isEmpty()) {
+                for (int i = 0; i < depth; i++) {
+                    out.append(indent);
+                }
+                written += (long) depth * indent.length();
+            }
+            if (label != null) {
+                out.append(label).append(": ");
+                written += label.length() + 2;
+            }
+            written += appendLine(node, out);
+
+            Node[] children = NodeStructure.children(node);
+            String[] labels = childLabels(NodeKind.of(node));
+            for (int i = children.length - 1; i >= 0; i--) {
+                if (children[i] != null) {
+                    stack.push(new Object[]{children[i], depth + 1, labels != null && i < labels.length ? labels[i] : null});
+                }
+            }
+        }
+    }
+
+    private long appendLine(Node node, Appendable out) throws IOException {
+        String name = node.getClass().getSimpleName();
+        out.append(name);
+        long written = name.length() + 1;
+        Object[] payload = NodeStructure.payload(node);
+        // La cantidad de atributos de una clase es un detalle del formato, no se muestra; de los
+        // literales de 64 bits se muestra el valor y no sus dos mitades
+        if (node instanceof LongLiteral) {
+            payload = new Object[]{((LongLiteral) node).value + "L"};
+        } else if (node instanceof DoubleLiteral) {
+            DoubleLiteral literal = (DoubleLiteral) node;
+            payload = new Object[]{literal.isFloat ? (float) literal.value + "f" : String.valueOf(literal.value)};
+        }
+        int shown = NodeKind.of(node) == NodeKind.CLASS_DECLARATION ? 1 : payload.length;
+        for (int i = 0; i < shown; i++) {
+            String text = String.valueOf(payload[i]);
+            out.append(' ').append(text);
+            written += text.length() + 1;
+        }
+        out.append('\n');
+        return written;
+    }
+
+    // Nombres para los hijos de posición fija; los de listas (bloques, argumentos, catch) no llevan
+    private static String[] childLabels(NodeKind kind) {
+        switch (kind) {
+            case IF:
+                return new String[]{"condition", "then", "else"};
+            case WHILE:
+                return new String[]{"condition", "body"};
+            case FOR:
+                return new String[]{"initializer", "condition", "update", "body"};
+            case ASSIGNMENT_EXPRESSION:
+                return new String[]{"target", "value"};
+            case CASE:
+                return new String[]{"value", "body"};
+            case TRY:
+                return new String[]{"try"};
+            default:
+                return null;
+        }
+    }
+}
@@ -24,7 +24,7 @@ public class BinaryExpression extends Expression {
     }
 
     @Override
-    public String toString() {
-        return "(" + left + " " + operator + " " + right + ")" + '\n';
+    Object[] textParts() {
+        return new Object[]{"(", left, " " + operator + " ", right, ")\n"};
     }
 }
@@ -10,9 +10,7 @@ public class BlockStatement extends Node {
     }
 
     @Override
-    public String toString() {
-        return "BlockStatement{" +
-                "statements=" + statements +
-                '}' + '\n';
+    Object[] textParts() {
+        return new Object[]{"BlockStatement{statements=", statements, "}\n"};
     }
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package ast;
 
 public class BreakStatement extends Node {
     @Override
-    public String toString() {
-        return "BreakStatement{}" + '\n';
+    Object[] textParts() {
+        return new Object[]{"BreakStatement{}\n"};
     }
 }
@@ -0,0 +1,41 @@
+package ast;
+
+public class CaseStatement extends Node {
+    public Expression caseValue; // Valor del caso; null para default
+    public BlockStatement body; // Sentencias hasta el próximo caso (comparten el ámbito del switch)
+
+    public CaseStatement(Expression caseValue, BlockStatement body) {
+        this.caseValue = caseValue;
+        this.body = body;
+    }
+
+    public boolean isDefault() {
+        return caseValue == null;
+    }
+
+    // Valor constante del caso: Integer (un literal, con '-' opcional) o String (sin las
+    // comillas); null para default o si el valor no es constante
+    public Object constantValue() {
+        Expression value = caseValue;
+        boolean negative = false;
+        if (value instanceof UnaryExpression && "-".equals(((UnaryExpression) value).operator)) {
+            value = ((UnaryExpression) value).operand;
+            negative = true;
+        }
+        if (value instanceof NumberLiteral) {
+            int number = ((NumberLiteral) value).value;
+            return negative ? -number : number;
+        }
+        if (value instanceof StringLiteral && !negative) {
+            String text = ((StringLiteral) value).value;
+            return text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")
+                    ? text.substring(1, text.length() - 1) : text;
+        }
+        return null;
+    }
+
+    @Override
+    Object[] textParts() {
+        return new Object[]{"CaseStatement{caseValue=", caseValue, ", body=", body, "}\n"};
+    }
+}
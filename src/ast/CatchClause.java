@@ -0,0 +1,43 @@
+package ast;
+
+import java.util.Map;
+
+public class CatchClause extends Node {
+    public String exceptionType; // Tipo capturado
+    public String exceptionVariable; // Variable de excepción, visible solo en el cuerpo
+    public BlockStatement body; // Cuerpo del catch
+
+    public CatchClause(String exceptionType, String exceptionVariable, BlockStatement body) {
+        this.exceptionType = exceptionType;
+        this.exceptionVariable = exceptionVariable;
+        this.body = body;
+    }
+
+    // Superclase de las excepciones predefinidas; las clases del programa no declaran una, así
+    // que se toman como subclases directas de Exception
+    private static final Map<String, String> PARENTS = Map.of(
+            "RuntimeException", "Exception",
+            "ArithmeticException", "RuntimeException");
+
+    // true si un catch de 'caughtType' atrapa una excepción de tipo 'thrownType'
+    public static boolean catches(String caughtType, String thrownType) {
+        for (String type = thrownType; type != null; type = parent(type)) {
+            if (type.equals(caughtType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String parent(String type) {
+        if (type.equals("Exception")) {
+            return null;
+        }
+        return PARENTS.getOrDefault(type, "Exception");
+    }
+
+    @Override
+    Object[] textParts() {
+        return new Object[]{"CatchClause{exceptionType='" + exceptionType + "', exceptionVariable='" + exceptionVariable + "', body=", body, "}\n"};
+    }
+}
@@ -13,5 +13,20 @@ public class ClassDeclaration extends Node {
         this.methods = methods;
     }
 
-    // Getters, toString(), etc.
+    public String getName() {
+        return name;
+    }
+
+    public List<VariableDeclaration> getAttributes() {
+        return attributes;
+    }
+
+    public List<MethodDeclaration> getMethods() {
+        return methods;
+    }
+
+    @Override
+    Object[] textParts() {
+        return new Object[]{"ClassDeclaration{name='" + name + "', attributes=", attributes, ", methods=", methods, "}\n"};
+    }
 }
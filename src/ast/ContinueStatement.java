@@ -2,7 +2,7 @@ package ast;
 
 public class ContinueStatement extends Node {
     @Override
-    public String toString() {
-        return "ContinueStatement{}" + '\n';
+    Object[] textParts() {
+        return new Object[]{"ContinueStatement{}\n"};
     }
 }
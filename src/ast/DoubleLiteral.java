@@ -0,0 +1,21 @@
+package ast;
+
+// Literal de punto flotante; los float (sufijo f) ya vienen redondeados a float
+public class DoubleLiteral extends Expression {
+    public final double value;
+    public final boolean isFloat;
+
+    public DoubleLiteral(double value, boolean isFloat) {
+        this.value = value;
+        this.isFloat = isFloat;
+    }
+
+    public String typeName() {
+        return isFloat ? "float" : "double";
+    }
+
+    @Override
+    Object[] textParts() {
+        return new Object[]{"DoubleLiteral{value=" + value + (isFloat ? ", float" : "") + "}\n"};
+    }
+}
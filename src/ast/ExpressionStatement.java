@@ -8,9 +8,7 @@ public class ExpressionStatement extends Node {
     }
 
     @Override
-    public String toString() {
-        return "ExpressionStatement{" +
-                "expression=" + expression +
-                '}'+ '\n';
+    Object[] textParts() {
+        return new Object[]{"ExpressionStatement{expression=", expression, "}\n"};
     }
 }
\ No newline at end of file
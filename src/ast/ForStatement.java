@@ -14,12 +14,7 @@ public class ForStatement extends Node {
     }
 
     @Override
-    public String toString() {
-        return "ForStatement{" +
-                "initializer=" + initializer +
-                ", condition=" + condition +
-                ", update=" + update +
-                ", body=" + body +
-                '}' + '\n';
+    Object[] textParts() {
+        return new Object[]{"ForStatement{initializer=", initializer, ", condition=", condition, ", update=", update, ", body=", body, "}\n"};
     }
 }
\ No newline at end of file
@@ -20,7 +20,7 @@ public class FunctionCall extends Expression {
     }
 
     @Override
-    public String toString() {
-        return "FunctionCall(" + name + ", args=" + arguments + ")";
+    Object[] textParts() {
+        return new Object[]{"FunctionCall(" + name + ", args=", arguments, ")"};
     }
 }
@@ -12,11 +12,10 @@ public class IfStatement extends Node {
     }
 
     @Override
-    public String toString() {
-        return "IfStatement{" +
-                "condition=" + condition +
-                ", thenBranch=" + thenBranch +
-                (elseBranch != null ? ", elseBranch=" + elseBranch : "") +
-                '}'+'\n';
+    Object[] textParts() {
+        if (elseBranch == null) {
+            return new Object[]{"IfStatement{condition=", condition, ", thenBranch=", thenBranch, "}\n"};
+        }
+        return new Object[]{"IfStatement{condition=", condition, ", thenBranch=", thenBranch, ", elseBranch=", elseBranch, "}\n"};
     }
 }
\ No newline at end of file
@@ -9,9 +9,7 @@ public class LiteralExpression extends Expression {
     }
 
     @Override
-    public String toString() {
-        return "LiteralExpression{" +
-                "value=" + value +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"LiteralExpression{value=" + value + "}\n"};
     }
 }
@@ -0,0 +1,14 @@
+package ast;
+
+public class LongLiteral extends Expression {
+    public final long value;
+
+    public LongLiteral(long value) {
+        this.value = value;
+    }
+
+    @Override
+    Object[] textParts() {
+        return new Object[]{"LongLiteral{value=" + value + "}\n"};
+    }
+}
@@ -16,12 +16,7 @@ public class MethodDeclaration extends Node {
     }
 
     @Override
-    public String toString() {
-        return "MethodDeclaration{" +
-                "returnType='" + returnType + '\'' +
-                ", name='" + name + '\'' +
-                ", parameters=" + parameters +
-                ", body=" + body +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"MethodDeclaration{returnType='" + returnType + "', name='" + name + "', parameters=", parameters, ", body=", body, "}\n"};
     }
 }
\ No newline at end of file
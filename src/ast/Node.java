@@ -1,3 +1,14 @@
 package ast;
 
-public abstract class Node {}
\ No newline at end of file
+public abstract class Node {
+    // El texto de toString() se arma con NodeText, que recorre el árbol con una pila explícita:
+    // cada nodo solo dice sus partes (textos fijos y los hijos, sueltos o en listas, en orden)
+    Object[] textParts() {
+        return new Object[]{getClass().getName() + "@" + Integer.toHexString(hashCode())};
+    }
+
+    @Override
+    public String toString() {
+        return NodeText.render(this);
+    }
+}
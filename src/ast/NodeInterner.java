@@ -0,0 +1,59 @@
+package ast;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Tabla de hash-consing para las hojas inmutables del AST (una por compilación).
+// Cada constante o nombre repetido se representa con una sola instancia, así comparar
+// dos hojas equivale a comparar referencias.
+public class NodeInterner {
+    private static final int SMALL_MIN = -128;
+    private static final int SMALL_MAX = 1023;
+    private static final NumberLiteral[] SMALL_NUMBERS = new NumberLiteral[SMALL_MAX - SMALL_MIN + 1];
+
+    static {
+        for (int i = 0; i < SMALL_NUMBERS.length; i++) {
+            SMALL_NUMBERS[i] = new NumberLiteral(i + SMALL_MIN);
+        }
+    }
+
+    // Clave = valor, que ya convirtió el Lexer (así el texto del token no hace falta armarlo)
+    private final Map<Integer, NumberLiteral> numbers = new HashMap<>();
+    private final Map<String, StringLiteral> strings = new HashMap<>();
+    private final Map<String, VariableReference> references = new HashMap<>();
+
+    public NumberLiteral number(int value) {
+        if (value >= SMALL_MIN && value <= SMALL_MAX) {
+            return SMALL_NUMBERS[value - SMALL_MIN];
+        }
+        return numbers.computeIfAbsent(value, NumberLiteral::new);
+    }
+
+    public StringLiteral string(String value) {
+        StringLiteral literal = strings.get(value);
+        if (literal == null) {
+            literal = new StringLiteral(value);
+            strings.put(value, literal);
+        }
+        return literal;
+    }
+
+    public VariableReference reference(String name) {
+        VariableReference reference = references.get(name);
+        if (reference == null) {
+            reference = new VariableReference(name);
+            references.put(name, reference);
+        }
+        return reference;
+    }
+
+    public int size() {
+        return numbers.size() + strings.size() + references.size();
+    }
+
+    public void clear() {
+        numbers.clear();
+        strings.clear();
+        references.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package ast;
+
+// Etiqueta de cada tipo de nodo para las representaciones compactas del AST.
+// El orden forma parte del formato binario: agregar nuevos tipos solo al final.
+public enum NodeKind {
+    BLOCK,
+    EXPRESSION_STATEMENT,
+    VARIABLE_DECLARATION,
+    CLASS_DECLARATION,
+    METHOD_DECLARATION,
+    IF,
+    WHILE,
+    FOR,
+    RETURN,
+    BREAK,
+    CONTINUE,
+    BINARY,
+    UNARY,
+    POSTFIX,
+    NUMBER_LITERAL,
+    STRING_LITERAL,
+    VARIABLE_REFERENCE,
+    VARIABLE_REFERENCE_EXPRESSION,
+    LITERAL,
+    FUNCTION_CALL,
+    ASSIGNMENT,
+    ASSIGNMENT_EXPRESSION,
+    FIELD_ACCESS,
+    SWITCH,
+    CASE,
+    TRY,
+    CATCH,
+    LONG_LITERAL,
+    DOUBLE_LITERAL;
+
+    private static final NodeKind[] VALUES = values();
+
+    public static NodeKind fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static NodeKind of(Node node) {
+        if (node instanceof BlockStatement) return BLOCK;
+        if (node instanceof ExpressionStatement) return EXPRESSION_STATEMENT;
+        if (node instanceof VariableDeclaration) return VARIABLE_DECLARATION;
+        if (node instanceof ClassDeclaration) return CLASS_DECLARATION;
+        if (node instanceof MethodDeclaration) return METHOD_DECLARATION;
+        if (node instanceof IfStatement) return IF;
+        if (node instanceof WhileStatement) return WHILE;
+        if (node instanceof ForStatement) return FOR;
+        if (node instanceof ReturnStatement) return RETURN;
+        if (node instanceof BreakStatement) return BREAK;
+        if (node instanceof ContinueStatement) return CONTINUE;
+        if (node instanceof BinaryExpression) return BINARY;
+        if (node instanceof UnaryExpression) return UNARY;
+        if (node instanceof PostfixExpression) return POSTFIX;
+        if (node instanceof NumberLiteral) return NUMBER_LITERAL;
+        if (node instanceof LongLiteral) return LONG_LITERAL;
+        if (node instanceof DoubleLiteral) return DOUBLE_LITERAL;
+        if (node instanceof StringLiteral) return STRING_LITERAL;
+        if (node instanceof VariableReference) return VARIABLE_REFERENCE;
+        if (node instanceof VariableReferenceExpression) return VARIABLE_REFERENCE_EXPRESSION;
+        if (node instanceof LiteralExpression) return LITERAL;
+        if (node instanceof FunctionCall) return FUNCTION_CALL;
+        if (node instanceof Assignment) return ASSIGNMENT;
+        if (node instanceof AssignmentExpression) return ASSIGNMENT_EXPRESSION;
+        if (node instanceof FieldAccess) return FIELD_ACCESS;
+        if (node instanceof SwitchStatement) return SWITCH;
+        if (node instanceof CaseStatement) return CASE;
+        if (node instanceof TryCatchStatement) return TRY;
+        if (node instanceof CatchClause) return CATCH;
+        throw new IllegalArgumentException("Tipo de nodo no soportado: " + node.getClass().getSimpleName());
+    }
+}
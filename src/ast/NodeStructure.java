@@ -0,0 +1,304 @@
+package ast;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+// Descompone un nodo en (tipo, datos propios, hijos) y lo reconstruye a partir de eso.
+// Los datos propios son String o Integer; los hijos pueden ser null (ramas opcionales).
+// Los valores de 64 bits (long, y los bits de un double) van partidos en dos Integer.
+public final class NodeStructure {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Object[] NO_PAYLOAD = new Object[0];
+
+    private NodeStructure() {
+    }
+
+    public static Object[] payload(Node node) {
+        switch (NodeKind.of(node)) {
+            case VARIABLE_DECLARATION: {
+                VariableDeclaration decl = (VariableDeclaration) node;
+                return new Object[]{decl.type, decl.identifier};
+            }
+            case CLASS_DECLARATION: {
+                ClassDeclaration decl = (ClassDeclaration) node;
+                return new Object[]{decl.getName(), decl.getAttributes().size()};
+            }
+            case METHOD_DECLARATION: {
+                MethodDeclaration decl = (MethodDeclaration) node;
+                return new Object[]{decl.returnType, decl.name};
+            }
+            case BINARY:
+                return new Object[]{((BinaryExpression) node).getOperator()};
+            case UNARY:
+                return new Object[]{((UnaryExpression) node).operator};
+            case POSTFIX:
+                return new Object[]{((PostfixExpression) node).getOperator()};
+            case NUMBER_LITERAL:
+                return new Object[]{((NumberLiteral) node).value};
+            case LONG_LITERAL: {
+                long value = ((LongLiteral) node).value;
+                return new Object[]{(int) (value >>> 32), (int) value};
+            }
+            case DOUBLE_LITERAL: {
+                DoubleLiteral literal = (DoubleLiteral) node;
+                long bits = Double.doubleToRawLongBits(literal.value);
+                return new Object[]{(int) (bits >>> 32), (int) bits, literal.isFloat ? 1 : 0};
+            }
+            case STRING_LITERAL:
+                return new Object[]{((StringLiteral) node).value};
+            case VARIABLE_REFERENCE:
+                return new Object[]{((VariableReference) node).getName()};
+            case VARIABLE_REFERENCE_EXPRESSION:
+                return new Object[]{((VariableReferenceExpression) node).name};
+            case LITERAL:
+                return new Object[]{String.valueOf(((LiteralExpression) node).value)};
+            case FUNCTION_CALL:
+                return new Object[]{((FunctionCall) node).getName()};
+            case ASSIGNMENT:
+                return new Object[]{((Assignment) node).identifier};
+            case FIELD_ACCESS:
+                return new Object[]{((FieldAccess) node).field};
+            case CATCH: {
+                CatchClause clause = (CatchClause) node;
+                return new Object[]{clause.exceptionType, clause.exceptionVariable};
+            }
+            default:
+                return NO_PAYLOAD;
+        }
+    }
+
+    // Cantidad de datos propios de cada tipo de nodo (siempre la misma para un tipo)
+    public static int payloadCount(NodeKind kind) {
+        switch (kind) {
+            case VARIABLE_DECLARATION:
+            case CLASS_DECLARATION:
+            case METHOD_DECLARATION:
+            case CATCH:
+            case LONG_LITERAL:
+                return 2;
+            case DOUBLE_LITERAL:
+                return 3;
+            case BINARY:
+            case UNARY:
+            case POSTFIX:
+            case NUMBER_LITERAL:
+            case STRING_LITERAL:
+            case VARIABLE_REFERENCE:
+            case VARIABLE_REFERENCE_EXPRESSION:
+            case LITERAL:
+            case FUNCTION_CALL:
+            case ASSIGNMENT:
+            case FIELD_ACCESS:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    // Los datos enteros son los valores de los literales numéricos y la cantidad de atributos de una clase
+    public static boolean isIntPayload(NodeKind kind, int index) {
+        return (kind == NodeKind.NUMBER_LITERAL && index == 0) || (kind == NodeKind.CLASS_DECLARATION && index == 1)
+                || kind == NodeKind.LONG_LITERAL || kind == NodeKind.DOUBLE_LITERAL;
+    }
+
+    public static Node[] children(Node node) {
+        switch (NodeKind.of(node)) {
+            case BLOCK:
+                return ((BlockStatement) node).statements.toArray(NO_CHILDREN);
+            case EXPRESSION_STATEMENT:
+                return new Node[]{((ExpressionStatement) node).expression};
+            case VARIABLE_DECLARATION:
+                return new Node[]{((VariableDeclaration) node).initializer};
+            case CLASS_DECLARATION: {
+                ClassDeclaration decl = (ClassDeclaration) node;
+                List<Node> members = new ArrayList<>(decl.getAttributes());
+                members.addAll(decl.getMethods());
+                return members.toArray(NO_CHILDREN);
+            }
+            case METHOD_DECLARATION: {
+                MethodDeclaration decl = (MethodDeclaration) node;
+                List<Node> parts = new ArrayList<Node>(decl.parameters);
+                parts.add(decl.body);
+                return parts.toArray(NO_CHILDREN);
+            }
+            case IF: {
+                IfStatement stmt = (IfStatement) node;
+                return new Node[]{stmt.condition, stmt.thenBranch, stmt.elseBranch};
+            }
+            case WHILE: {
+                WhileStatement stmt = (WhileStatement) node;
+                return new Node[]{stmt.condition, stmt.body};
+            }
+            case FOR: {
+                ForStatement stmt = (ForStatement) node;
+                return new Node[]{stmt.initializer, stmt.condition, stmt.update, stmt.body};
+            }
+            case RETURN:
+                return new Node[]{((ReturnStatement) node).value};
+            case BINARY: {
+                BinaryExpression expr = (BinaryExpression) node;
+                return new Node[]{expr.getLeft(), expr.getRight()};
+            }
+            case UNARY:
+                return new Node[]{((UnaryExpression) node).operand};
+            case POSTFIX:
+                return new Node[]{((PostfixExpression) node).getTarget()};
+            case FUNCTION_CALL:
+                return ((FunctionCall) node).getArguments().toArray(NO_CHILDREN);
+            case ASSIGNMENT:
+                return new Node[]{((Assignment) node).value};
+            case ASSIGNMENT_EXPRESSION: {
+                AssignmentExpression expr = (AssignmentExpression) node;
+                return new Node[]{expr.target, expr.value};
+            }
+            case FIELD_ACCESS:
+                return new Node[]{((FieldAccess) node).object};
+            case SWITCH: {
+                SwitchStatement stmt = (SwitchStatement) node;
+                Node[] parts = new Node[stmt.cases.size() + 1];
+                parts[0] = stmt.expression;
+                for (int i = 0; i < stmt.cases.size(); i++) {
+                    parts[i + 1] = stmt.cases.get(i);
+                }
+                return parts;
+            }
+            case CASE: {
+                CaseStatement stmt = (CaseStatement) node;
+                return new Node[]{stmt.caseValue, stmt.body};
+            }
+            case TRY: {
+                TryCatchStatement stmt = (TryCatchStatement) node;
+                // El finally siempre va último, aunque sea null
+                Node[] parts = new Node[stmt.catchClauses.size() + 2];
+                parts[0] = stmt.tryBlock;
+                for (int i = 0; i < stmt.catchClauses.size(); i++) {
+                    parts[i + 1] = stmt.catchClauses.get(i);
+                }
+                parts[parts.length - 1] = stmt.finallyBlock;
+                return parts;
+            }
+            case CATCH:
+                return new Node[]{((CatchClause) node).body};
+            default:
+                return NO_CHILDREN;
+        }
+    }
+
+    // Cantidad de nodos del subárbol (pila explícita)
+    public static int count(Node root) {
+        int count = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        if (root != null) stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            count++;
+            for (Node child : children(node)) {
+                if (child != null) stack.push(child);
+            }
+        }
+        return count;
+    }
+
+    public static Node build(NodeKind kind, Object[] payload, Node[] children) {
+        switch (kind) {
+            case BLOCK:
+                return new BlockStatement(new ArrayList<>(Arrays.asList(children)));
+            case EXPRESSION_STATEMENT:
+                return new ExpressionStatement((Expression) children[0]);
+            case VARIABLE_DECLARATION:
+                return new VariableDeclaration((String) payload[0], (String) payload[1], children[0]);
+            case CLASS_DECLARATION: {
+                int fieldCount = (Integer) payload[1];
+                List<VariableDeclaration> fields = new ArrayList<>();
+                List<MethodDeclaration> methods = new ArrayList<>();
+                for (int i = 0; i < children.length; i++) {
+                    if (i < fieldCount) fields.add((VariableDeclaration) children[i]);
+                    else methods.add((MethodDeclaration) children[i]);
+                }
+                return new ClassDeclaration((String) payload[0], fields, methods);
+            }
+            case METHOD_DECLARATION: {
+                List<VariableDeclaration> parameters = new ArrayList<>();
+                for (int i = 0; i < children.length - 1; i++) {
+                    parameters.add((VariableDeclaration) children[i]);
+                }
+                return new MethodDeclaration((String) payload[0], (String) payload[1], parameters,
+                        (BlockStatement) children[children.length - 1]);
+            }
+            case IF:
+                return new IfStatement(children[0], children[1], children[2]);
+            case WHILE:
+                return new WhileStatement((Expression) children[0], (BlockStatement) children[1]);
+            case FOR:
+                return new ForStatement((VariableDeclaration) children[0], (Expression) children[1],
+                        (Expression) children[2], (BlockStatement) children[3]);
+            case RETURN:
+                return new ReturnStatement((Expression) children[0]);
+            case BREAK:
+                return new BreakStatement();
+            case CONTINUE:
+                return new ContinueStatement();
+            case BINARY:
+                return new BinaryExpression((Expression) children[0], (String) payload[0], (Expression) children[1]);
+            case UNARY:
+                return new UnaryExpression((String) payload[0], (Expression) children[0]);
+            case POSTFIX:
+                return new PostfixExpression((Expression) children[0], (String) payload[0]);
+            case NUMBER_LITERAL:
+                return new NumberLiteral((Integer) payload[0]);
+            case LONG_LITERAL:
+                return new LongLiteral(joinInts(payload[0], payload[1]));
+            case DOUBLE_LITERAL:
+                return new DoubleLiteral(Double.longBitsToDouble(joinInts(payload[0], payload[1])), (Integer) payload[2] != 0);
+            case STRING_LITERAL:
+                return new StringLiteral((String) payload[0]);
+            case VARIABLE_REFERENCE:
+                return new VariableReference((String) payload[0]);
+            case VARIABLE_REFERENCE_EXPRESSION:
+                return new VariableReferenceExpression((String) payload[0]);
+            case LITERAL:
+                return new LiteralExpression(payload[0]);
+            case FUNCTION_CALL: {
+                List<Expression> arguments = new ArrayList<>();
+                for (Node child : children) {
+                    arguments.add((Expression) child);
+                }
+                return new FunctionCall((String) payload[0], arguments);
+            }
+            case ASSIGNMENT:
+                return new Assignment((String) payload[0], children[0]);
+            case ASSIGNMENT_EXPRESSION:
+                return new AssignmentExpression((Expression) children[0], (Expression) children[1]);
+            case FIELD_ACCESS:
+                return new FieldAccess((Expression) children[0], (String) payload[0]);
+            case SWITCH: {
+                List<CaseStatement> cases = new ArrayList<>();
+                for (int i = 1; i < children.length; i++) {
+                    cases.add((CaseStatement) children[i]);
+                }
+                return new SwitchStatement((Expression) children[0], cases);
+            }
+            case CASE:
+                return new CaseStatement((Expression) children[0], (BlockStatement) children[1]);
+            case TRY: {
+                List<CatchClause> clauses = new ArrayList<>();
+                for (int i = 1; i < children.length - 1; i++) {
+                    clauses.add((CatchClause) children[i]);
+                }
+                return new TryCatchStatement((BlockStatement) children[0], clauses,
+                        (BlockStatement) children[children.length - 1]);
+            }
+            case CATCH:
+                return new CatchClause((String) payload[0], (String) payload[1], (BlockStatement) children[0]);
+            default:
+                throw new IllegalArgumentException("Tipo de nodo no soportado: " + kind);
+        }
+    }
+
+    private static long joinInts(Object high, Object low) {
+        return ((long) (Integer) high << 32) | ((Integer) low & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,44 @@
+package ast;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+// Arma el texto de toString() sin recursión: un programa generado con miles de bloques
+// anidados desbordaría la pila si cada nodo concatenara el texto de sus hijos.
+// Las partes pendientes van en una pila en orden inverso; un hijo se reemplaza por sus propias
+// partes y una lista por "[", sus elementos separados por ", " y "]", como List.toString().
+final class NodeText {
+    private NodeText() {
+    }
+
+    static String render(Node root) {
+        StringBuilder out = new StringBuilder();
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Object part = pending.pop();
+            if (part instanceof Node) {
+                Object[] parts = ((Node) part).textParts();
+                for (int i = parts.length - 1; i >= 0; i--) {
+                    // ArrayDeque no acepta null
+                    pending.push(parts[i] != null ? parts[i] : "null");
+                }
+            } else if (part instanceof List) {
+                List<?> list = (List<?>) part;
+                pending.push("]");
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    Object element = list.get(i);
+                    pending.push(element != null ? element : "null");
+                    if (i > 0) {
+                        pending.push(", ");
+                    }
+                }
+                pending.push("[");
+            } else {
+                out.append(part);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -1,16 +1,14 @@
 package ast;
 
 public class NumberLiteral extends Expression {
-    public int value;
+    public final int value;
 
     public NumberLiteral(int value) {
         this.value = value;
     }
 
     @Override
-    public String toString() {
-        return "NumberLiteral{" +
-                "value=" + value +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"NumberLiteral{value=" + value + "}\n"};
     }
 }
@@ -18,7 +18,7 @@ public class PostfixExpression extends Expression {
     }
 
     @Override
-    public String toString() {
-        return target + operator;
+    Object[] textParts() {
+        return new Object[]{target, operator};
     }
 }
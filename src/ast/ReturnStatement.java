@@ -8,9 +8,7 @@ public class ReturnStatement extends Node {
     }
 
     @Override
-    public String toString() {
-        return "ReturnStatement{" +
-                "value=" + value +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"ReturnStatement{value=", value, "}\n"};
     }
 }
\ No newline at end of file
@@ -1,16 +1,14 @@
 package ast;
 
 public class StringLiteral extends Expression {
-    public String value;
+    public final String value;
 
     public StringLiteral(String value) {
         this.value = value;
     }
 
     @Override
-    public String toString() {
-        return "StringLiteral{" +
-                "value=\"" + value + "\"" +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"StringLiteral{value=\"" + value + "\"}\n"};
     }
 }
@@ -4,7 +4,7 @@ import java.util.List;
 
 public class SwitchStatement extends Node {
     public Expression expression; // Expresión a evaluar
-    public List<CaseStatement> cases; // Lista de casos
+    public List<CaseStatement> cases; // Lista de casos, en orden del fuente (sin break se sigue al siguiente)
 
     public SwitchStatement(Expression expression, List<CaseStatement> cases) {
         this.expression = expression;
@@ -12,28 +12,7 @@ public class SwitchStatement extends Node {
     }
 
     @Override
-    public String toString() {
-        return "SwitchStatement{" +
-                "expression=" + expression +
-                ", cases=" + cases +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"SwitchStatement{expression=", expression, ", cases=", cases, "}\n"};
     }
 }
-
-class CaseStatement extends Node {
-    public Expression caseValue; // Valor del caso
-    public BlockStatement body; // Cuerpo del caso
-
-    public CaseStatement(Expression caseValue, BlockStatement body) {
-        this.caseValue = caseValue;
-        this.body = body;
-    }
-
-    @Override
-    public String toString() {
-        return "CaseStatement{" +
-                "caseValue=" + caseValue +
-                ", body=" + body +
-                '}'+'\n';
-    }
-}
\ No newline at end of file
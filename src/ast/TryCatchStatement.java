@@ -5,35 +5,20 @@ import java.util.List;
 public class TryCatchStatement extends Node {
     public BlockStatement tryBlock; // Bloque try
     public List<CatchClause> catchClauses; // Lista de cláusulas catch
+    public BlockStatement finallyBlock; // Bloque finally, o null
 
     public TryCatchStatement(BlockStatement tryBlock, List<CatchClause> catchClauses) {
+        this(tryBlock, catchClauses, null);
+    }
+
+    public TryCatchStatement(BlockStatement tryBlock, List<CatchClause> catchClauses, BlockStatement finallyBlock) {
         this.tryBlock = tryBlock;
         this.catchClauses = catchClauses;
+        this.finallyBlock = finallyBlock;
     }
 
     @Override
-    public String toString() {
-        return "TryCatchStatement{" +
-                "tryBlock=" + tryBlock +
-                ", catchClauses=" + catchClauses +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"TryCatchStatement{tryBlock=", tryBlock, ", catchClauses=", catchClauses, ", finallyBlock=", finallyBlock, "}\n"};
     }
 }
-
-class CatchClause extends Node {
-    public String exceptionVariable; // Variable de excepción
-    public BlockStatement body; // Cuerpo del catch
-
-    public CatchClause(String exceptionVariable, BlockStatement body) {
-        this.exceptionVariable = exceptionVariable;
-        this.body = body;
-    }
-
-    @Override
-    public String toString() {
-        return "CatchClause{" +
-                "exceptionVariable='" + exceptionVariable + '\'' +
-                ", body=" + body +
-                '}'+'\n';
-    }
-}
\ No newline at end of file
@@ -10,10 +10,7 @@ public class UnaryExpression extends Expression {
     }
 
     @Override
-    public String toString() {
-        return "UnaryExpression{" +
-                "operator='" + operator + '\'' +
-                ", operand=" + operand +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"UnaryExpression{operator='" + operator + "', operand=", operand, "}\n"};
     }
 }
\ No newline at end of file
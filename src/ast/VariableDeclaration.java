@@ -12,11 +12,7 @@ public class VariableDeclaration extends Node {
     }
 
     @Override
-    public String toString() {
-        return "VariableDeclaration{" +
-                "type='" + type + '\'' +
-                ", identifier='" + identifier + '\'' +
-                ", initializer=" + initializer +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"VariableDeclaration{type='" + type + "', identifier='" + identifier + "', initializer=", initializer, "}\n"};
     }
 }
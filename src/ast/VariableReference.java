@@ -1,7 +1,7 @@
 package ast;
 
 public class VariableReference extends Expression {
-    public String name;
+    public final String name;
 
     public VariableReference(String name) {
         this.name = name;
@@ -12,9 +12,7 @@ public class VariableReference extends Expression {
     }
 
     @Override
-    public String toString() {
-        return "VariableReference{" +
-                "name='" + name + '\'' +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"VariableReference{name='" + name + "'}\n"};
     }
 }
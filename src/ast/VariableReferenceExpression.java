@@ -9,9 +9,7 @@ public class VariableReferenceExpression extends Expression {
     }
 
     @Override
-    public String toString() {
-        return "VariableReferenceExpression{" +
-                "name='" + name + '\'' +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"VariableReferenceExpression{name='" + name + "'}\n"};
     }
 }
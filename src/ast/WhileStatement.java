@@ -10,10 +10,7 @@ public class WhileStatement extends Node {
     }
 
     @Override
-    public String toString() {
-        return "WhileStatement{" +
-                "condition=" + condition +
-                ", body=" + body +
-                '}'+'\n';
+    Object[] textParts() {
+        return new Object[]{"WhileStatement{condition=", condition, ", body=", body, "}\n"};
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package bench;
+
+import arena.AstArena;
+import ast.Node;
+import ast.NodeKind;
+import ast.NodeStructure;
+import lexer.Lexer;
+import lexer.Token;
+import parser.Parser;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+// Compara memoria retenida y tiempo de recorrido completo entre el AST de objetos y el arena.
+// Uso: java bench.ArenaBenchmark [repeticiones]
+public class ArenaBenchmark {
+    private static final String TEMPLATE =
+            "int a%1$d = 1;\n" +
+            "int b%1$d = a%1$d + 2 * 3;\n" +
+            "while (a%1$d < 10) {\n" +
+            "    if (b%1$d > 4) {\n" +
+            "        println(a%1$d);\n" +
+            "    } else {\n" +
+            "        break;\n" +
+            "    }\n" +
+            "}\n";
+
+    public static void main(String[] args) {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < repetitions; i++) {
+            source.append(String.format(TEMPLATE, i));
+        }
+        List<Token> tokens = new Lexer(source.toString()).tokenize();
+
+        long before = usedHeap();
+        Node tree = new Parser(tokens, new Lexer("").getSymbolTable()).parse();
+        long treeBytes = usedHeap() - before;
+
+        before = usedHeap();
+        AstArena arena = new AstArena();
+        new Parser(tokens, new Lexer("").getSymbolTable()).parseInto(arena);
+        long arenaBytes = usedHeap() - before;
+
+        int nodes = arena.size();
+        System.out.printf("Nodos: %d%n", nodes);
+        System.out.printf("Árbol de objetos: %d bytes (%.1f por nodo)%n", treeBytes, (double) treeBytes / nodes);
+        System.out.printf("Arena:            %d bytes (%.1f por nodo)%n", arenaBytes, (double) arenaBytes / nodes);
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int objectCount = countVariableReferences(tree);
+            long objectTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int arenaCount = 0;
+            for (int i = 0; i < arena.size(); i++) {
+                if (arena.kind(i) == NodeKind.VARIABLE_REFERENCE) arenaCount++;
+            }
+            long arenaTime = System.nanoTime() - start;
+
+            System.out.printf("Recorrido %d: objetos %.2f ms, arena %.2f ms (%d/%d referencias)%n",
+                    round, objectTime / 1e6, arenaTime / 1e6, objectCount, arenaCount);
+        }
+        // Evita que el recolector libere el árbol antes de medir
+        if (tree.hashCode() == 0) System.out.println();
+    }
+
+    private static int countVariableReferences(Node root) {
+        int count = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (NodeKind.of(node) == NodeKind.VARIABLE_REFERENCE) count++;
+            for (Node child : NodeStructure.children(node)) {
+                if (child != null) stack.push(child);
+            }
+        }
+        return count;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,101 @@
+package bench;
+
+import daemon.CompileDaemon;
+import daemon.DaemonClient;
+
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Latencia por archivo: JVM nueva en cada invocación (fría) contra el daemon residente (caliente).
+// Antes de medir comprueba que un cliente que conecta y no manda nada no deja al daemon sin
+// trabajadores: su conexión se cierra al vencer el plazo de lectura.
+// Uso: java bench.DaemonLatencyBenchmark <archivo> [repeticiones]
+public class DaemonLatencyBenchmark {
+    private static final long STALL_TIMEOUT_MILLIS = 500;
+
+    public static void main(String[] args) throws Exception {
+        Path file = Paths.get(args[0]).toAbsolutePath();
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path");
+        long[] cold = new long[repetitions];
+        for (int i = 0; i < repetitions; i++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(java, "-cp", classpath, "Main", "--no-cache", file.toString())
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            process.waitFor();
+            cold[i] = System.nanoTime() - start;
+        }
+
+        Path socket = Files.createTempDirectory("daemon").resolve("bench.sock");
+        CompileDaemon daemon = new CompileDaemon(socket).readTimeout(STALL_TIMEOUT_MILLIS);
+        Thread server = new Thread(() -> {
+            try {
+                daemon.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+        daemon.awaitReady(10, TimeUnit.SECONDS);
+
+        DaemonClient client = new DaemonClient(socket);
+        checkStalledClient(socket, client, file);
+        long[] warm = new long[repetitions * 10];
+        for (int i = 0; i < warm.length; i++) {
+            long start = System.nanoTime();
+            if (client.compileFile(file) == null) {
+                throw new IllegalStateException("El daemon no respondió");
+            }
+            warm[i] = System.nanoTime() - start;
+        }
+        client.shutdown();
+        server.join();
+
+        report("JVM nueva por archivo", cold);
+        report("Daemon, primeras peticiones", Arrays.copyOf(warm, repetitions));
+        report("Daemon, ya calentado", Arrays.copyOfRange(warm, warm.length - repetitions, warm.length));
+        Files.deleteIfExists(socket.getParent());
+    }
+
+    // Con tantos clientes mudos como trabajadores, una petición normal solo se atiende si el daemon
+    // corta a los mudos
+    private static void checkStalledClient(Path socket, DaemonClient client, Path file) throws Exception {
+        SocketChannel[] stalled = new SocketChannel[Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < stalled.length; i++) {
+            stalled[i] = SocketChannel.open(StandardProtocolFamily.UNIX);
+            stalled[i].connect(UnixDomainSocketAddress.of(socket));
+        }
+        long start = System.nanoTime();
+        if (client.compileFile(file) == null) {
+            throw new IllegalStateException("El daemon no respondió con clientes mudos conectados");
+        }
+        long elapsed = System.nanoTime() - start;
+        for (SocketChannel channel : stalled) {
+            // El daemon cerró sin responder: la lectura ve el fin del flujo
+            if (channel.read(ByteBuffer.allocate(1)) != -1) {
+                throw new IllegalStateException("El daemon respondió a un cliente que no mandó la petición");
+            }
+            channel.close();
+        }
+        System.out.printf("%d clientes mudos cortados; la petición siguiente esperó %.0f ms (plazo %d ms)%n",
+                stalled.length, elapsed / 1e6, STALL_TIMEOUT_MILLIS);
+    }
+
+    private static void report(String label, long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-30s mediana %8.2f ms, mín %8.2f ms%n", label, sorted[sorted.length / 2] / 1e6, sorted[0] / 1e6);
+    }
+}
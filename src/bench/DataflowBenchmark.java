@@ -0,0 +1,145 @@
+package bench;
+
+import analysis.Analyses;
+import analysis.BitMatrix;
+import analysis.ControlFlowGraph;
+import analysis.DataflowSolver;
+import analysis.FlowChecker;
+import ast.BlockStatement;
+import ast.MethodDeclaration;
+import ast.Node;
+import lexer.Lexer;
+import parser.Parser;
+
+import java.util.List;
+import java.util.Random;
+
+// Comprueba los chequeos de flujo sobre casos chicos y mide el CFG y los tres análisis sobre un
+// método generado con decenas de miles de bloques.
+// Uso: java bench.DataflowBenchmark [sentencias if] [variables]
+public class DataflowBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int statements = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int variables = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int failures = 0;
+
+        // Cada caso: fuente y el comienzo de cada error esperado, en orden
+        failures += expect("int f(int a) { return a; a = 1; }",
+                "Error: Código inalcanzable después de 'return'");
+        failures += expect("int g(int a) { if (a < 1) { return 1; } }",
+                "Error: El método 'g' puede terminar sin devolver");
+        failures += expect("int h(int a) { int x; if (a < 1) { x = 1; } return x; }",
+                "Error: La variable 'x' puede usarse sin haber sido asignada");
+        failures += expect("int k(int a) { int x; if (a < 1) { x = 1; } else { x = 2; } return x; }");
+        failures += expect("void w(int a) { while (a < 10) { a = a + 1; break; println(a); } }",
+                "Error: Código inalcanzable después de 'break'");
+        failures += expect("int l(int a) { int x; while (a < 3) { x = a; a = a + 1; } return a; }");
+        failures += expect("int m(int n) { int s = 0; for (int i = 0; i < n; i++) { s = s + i; } return s; }");
+        failures += expect("int p(int n) { while (n < 3) { int t; n = t; t = 1; } return n; }",
+                "Error: La variable 't' puede usarse sin haber sido asignada");
+        failures += expect("int q(int n) { if (n < 1) { return 1; } else { return 2; } }");
+
+        // Definiciones que llegan a la salida de m: n, s = 0, i = 0, s = s + i, i++
+        ControlFlowGraph loop = ControlFlowGraph.build(firstMethod(
+                "int m(int n) { int s = 0; for (int i = 0; i < n; i++) { s = s + i; } return s; }"));
+        int reaching = BitMatrix.cardinality(Analyses.reachingDefinitions(loop).before(ControlFlowGraph.EXIT));
+        // En la entrada de r solo está viva 'y', que se lee sin asignar
+        ControlFlowGraph live = ControlFlowGraph.build(firstMethod("int r() { int y; return y; }"));
+        int liveAtEntry = BitMatrix.cardinality(Analyses.liveVariables(live).before(ControlFlowGraph.ENTRY));
+        if (reaching != 5 || liveAtEntry != 1) {
+            System.out.println("Análisis: " + reaching + " definiciones en la salida (5), "
+                    + liveAtEntry + " vivas en la entrada (1)");
+            failures++;
+        }
+
+        String source = generate(statements, variables);
+        MethodDeclaration method = firstMethod(source);
+        long build = Long.MAX_VALUE, assigned = Long.MAX_VALUE, liveness = Long.MAX_VALUE;
+        long reachingTime = Long.MAX_VALUE, check = Long.MAX_VALUE;
+        ControlFlowGraph cfg = null;
+        int[] iterations = new int[3];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            cfg = ControlFlowGraph.build(method);
+            build = Math.min(build, System.nanoTime() - start);
+            start = System.nanoTime();
+            iterations[0] = Analyses.definiteAssignment(cfg).iterations;
+            assigned = Math.min(assigned, System.nanoTime() - start);
+            start = System.nanoTime();
+            iterations[1] = Analyses.liveVariables(cfg).iterations;
+            liveness = Math.min(liveness, System.nanoTime() - start);
+            start = System.nanoTime();
+            iterations[2] = Analyses.reachingDefinitions(cfg).iterations;
+            reachingTime = Math.min(reachingTime, System.nanoTime() - start);
+            start = System.nanoTime();
+            List<String> errors = FlowChecker.check(method);
+            check = Math.min(check, System.nanoTime() - start);
+            if (run == 0 && !errors.isEmpty()) {
+                System.out.println("El método generado no debería tener errores: " + errors.get(0));
+                failures++;
+            }
+        }
+
+        System.out.printf("Método generado: %d bloques, %d aristas, %d variables, %d definiciones%n",
+                cfg.blockCount(), cfg.edgeCount(), cfg.variableCount(), cfg.definitionCount());
+        System.out.printf("CFG:                     %7.2f ms%n", build / 1e6);
+        System.out.printf("Asignación definitiva:   %7.2f ms (%d bloques procesados)%n", assigned / 1e6, iterations[0]);
+        System.out.printf("Variables vivas:         %7.2f ms (%d bloques procesados)%n", liveness / 1e6, iterations[1]);
+        System.out.printf("Definiciones que llegan: %7.2f ms (%d bloques procesados)%n", reachingTime / 1e6, iterations[2]);
+        System.out.printf("FlowChecker completo:    %7.2f ms%n", check / 1e6);
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static int expect(String source, String... expected) {
+        List<String> errors = FlowChecker.check(parse(source));
+        boolean ok = errors.size() == expected.length;
+        for (int i = 0; ok && i < expected.length; i++) {
+            ok = errors.get(i).startsWith(expected[i]);
+        }
+        if (!ok) {
+            System.out.println("Caso: " + source + "\n  esperado " + List.of(expected) + "\n  obtenido " + errors);
+        }
+        return ok ? 0 : 1;
+    }
+
+    private static Node parse(String source) {
+        Lexer lexer = new Lexer(source);
+        return new Parser(lexer.tokenize(), lexer.getSymbolTable()).parse();
+    }
+
+    private static MethodDeclaration firstMethod(String source) {
+        return (MethodDeclaration) ((BlockStatement) parse(source)).statements.get(0);
+    }
+
+    // Un método con 'statements' if/else sobre 'variables' variables y un while cada 50
+    private static String generate(int statements, int variables) {
+        Random random = new Random(5);
+        StringBuilder text = new StringBuilder("int grande(int a) {\n");
+        for (int v = 0; v < variables; v++) {
+            text.append("    int v").append(v).append(" = a;\n");
+        }
+        for (int i = 0; i < statements; i++) {
+            int x = random.nextInt(variables);
+            int y = random.nextInt(variables);
+            text.append("    if (v").append(x).append(" < v").append(y).append(") {\n")
+                    .append("        v").append(random.nextInt(variables)).append(" = v").append(x).append(" + ").append(i).append(";\n")
+                    .append("    } else {\n")
+                    .append("        v").append(random.nextInt(variables)).append(" = v").append(y).append(" - ").append(i).append(";\n")
+                    .append("    }\n");
+            if (i % 50 == 49) {
+                int z = random.nextInt(variables);
+                text.append("    while (v").append(z).append(" < ").append(i).append(") {\n")
+                        .append("        v").append(z).append(" = v").append(z).append(" + 1;\n")
+                        .append("        if (v").append(z).append(" > v").append(x).append(") {\n")
+                        .append("            break;\n")
+                        .append("        }\n")
+                        .append("    }\n");
+            }
+        }
+        text.append("    return v0;\n}\n");
+        return text.toString();
+    }
+}
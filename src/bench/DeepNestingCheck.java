@@ -0,0 +1,198 @@
+package bench;
+
+import analysis.ControlFlowGraph;
+import arena.AstArena;
+import ast.*;
+import cache.CompilationCache;
+import compiler.CompilationResult;
+import compiler.CompilerPipeline;
+import optimizer.Inliner;
+import optimizer.InliningReport;
+import serialization.AstReader;
+import serialization.AstWriter;
+import symboltable.SymbolTable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+// Un programa generado con un método de cien mil niveles de sentencias anidadas (if, while,
+// for, switch, bloques y algún catch) y una suma de cien mil términos tiene que pasar
+// por todas las fases sin desbordar la pila. Corre en un hilo con la pila por defecto, que es
+// más chica que la del hilo principal.
+// Uso: java bench.DeepNestingCheck [niveles]
+public class DeepNestingCheck {
+    private static final int KINDS = 5;
+    private static final int TRY_EVERY = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int levels = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        List<String> failures = new ArrayList<>();
+        Thread thread = new Thread(() -> run(levels, failures));
+        thread.setUncaughtExceptionHandler((t, e) -> failures.add("excepción: " + e));
+        thread.start();
+        thread.join();
+        for (String failure : failures) {
+            System.out.println(failure);
+        }
+        System.out.println(failures.isEmpty() ? "OK" : failures.size() + " errores");
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    private static void run(int levels, List<String> failures) {
+        String program = generate(levels);
+        System.out.printf("%d niveles, %d caracteres%n", levels, program.length());
+
+        long start = System.nanoTime();
+        CompilationResult result = new CompilerPipeline().compile(program);
+        time("léxico, sintáctico y flujo", start);
+        if (!result.getSemanticErrors().isEmpty()) {
+            failures.add("errores semánticos: " + result.getSemanticErrors().subList(0, Math.min(5, result.getSemanticErrors().size())));
+        }
+        Node ast = result.getAst();
+
+        start = System.nanoTime();
+        int nodes = NodeStructure.count(ast);
+        String text = ast.toString();
+        // Sin sangría: con cien mil niveles la salida sería cuadrática
+        String printed = new AstPrinter().indent("").toString(ast);
+        time("conteo, toString y AstPrinter", start);
+        System.out.printf("%d nodos, toString de %d caracteres%n", nodes, text.length());
+
+        start = System.nanoTime();
+        try {
+            AstReader reader = new AstReader(ByteBuffer.wrap(AstWriter.toBytes(ast)));
+            Node read = reader.toNode(reader.root());
+            if (!new AstPrinter().indent("").toString(read).equals(printed)) {
+                failures.add("el AST leído del formato binario es distinto");
+            }
+        } catch (IOException e) {
+            failures.add("formato binario: " + e);
+        }
+        AstArena arena = new AstArena();
+        Node rebuilt = arena.toNode(arena.fromNode(ast));
+        if (NodeStructure.count(rebuilt) != nodes || !rebuilt.toString().equals(text)) {
+            failures.add("el AST reconstruido de la arena es distinto");
+        }
+        time("AstWriter/AstReader y AstArena", start);
+
+        start = System.nanoTime();
+        try {
+            Path directory = Files.createTempDirectory("deep-nesting-cache");
+            CompilerPipeline cached = new CompilerPipeline(new CompilationCache(directory));
+            cached.compile(program);
+            CompilationResult loaded = cached.compile(program);
+            if (!loaded.isFromCache() || loaded.getSymbolTable().getAllTables().size() != result.getSymbolTable().getAllTables().size()
+                    || !loaded.getAst().toString().equals(text)) {
+                failures.add("el resultado leído de la caché es distinto");
+            }
+        } catch (IOException e) {
+            failures.add("caché: " + e);
+        }
+        time("caché (guardar y leer)", start);
+
+        start = System.nanoTime();
+        List<SymbolTable> tables = result.getSymbolTable().getAllTables();
+        SymbolTable deepest = tables.get(tables.size() - 1);
+        Map<String, ?> visible = deepest.getAllSymbols();
+        if (deepest.lookup("x") == null || !visible.containsKey("doble")) {
+            failures.add("el ámbito más profundo no ve los símbolos de afuera");
+        }
+        // La salida con sangría es cuadrática en la profundidad: solo importa que no se desborde
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            result.getSymbolTable().printTable("");
+        } finally {
+            System.setOut(out);
+        }
+        time("tabla de símbolos (" + tables.size() + " ámbitos)", start);
+
+        start = System.nanoTime();
+        MethodDeclaration deep = find(ast, "profundo");
+        ControlFlowGraph cfg = ControlFlowGraph.build(deep);
+        time("grafo de flujo (" + cfg.blockCount() + " bloques)", start);
+
+        start = System.nanoTime();
+        InliningReport report = new Inliner().maxGrowthPercent(1000).inline(ast);
+        if (report.inlinedSites() != 1) {
+            failures.add("llamadas reemplazadas: " + report.inlinedSites());
+        }
+        time("inlining", start);
+    }
+
+    // El nivel i abre según i % KINDS, y cada TRY_EVERY niveles un catch. Las condiciones son
+    // constantes y la suma usa una local del ámbito más interno: buscar un nombre de afuera
+    // recorre todos los ámbitos intermedios, y eso acá mediría otra cosa. Por lo mismo hay pocos
+    // catch: la variable de cada uno es una definición más en los conjuntos de bits del flujo.
+    private static String generate(int levels) {
+        StringBuilder out = new StringBuilder();
+        out.append("class E { }\n");
+        out.append("int doble(int a) { return a * 2; }\n");
+        out.append("void profundo(int x) {\n");
+        out.append("try { x = 1; } finally { x = 2; }\n");
+        Deque<String> closing = new ArrayDeque<>();
+        for (int i = 0; i < levels; i++) {
+            if (i % TRY_EVERY == TRY_EVERY - 1) {
+                // Anidado en el catch: dentro del try, cada nivel le agregaría aristas de
+                // excepción a todos los bloques de adentro
+                out.append("try { } catch (E e").append(i).append(") {\n");
+                closing.push("}\n");
+                continue;
+            }
+            switch (i % KINDS) {
+                case 0:
+                    out.append("if (1 > 0) {\n");
+                    closing.push("}\n");
+                    break;
+                case 1:
+                    out.append("while (1 > 2) {\n");
+                    closing.push("}\n");
+                    break;
+                case 2:
+                    out.append("for (; 1 < 0; ) {\n");
+                    closing.push("}\n");
+                    break;
+                case 3:
+                    out.append("switch (1) { case 1: {\n");
+                    closing.push("} break; }\n");
+                    break;
+                default:
+                    out.append("{\n");
+                    closing.push("}\n");
+            }
+        }
+        out.append("int z = doble(x);\n");
+        out.append("int y = z");
+        for (int i = 1; i < levels; i++) {
+            out.append(" + z");
+        }
+        out.append(";\n");
+        while (!closing.isEmpty()) {
+            out.append(closing.pop());
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static MethodDeclaration find(Node root, String name) {
+        for (Node node : ((BlockStatement) root).statements) {
+            if (node instanceof MethodDeclaration && ((MethodDeclaration) node).name.equals(name)) {
+                return (MethodDeclaration) node;
+            }
+        }
+        throw new IllegalStateException("No está el método " + name);
+    }
+
+    private static void time(String phase, long start) {
+        System.out.printf("  %-55s %10.1f ms%n", phase, (System.nanoTime() - start) / 1e6);
+    }
+}
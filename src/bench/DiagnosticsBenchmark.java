@@ -0,0 +1,145 @@
+package bench;
+
+import cache.CompilationCache;
+import compiler.CompilationResult;
+import compiler.CompilerPipeline;
+import diagnostics.Diagnostic;
+import diagnostics.DiagnosticCode;
+import diagnostics.Diagnostics;
+import lexer.Lexer;
+import lexer.Token;
+import parser.Parser;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Un archivo con el mismo error repetido (un nombre sin declarar usado cien mil veces) tiene
+// que dar un solo diagnóstico con sus ocurrencias, sin armar un mensaje por cada una. Compara el
+// análisis con los diagnósticos por defecto contra guardar y formatear cada error, como antes.
+// Comprueba además el límite por archivo, la entrega en orden a los oyentes y la caché.
+// Uso: java bench.DiagnosticsBenchmark [repeticiones]
+public class DiagnosticsBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int failures = 0;
+
+        String repeated = generate(repetitions, 1);
+        Diagnostics grouped = parse(repeated, new Diagnostics());
+        if (grouped.size() != 1 || grouped.getDiagnostics().get(0).getOccurrences() != repetitions
+                || !grouped.messages().get(0).equals("Error: Símbolo 'b' no declarado")) {
+            System.out.println("Agrupado: " + grouped.size() + " diagnósticos, " + grouped.messages());
+            failures++;
+        }
+
+        // Un símbolo distinto por línea: pasado el límite solo se cuentan
+        Diagnostics capped = parse(generate(500, 500), new Diagnostics().limit(50));
+        if (capped.size() != 50 || capped.suppressedCount() != 450 || capped.totalCount() != 500) {
+            System.out.println("Límite: " + capped.size() + " guardados, " + capped.suppressedCount() + " descartados");
+            failures++;
+        }
+
+        // Un símbolo que pasó el límite y se repite es un solo error oculto, con sus ocurrencias
+        Diagnostics repeatedCapped = parse(generate(6000, 60), new Diagnostics().limit(50));
+        if (repeatedCapped.size() != 50 || repeatedCapped.suppressedCount() != 10 || repeatedCapped.totalCount() != 6000) {
+            System.out.println("Límite con repeticiones: " + repeatedCapped.size() + " guardados, "
+                    + repeatedCapped.suppressedCount() + " descartados, " + repeatedCapped.totalCount() + " en total");
+            failures++;
+        }
+
+        List<Diagnostic> streamed = new ArrayList<>();
+        Diagnostics listened = parse(generate(200, 20), new Diagnostics().listener(streamed::add));
+        if (!streamed.equals(listened.getDiagnostics()) || streamed.size() != 20) {
+            System.out.println("Oyente: " + streamed.size() + " recibidos, " + listened.size() + " guardados");
+            failures++;
+        }
+
+        // Los mensajes son los mismos que armaba el Parser
+        failures += expect(DiagnosticCode.DUPLICATE_STRING_CASE.format("a"), "Error: Caso duplicado \"a\" en switch");
+        failures += expect(DiagnosticCode.CASE_TYPE.format("String", "int"),
+                "Error: Un caso de tipo 'String' no es compatible con un switch de tipo 'int'");
+        failures += expect(DiagnosticCode.UNDECLARED_VARIABLE.format("x"), "Error: Variable 'x' usada sin declarar.");
+
+        // La caché guarda los diagnósticos sin armar y los devuelve iguales, con sus ocurrencias
+        CompilerPipeline cached = new CompilerPipeline(new CompilationCache(Files.createTempDirectory("diagnostics-cache")));
+        String program = generate(1000, 10) + "int f() { return 1; println(1); }\n";
+        CompilationResult first = cached.compile(program);
+        CompilationResult second = cached.compile(program);
+        if (!second.isFromCache() || !second.getSemanticErrors().equals(first.getSemanticErrors())
+                || second.getDiagnostics().totalCount() != first.getDiagnostics().totalCount()) {
+            System.out.println("Caché: " + second.getSemanticErrors() + " en lugar de " + first.getSemanticErrors());
+            failures++;
+        }
+
+        List<Token> tokens = new Lexer(repeated).tokenize();
+        long[] grouping = measure(tokens, false);
+        long[] everything = measure(tokens, true);
+        System.out.printf("%d usos de un símbolo sin declarar%n", repetitions);
+        System.out.printf("  %-34s %8.1f ms %10.1f bytes por línea%n", "agrupados, sin formatear",
+                grouping[0] / 1e6, (double) grouping[1] / repetitions);
+        System.out.printf("  %-34s %8.1f ms %10.1f bytes por línea%n", "uno por uso, formateados",
+                everything[0] / 1e6, (double) everything[1] / repetitions);
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Mejor tiempo y bytes reservados del análisis (incluye analizar cada línea). 'everything' guarda cada ocurrencia y arma
+    // todos los mensajes, como hacía el Parser con su lista de strings.
+    private static long[] measure(List<Token> tokens, boolean everything) {
+        long best = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int run = 0; run < RUNS; run++) {
+            Diagnostics diagnostics = everything ? new Diagnostics().limit(Integer.MAX_VALUE).deduplicate(false) : new Diagnostics();
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            Parser parser = new Parser(tokens, Lexer.newRootTable());
+            parser.setDiagnostics(diagnostics);
+            parser.parse();
+            if (everything) {
+                for (String message : diagnostics.messages()) {
+                    if (message.isEmpty()) throw new IllegalStateException();
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            bytes = allocatedBytes() - allocated;
+        }
+        return new long[]{best, bytes};
+    }
+
+    // 'lines' asignaciones a 'symbols' nombres sin declarar, repartidos en orden
+    private static String generate(int lines, int symbols) {
+        StringBuilder out = new StringBuilder("int a = 0;\n");
+        for (int i = 0; i < lines; i++) {
+            out.append(symbols == 1 ? "b" : "b" + (i % symbols)).append(" = a + 1;\n");
+        }
+        return out.toString();
+    }
+
+    private static Diagnostics parse(String source, Diagnostics diagnostics) {
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer.tokenize(), lexer.getSymbolTable());
+        parser.setDiagnostics(diagnostics);
+        parser.parse();
+        return diagnostics;
+    }
+
+    private static int expect(String actual, String expected) {
+        if (!actual.equals(expected)) {
+            System.out.println("Mensaje: " + actual + " en lugar de " + expected);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
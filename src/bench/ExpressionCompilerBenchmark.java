@@ -0,0 +1,195 @@
+package bench;
+
+import ast.BlockStatement;
+import ast.Expression;
+import ast.Node;
+import ast.VariableDeclaration;
+import interpreter.CompiledExpression;
+import interpreter.ExpressionCompiler;
+import interpreter.RuntimeError;
+import lexer.Lexer;
+import parser.Parser;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Objects;
+
+// Comprueba que las expresiones compiladas a MethodHandle den lo mismo que el árbol del
+// intérprete (valores y errores), y mide una regla entera y una booleana evaluadas muchas veces:
+// con el árbol, con CompiledExpression (el handle en un campo, que HotSpot no incluye en el
+// bucle), con el mismo handle en un static final (que sí puede incluir) y en Java. Las variables
+// se asignan por lugar, sin buscar el nombre. Da tiempo y bytes reservados por evaluación;
+// compilada, la evaluación no tiene que encajonar nada.
+// Uso: java bench.ExpressionCompilerBenchmark [evaluaciones]
+public class ExpressionCompilerBenchmark {
+    private static final int RUNS = 5;
+    private static final int TREE = 0, FIELD = 1, CONSTANT = 2;
+    private static final String[] NAMES = {"árbol", "MethodHandle", "static final"};
+    private static final String DECLARATIONS = "int a = 0; int b = 0; int c = 0; String s = \"\"; String o = \"\";\n";
+
+    private static final String ARITHMETIC = "(a * 3 + b / 7 - c) * (a - b) - (c + 1) / (b - a * 2 - 1) + -a * (c - 5) / 3";
+    private static final String CONDITION = "a * 2 - c > b + c * 3 - a / 5";
+
+    public static void main(String[] args) {
+        int evaluations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int failures = 0;
+
+        ExpressionCompiler compiler = variables(new ExpressionCompiler());
+        compiler.set("a", 7).set("b", 3).set("c", -2).set("s", "x").set("o", 5);
+        failures += expect(compiler, "a + b * c", 1);
+        failures += expect(compiler, "(a - b) / c", -2);
+        failures += expect(compiler, "a / (b - 3)", "excepción: Error: División por cero");
+        failures += expect(compiler, "a / 0", "excepción: Error: División por cero");
+        failures += expect(compiler, "a * 2 > b + c", true);
+        failures += expect(compiler, "-(a - b) < c", true);
+        failures += expect(compiler, "-a + -c", -5);
+        failures += expect(compiler, "s + a", "x7");
+        failures += expect(compiler, "a == 7", true);
+        failures += expect(compiler, "s == \"x\"", true);
+        // 'o' es un String con un Integer adentro: el '-' lo mira al evaluar
+        failures += expect(compiler, "-o * 2", -10);
+        compiler.set("o", "y");
+        failures += expect(compiler, "-o", "excepción: Error: No se puede aplicar '-' a String");
+        failures += expect(compiler, "o - 1", "excepción: Error: No se puede aplicar '-' a String y int");
+
+        int expected = 0;
+        for (int i = 0; i < evaluations; i++) {
+            expected += arithmetic(i, i >> 3, 11 - (i & 15)) + (condition(i, i >> 3, 11 - (i & 15)) ? 1 : 0);
+        }
+        for (int mode : new int[]{TREE, FIELD, CONSTANT}) {
+            ExpressionCompiler rules = variables(new ExpressionCompiler());
+            CompiledExpression arithmetic = mode == TREE ? rules.interpret(parse(ARITHMETIC)) : rules.compile(parse(ARITHMETIC));
+            CompiledExpression condition = mode == TREE ? rules.interpret(parse(CONDITION)) : rules.compile(parse(CONDITION));
+            long best = Long.MAX_VALUE;
+            long bytes = 0;
+            int result = 0;
+            for (int run = 0; run < RUNS; run++) {
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                result = mode == CONSTANT ? Constant.loop(evaluations) : loop(rules, arithmetic, condition, evaluations);
+                best = Math.min(best, System.nanoTime() - start);
+                bytes = allocatedBytes() - allocated;
+            }
+            if (result != expected) {
+                System.out.println(NAMES[mode] + ": " + result + ", se esperaba " + expected);
+                failures++;
+            }
+            report(NAMES[mode], best, bytes, evaluations);
+            // Medio byte por evaluación deja lugar a lo que reserve el propio MXBean
+            if (mode != TREE && bytes > evaluations / 2) {
+                System.out.println(NAMES[mode] + ": la expresión compilada reserva memoria en cada evaluación");
+                failures++;
+            }
+        }
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            int result = 0;
+            for (int i = 0; i < evaluations; i++) {
+                result += arithmetic(i, i >> 3, 11 - (i & 15)) + (condition(i, i >> 3, 11 - (i & 15)) ? 1 : 0);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            if (result != expected) {
+                failures++;
+            }
+        }
+        report("Java", best, 0, evaluations);
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Los lugares se buscan una vez: en el bucle no hay más que la escritura en el frame
+    private static int loop(ExpressionCompiler rules, CompiledExpression arithmetic, CompiledExpression condition,
+                            int evaluations) {
+        int a = rules.slot("a");
+        int b = rules.slot("b");
+        int c = rules.slot("c");
+        int result = 0;
+        for (int i = 0; i < evaluations; i++) {
+            rules.set(a, i).set(b, i >> 3).set(c, 11 - (i & 15));
+            result += arithmetic.evaluateInt() + (condition.evaluateBoolean() ? 1 : 0);
+        }
+        return result;
+    }
+
+    // Las mismas reglas con los handles en campos static final, que HotSpot toma como constantes
+    private static final class Constant {
+        static final ExpressionCompiler RULES = variables(new ExpressionCompiler());
+        static final MethodHandle ARITHMETIC = RULES.compile(parse(ExpressionCompilerBenchmark.ARITHMETIC)).getHandle();
+        static final MethodHandle CONDITION = RULES.compile(parse(ExpressionCompilerBenchmark.CONDITION)).getHandle();
+        static final int A = RULES.slot("a"), B = RULES.slot("b"), C = RULES.slot("c");
+
+        static int loop(int evaluations) {
+            try {
+                int result = 0;
+                for (int i = 0; i < evaluations; i++) {
+                    RULES.set(A, i).set(B, i >> 3).set(C, 11 - (i & 15));
+                    result += (int) ARITHMETIC.invokeExact() + ((boolean) CONDITION.invokeExact() ? 1 : 0);
+                }
+                return result;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static ExpressionCompiler variables(ExpressionCompiler compiler) {
+        return compiler.variable("a", "int").variable("b", "int").variable("c", "int")
+                .variable("s", "String").variable("o", "String");
+    }
+
+    // Compilada y como árbol tienen que dar 'expected' (un valor, o "excepción: " y el mensaje)
+    private static int expect(ExpressionCompiler compiler, String source, Object expected) {
+        Expression expression = parse(source);
+        Object compiled = evaluate(compiler.compile(expression));
+        Object interpreted = evaluate(compiler.interpret(expression));
+        if (!Objects.equals(compiled, expected) || !Objects.equals(interpreted, expected)) {
+            System.out.println("Caso: " + source + "\n  compilada: " + compiled + "\n  árbol: " + interpreted
+                    + "\n  esperado: " + expected);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static Object evaluate(CompiledExpression expression) {
+        try {
+            return expression.evaluate();
+        } catch (RuntimeError e) {
+            return "excepción: " + e.getMessage();
+        }
+    }
+
+    private static void report(String name, long nanos, long bytes, int evaluations) {
+        System.out.printf("%-14s %8.1f ms  %6.1f ns/evaluación  %8.2f bytes/evaluación%n",
+                name, nanos / 1e6, (double) nanos / evaluations, (double) bytes / evaluations);
+    }
+
+    // Las dos reglas en Java
+    private static int arithmetic(int a, int b, int c) {
+        return (a * 3 + b / 7 - c) * (a - b) - (c + 1) / (b - a * 2 - 1) + -a * (c - 5) / 3;
+    }
+
+    private static boolean condition(int a, int b, int c) {
+        return a * 2 - c > b + c * 3 - a / 5;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    // La expresión como valor inicial de una variable, después de declarar las que usa. Los
+    // errores semánticos no importan: la expresión se compila igual y falla al evaluar.
+    private static Expression parse(String source) {
+        Lexer lexer = new Lexer(DECLARATIONS + "int r = " + source + ";");
+        Node ast = new Parser(lexer.tokenize(), lexer.getSymbolTable()).parse();
+        List<Node> statements = ((BlockStatement) ast).statements;
+        return (Expression) ((VariableDeclaration) statements.get(statements.size() - 1)).initializer;
+    }
+}
@@ -0,0 +1,229 @@
+package bench;
+
+import analysis.FlowChecker;
+import ast.*;
+import lexer.Lexer;
+import optimizer.CallGraph;
+import optimizer.Inliner;
+import optimizer.InliningReport;
+import parser.Parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Comprueba el inliner sobre casos chicos (recursión, renombres, nombres tapados, límites) y lo
+// mide sobre un programa generado con muchos métodos auxiliares: llamadas reemplazadas,
+// crecimiento del código y tiempo de la pasada. Después de pegar, el programa tiene que seguir
+// pasando los chequeos de flujo igual que antes.
+// Uso: java bench.InliningBenchmark [métodos que llaman]
+public class InliningBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int callers = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int failures = 0;
+
+        // Expresión: cada parámetro pasa a ser su argumento
+        failures += expect("int doble(int a) { return a * 2; } int g(int x) { return doble(x) + doble(x + 1); }",
+                new Inliner(), "g", 2, Map.of(), Set.of("x"));
+        // Sentencia: las locales pegadas se renombran y la 't' de g sigue siendo el parámetro
+        failures += expect("int h(int a) { int t = a + 1; return t * t; } int g(int t) { int r = h(t); return r + t; }",
+                new Inliner(), "g", 1, Map.of(), Set.of("t", "r", "a$h1", "t$h1"));
+        failures += expect("int h(int a) { int t = a + 1; t = t * 2; return t; } int g(int x) { x = h(x); return h(x); }",
+                new Inliner(), "g", 2, Map.of(), Set.of("x", "a$h1", "t$h1", "a$h2", "t$h2"));
+        // Recursión directa e indirecta
+        failures += expect("int fact(int n) { if (n < 2) { return 1; } return n * fact(n - 1); } "
+                        + "int par(int n) { if (n == 0) { return 1; } return impar(n - 1); } "
+                        + "int impar(int n) { if (n == 0) { return 0; } return par(n - 1); } "
+                        + "int g(int x) { return fact(x) + par(x); }",
+                new Inliner(), "g", 0, Map.of("recursivo", 5), Set.of("x"));
+        // Una local del que llama taparía la global que usa el método pegado
+        failures += expect("int total = 0; void sumar(int v) { total = total + v; } "
+                        + "void g(int x) { int total = 5; sumar(x); } void k(int x) { sumar(x); }",
+                new Inliner(), "k", 1, Map.of("captura", 1), Set.of("x", "v$sumar2"));
+        failures += expect("int n = 1; int leer() { return n; } class C { int n; int f() { return leer(); } }",
+                new Inliner(), "C.f", 0, Map.of("captura", 1), Set.of());
+        // Dentro de la clase los atributos son los mismos
+        failures += expect("class C { int n; int get() { return n; } int twice() { return get() + get(); } }",
+                new Inliner(), "C.twice", 2, Map.of(), Set.of());
+        // Un return antes del final no se puede pegar como bloque
+        failures += expect("int abs(int a) { if (a < 0) { return -a; } return a; } int g(int x) { int y = abs(x); return y; }",
+                new Inliner(), "g", 0, Map.of("forma", 1), Set.of("x", "y"));
+        // Con efectos el argumento no puede reemplazar al parámetro, pero como sentencia sí
+        failures += expect("int doble(int a) { return a * 2; } int g(int x) { int y = doble(x++) + 1; int z = doble(x++); return y + z; }",
+                new Inliner(), "g", 1, Map.of("argumentos", 1), Set.of("x", "y", "z", "a$doble1"));
+        // El método llamado lee la global después de otra llamada que podría cambiarla
+        failures += expect("int total = 0; int uno() { total = total + 1; return 1; } int suma(int a) { return uno() + a; } "
+                        + "int g(int x) { return suma(total) + suma(x); }",
+                new Inliner(), "g", 1, Map.of("argumentos", 1), Set.of("x"));
+        // Límites: profundidad, tamaño del método llamado y crecimiento
+        failures += expect("int f5(int a) { return a + 5; } int f4(int a) { return f5(a) + 4; } int f3(int a) { return f4(a) + 3; } "
+                        + "int f2(int a) { return f3(a) + 2; } int f1(int a) { return f2(a) + 1; }",
+                new Inliner().maxDepth(2), "f1", 1, Map.of("profundidad", 1), Set.of("a"));
+        failures += expect("int grande(int a) { int b = a + 1; int c = b * b; int d = c - a; return b + c + d; } "
+                        + "int g(int x) { return grande(x); }",
+                new Inliner().maxCalleeSize(10), "g", 0, Map.of("tamaño", 1), Set.of("x"));
+        failures += expect("int h(int a) { int t = a + 1; t = t * t; return t - a; } "
+                        + "int g(int x) { int y = h(x); y = h(y); y = h(y); return y; }",
+                new Inliner().maxCalleeSize(20).maxGrowthPercent(100), "g", 1, Map.of("crecimiento", 2), null);
+
+        String program = generate(callers, new Random(43));
+        Node ast = parse(program);
+        List<String> before = FlowChecker.check(ast);
+        CallGraph graph = CallGraph.build(ast);
+        long best = Long.MAX_VALUE;
+        InliningReport report = null;
+        for (int run = 0; run < RUNS; run++) {
+            Node copy = parse(program);
+            long start = System.nanoTime();
+            report = new Inliner().inline(copy);
+            best = Math.min(best, System.nanoTime() - start);
+            ast = copy;
+        }
+        List<String> after = FlowChecker.check(ast);
+        if (!after.equals(before)) {
+            System.out.println("Los chequeos de flujo cambiaron después del inlining: " + after);
+            failures++;
+        }
+        int remaining = countCalls(ast);
+        System.out.printf("%d métodos, %d aristas en el grafo de llamadas%n", graph.getMethods().size(), graph.edgeCount());
+        System.out.printf("%d llamadas reemplazadas, %d quedan; %d -> %d nodos (%+.1f%%) en %.2f ms%n",
+                report.inlinedSites(), remaining, report.sizeBefore(), report.sizeAfter(),
+                100.0 * (report.sizeAfter() - report.sizeBefore()) / report.sizeBefore(), best / 1e6);
+        System.out.println("Descartadas: " + report.getRejections());
+        if (report.inlinedSites() == 0) {
+            failures++;
+        }
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Aplica el inliner y compara las llamadas reemplazadas en 'method', los descartes y los
+    // nombres declarados en el método (null = no se miran). Los chequeos de flujo no pueden cambiar.
+    private static int expect(String source, Inliner inliner, String method, int sites,
+                              Map<String, Integer> rejections, Set<String> names) {
+        Node ast = parse(source);
+        List<String> before = FlowChecker.check(ast);
+        InliningReport report = inliner.inline(ast);
+        List<String> problems = new ArrayList<>();
+        InliningReport.MethodResult result = null;
+        for (InliningReport.MethodResult candidate : report.getMethods()) {
+            if (candidate.name.equals(method)) result = candidate;
+        }
+        if (result == null || result.inlinedSites != sites) {
+            problems.add("llamadas reemplazadas en " + method + ": " + (result == null ? "-" : result.inlinedSites));
+        }
+        rejections.forEach((reason, count) -> {
+            if (!count.equals(report.getRejections().get(reason))) {
+                problems.add("descartadas por " + reason + ": " + report.getRejections().get(reason));
+            }
+        });
+        MethodDeclaration declaration = find(ast, method);
+        if (names != null && declaration != null) {
+            Set<String> declared = new TreeSet<>();
+            for (VariableDeclaration parameter : declaration.parameters) {
+                declared.add(parameter.identifier);
+            }
+            collectDeclared(declaration.body, declared);
+            if (!declared.equals(new TreeSet<>(names))) {
+                problems.add("nombres declarados: " + declared);
+            }
+        }
+        List<String> after = FlowChecker.check(ast);
+        if (!after.equals(before)) {
+            problems.add("chequeos de flujo: " + after);
+        }
+        if (!problems.isEmpty()) {
+            System.out.println("Caso: " + source + "\n  " + String.join("\n  ", problems) + "\n" + report.format());
+        }
+        return problems.isEmpty() ? 0 : 1;
+    }
+
+    // Auxiliares de una expresión y de varias sentencias, y métodos que los llaman en
+    // expresiones, asignaciones, bucles y returns
+    private static String generate(int callers, Random random) {
+        int helpers = Math.max(4, callers / 20);
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < helpers; i++) {
+            if (i % 2 == 0) {
+                out.append("int h").append(i).append("(int a, int b) { return a * ").append(i + 2).append(" + b; }\n");
+            } else {
+                out.append("int h").append(i).append("(int a, int b) { int t = a + ").append(i)
+                        .append("; if (t > b) { t = t - b; } return t * 2; }\n");
+            }
+        }
+        for (int i = 0; i < callers; i++) {
+            String first = "h" + random.nextInt(helpers);
+            String second = "h" + random.nextInt(helpers);
+            String third = "h" + random.nextInt(helpers);
+            out.append("int g").append(i).append("(int x) {\n")
+                    .append("    int s = ").append(first).append("(x, 3);\n")
+                    .append("    for (int i = 0; i < x; i++) {\n")
+                    .append("        s = ").append(second).append("(s, i);\n")
+                    .append("    }\n")
+                    .append("    if (").append(first).append("(x, s) > 10) {\n")
+                    .append("        println(s);\n")
+                    .append("    }\n");
+            if (i > 0) {
+                out.append("    s = s + g").append(random.nextInt(i)).append("(x);\n");
+            }
+            out.append("    return ").append(third).append("(s, x);\n}\n");
+        }
+        return out.toString();
+    }
+
+    private static int countCalls(Node root) {
+        int count = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node instanceof FunctionCall && !((FunctionCall) node).getName().equals("println")) count++;
+            for (Node child : NodeStructure.children(node)) {
+                if (child != null) stack.push(child);
+            }
+        }
+        return count;
+    }
+
+    private static MethodDeclaration find(Node root, String qualifiedName) {
+        String className = qualifiedName.contains(".") ? qualifiedName.substring(0, qualifiedName.indexOf('.')) : null;
+        String methodName = qualifiedName.substring(qualifiedName.indexOf('.') + 1);
+        for (Node node : ((BlockStatement) root).statements) {
+            if (className == null && node instanceof MethodDeclaration && ((MethodDeclaration) node).name.equals(methodName)) {
+                return (MethodDeclaration) node;
+            }
+            if (className != null && node instanceof ClassDeclaration && ((ClassDeclaration) node).getName().equals(className)) {
+                for (MethodDeclaration member : ((ClassDeclaration) node).getMethods()) {
+                    if (member.name.equals(methodName)) return member;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void collectDeclared(Node node, Set<String> names) {
+        if (node instanceof VariableDeclaration) {
+            names.add(((VariableDeclaration) node).identifier);
+        }
+        for (Node child : NodeStructure.children(node)) {
+            if (child != null) collectDeclared(child, names);
+        }
+    }
+
+    private static Node parse(String source) {
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer.tokenize(), lexer.getSymbolTable());
+        Node ast = parser.parse();
+        if (!parser.getSemanticErrors().isEmpty()) {
+            throw new IllegalStateException("El programa tiene errores: " + parser.getSemanticErrors());
+        }
+        return ast;
+    }
+}
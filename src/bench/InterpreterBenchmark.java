@@ -0,0 +1,148 @@
+package bench;
+
+import ast.Node;
+import interpreter.Interpreter;
+import interpreter.RuntimeError;
+import lexer.Lexer;
+import parser.Parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+// Comprueba el intérprete sobre casos chicos (bucles, switch, excepciones, recursión, long,
+// float y double, y un nodo que deja de ver enteros) y mide un bucle numérico con los nodos especializados y sin
+// especializar: tiempo y bytes reservados por iteración. Especializado, el bucle no tiene que
+// encajonar nada.
+// Uso: java bench.InterpreterBenchmark [iteraciones]
+public class InterpreterBenchmark {
+    private static final int RUNS = 5;
+
+    private static final String LOOP = "int suma(int n) {\n"
+            + "    int s = 0;\n"
+            + "    for (int i = 0; i < n; i++) {\n"
+            + "        if (i / 3 * 3 == i) {\n"
+            + "            s = s + i * 2;\n"
+            + "        } else {\n"
+            + "            s = s - 1;\n"
+            + "        }\n"
+            + "        int j = 0;\n"
+            + "        while (j < 2) {\n"
+            + "            s = s + j;\n"
+            + "            j = j + 1;\n"
+            + "        }\n"
+            + "    }\n"
+            + "    return s;\n"
+            + "}\n";
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int failures = 0;
+
+        failures += expect("int t = 0; for (int i = 0; i < 5; i++) { t = t + i; } while (t < 100) { t = t * 2; } println(t);", "160");
+        failures += expect("int x = 7; if (x > 5) { println(\"grande\"); } else { println(\"chico\"); }", "grande");
+        failures += expect("int x = 2; switch (x) { case 1: println(1); case 2: println(2); case 3: println(3); break; default: println(9); }", "2\n3");
+        failures += expect("String c = \"b\"; switch (c) { case \"a\": println(1); break; case \"b\": println(2); break; }", "2");
+        failures += expect("int s = 0; for (int i = 0; i < 10; i++) { if (i == 3) { continue; } if (i == 6) { break; } s = s + i; } println(s);", "12");
+        failures += expect("int d = 0; try { println(1 / d); } catch (ArithmeticException e) { println(\"cero\"); } finally { println(\"fin\"); }", "cero\nfin");
+        failures += expect("int f() { try { return 1; } finally { return 2; } } println(f());", "2");
+        failures += expect("int fact(int n) { if (n < 2) { return 1; } return n * fact(n - 1); } println(fact(12));", "479001600");
+        failures += expect("int n = 3; int leer() { return n; } n = 4; println(leer() + -n);", "0");
+        failures += expect("int d = 0; try { try { println(1 / d); } finally { println(\"interno\"); } } catch (RuntimeException e) { println(\"externo\"); }", "interno\nexterno");
+        // El mismo '+' ve primero enteros y después strings: pasa a genérico sin evaluar dos veces
+        failures += expect("String f(String a) { return a + a; } println(f(1)); println(f(\"x\")); println(f(2));", "2\nxx\n4");
+        failures += expect("int i = 0; int inc() { i = i + 1; return i; } println(inc() + \"-\" + inc() + \"-\" + i++ + i);", "1-2-23");
+        // long, float y double van encajonados: la promoción y el ensanchamiento son los de Java
+        failures += expect("long x = 5L; long y = x + 1L; println(y);", "6");
+        failures += expect("long big = 2147483647; big = big + 1; println(big);", "2147483648");
+        failures += expect("double d = 1.5; float f = 2.5f; println(d * 2 + f); println(7 / 2.0); println(f * 2); println(-f);", "5.5\n3.5\n5.0\n-2.5");
+        failures += expect("long a = 10L; if (a > 3) { println(-a); } println(a == 10); double h = 1; println(h / 0);", "-10\ntrue\nInfinity");
+        failures += expect("long z = 0; try { println(5L / z); } catch (ArithmeticException e) { println(\"cero\"); }", "cero");
+        failures += expect("long fact(long n) { if (n < 2) { return 1; } return n * fact(n - 1); } println(fact(20));", "2432902008176640000");
+        failures += expect("long s = 0; for (long i = 0; i < 4; i++) { s = s + i; } float g = 3; println(s + \" \" + g);", "6 3.0");
+
+        Node ast = parse(LOOP);
+        int expected = reference(iterations);
+        for (boolean specialize : new boolean[]{true, false}) {
+            Interpreter interpreter = new Interpreter().specialize(specialize).load(ast);
+            long best = Long.MAX_VALUE;
+            long bytes = 0;
+            Object result = null;
+            for (int run = 0; run < RUNS; run++) {
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                result = interpreter.call("suma", iterations);
+                best = Math.min(best, System.nanoTime() - start);
+                bytes = allocatedBytes() - allocated;
+            }
+            if (!Integer.valueOf(expected).equals(result)) {
+                System.out.println("suma(" + iterations + ") = " + result + ", se esperaba " + expected);
+                failures++;
+            }
+            System.out.printf("%-16s %8.1f ms  %6.1f ns/iteración  %8.2f bytes/iteración%n",
+                    specialize ? "especializado" : "sin especializar", best / 1e6, (double) best / iterations,
+                    (double) bytes / iterations);
+            // Medio byte por iteración deja lugar a lo que reserve el propio MXBean
+            if (specialize && bytes > iterations / 2) {
+                System.out.println("El bucle especializado reserva memoria en cada iteración");
+                failures++;
+            }
+        }
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Ejecuta el programa y compara lo que imprime; 'expected' null solo pide que termine bien
+    private static int expect(String source, String expected) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+        String output;
+        try {
+            new Interpreter().output(out).load(parse(source)).run();
+            output = bytes.toString(StandardCharsets.UTF_8).trim().replace("\r\n", "\n");
+        } catch (RuntimeError | IllegalArgumentException e) {
+            output = "excepción: " + e.getMessage();
+        }
+        if (expected != null ? !output.equals(expected) : output.startsWith("excepción")) {
+            System.out.println("Caso: " + source + "\n  salida: " + output.replace("\n", " | ")
+                    + (expected != null ? "\n  esperada: " + expected.replace("\n", " | ") : ""));
+            return 1;
+        }
+        return 0;
+    }
+
+    // El mismo bucle en Java
+    private static int reference(int n) {
+        int s = 0;
+        for (int i = 0; i < n; i++) {
+            if (i / 3 * 3 == i) {
+                s = s + i * 2;
+            } else {
+                s = s - 1;
+            }
+            for (int j = 0; j < 2; j++) {
+                s = s + j;
+            }
+        }
+        return s;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static Node parse(String source) {
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer.tokenize(), lexer.getSymbolTable());
+        Node ast = parser.parse();
+        if (!parser.getSemanticErrors().isEmpty()) {
+            throw new IllegalStateException("El programa tiene errores: " + parser.getSemanticErrors());
+        }
+        return ast;
+    }
+}
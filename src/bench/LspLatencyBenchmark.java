@@ -0,0 +1,317 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.Token;
+import lexer.TokenType;
+import lsp.Json;
+import lsp.LspServer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Latencias del servidor LSP sobre un archivo generado de ~10.000 líneas, contra los
+// objetivos documentados en LspServer. El servidor corre en el mismo proceso, conectado por
+// pipes, así que no se mide el arranque de la JVM. Comprueba además que un mensaje con un
+// Content-Length inválido no tire el servidor y que renombrar con un análisis atrasado dé error.
+// Uso: java bench.LspLatencyBenchmark [líneas]
+public class LspLatencyBenchmark {
+    private static final long HOVER_TARGET_MS = 5;
+    private static final long KEYSTROKE_TARGET_MS = LspServer.DEFAULT_DEBOUNCE_MILLIS + 300;
+    private static final long OPEN_TARGET_MS = 500;
+    private static final int WARMUP_OPENS = 6;
+
+    private final OutputStream toServer;
+    private final Map<Long, CompletableFuture<Object>> responses = new ConcurrentHashMap<>();
+    // Cada diagnóstico publicado: uri y versión
+    private final BlockingQueue<Object[]> diagnostics = new LinkedBlockingQueue<>();
+    private long nextId = 1;
+
+    private LspLatencyBenchmark(OutputStream toServer) {
+        this.toServer = toServer;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        String text = generate(lines);
+
+        PipedOutputStream clientOut = new PipedOutputStream();
+        PipedInputStream serverIn = new PipedInputStream(clientOut, 1 << 20);
+        PipedOutputStream serverOut = new PipedOutputStream();
+        PipedInputStream clientIn = new PipedInputStream(serverOut, 1 << 20);
+        LspServer server = new LspServer(serverIn, serverOut);
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        LspLatencyBenchmark client = new LspLatencyBenchmark(clientOut);
+        Thread reader = new Thread(() -> client.readLoop(clientIn));
+        reader.setDaemon(true);
+        reader.start();
+
+        client.request("initialize", Json.of("capabilities", Json.of())).get();
+        client.notify("initialized", Json.of());
+        boolean ok = true;
+
+        // Las primeras aperturas incluyen la compilación JIT del Lexer, el Parser y el análisis de
+        // flujo: no se cuentan, pero se muestran. Con un solo procesador el JIT compite con el
+        // análisis y hacen falta varias para llegar al régimen.
+        long[] warmup = new long[WARMUP_OPENS];
+        for (int i = 0; i < warmup.length; i++) {
+            String warmupUri = "file:///bench/calentamiento" + i + ".txt";
+            long start = System.nanoTime();
+            client.notify("textDocument/didOpen", Json.of("textDocument",
+                    Json.of("uri", warmupUri, "languageId", "proyectocompiladores", "version", 1, "text", text)));
+            client.awaitDiagnostics(warmupUri, 1);
+            warmup[i] = System.nanoTime() - start;
+            client.notify("textDocument/didClose", Json.of("textDocument", Json.of("uri", warmupUri)));
+            client.awaitDiagnostics(warmupUri, -1);
+        }
+        System.out.printf("Aperturas en frío (sin objetivo): primera %.1f ms, última %.1f ms%n",
+                warmup[0] / 1e6, warmup[warmup.length - 1] / 1e6);
+
+        long[] open = new long[5];
+        for (int i = 0; i < open.length; i++) {
+            String uri = "file:///bench/abrir" + i + ".txt";
+            long start = System.nanoTime();
+            client.notify("textDocument/didOpen", Json.of("textDocument",
+                    Json.of("uri", uri, "languageId", "proyectocompiladores", "version", 1, "text", text)));
+            client.awaitDiagnostics(uri, 1);
+            open[i] = System.nanoTime() - start;
+        }
+        ok &= report("Diagnósticos al abrir", open, OPEN_TARGET_MS);
+
+        // Ráfaga de teclas cada 30 ms; solo debería analizarse la última versión
+        String uri = "file:///bench/editar.txt";
+        client.notify("textDocument/didOpen", Json.of("textDocument",
+                Json.of("uri", uri, "languageId", "proyectocompiladores", "version", 1, "text", text)));
+        client.awaitDiagnostics(uri, 1);
+        long[] keystroke = new long[5];
+        int version = 1;
+        int published = 0;
+        for (int burst = 0; burst < keystroke.length; burst++) {
+            StringBuilder edited = new StringBuilder(text).append("\n// ");
+            long lastChange = 0;
+            for (int key = 0; key < 20; key++) {
+                edited.append((char) ('a' + key));
+                client.notify("textDocument/didChange", Json.of(
+                        "textDocument", Json.of("uri", uri, "version", ++version),
+                        "contentChanges", List.of(Json.of("text", edited.toString()))));
+                lastChange = System.nanoTime();
+                Thread.sleep(30);
+            }
+            published += client.awaitDiagnostics(uri, version);
+            keystroke[burst] = System.nanoTime() - lastChange;
+        }
+        ok &= report("Diagnósticos tras la última tecla", keystroke, KEYSTROKE_TARGET_MS);
+        System.out.printf("  %d cambios, %d análisis publicados%n", keystroke.length * 20, published);
+
+        // Consultas sobre identificadores repartidos por todo el archivo
+        int[][] positions = identifierPositions(text, 500);
+        long[] hover = new long[positions.length];
+        long[] definition = new long[positions.length];
+        int answered = 0;
+        for (int i = 0; i < positions.length; i++) {
+            Map<String, Object> params = Json.of("textDocument", Json.of("uri", uri),
+                    "position", Json.of("line", positions[i][0], "character", positions[i][1]));
+            long start = System.nanoTime();
+            Object result = client.request("textDocument/hover", params).get();
+            hover[i] = System.nanoTime() - start;
+            if (result != null) answered++;
+            start = System.nanoTime();
+            client.request("textDocument/definition", params).get();
+            definition[i] = System.nanoTime() - start;
+        }
+        ok &= report("Hover", hover, HOVER_TARGET_MS);
+        ok &= report("Ir a la definición", definition, HOVER_TARGET_MS);
+        System.out.printf("  %d de %d consultas con símbolo%n", answered, positions.length);
+
+        // Documentos independientes abiertos a la vez: se analizan en paralelo
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            client.notify("textDocument/didOpen", Json.of("textDocument", Json.of("uri",
+                    "file:///bench/paralelo" + i + ".txt", "languageId", "proyectocompiladores", "version", 1, "text", text)));
+        }
+        for (int i = 0; i < 4; i++) {
+            client.awaitDiagnostics("file:///bench/paralelo" + i + ".txt", 1);
+        }
+        System.out.printf("4 documentos abiertos a la vez: %.1f ms (%d hilos)%n", (System.nanoTime() - start) / 1e6,
+                Runtime.getRuntime().availableProcessors());
+
+        // Un Content-Length que no es un número: el servidor lo saltea y sigue atendiendo
+        client.sendRaw("Content-Length: doce\r\n\r\n{\"jsonrpc\":\"2.0\",\"method\":\"initialized\"}");
+        Map<String, Object> hoverParams = Json.of("textDocument", Json.of("uri", uri),
+                "position", Json.of("line", positions[0][0], "character", positions[0][1]));
+        if (client.request("textDocument/hover", hoverParams).get(10, TimeUnit.SECONDS) == null) {
+            System.out.println("El servidor no responde después de un Content-Length inválido");
+            ok = false;
+        }
+
+        // Renombrar apenas llega un cambio: el último análisis es de la versión anterior
+        StringBuilder changed = new StringBuilder("// cambio\n").append(text);
+        client.notify("textDocument/didChange", Json.of("textDocument", Json.of("uri", uri, "version", ++version),
+                "contentChanges", List.of(Json.of("text", changed.toString()))));
+        Map<String, Object> renameParams = Json.of("textDocument", Json.of("uri", uri),
+                "position", Json.of("line", positions[0][0], "character", positions[0][1]), "newName", "otro");
+        try {
+            client.request("textDocument/rename", renameParams).get(10, TimeUnit.SECONDS);
+            System.out.println("Se renombró con un análisis de una versión anterior");
+            ok = false;
+        } catch (ExecutionException e) {
+            // ContentModified, lo esperado
+        }
+        client.awaitDiagnostics(uri, version);
+        // Ya analizada la versión actual, el renombrado sí se hace (una línea más abajo)
+        renameParams.put("position", Json.of("line", positions[0][0] + 1, "character", positions[0][1]));
+        if (client.request("textDocument/rename", renameParams).get(10, TimeUnit.SECONDS) == null) {
+            System.out.println("No se renombró con el análisis al día");
+            ok = false;
+        }
+
+        client.request("shutdown", null).get();
+        client.notify("exit", null);
+        System.out.println(ok ? "OK: se cumplen los objetivos" : "No se cumple algún objetivo");
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Agrega clases hasta llegar a la cantidad de líneas pedida
+    private static String generate(int lines) {
+        String oneClass = new WorkloadGenerator().seed(3).classes(1).generateString();
+        int linesPerClass = (int) oneClass.chars().filter(c -> c == '\n').count();
+        int classes = Math.max(1, (lines + linesPerClass - 1) / linesPerClass);
+        String text = new WorkloadGenerator().seed(3).classes(classes).generateString();
+        System.out.printf("Archivo de prueba: %d líneas, %d KB%n",
+                text.chars().filter(c -> c == '\n').count(), text.length() / 1024);
+        return text;
+    }
+
+    private static int[][] identifierPositions(String text, int count) {
+        List<int[]> identifiers = new ArrayList<>();
+        int line = 0;
+        int lineStart = 0;
+        int scanned = 0;
+        for (Token token : new Lexer(text).tokenize()) {
+            if (token.getType() != TokenType.IDENTIFIER) continue;
+            for (; scanned < token.getOffset(); scanned++) {
+                if (text.charAt(scanned) == '\n') {
+                    line++;
+                    lineStart = scanned + 1;
+                }
+            }
+            identifiers.add(new int[]{line, token.getOffset() - lineStart});
+        }
+        int[][] picked = new int[Math.min(count, identifiers.size())][];
+        for (int i = 0; i < picked.length; i++) {
+            picked[i] = identifiers.get((int) ((long) i * identifiers.size() / picked.length));
+        }
+        return picked;
+    }
+
+    private static boolean report(String label, long[] samples, long targetMillis) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        double p50 = sorted[sorted.length / 2] / 1e6;
+        double p99 = sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.99) - 1)] / 1e6;
+        boolean ok = p99 <= targetMillis;
+        System.out.printf("%-34s p50 %8.2f ms, p99 %8.2f ms (objetivo %d ms) %s%n", label, p50, p99, targetMillis,
+                ok ? "OK" : "NO");
+        return ok;
+    }
+
+    // -----------------------
+    // CLIENTE
+    // -----------------------
+
+    private CompletableFuture<Object> request(String method, Object params) throws IOException {
+        long id;
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        synchronized (this) {
+            id = nextId++;
+            responses.put(id, future);
+        }
+        send(Json.of("jsonrpc", "2.0", "id", id, "method", method, "params", params));
+        return future;
+    }
+
+    private synchronized void sendRaw(String message) throws IOException {
+        toServer.write(message.getBytes(StandardCharsets.UTF_8));
+        toServer.flush();
+    }
+
+    private void notify(String method, Object params) throws IOException {
+        send(Json.of("jsonrpc", "2.0", "method", method, "params", params));
+    }
+
+    // Espera los diagnósticos de esa versión; devuelve cuántos llegaron para el documento
+    private int awaitDiagnostics(String uri, int version) throws InterruptedException {
+        int received = 0;
+        while (true) {
+            Object[] entry = diagnostics.poll(30, TimeUnit.SECONDS);
+            if (entry == null) {
+                throw new IllegalStateException("No llegaron los diagnósticos de " + uri);
+            }
+            if (entry[0].equals(uri)) {
+                received++;
+                if ((Integer) entry[1] == version) return received;
+            }
+        }
+    }
+
+    private synchronized void send(Map<String, Object> message) throws IOException {
+        byte[] body = Json.write(message).getBytes(StandardCharsets.UTF_8);
+        toServer.write(("Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        toServer.write(body);
+        toServer.flush();
+    }
+
+    private void readLoop(InputStream in) {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(in));
+        try {
+            while (true) {
+                int length = -1;
+                String header;
+                while (!(header = readLine(input)).isEmpty()) {
+                    if (header.startsWith("Content-Length:")) {
+                        length = Integer.parseInt(header.substring(15).trim());
+                    }
+                }
+                byte[] body = new byte[length];
+                input.readFully(body);
+                Object message = Json.parse(new String(body, StandardCharsets.UTF_8));
+                if ("textDocument/publishDiagnostics".equals(Json.string(message, "method"))) {
+                    Map<String, Object> params = Json.object(message, "params");
+                    diagnostics.add(new Object[]{Json.string(params, "uri"), Json.integer(params, "version", -1)});
+                } else {
+                    Object id = ((Map<?, ?>) message).get("id");
+                    CompletableFuture<Object> future = responses.remove(((Number) id).longValue());
+                    if (future == null) continue;
+                    Object error = ((Map<?, ?>) message).get("error");
+                    if (error != null) {
+                        future.completeExceptionally(new IllegalStateException(Json.string(error, "message")));
+                    } else {
+                        future.complete(((Map<?, ?>) message).get("result"));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // El servidor terminó
+        }
+    }
+
+    private static String readLine(DataInputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) throw new EOFException();
+            if (c != '\r') line.append((char) c);
+        }
+        return line.toString();
+    }
+}
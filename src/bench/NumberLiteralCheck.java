@@ -0,0 +1,289 @@
+package bench;
+
+import ast.DoubleLiteral;
+import ast.LongLiteral;
+import ast.Node;
+import ast.NumberLiteral;
+import arena.AstArena;
+import cache.CompilationCache;
+import compiler.CompilationResult;
+import compiler.CompilerPipeline;
+import lexer.Lexer;
+import lexer.NumberKind;
+import lexer.NumberLiterals;
+import lexer.NumberToken;
+import lexer.Token;
+import serialization.AstReader;
+import serialization.AstWriter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Los literales numéricos que convierte el Lexer tienen que valer lo mismo que con
+// Integer/Long/Double/Float.parseX sobre el texto sin sufijo, el escaneo a mano tiene que cortar
+// igual que Lexer.TOKEN_PATTERN, las declaraciones con literales negados tienen que pasar el
+// análisis, y los nodos LongLiteral y DoubleLiteral tienen que sobrevivir al formato binario, la
+// arena y la caché. Al final mide, analizando el mismo fuente de punta a punta, cuánto tarda y
+// reserva el Lexer por literal convirtiendo desde los caracteres del fuente, contra pedirle además
+// el texto de cada token y contra lo de antes: el texto del token pasado después a parseInt.
+// Convertir desde los caracteres no deja de reservar: queda el token y su lugar en la lista.
+// Uso: java bench.NumberLiteralCheck [literales aleatorios]
+public class NumberLiteralCheck {
+    private static final int RUNS = 5;
+    private static final int LAZY = 0, WITH_TEXT = 1, PARSED = 2;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Random random = new Random(7);
+        int failures = 0;
+
+        List<String> literals = new ArrayList<>();
+        String[] fixed = {"0", "7", "2147483647", "2147483648", "4294967296", "9223372036854775807L",
+                "9223372036854775808L", "18446744073709551616L", "0x0", "0x7fffffff", "0xFFFFFFFF", "0x100000000",
+                "0xffffffffffffffffL", "0x00000000000000001L", "1.0", "0.1", "1e10", "1E-5", "3.4028235e38f",
+                "3.5e38f", "1.4e-45f", "1e-46f", "4.9e-324", "2e-324", "1.7976931348623157e308", "1e309",
+                "123456789012345678901234567890.5", "0.000000000000000000000000000001d", "1.5L", "9007199254740993.0"};
+        for (String text : fixed) {
+            literals.add(text);
+        }
+        for (int i = 0; i < count; i++) {
+            literals.add(randomLiteral(random));
+        }
+        for (String text : literals) {
+            failures += compare(text);
+        }
+
+        // Mismos cortes que el patrón de referencia, también donde un literal queda a medias
+        String source = String.join(" ", literals.subList(0, Math.min(literals.size(), 20_000)))
+                + " 0x 0xg 1e 1e+ 1.x 1..2 12Lx 00x5 1.5.5 3ef 0X1fl 7D";
+        List<Token> scanned = new Lexer(source).tokenize();
+        List<Token> matched = new Lexer(source).tokenizeWithPattern();
+        if (!sameTokens(scanned, matched)) {
+            System.out.println("El escaneo a mano no corta los literales como el patrón");
+            failures++;
+        }
+
+        failures += roundTrips("long l = 9223372036854775807L; double d = 1.5e-7; float f = 2.5f; int i = 0xFF;");
+        failures += declarations("int x = -5; int a = -2147483648; long b = -9223372036854775808L; double d = -1.5; int y = -x;", 0);
+        failures += declarations("int a = 2147483648;", 1);
+        failures += declarations("long b = 9223372036854775808L;", 1);
+
+        List<String> decimals = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            decimals.add(random.nextInt(4) == 0 ? random.nextInt(100_000) + "." + random.nextInt(1000)
+                    : String.valueOf(random.nextInt(Integer.MAX_VALUE)));
+        }
+        CharBuffer decimalSource = CharBuffer.wrap(String.join(" ", decimals).toCharArray());
+        long[][] results = measure(decimalSource);
+        long[] lazy = results[LAZY];
+        long[] eager = results[WITH_TEXT];
+        long[] parsed = results[PARSED];
+        System.out.printf("%d literales (enteros y decimales cortos)%n", decimals.size());
+        System.out.printf("  %-32s %8.1f ns %8.1f bytes por literal%n", "Lexer, desde los caracteres",
+                (double) lazy[0] / decimals.size(), (double) lazy[1] / decimals.size());
+        System.out.printf("  %-32s %8.1f ns %8.1f bytes por literal%n", "Lexer y texto del token",
+                (double) eager[0] / decimals.size(), (double) eager[1] / decimals.size());
+        System.out.printf("  %-32s %8.1f ns %8.1f bytes por literal%n", "Texto + parseInt/parseDouble",
+                (double) parsed[0] / decimals.size(), (double) parsed[1] / decimals.size());
+        // El texto de un literal es al menos un String con su arreglo: más de 24 bytes
+        if (eager[1] - lazy[1] < 24L * decimals.size() || parsed[1] - lazy[1] < 24L * decimals.size()) {
+            System.out.println("Convertir desde los caracteres sigue armando el texto del token");
+            failures++;
+        }
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static String randomLiteral(Random random) {
+        switch (random.nextInt(6)) {
+            case 0:
+                return Integer.toUnsignedString(random.nextInt());
+            case 1:
+                return Long.toUnsignedString(random.nextLong() >>> random.nextInt(64)) + "L";
+            case 2:
+                return "0x" + Long.toHexString(random.nextLong() >>> random.nextInt(64)) + (random.nextBoolean() ? "L" : "");
+            case 3:
+                return String.valueOf(Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE)).replace("Infinity", "1").replace("NaN", "2");
+            case 4:
+                return random.nextInt(1_000_000) + "." + random.nextInt(1_000_000) + (random.nextBoolean() ? "e" + (random.nextInt(80) - 40) : "");
+            default:
+                return random.nextInt(100_000) + "." + random.nextInt(10_000) + "f";
+        }
+    }
+
+    // Lo que daría Java para el mismo literal
+    private static int compare(String text) {
+        NumberToken token = NumberLiterals.token(text, 0);
+        String expected;
+        try {
+            expected = reference(text);
+        } catch (NumberFormatException e) {
+            expected = "fuera de rango";
+        }
+        String actual;
+        if (token.getKind() == NumberKind.INVALID) {
+            actual = "mal formado";
+        } else if (token.isOutOfRange() || token.needsMinus()) {
+            actual = "fuera de rango";
+        } else if (token.getKind() == NumberKind.INT) {
+            actual = "int " + token.intValue();
+        } else if (token.getKind() == NumberKind.LONG) {
+            actual = "long " + token.longValue();
+        } else if (token.getKind() == NumberKind.FLOAT) {
+            actual = "float " + Float.floatToIntBits((float) token.doubleValue());
+        } else {
+            actual = "double " + Double.doubleToLongBits(token.doubleValue());
+        }
+        if (!actual.equals(expected)) {
+            System.out.println(text + ": " + actual + " en lugar de " + expected);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static String reference(String text) {
+        char suffix = Character.toLowerCase(text.charAt(text.length() - 1));
+        String digits = suffix == 'l' ? text.substring(0, text.length() - 1) : text;
+        boolean hex = text.startsWith("0x") || text.startsWith("0X");
+        if (hex) {
+            return suffix == 'l' ? "long " + Long.parseUnsignedLong(digits.substring(2), 16)
+                    : "int " + Integer.parseUnsignedInt(digits.substring(2), 16);
+        }
+        boolean floating = suffix == 'f' || suffix == 'd' || text.contains(".") || text.contains("e") || text.contains("E");
+        if (floating && suffix == 'l') {
+            return "mal formado";
+        }
+        if (!floating) {
+            return suffix == 'l' ? "long " + Long.parseLong(digits) : "int " + Integer.parseInt(digits);
+        }
+        if (suffix == 'f') {
+            float value = Float.parseFloat(text);
+            boolean zero = value == 0 && !isZero(text);
+            return Float.isInfinite(value) || zero ? "fuera de rango" : "float " + Float.floatToIntBits(value);
+        }
+        double value = Double.parseDouble(text);
+        boolean zero = value == 0 && !isZero(text);
+        return Double.isInfinite(value) || zero ? "fuera de rango" : "double " + Double.doubleToLongBits(value);
+    }
+
+    // La mantisa es cero (el exponente no importa)
+    private static boolean isZero(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == 'e' || c == 'E') {
+                return true;
+            }
+            if (c >= '1' && c <= '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Las declaraciones con '-' tienen el tipo del literal, y el mínimo de int o long solo es
+    // válido negado: tiene que haber exactamente 'errors' errores semánticos
+    private static int declarations(String program, int errors) {
+        List<String> reported = new CompilerPipeline().compile(program).getSemanticErrors();
+        if (reported.size() != errors) {
+            System.out.println(program + ": " + reported);
+            return 1;
+        }
+        return 0;
+    }
+
+    private static int roundTrips(String program) throws IOException {
+        CompilationResult result = new CompilerPipeline().compile(program);
+        Node ast = result.getAst();
+        String text = ast.toString();
+        if (!result.getSemanticErrors().isEmpty() || !text.contains("LongLiteral{value=9223372036854775807}")
+                || !text.contains("DoubleLiteral{value=1.5E-7}") || !text.contains("DoubleLiteral{value=2.5, float}")) {
+            System.out.println("AST: " + result.getSemanticErrors() + "\n" + text);
+            return 1;
+        }
+        int failures = 0;
+        AstReader reader = new AstReader(ByteBuffer.wrap(AstWriter.toBytes(ast)));
+        if (!reader.toNode(reader.root()).toString().equals(text)) {
+            System.out.println("El formato binario no conserva los literales");
+            failures++;
+        }
+        AstArena arena = new AstArena();
+        if (!arena.toNode(arena.fromNode(ast)).toString().equals(text)) {
+            System.out.println("La arena no conserva los literales");
+            failures++;
+        }
+        CompilerPipeline cached = new CompilerPipeline(new CompilationCache(Files.createTempDirectory("number-cache")));
+        cached.compile(program);
+        CompilationResult loaded = cached.compile(program);
+        if (!loaded.isFromCache() || !loaded.getAst().toString().equals(text)) {
+            System.out.println("La caché no conserva los literales");
+            failures++;
+        }
+        return failures;
+    }
+
+    // Mejor tiempo total y bytes reservados de analizar todo el fuente y sacar el valor de cada
+    // literal, por modo: con el Lexer (LAZY), lo mismo pidiendo además el texto de cada token
+    // (WITH_TEXT), o pasando ese texto a parseInt/parseDouble como hacía el Parser (PARSED). Los
+    // modos se turnan en cada vuelta para que ninguno cargue solo con el calentamiento del JIT.
+    private static long[][] measure(CharBuffer source) {
+        long[][] results = new long[3][];
+        for (int mode = LAZY; mode <= PARSED; mode++) {
+            results[mode] = new long[]{Long.MAX_VALUE, Long.MAX_VALUE};
+        }
+        long sink = 0;
+        for (int run = 0; run < RUNS; run++) {
+            for (int mode = LAZY; mode <= PARSED; mode++) {
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                for (Token token : new Lexer(source.duplicate()).tokenize()) {
+                    if (mode == PARSED) {
+                        String text = token.getValue();
+                        sink += text.indexOf('.') >= 0
+                                ? Double.doubleToRawLongBits(Double.parseDouble(text))
+                                : Integer.parseInt(text);
+                    } else {
+                        sink += ((NumberToken) token).longValue();
+                        if (mode == WITH_TEXT) {
+                            sink += token.getValue().length();
+                        }
+                    }
+                }
+                results[mode][0] = Math.min(results[mode][0], System.nanoTime() - start);
+                results[mode][1] = Math.min(results[mode][1], allocatedBytes() - allocated);
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+        return results;
+    }
+
+    private static boolean sameTokens(List<Token> expected, List<Token> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Token a = expected.get(i);
+            Token b = actual.get(i);
+            if (a.getType() != b.getType() || a.getOffset() != b.getOffset() || !a.getValue().equals(b.getValue())) {
+                System.out.println("Token " + i + ": " + a + " en lugar de " + b);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,79 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.ParallelLexer;
+import lexer.Token;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// Prueba diferencial: el análisis léxico paralelo tiene que producir exactamente los mismos
+// tokens que el secuencial. Usa trozos muy chicos para que los cortes caigan a menudo dentro
+// de strings y comentarios, y al final compara tiempos sobre una entrada grande.
+// Uso: java bench.ParallelLexerCheck [casos aleatorios]
+public class ParallelLexerCheck {
+    private static final String[] FRAGMENTS = {
+            "\n", "\n", " ", "  ", "x", "total", "int", "while", "12", "0", "\"", "\"texto\n\"", "/*", "*/",
+            "//", "/* comentario\n con salto */", "+", "++", "=", "==", "!", "!=", ";", ":", "{", "}", "(", ")", "*", "/",
+            "1.5", "e3", "0x1F", "L", ".", "-"
+    };
+
+    public static void main(String[] args) {
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        Random random = new Random(42);
+        int failures = 0;
+
+        for (int seed = 0; seed < 20; seed++) {
+            String program = new WorkloadGenerator().seed(seed).classes(3).commentDensity(0.5).generateString();
+            for (int chunkSize : new int[]{1, 17, 256, 4096}) {
+                failures += compare("programa " + seed + ", trozos de " + chunkSize, program, pool, chunkSize);
+            }
+        }
+        // Texto arbitrario: strings y comentarios sin cerrar, cortes en cualquier lado
+        for (int i = 0; i < cases; i++) {
+            StringBuilder text = new StringBuilder();
+            int fragments = random.nextInt(400);
+            for (int j = 0; j < fragments; j++) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            failures += compare("aleatorio " + i, text.toString(), pool, 1 + random.nextInt(64));
+        }
+
+        String big = new WorkloadGenerator().seed(7).targetBytes(32L << 20).generateString();
+        failures += compare("entrada grande", big, pool, 1 << 20);
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int sequential = new Lexer(big).tokenize().size();
+            long middle = System.nanoTime();
+            // Lo que usan el pipeline y los proyectos: con un solo hilo en el pool es el secuencial
+            int parallel = new Lexer(big).tokenizeParallel().size();
+            long end = System.nanoTime();
+            System.out.printf("%d tokens: secuencial %.1f ms, paralelo %.1f ms (%d hilos)%n", sequential,
+                    (middle - start) / 1e6, (end - middle) / 1e6, pool.getParallelism());
+            if (parallel != sequential) failures++;
+        }
+
+        System.out.println(failures == 0 ? "OK: resultados idénticos" : failures + " diferencias");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static int compare(String label, String input, ForkJoinPool pool, int chunkSize) {
+        List<Token> expected = new Lexer(input).tokenize();
+        List<Token> actual = ParallelLexer.tokenize(input, pool, chunkSize);
+        if (expected.size() != actual.size()) {
+            System.out.println(label + ": " + expected.size() + " tokens esperados, " + actual.size() + " obtenidos");
+            return 1;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Token a = expected.get(i);
+            Token b = actual.get(i);
+            if (a.getType() != b.getType() || !a.getValue().equals(b.getValue())) {
+                System.out.println(label + ": difiere el token " + i + ": " + a + " / " + b);
+                return 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,133 @@
+package bench;
+
+import project.Project;
+import project.SourceFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Recompilación incremental de un proyecto generado de muchos archivos. Cada archivo declara un
+// método fN que llama a los de algunos archivos anteriores, y una clase de relleno.
+// Mide la compilación completa y el cambio de una línea, y comprueba que el resultado
+// incremental es igual al de compilar todo de nuevo.
+// Uso: java bench.ProjectRebuildBenchmark [archivos]
+public class ProjectRebuildBenchmark {
+    private static final int EDITS = 30;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Path directory = Files.createTempDirectory("proyecto");
+        Random random = new Random(7);
+        long bytes = 0;
+        for (int i = 0; i < count; i++) {
+            String text = generateFile(i, random);
+            bytes += text.length();
+            Files.writeString(directory.resolve(fileName(i)), text);
+        }
+        System.out.printf("Proyecto: %d archivos, %d KB%n", count, bytes / 1024);
+
+        long start = System.nanoTime();
+        Project project = Project.load(directory);
+        long full = System.nanoTime() - start;
+        int failures = project.errorCount();
+        System.out.printf("Compilación completa: %.0f ms, %d dependencias, %d errores%n",
+                full / 1e6, project.getGraph().edgeCount(), project.errorCount());
+
+        // Cambio de una línea en archivos al azar
+        long[] times = new long[EDITS];
+        int rebuilt = 0;
+        for (int e = 0; e < EDITS; e++) {
+            int target = random.nextInt(count);
+            Path path = directory.resolve(fileName(target));
+            String text = project.getFile(path).getText().toString()
+                    .replace("int x = a + " + target + ";", "int x = a + " + target + " + " + e + ";");
+            start = System.nanoTime();
+            Set<SourceFile> analyzed = project.update(path, text);
+            times[e] = System.nanoTime() - start;
+            rebuilt += analyzed.size();
+            if (!analyzed.containsAll(project.getGraph().dependentsOf(project.getFile(path)))) {
+                failures++;
+            }
+        }
+        Arrays.sort(times);
+        System.out.printf("Cambio de una línea: p50 %.2f ms, máx %.2f ms, %.1f archivos analizados de media (%.0fx más rápido)%n",
+                times[EDITS / 2] / 1e6, times[EDITS - 1] / 1e6, (double) rebuilt / EDITS, (double) full / times[EDITS / 2]);
+
+        // El archivo más usado
+        Path library = directory.resolve(fileName(0));
+        start = System.nanoTime();
+        Set<SourceFile> analyzed = project.update(library, project.getFile(library).getText() + "\n");
+        System.out.printf("Cambio en %s: %.2f ms, %d archivos analizados%n", library.getFileName(),
+                (System.nanoTime() - start) / 1e6, analyzed.size());
+
+        // Renombrar un método exportado rompe a quienes lo llaman; volver atrás los arregla
+        int target = count / 2;
+        Path path = directory.resolve(fileName(target));
+        String original = project.getFile(path).getText().toString();
+        Set<SourceFile> callers = project.getGraph().dependentsOf(project.getFile(path));
+        project.update(path, original.replace("int f" + target + "(", "int g" + target + "("));
+        int broken = 0;
+        for (SourceFile caller : callers) {
+            if (!caller.getErrors().isEmpty()) broken++;
+        }
+        project.update(path, original);
+        System.out.printf("Renombrar f%d: %d de %d llamadores con errores, %d errores tras deshacerlo%n",
+                target, broken, callers.size(), project.errorCount());
+        if (broken != callers.size() || callers.isEmpty() || project.errorCount() != 0) {
+            failures++;
+        }
+
+        // Lo incremental tiene que coincidir con compilar todo desde cero
+        Project fresh = new Project();
+        for (SourceFile file : project.getFiles()) {
+            fresh.stage(file.getPath(), file.getText());
+        }
+        fresh.build();
+        for (SourceFile file : project.getFiles()) {
+            SourceFile other = fresh.getFile(file.getPath());
+            if (!file.getErrors().equals(other.getErrors())
+                    || !names(project.getGraph().dependenciesOf(file)).equals(names(fresh.getGraph().dependenciesOf(other)))) {
+                failures++;
+            }
+        }
+
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(directory);
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static String fileName(int index) {
+        return String.format("modulo%05d%s", index, Project.SOURCE_EXTENSION);
+    }
+
+    // Los primeros archivos hacen de biblioteca: los demás los llaman más seguido
+    private static String generateFile(int index, Random random) {
+        StringBuilder text = new StringBuilder();
+        text.append("// Módulo ").append(index).append('\n');
+        text.append("int f").append(index).append("(int a) {\n");
+        text.append("    int x = a + ").append(index).append(";\n");
+        Set<Integer> calls = new TreeSet<>();
+        for (int c = 0; c < 3 && index > 0; c++) {
+            calls.add(random.nextBoolean() ? random.nextInt(Math.min(index, 10)) : random.nextInt(index));
+        }
+        for (int call : calls) {
+            text.append("    f").append(call).append("(x);\n");
+        }
+        text.append("    return x;\n}\n");
+        text.append(new WorkloadGenerator().seed(index).classes(1).methodsPerClass(2).statementsPerBlock(4)
+                .maxDepth(2).generateString()
+                .replace("class Clase0 {", "class Modulo" + index + " {"));
+        return text.toString();
+    }
+
+    private static Set<String> names(Set<SourceFile> files) {
+        Set<String> names = new TreeSet<>();
+        for (SourceFile file : files) names.add(file.getPath().toString());
+        return names;
+    }
+}
@@ -0,0 +1,99 @@
+package bench;
+
+import cache.CompilationCache;
+import compiler.CompilationResult;
+import compiler.CompilerPipeline;
+import lexer.Token;
+import lexer.TokenType;
+import symboltable.ReferenceIndex;
+import symboltable.Symbol;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+// Verifica el índice de referencias sobre un programa generado (cada uso apunta a un token con
+// el nombre del símbolo, la caché lo devuelve igual) y mide consultas y tamaño.
+// Uso: java bench.ReferenceIndexBenchmark [MB]
+public class ReferenceIndexBenchmark {
+    public static void main(String[] args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        String source = new WorkloadGenerator().seed(11).targetBytes((long) megabytes << 20).generateString();
+
+        long start = System.nanoTime();
+        CompilationResult result = new CompilerPipeline().compile(source);
+        long compile = System.nanoTime() - start;
+        ReferenceIndex index = result.getReferences();
+        List<Token> tokens = result.getTokens();
+        int failures = 0;
+
+        // Cada uso registrado cae sobre un identificador con el mismo nombre
+        long references = 0;
+        for (Symbol symbol : index.getSymbols()) {
+            for (int offset : index.references(symbol)) {
+                references++;
+                if (!source.startsWith(symbol.getName(), offset) || index.symbolAt(offset) != symbol) {
+                    failures++;
+                }
+            }
+        }
+
+        // Consulta por posición sobre todos los identificadores
+        int identifiers = 0;
+        int resolved = 0;
+        start = System.nanoTime();
+        for (Token token : tokens) {
+            if (token.getType() == TokenType.IDENTIFIER) {
+                identifiers++;
+                if (index.symbolAt(token.getOffset()) != null) resolved++;
+            }
+        }
+        long byPosition = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < 100_000; i++) {
+            found += index.lookup("v" + (i % 50)).size();
+        }
+        long byName = System.nanoTime() - start;
+
+        // Ida y vuelta por la caché: mismos símbolos, mismas posiciones
+        Path directory = Files.createTempDirectory("refcache");
+        CompilationCache cache = new CompilationCache(directory);
+        CompilerPipeline cached = new CompilerPipeline(cache);
+        cached.compile(source);
+        CompilationResult reloaded = cached.compile(source);
+        ReferenceIndex copy = reloaded.getReferences();
+        if (!reloaded.isFromCache() || copy.getSymbols().size() != index.getSymbols().size()) {
+            failures++;
+        } else {
+            for (int i = 0; i < index.getSymbols().size(); i++) {
+                Symbol a = index.getSymbols().get(i);
+                Symbol b = copy.getSymbols().get(i);
+                if (!a.getName().equals(b.getName()) || a.getOffset() != b.getOffset()
+                        || !Arrays.equals(index.references(a), copy.references(b))) {
+                    failures++;
+                }
+            }
+        }
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(directory);
+
+        System.out.printf("Fuente: %d KB, compilación con índice %.1f ms%n",
+                source.getBytes(StandardCharsets.UTF_8).length / 1024, compile / 1e6);
+        System.out.printf("Símbolos: %d, usos: %d, sin usar: %d%n",
+                index.getSymbols().size(), references, index.unusedSymbols().size());
+        System.out.printf("Índice: %d KB para %d apariciones (como pares de int[] serían %d KB)%n",
+                index.usedBytes() / 1024, index.getOccurrenceCount(),
+                (references * 4 + index.getOccurrenceCount() * 8L) / 1024);
+        System.out.printf("Por posición: %d identificadores, %d resueltos, %.0f ns por consulta%n",
+                identifiers, resolved, (double) byPosition / identifiers);
+        System.out.printf("Por nombre: %.0f ns por consulta (%d símbolos encontrados)%n", byName / 100_000.0, found);
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,96 @@
+package bench;
+
+import lexer.CharScanner;
+import lexer.Lexer;
+import lexer.Token;
+
+import java.util.List;
+import java.util.Random;
+
+// Compara el análisis léxico con el patrón de referencia, el recorrido escalar y el vectorial.
+// Primero verifica que los tres den los mismos tokens (incluidos casos raros: strings y
+// comentarios sin cerrar, terminadores de línea Unicode, pares sustitutos) y después mide
+// sobre un programa realista y sobre uno con mucha sangría y líneas en blanco.
+// Uso: java --add-modules jdk.incubator.vector bench.ScanBenchmark [MB] [repeticiones]
+public class ScanBenchmark {
+    private static final String[] FRAGMENTS = {
+            "\n", " ", "\t\t", "        ", "\r\n", "\u000B", "\f", "\u2028", "\u0085", "\u00A0", "x", "_tmp9",
+            "Total", "int", "while", "0123", "9", "\"", "\"texto\"", "/*", "*/", "//", "/", "*", "+", "++", "-", "--",
+            "=", "==", "!", "!=", "<", "<=", ">=", ";", ":", "{", "}", "(", ")", ".", ",", "ñandú", "😀", "\uDE00", "@"
+    };
+
+    public static void main(String[] args) {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        CharScanner vector = CharScanner.best();
+        CharScanner scalar = CharScanner.scalar();
+        System.out.println("Recorrido disponible: " + vector.name());
+
+        Random random = new Random(7);
+        int failures = 0;
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            int fragments = random.nextInt(300);
+            for (int j = 0; j < fragments; j++) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            failures += verify("aleatorio " + i, text.toString(), scalar, vector);
+        }
+
+        String realistic = new WorkloadGenerator().seed(1).targetBytes((long) megabytes << 20).generateString();
+        String spacious = new WorkloadGenerator().seed(2).targetBytes((long) megabytes << 20).commentDensity(0.4)
+                .generateString().replace("\n", "\n\n                                ");
+        failures += verify("realista", realistic, scalar, vector);
+        failures += verify("con mucha sangría", spacious, scalar, vector);
+        if (failures > 0) {
+            System.out.println(failures + " diferencias con el patrón de referencia");
+            System.exit(1);
+        }
+        System.out.println("OK: los tres recorridos dan los mismos tokens");
+
+        measure("realista", realistic, repetitions, scalar, vector);
+        measure("con mucha sangría", spacious, repetitions, scalar, vector);
+    }
+
+    private static int verify(String label, String input, CharScanner scalar, CharScanner vector) {
+        List<Token> expected = new Lexer(input).tokenizeWithPattern();
+        for (CharScanner scanner : new CharScanner[]{scalar, vector}) {
+            List<Token> actual = new Lexer(input).tokenize(scanner);
+            if (expected.size() != actual.size()) {
+                System.out.println(label + " (" + scanner.name() + "): " + expected.size() + " tokens esperados, "
+                        + actual.size() + " obtenidos");
+                return 1;
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                Token a = expected.get(i);
+                Token b = actual.get(i);
+                if (a.getType() != b.getType() || !a.getValue().equals(b.getValue())) {
+                    System.out.println(label + " (" + scanner.name() + "): difiere el token " + i + ": " + a + " / " + b);
+                    return 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static void measure(String label, String input, int repetitions, CharScanner scalar, CharScanner vector) {
+        long pattern = Long.MAX_VALUE;
+        long scalarBest = Long.MAX_VALUE;
+        long vectorBest = Long.MAX_VALUE;
+        for (int i = 0; i < repetitions; i++) {
+            long start = System.nanoTime();
+            new Lexer(input).tokenizeWithPattern();
+            pattern = Math.min(pattern, System.nanoTime() - start);
+            start = System.nanoTime();
+            new Lexer(input).tokenize(scalar);
+            scalarBest = Math.min(scalarBest, System.nanoTime() - start);
+            start = System.nanoTime();
+            new Lexer(input).tokenize(vector);
+            vectorBest = Math.min(vectorBest, System.nanoTime() - start);
+        }
+        double megabytes = input.length() / 1048576.0;
+        System.out.printf("%-18s patrón %8.1f ms | escalar %8.1f ms (%.0f MB/s) | %s %8.1f ms (%.0f MB/s)%n",
+                label, pattern / 1e6, scalarBest / 1e6, megabytes / (scalarBest / 1e9),
+                vector.name(), vectorBest / 1e6, megabytes / (vectorBest / 1e9));
+    }
+}
@@ -0,0 +1,124 @@
+package bench;
+
+import cache.CompilationCache;
+import compiler.CompilationResult;
+import compiler.CompilationSession;
+import compiler.CompilerPipeline;
+import lexer.Lexer;
+import lexer.Token;
+import symboltable.Symbol;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Muchos archivos chicos compilados uno tras otro, como la CLI: con una CompilationSession los
+// buffers del Lexer, el pool de textos de token y las hojas del AST se reutilizan de un archivo
+// al siguiente. Compara tiempo y bytes reservados por archivo contra compilar cada uno desde
+// cero, y comprueba que los tokens, el AST y los errores sean los mismos.
+// Uso: java bench.SessionBenchmark [archivos] [métodos por archivo]
+public class SessionBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int methods = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int failures = 0;
+
+        Path directory = Files.createTempDirectory("session-benchmark");
+        List<Path> files = new ArrayList<>();
+        long totalBytes = 0;
+        for (int i = 0; i < fileCount; i++) {
+            Path file = directory.resolve("f" + i + ".txt");
+            new WorkloadGenerator().seed(i).classes(1).methodsPerClass(methods).maxDepth(2).generate(file);
+            files.add(file);
+            totalBytes += Files.size(file);
+        }
+
+        // Se compara archivo por archivo: con la sesión los tokens valen hasta la próxima compilación
+        CompilerPipeline plain = new CompilerPipeline();
+        CompilerPipeline pooled = new CompilerPipeline();
+        pooled.setSession(new CompilationSession());
+        for (Path file : files) {
+            CompilationResult expected = plain.compileFile(file);
+            CompilationResult actual = pooled.compileFile(file);
+            if (!sameTokens(expected.getTokens(), actual.getTokens())
+                    || !expected.getAst().toString().equals(actual.getAst().toString())
+                    || !expected.getSemanticErrors().equals(actual.getSemanticErrors())
+                    || !expected.getSymbolTable().getAllSymbols().keySet().equals(actual.getSymbolTable().getAllSymbols().keySet())) {
+                System.out.println("Resultado distinto con la sesión: " + file.getFileName());
+                failures++;
+            }
+        }
+
+        // Los símbolos predefinidos vuelven de la caché como las instancias compartidas
+        CompilerPipeline cached = new CompilerPipeline(new CompilationCache(Files.createTempDirectory("session-cache")));
+        String program = "void f() { println(1); }\n";
+        cached.compile(program);
+        CompilationResult loaded = cached.compile(program);
+        List<Symbol> println = loaded.getReferences().lookup("println");
+        if (!loaded.isFromCache() || println.size() != 1 || println.get(0) != Lexer.newRootTable().lookup("println")) {
+            System.out.println("Caché: println se leyó como " + println);
+            failures++;
+        }
+
+        long[] fresh = measure(files, null);
+        long[] session = measure(files, new CompilationSession());
+        System.out.printf("%d archivos de %d bytes en promedio%n", fileCount, totalBytes / fileCount);
+        System.out.printf("  %-22s %8.3f ms por archivo %10.0f bytes por archivo%n", "sin sesión",
+                fresh[0] / 1e6 / fileCount, (double) fresh[1] / fileCount);
+        System.out.printf("  %-22s %8.3f ms por archivo %10.0f bytes por archivo%n", "con sesión",
+                session[0] / 1e6 / fileCount, (double) session[1] / fileCount);
+        if (session[1] >= fresh[1]) {
+            System.out.println("La sesión no reserva menos memoria");
+            failures++;
+        }
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Mejor tiempo y bytes reservados de compilar todos los archivos; la sesión dura toda la corrida
+    private static long[] measure(List<Path> files, CompilationSession session) throws IOException {
+        long best = Long.MAX_VALUE;
+        long bytes = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            CompilerPipeline pipeline = new CompilerPipeline();
+            if (session != null) {
+                pipeline.setSession(session);
+            }
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            for (Path file : files) {
+                pipeline.compileFile(file);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+            bytes = Math.min(bytes, allocatedBytes() - allocated);
+        }
+        return new long[]{best, bytes};
+    }
+
+    private static boolean sameTokens(List<Token> expected, List<Token> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            Token a = expected.get(i);
+            Token b = actual.get(i);
+            if (a.getType() != b.getType() || a.getOffset() != b.getOffset() || !a.getValue().equals(b.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,84 @@
+package bench;
+
+import compiler.CompilationResult;
+import compiler.CompilerPipeline;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Compila programas generados de tamaño creciente y verifica que la memoria del pipeline
+// crezca como mucho en proporción a la entrada (bytes de heap por byte de fuente acotados).
+// Uso: java bench.SoakRunner [tamaño máximo, p. ej. 64m] [semilla]
+public class SoakRunner {
+    // Margen tolerado sobre el cociente memoria/entrada del tamaño más chico, que ya incluye
+    // el consumo fijo de la JVM; un cociente que sube con la entrada indica crecimiento superlineal
+    private static final double MAX_GROWTH = 1.5;
+
+    public static void main(String[] args) throws Exception {
+        long maxBytes = args.length > 0 ? WorkloadGenerator.parseSize(args[0]) : 16L << 20;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        Path dir = Files.createTempDirectory("soak");
+        double firstRatio = 0;
+        double maxRatio = 0;
+        System.out.printf("%12s %10s %12s %12s %10s%n", "Entrada", "ms", "Pico MB", "Retenido MB", "Heap/byte");
+        for (long size = 1L << 20; size <= maxBytes; size *= 2) {
+            Path file = dir.resolve("soak-" + size + ".txt");
+            new WorkloadGenerator().seed(seed).targetBytes(size).generate(file);
+            long inputBytes = Files.size(file);
+
+            System.gc();
+            resetPeaks();
+            long start = System.nanoTime();
+            CompilationResult result = new CompilerPipeline().compileFile(file);
+            long elapsed = System.nanoTime() - start;
+            if (!result.getSemanticErrors().isEmpty()) {
+                throw new IllegalStateException("El programa generado tiene errores: " + result.getSemanticErrors().get(0));
+            }
+            long peak = peakHeap();
+            System.gc();
+            long retained = usedHeap();
+            // El resultado sigue vivo hasta acá para que la medición de lo retenido lo incluya
+            result.getAst();
+
+            double ratio = (double) peak / inputBytes;
+            if (firstRatio == 0) firstRatio = ratio;
+            maxRatio = Math.max(maxRatio, ratio);
+            System.out.printf("%12d %10.1f %12.1f %12.1f %10.1f%n", inputBytes, elapsed / 1e6,
+                    peak / 1048576.0, retained / 1048576.0, ratio);
+            Files.delete(file);
+        }
+        Files.delete(dir);
+
+        boolean bounded = maxRatio <= firstRatio * MAX_GROWTH;
+        System.out.printf("Crecimiento del cociente: %.2fx (límite %.2fx) -> %s%n", maxRatio / firstRatio, MAX_GROWTH,
+                bounded ? "OK" : "FALLA");
+        System.exit(bounded ? 0 : 1);
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    // Suma de los picos por región: cota superior del pico real, alcanza para comparar tamaños
+    private static long peakHeap() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
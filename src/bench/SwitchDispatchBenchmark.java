@@ -0,0 +1,255 @@
+package bench;
+
+import analysis.FlowChecker;
+import ast.BlockStatement;
+import ast.CaseStatement;
+import ast.MethodDeclaration;
+import ast.Node;
+import ast.SwitchStatement;
+import lexer.Lexer;
+import lowering.SwitchDispatch;
+import lowering.SwitchLowering;
+import parser.Parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Comprueba el análisis y los chequeos de switch, y compara el despacho de SwitchLowering con
+// la cadena if/else equivalente (comparar el valor con cada caso en orden) sobre switches de
+// enteros densos, enteros dispersos y strings.
+// Uso: java bench.SwitchDispatchBenchmark [casos] [consultas]
+public class SwitchDispatchBenchmark {
+    private static final int RUNS = 5;
+    private static final int QUERIES = 4096; // consultas distintas, se recorren en ciclo
+
+    private static long sink;
+
+    public static void main(String[] args) {
+        int caseCount = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+        int failures = 0;
+
+        failures += expect("int f(int x) { switch (x) { case 1: return 1; case 1: return 2; default: return 0; } }",
+                "Error: Caso duplicado 1 en switch");
+        failures += expect("int f(int x) { switch (x) { default: return 1; default: return 2; } }",
+                "Error: Más de un 'default' en switch");
+        failures += expect("int f(int x) { switch (x) { case \"a\": return 1; default: return 0; } }",
+                "Error: Un caso de tipo 'String' no es compatible con un switch de tipo 'int'");
+        failures += expect("int f(int x, int y) { switch (x) { case y: return 1; default: return 0; } }",
+                "Error: El valor de un caso debe ser una constante");
+        // Sin default el switch puede no entrar en ningún caso
+        failures += expect("int f(int x) { switch (x) { case 1: return 1; case 2: return 2; } }",
+                "Error: El método 'f' puede terminar sin devolver");
+        failures += expect("int f(int x) { switch (x) { case 1: return 1; default: return 0; } }");
+        failures += expect("int f(int x) { int y; switch (x) { case 1: y = 1; case 2: y = 2; break; default: y = 3; } return y; }");
+        failures += expect("int f(int x) { int y; switch (x) { case 1: y = 1; break; case 2: break; default: y = 3; } return y; }",
+                "Error: La variable 'y' puede usarse sin haber sido asignada");
+        failures += expect("void f(int x) { switch (x) { case 1: break; println(x); } }",
+                "Error: Código inalcanzable después de 'break'");
+        failures += expect("void f(int x) { while (x < 9) { switch (x) { case 1: x = 2; continue; default: break; } x = x + 1; } }");
+
+        Random random = new Random(41);
+        int[] dense = new int[caseCount];
+        int[] sparse = new int[caseCount];
+        String[] words = new String[caseCount];
+        for (int i = 0; i < caseCount; i++) {
+            dense[i] = i - caseCount / 4;
+            sparse[i] = i * 7919 + random.nextInt(7919);
+            words[i] = "clave_" + Integer.toString(i * 31 + 7, 36);
+        }
+        // Los casos se escriben desordenados: el orden del fuente no debería importar al despacho
+        shuffle(dense, random);
+        shuffle(sparse, random);
+
+        System.out.printf("%d casos, %d despachos por medición%n", caseCount, lookups);
+        System.out.printf("%-18s %-14s %8s %14s %14s%n", "switch", "estrategia", "tabla", "ns (lowering)", "ns (if/else)");
+        failures += measureInts("enteros densos", dense, SwitchDispatch.Strategy.JUMP_TABLE, lookups, random);
+        failures += measureInts("enteros dispersos", sparse, SwitchDispatch.Strategy.BINARY_SEARCH, lookups, random);
+        failures += measureStrings("strings", words, lookups, random);
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static int measureInts(String name, int[] values, SwitchDispatch.Strategy expected, int lookups, Random random) {
+        StringBuilder source = new StringBuilder("int f(int x) { switch (x) {");
+        for (int value : values) {
+            source.append(" case ").append(value).append(": return ").append(value).append(';');
+        }
+        source.append(" default: return 0; } }");
+        SwitchStatement stmt = parseSwitch(source.toString());
+        SwitchDispatch dispatch = SwitchLowering.lower(stmt);
+        IntChain chain = new IntChain(stmt);
+
+        // Nueve de cada diez consultas coinciden con algún caso
+        int[] queries = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextInt(10) == 0 ? random.nextInt() : values[random.nextInt(values.length)];
+        }
+        int failures = dispatch.strategy() == expected ? 0 : 1;
+        for (int query : queries) {
+            if (dispatch.target(query) != chain.target(query)) failures++;
+        }
+
+        long lowered = Long.MAX_VALUE, chained = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < lookups; i++) {
+                sum += dispatch.target(queries[i & (QUERIES - 1)]);
+            }
+            lowered = Math.min(lowered, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                sum -= chain.target(queries[i & (QUERIES - 1)]);
+            }
+            chained = Math.min(chained, System.nanoTime() - start);
+            sink += sum;
+        }
+        report(name, dispatch, lowered, chained, lookups, failures);
+        return failures;
+    }
+
+    private static int measureStrings(String name, String[] values, int lookups, Random random) {
+        StringBuilder source = new StringBuilder("int f(String x) { switch (x) {");
+        for (int i = 0; i < values.length; i++) {
+            source.append(" case \"").append(values[i]).append("\": return ").append(i).append(';');
+        }
+        source.append(" default: return 0; } }");
+        SwitchStatement stmt = parseSwitch(source.toString());
+        SwitchDispatch dispatch = SwitchLowering.lower(stmt);
+        StringChain chain = new StringChain(stmt);
+
+        // Copias nuevas de cada texto, así equals no termina en la comparación por identidad
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextInt(10) == 0 ? "otra_" + random.nextInt(1000) : new String(values[random.nextInt(values.length)]);
+        }
+        int failures = dispatch.strategy() == SwitchDispatch.Strategy.HASH ? 0 : 1;
+        for (String query : queries) {
+            if (dispatch.target(query) != chain.target(query)) failures++;
+        }
+
+        long lowered = Long.MAX_VALUE, chained = Long.MAX_VALUE;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            long sum = 0;
+            for (int i = 0; i < lookups; i++) {
+                sum += dispatch.target(queries[i & (QUERIES - 1)]);
+            }
+            lowered = Math.min(lowered, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                sum -= chain.target(queries[i & (QUERIES - 1)]);
+            }
+            chained = Math.min(chained, System.nanoTime() - start);
+            sink += sum;
+        }
+        report(name, dispatch, lowered, chained, lookups, failures);
+        return failures;
+    }
+
+    private static void report(String name, SwitchDispatch dispatch, long lowered, long chained, int lookups, int failures) {
+        System.out.printf("%-18s %-14s %8d %14.2f %14.2f%s%n", name, dispatch.strategy(), dispatch.tableSize(),
+                (double) lowered / lookups, (double) chained / lookups, failures == 0 ? "" : "  (" + failures + " errores)");
+    }
+
+    // if (x == c0) ... else if (x == c1) ... en el orden del fuente
+    private static final class IntChain {
+        final int[] keys;
+        final int[] targets;
+        final int defaultTarget;
+
+        IntChain(SwitchStatement stmt) {
+            List<Integer> keyList = new ArrayList<>();
+            List<Integer> targetList = new ArrayList<>();
+            int fallback = -1;
+            for (int i = 0; i < stmt.cases.size(); i++) {
+                CaseStatement label = stmt.cases.get(i);
+                if (label.isDefault()) {
+                    fallback = i;
+                } else {
+                    keyList.add((Integer) label.constantValue());
+                    targetList.add(i);
+                }
+            }
+            keys = keyList.stream().mapToInt(Integer::intValue).toArray();
+            targets = targetList.stream().mapToInt(Integer::intValue).toArray();
+            defaultTarget = fallback;
+        }
+
+        int target(int value) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == value) return targets[i];
+            }
+            return defaultTarget;
+        }
+    }
+
+    private static final class StringChain {
+        final String[] keys;
+        final int[] targets;
+        final int defaultTarget;
+
+        StringChain(SwitchStatement stmt) {
+            List<String> keyList = new ArrayList<>();
+            List<Integer> targetList = new ArrayList<>();
+            int fallback = -1;
+            for (int i = 0; i < stmt.cases.size(); i++) {
+                CaseStatement label = stmt.cases.get(i);
+                if (label.isDefault()) {
+                    fallback = i;
+                } else {
+                    keyList.add((String) label.constantValue());
+                    targetList.add(i);
+                }
+            }
+            keys = keyList.toArray(new String[0]);
+            targets = targetList.stream().mapToInt(Integer::intValue).toArray();
+            defaultTarget = fallback;
+        }
+
+        int target(String value) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(value)) return targets[i];
+            }
+            return defaultTarget;
+        }
+    }
+
+    private static int expect(String source, String... expected) {
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer.tokenize(), lexer.getSymbolTable());
+        Node ast = parser.parse();
+        List<String> errors = new ArrayList<>(parser.getSemanticErrors());
+        errors.addAll(FlowChecker.check(ast));
+        boolean ok = errors.size() == expected.length;
+        for (int i = 0; ok && i < expected.length; i++) {
+            ok = errors.get(i).startsWith(expected[i]);
+        }
+        if (!ok) {
+            System.out.println("Caso: " + source + "\n  esperado " + List.of(expected) + "\n  obtenido " + errors);
+        }
+        return ok ? 0 : 1;
+    }
+
+    private static SwitchStatement parseSwitch(String source) {
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer.tokenize(), lexer.getSymbolTable());
+        Node ast = parser.parse();
+        if (!parser.getSemanticErrors().isEmpty()) {
+            throw new IllegalStateException("El switch generado tiene errores: " + parser.getSemanticErrors());
+        }
+        MethodDeclaration method = (MethodDeclaration) ((BlockStatement) ast).statements.get(0);
+        return (SwitchStatement) method.body.statements.get(0);
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package bench;
+
+import analysis.FlowChecker;
+import ast.BlockStatement;
+import ast.Node;
+import interpreter.Interpreter;
+import lexer.Lexer;
+import parser.Parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Comprueba el análisis y los chequeos de try/catch/finally, y mide en el intérprete un bucle con
+// try anidados contra el mismo bucle sin try. El intérprete ejecuta cada try con un try/catch de
+// Java, que el compilador traduce a la tabla de excepciones de la JVM: entrar y salir del try no
+// registra ni quita manejadores, y la tabla recién se consulta al lanzar. Lo que queda de
+// diferencia sin excepciones es despachar el nodo Try y su bloque en cada nivel.
+// Uso: java bench.TryCatchBenchmark [profundidad] [vueltas]
+public class TryCatchBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+        int failures = 0;
+        failures += expect("void f(int x) { try { println(x); } catch (Exception e) { e = 1; } e = 2; }",
+                "Error: Símbolo 'e' no declarado");
+        failures += expect("void f(int x) { try { println(x); } catch (ArithmeticException e) { } catch (RuntimeException e) { } }");
+        failures += expect("void f(int x) { try { println(x); } catch (Falla e) { } }",
+                "Error: Tipo de excepción 'Falla' no declarado");
+        failures += expect("void f(int x) { try { println(x); } catch (Exception e) { } catch (ArithmeticException e) { } }",
+                "Error: El catch de 'ArithmeticException' es inalcanzable");
+        failures += expect("class MiError { } void f(int x) { try { println(x); } catch (MiError e) { } }");
+        failures += expect("int f(int x) { try { return x; } catch (Exception e) { return 0; } }");
+        // El finally se ejecuta aunque el try termine con return: no es código inalcanzable
+        failures += expect("int f(int x) { try { return x; } finally { println(x); } }");
+        failures += expect("int f(int x) { try { println(x); } catch (Exception e) { return 0; } }",
+                "Error: El método 'f' puede terminar sin devolver");
+        failures += expect("int f(int x) { int y; try { y = x; } catch (Exception e) { println(y); } return 0; }",
+                "Error: La variable 'y' puede usarse sin haber sido asignada");
+        failures += expect("int f(int x) { int y; try { y = x; } catch (Exception e) { y = 0; } return y; }");
+        failures += expect("int f(int x) { int y; try { y = x; } finally { println(y); } return y; }",
+                "Error: La variable 'y' puede usarse sin haber sido asignada");
+        failures += expect("void f(int x) { try { println(x); } finally { return; println(x); } }",
+                "Error: Código inalcanzable después de 'return'");
+        try {
+            parse("void f(int x) { try { println(x); } println(x); }");
+            System.out.println("Caso: un try sin catch ni finally debería ser un error de sintaxis");
+            failures++;
+        } catch (RuntimeException e) {
+            if (!e.getMessage().startsWith("Error: Se esperaba 'catch' o 'finally'")) {
+                System.out.println("Caso: try sin catch ni finally: " + e.getMessage());
+                failures++;
+            }
+        }
+
+        // Bucle con 'depth' try anidados; lanza la división de la sentencia más interna
+        Interpreter withTry = load(generate(depth, true));
+        Interpreter withoutTry = load(generate(depth, false));
+        System.out.printf("%d try anidados, %d vueltas%n", depth, iterations);
+        System.out.printf("%-22s %14s %14s%n", "lanza cada", "ns (con try)", "ns (sin try)");
+        for (int throwEvery : new int[]{0, 1000, 100, 10}) {
+            long best = Long.MAX_VALUE, bestPlain = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                Object result = withTry.call("bucle", iterations, throwEvery);
+                best = Math.min(best, System.nanoTime() - start);
+                if (!result.equals(reference(depth, iterations, throwEvery, true))) {
+                    System.out.println("Con try, lanzando cada " + throwEvery + ": " + result);
+                    failures++;
+                }
+                // Sin try no se puede lanzar: solo se compara el camino sin excepciones
+                if (throwEvery == 0) {
+                    start = System.nanoTime();
+                    result = withoutTry.call("bucle", iterations, 0);
+                    bestPlain = Math.min(bestPlain, System.nanoTime() - start);
+                    if (!result.equals(reference(depth, iterations, 0, false))) {
+                        System.out.println("Sin try: " + result);
+                        failures++;
+                    }
+                }
+            }
+            System.out.printf("%-22s %14.2f %14s%n", throwEvery == 0 ? "nunca" : throwEvery + " vueltas",
+                    (double) best / iterations, throwEvery == 0 ? String.format("%.2f", (double) bestPlain / iterations) : "-");
+        }
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // for con 'depth' try anidados, cada uno con una suma antes y una después del anidado. Cada
+    // 'cada' vueltas la división del más interno es por cero y la atrapa su catch. Sin try quedan
+    // las mismas sentencias sin anidar, porque un bloque suelto dentro de un método lo cierra.
+    private static String generate(int depth, boolean tries) {
+        StringBuilder text = new StringBuilder("int bucle(int n, int cada) {\n"
+                + "    int s = 0;\n    int c = cada;\n    int d = 1;\n"
+                + "    for (int i = 0; i < n; i++) {\n"
+                + "        c = c - 1;\n        if (c == 0) { c = cada; d = 0; }\n");
+        for (int level = 0; level < depth; level++) {
+            if (tries) {
+                text.append("        try {\n");
+            }
+            text.append("            s = s + i;\n");
+        }
+        text.append("            s = s + 1 / d;\n");
+        for (int level = depth - 1; level >= 0; level--) {
+            String type = level == depth - 1 ? "ArithmeticException" : level % 2 == 0 ? "Exception" : "RuntimeException";
+            text.append("            s = s + 1;\n");
+            if (tries) {
+                text.append("        } catch (" + type + " e) {\n            s = s - 1;\n            d = 1;\n        }\n");
+            }
+        }
+        text.append("    }\n    return s;\n}\n");
+        return text.toString();
+    }
+
+    // Lo que devuelve bucle(n, cada), calculado en Java
+    private static int reference(int depth, int n, int throwEvery, boolean tries) {
+        int s = 0;
+        int c = throwEvery;
+        for (int i = 0; i < n; i++) {
+            c--;
+            boolean throwing = tries && c == 0;
+            if (throwing) c = throwEvery;
+            s += depth * i;
+            // Al lanzar no se suma el 1 / d ni el '+ 1' del try más interno, y su catch resta 1
+            s += throwing ? depth - 1 - 1 : 1 + depth;
+        }
+        return s;
+    }
+
+    private static Interpreter load(String source) {
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer.tokenize(), lexer.getSymbolTable());
+        Node ast = parser.parse();
+        if (!parser.getSemanticErrors().isEmpty()) {
+            throw new IllegalStateException(parser.getSemanticErrors() + "\n" + source);
+        }
+        return new Interpreter().load(ast);
+    }
+
+    private static int expect(String source, String... expected) {
+        Lexer lexer = new Lexer(source);
+        Parser parser = new Parser(lexer.tokenize(), lexer.getSymbolTable());
+        List<String> errors;
+        try {
+            Node ast = parser.parse();
+            errors = new ArrayList<>(parser.getSemanticErrors());
+            errors.addAll(FlowChecker.check(ast));
+        } catch (RuntimeException e) {
+            errors = List.of(String.valueOf(e.getMessage()));
+        }
+        boolean ok = errors.size() == expected.length;
+        for (int i = 0; ok && i < expected.length; i++) {
+            ok = errors.get(i).startsWith(expected[i]);
+        }
+        if (!ok) {
+            System.out.println("Caso: " + source + "\n  esperado " + List.of(expected) + "\n  obtenido " + errors);
+        }
+        return ok ? 0 : 1;
+    }
+
+    private static Node parse(String source) {
+        Lexer lexer = new Lexer(source);
+        return new Parser(lexer.tokenize(), lexer.getSymbolTable()).parse();
+    }
+}
@@ -0,0 +1,154 @@
+package bench;
+
+import project.Project;
+import project.ProjectWatcher;
+import project.SourceFile;
+import project.WatchUpdate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Modo vigilancia sobre un directorio generado: mide cuánto tarda en llegar el aviso con los
+// errores después de guardar un archivo, comprueba que una ráfaga de guardados se junte en una
+// sola recompilación con la última versión, y que un cambio en medio de una recompilación
+// grande la reemplace. Al final los errores acumulados de los avisos tienen que ser los mismos
+// que da compilar el directorio desde cero.
+// Uso: java bench.WatchLatencyBenchmark [archivos] [guardados]
+public class WatchLatencyBenchmark {
+    private static final long DEBOUNCE_MILLIS = 50;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int saves = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int failures = 0;
+
+        Path directory = Files.createTempDirectory("watch-benchmark");
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            Path file = directory.resolve("f" + i + Project.SOURCE_EXTENSION);
+            Files.writeString(file, source(i, i));
+            files.add(file);
+        }
+
+        BlockingQueue<WatchUpdate> updates = new LinkedBlockingQueue<>();
+        Map<Path, List<String>> errors = new TreeMap<>();
+        try (ProjectWatcher watcher = ProjectWatcher.start(directory, DEBOUNCE_MILLIS, updates::add)) {
+            WatchUpdate initial = next(updates);
+            apply(errors, initial);
+            System.out.printf("%d archivos: compilación inicial en %.1f ms%n", fileCount, initial.getCompileNanos() / 1e6);
+
+            // Un guardado por vez: desde escribir hasta tener el aviso
+            long[] latencies = new long[saves];
+            long[] compiles = new long[saves];
+            for (int i = 0; i < saves; i++) {
+                Path file = files.get(i % files.size());
+                long start = System.nanoTime();
+                Files.writeString(file, "int guardado" + i + " = " + i + ";\n");
+                WatchUpdate update = next(updates);
+                latencies[i] = System.nanoTime() - start;
+                compiles[i] = update.getCompileNanos();
+                apply(errors, update);
+                if (!update.getErrors().containsKey(file)) {
+                    System.out.println("El aviso del guardado " + i + " no trae " + file.getFileName());
+                    failures++;
+                }
+            }
+            Arrays.sort(latencies);
+            Arrays.sort(compiles);
+            System.out.printf("  guardado -> errores: mediana %.1f ms, máximo %.1f ms (debounce %d ms)%n",
+                    latencies[saves / 2] / 1e6, latencies[saves - 1] / 1e6, DEBOUNCE_MILLIS);
+            System.out.printf("  análisis:            mediana %.2f ms, máximo %.2f ms%n",
+                    compiles[saves / 2] / 1e6, compiles[saves - 1] / 1e6);
+
+            // Ráfaga: muchos guardados seguidos del mismo archivo, más rápido que el debounce
+            Path burst = files.get(0);
+            for (int i = 0; i < 30; i++) {
+                Files.writeString(burst, "int rafaga = sinDeclarar" + i + ";\n");
+                Thread.sleep(2);
+            }
+            WatchUpdate update = next(updates);
+            apply(errors, update);
+            int burstUpdates = 1 + drain(updates, errors);
+            List<String> burstErrors = errors.get(burst);
+            if (burstErrors == null || burstErrors.isEmpty() || !burstErrors.get(0).contains("sinDeclarar29")) {
+                System.out.println("Después de la ráfaga: " + burstErrors);
+                failures++;
+            }
+            System.out.printf("  30 guardados en ráfaga: %d avisos%n", burstUpdates);
+            if (burstUpdates > 3) {
+                failures++;
+            }
+
+            // Todos los archivos cambian y, en medio de la recompilación, uno vuelve a cambiar
+            for (int i = 0; i < fileCount; i++) {
+                Files.writeString(files.get(i), source(i, 1000 + i));
+            }
+            Thread.sleep(DEBOUNCE_MILLIS + 20);
+            Files.writeString(files.get(fileCount - 1), "int ultimo = tambienSinDeclarar;\n");
+            apply(errors, next(updates));
+            drain(updates, errors);
+            System.out.printf("  cambio durante una recompilación: %d tandas reemplazadas%n", watcher.getSupersededCount());
+        }
+
+        // Lo acumulado de los avisos es lo mismo que compilar todo de nuevo
+        Project fresh = Project.load(directory);
+        Map<Path, List<String>> expected = new TreeMap<>();
+        for (SourceFile file : fresh.getFiles()) {
+            expected.put(file.getPath(), file.getErrors());
+        }
+        if (!expected.equals(errors)) {
+            System.out.println("Los errores acumulados no coinciden con una compilación desde cero");
+            failures++;
+        }
+
+        try (var list = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) list::iterator) Files.delete(file);
+        }
+        Files.delete(directory);
+        System.out.println(failures == 0 ? "OK" : failures + " errores");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Una clase por archivo, con nombre propio: si todos exportaran Clase0 cada cambio volvería
+    // a analizar todo el directorio por el conflicto
+    private static String source(int index, long seed) {
+        String text = new WorkloadGenerator().seed(seed).classes(1).methodsPerClass(3).maxDepth(2).generateString();
+        return text.replace("class Clase0", "class Clase" + index);
+    }
+
+    private static WatchUpdate next(BlockingQueue<WatchUpdate> updates) throws InterruptedException {
+        WatchUpdate update = updates.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (update == null) {
+            throw new IllegalStateException("No llegó ningún aviso en " + TIMEOUT_SECONDS + " s");
+        }
+        return update;
+    }
+
+    // Los avisos que lleguen hasta que pase un rato sin ninguno
+    private static int drain(BlockingQueue<WatchUpdate> updates, Map<Path, List<String>> errors) throws InterruptedException {
+        int count = 0;
+        WatchUpdate update;
+        while ((update = updates.poll(DEBOUNCE_MILLIS * 10, TimeUnit.MILLISECONDS)) != null) {
+            apply(errors, update);
+            count++;
+        }
+        return count;
+    }
+
+    private static void apply(Map<Path, List<String>> errors, WatchUpdate update) {
+        errors.putAll(update.getErrors());
+        for (Path removed : update.getRemoved()) {
+            errors.remove(removed);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Genera programas válidos para el Parser, reproducibles a partir de una semilla, y los
+// escribe en streaming (sirve tanto para unos KB como para varios GB).
+//
+// Uso: java bench.WorkloadGenerator [opciones] <salida>
+//   --seed n          semilla (0)
+//   --classes n       cantidad de clases (10); con --size se generan las necesarias
+//   --size bytes      tamaño aproximado de la salida, admite sufijos k, m, g
+//   --methods n       métodos por clase (5)
+//   --statements n    sentencias por bloque (6)
+//   --depth n         anidamiento máximo de if/while/for (3)
+//   --expr n          operandos por expresión (4)
+//   --identifiers n   cantidad de nombres distintos para variables (50)
+//   --comments p      probabilidad de un comentario antes de cada sentencia (0.1)
+public class WorkloadGenerator {
+    private static final String[] COMPARISONS = {"<", ">", "<=", ">=", "==", "!="};
+    private static final String[] ARITHMETIC = {"+", "-", "*", "/"};
+
+    private long seed = 0;
+    private int classes = 10;
+    private long targetBytes = 0;
+    private int methodsPerClass = 5;
+    private int statementsPerBlock = 6;
+    private int maxDepth = 3;
+    private int expressionLength = 4;
+    private int identifiers = 50;
+    private double commentDensity = 0.1;
+
+    private Random random;
+    private CountingWriter out;
+    private final Deque<Set<String>> scopes = new ArrayDeque<>();
+    private int indent;
+
+    public WorkloadGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public WorkloadGenerator classes(int classes) {
+        this.classes = classes;
+        return this;
+    }
+
+    public WorkloadGenerator targetBytes(long targetBytes) {
+        this.targetBytes = targetBytes;
+        return this;
+    }
+
+    public WorkloadGenerator methodsPerClass(int methods) {
+        this.methodsPerClass = methods;
+        return this;
+    }
+
+    public WorkloadGenerator statementsPerBlock(int statements) {
+        this.statementsPerBlock = statements;
+        return this;
+    }
+
+    public WorkloadGenerator maxDepth(int depth) {
+        this.maxDepth = depth;
+        return this;
+    }
+
+    public WorkloadGenerator expressionLength(int length) {
+        this.expressionLength = Math.max(1, length);
+        return this;
+    }
+
+    public WorkloadGenerator identifiers(int identifiers) {
+        this.identifiers = Math.max(1, identifiers);
+        return this;
+    }
+
+    public WorkloadGenerator commentDensity(double density) {
+        this.commentDensity = density;
+        return this;
+    }
+
+    public void generate(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            generate(writer);
+        }
+    }
+
+    public String generateString() {
+        StringWriter writer = new StringWriter();
+        try {
+            generate(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    public long generate(Writer writer) throws IOException {
+        random = new Random(seed);
+        out = new CountingWriter(writer);
+        scopes.clear();
+        indent = 0;
+        scopes.push(new HashSet<>());
+        for (int c = 0; targetBytes > 0 ? out.count < targetBytes : c < classes; c++) {
+            generateClass(c);
+        }
+        out.flush();
+        return out.count;
+    }
+
+    // -----------------------
+    // ESTRUCTURA
+    // -----------------------
+
+    private void generateClass(int index) throws IOException {
+        maybeComment();
+        line("class Clase" + index + " {");
+        indent++;
+        scopes.push(new HashSet<>());
+        int fields = 1 + random.nextInt(3);
+        for (int i = 0; i < fields; i++) {
+            String name = declare();
+            if (name == null) break;
+            line("int " + name + " = " + random.nextInt(100) + ";");
+        }
+        for (int m = 0; m < methodsPerClass; m++) {
+            generateMethod(m);
+        }
+        scopes.pop();
+        indent--;
+        line("}");
+    }
+
+    private void generateMethod(int index) throws IOException {
+        maybeComment();
+        scopes.push(new HashSet<>());
+        StringBuilder header = new StringBuilder("int metodo" + index + "(");
+        int parameters = random.nextInt(3);
+        for (int i = 0; i < parameters; i++) {
+            String name = declare();
+            if (name == null) break;
+            if (i > 0) header.append(", ");
+            header.append("int ").append(name);
+        }
+        line(header + ") {");
+        indent++;
+        generateStatements(0, false);
+        line("return " + expression() + ";");
+        indent--;
+        line("}");
+        scopes.pop();
+    }
+
+    // Devuelve true si el bloque termina antes de tiempo: lo que siguiera sería código inalcanzable
+    private boolean generateStatements(int depth, boolean inLoop) throws IOException {
+        scopes.push(new HashSet<>());
+        boolean ends = false;
+        for (int i = 0; i < statementsPerBlock && !ends; i++) {
+            maybeComment();
+            ends = generateStatement(depth, inLoop);
+        }
+        scopes.pop();
+        return ends;
+    }
+
+    // Devuelve true si la sentencia termina el bloque (break, o un if cuyas dos ramas terminan)
+    private boolean generateStatement(int depth, boolean inLoop) throws IOException {
+        int choice = random.nextInt(depth < maxDepth ? 8 : 4);
+        switch (choice) {
+            case 0:
+            case 1: {
+                // El inicializador se arma antes de declarar, para no leer la variable que se declara
+                String value = expression();
+                String name = declare();
+                if (name != null) {
+                    line("int " + name + " = " + value + ";");
+                    return false;
+                }
+                // Sin nombres libres en este bloque: se asigna uno visible
+                assignVisible();
+                return false;
+            }
+            case 2:
+                assignVisible();
+                return false;
+            case 3:
+                if (inLoop && random.nextInt(4) == 0) {
+                    line("break;");
+                    return true;
+                } else {
+                    line("println(" + expression() + ");");
+                }
+                return false;
+            case 4:
+            case 5:
+                line("if (" + condition() + ") {");
+                boolean thenEnds = block(depth, inLoop);
+                boolean elseEnds = false;
+                if (random.nextBoolean()) {
+                    line("} else {");
+                    elseEnds = block(depth, inLoop);
+                }
+                line("}");
+                return thenEnds && elseEnds;
+            case 6:
+                line("while (" + condition() + ") {");
+                block(depth, true);
+                line("}");
+                return false;
+            default: {
+                // La variable del for se declara en el ámbito que contiene al for
+                String counter = declare();
+                if (counter == null) {
+                    line("println(" + expression() + ");");
+                    return false;
+                }
+                line("for (int " + counter + " = 0; " + counter + " < " + expression() + "; " + counter + "++) {");
+                block(depth, true);
+                line("}");
+                return false;
+            }
+        }
+    }
+
+    // Asigna a una variable visible, o imprime si no hay ninguna
+    private void assignVisible() throws IOException {
+        String target = visibleVariable();
+        if (target != null) {
+            line(target + " = " + expression() + ";");
+        } else {
+            line("println(" + expression() + ");");
+        }
+    }
+
+    private boolean block(int depth, boolean inLoop) throws IOException {
+        indent++;
+        boolean ends = generateStatements(depth + 1, inLoop);
+        indent--;
+        return ends;
+    }
+
+    // -----------------------
+    // EXPRESIONES Y NOMBRES
+    // -----------------------
+
+    private String expression() {
+        StringBuilder expr = new StringBuilder(operand());
+        for (int i = 1; i < expressionLength; i++) {
+            expr.append(' ').append(ARITHMETIC[random.nextInt(ARITHMETIC.length)]).append(' ');
+            if (random.nextInt(5) == 0) {
+                expr.append('(').append(operand()).append(" + ").append(operand()).append(')');
+            } else {
+                expr.append(operand());
+            }
+        }
+        return expr.toString();
+    }
+
+    private String condition() {
+        return expression() + " " + COMPARISONS[random.nextInt(COMPARISONS.length)] + " " + operand();
+    }
+
+    private String operand() {
+        String variable = random.nextBoolean() ? visibleVariable() : null;
+        return variable != null ? variable : Integer.toString(random.nextInt(1000));
+    }
+
+    // Elige un nombre libre en el ámbito actual (redeclararlo ahí sería un error semántico)
+    private String declare() {
+        Set<String> current = scopes.peek();
+        if (current.size() >= identifiers) {
+            return null;
+        }
+        String name;
+        do {
+            name = "v" + random.nextInt(identifiers);
+        } while (current.contains(name));
+        current.add(name);
+        return name;
+    }
+
+    private String visibleVariable() {
+        int total = 0;
+        for (Set<String> scope : scopes) {
+            total += scope.size();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int pick = random.nextInt(total);
+        for (Set<String> scope : scopes) {
+            if (pick < scope.size()) {
+                Iterator<String> names = scope.iterator();
+                for (int i = 0; i < pick; i++) names.next();
+                return names.next();
+            }
+            pick -= scope.size();
+        }
+        return null;
+    }
+
+    private void maybeComment() throws IOException {
+        if (random.nextDouble() >= commentDensity) {
+            return;
+        }
+        if (random.nextBoolean()) {
+            line("// comentario " + random.nextInt(10000));
+        } else {
+            line("/* comentario");
+            line("   de varias líneas " + random.nextInt(10000) + " */");
+        }
+    }
+
+    private void line(String text) throws IOException {
+        for (int i = 0; i < indent; i++) {
+            out.write("    ");
+        }
+        out.write(text);
+        out.write('\n');
+    }
+
+    private static final class CountingWriter extends FilterWriter {
+        long count;
+
+        CountingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            super.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            super.write(text, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            super.write(buffer, offset, length);
+            count += length;
+        }
+    }
+
+    public static long parseSize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        long multiplier = 1;
+        if (lower.endsWith("k")) multiplier = 1L << 10;
+        else if (lower.endsWith("m")) multiplier = 1L << 20;
+        else if (lower.endsWith("g")) multiplier = 1L << 30;
+        if (multiplier > 1) lower = lower.substring(0, lower.length() - 1);
+        return Long.parseLong(lower) * multiplier;
+    }
+
+    public static void main(String[] args) throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        Path output = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed": generator.seed(Long.parseLong(args[++i])); break;
+                case "--classes": generator.classes(Integer.parseInt(args[++i])); break;
+                case "--size": generator.targetBytes(parseSize(args[++i])); break;
+                case "--methods": generator.methodsPerClass(Integer.parseInt(args[++i])); break;
+                case "--statements": generator.statementsPerBlock(Integer.parseInt(args[++i])); break;
+                case "--depth": generator.maxDepth(Integer.parseInt(args[++i])); break;
+                case "--expr": generator.expressionLength(Integer.parseInt(args[++i])); break;
+                case "--identifiers": generator.identifiers(Integer.parseInt(args[++i])); break;
+                case "--comments": generator.commentDensity(Double.parseDouble(args[++i])); break;
+                default: output = Paths.get(args[i]);
+            }
+        }
+        if (output == null) {
+            System.err.println("Uso: java bench.WorkloadGenerator [opciones] <salida>");
+            System.exit(2);
+        }
+        generator.generate(output);
+        System.out.println("Generado " + output + " (" + Files.size(output) + " bytes)");
+    }
+}
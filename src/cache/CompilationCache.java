@@ -0,0 +1,347 @@
+package cache;
+
+import ast.Node;
+import compiler.CompilationResult;
+import compiler.CompilerPipeline;
+import diagnostics.Diagnostic;
+import diagnostics.DiagnosticCode;
+import diagnostics.Diagnostics;
+import lexer.Lexer;
+import lexer.Token;
+import lexer.TokenType;
+import serialization.AstReader;
+import serialization.AstWriter;
+import symboltable.ReferenceIndex;
+import symboltable.Symbol;
+import symboltable.SymbolTable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Caché en disco direccionada por contenido: la clave es el hash del código fuente
+// más la versión del compilador, así un archivo sin cambios no se vuelve a analizar.
+public class CompilationCache {
+    private static final int MAGIC = 0x43434835; // "CCH5"
+    private static final String EXTENSION = ".bin";
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+    private int hits = 0;
+    private int misses = 0;
+    // Bytes de las entradas; se cuenta una vez al abrir y se lleva al día en cada store(), así
+    // solo hace falta listar el directorio cuando se pasa del límite
+    private long totalBytes;
+
+    public CompilationCache(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_BYTES);
+    }
+
+    public CompilationCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        for (Path file : entries()) {
+            totalBytes += Files.size(file);
+        }
+    }
+
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".proyectocompiladores", "cache");
+    }
+
+    // Devuelve null si no hay entrada válida (fallo de caché)
+    public synchronized CompilationResult load(ByteBuffer source) {
+        Path entry = directory.resolve(key(source) + EXTENSION);
+        if (Files.isRegularFile(entry)) {
+            try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                CompilationResult result = decode(buffer);
+                // Marca de uso para el desalojo LRU
+                Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+                hits++;
+                return result;
+            } catch (IOException | RuntimeException e) {
+                // Entrada corrupta o de otro formato: se trata como fallo
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    public synchronized void store(ByteBuffer source, CompilationResult result) {
+        Path entry = directory.resolve(key(source) + EXTENSION);
+        Path temp = null;
+        try {
+            // Escritura atómica: archivo temporal en el mismo directorio y luego move
+            temp = Files.createTempFile(directory, "entry", ".tmp");
+            byte[] bytes = encode(result);
+            Files.write(temp, bytes);
+            long replaced = Files.isRegularFile(entry) ? Files.size(entry) : 0;
+            Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            temp = null;
+            totalBytes += bytes.length - replaced;
+            if (totalBytes > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            // La caché es opcional: un error de escritura no debe romper la compilación
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    // Borra las entradas menos usadas recientemente hasta quedar bajo el límite. El total se
+    // vuelve a contar: otro proceso puede estar usando el mismo directorio.
+    private void evict() throws IOException {
+        List<Path> entries = entries();
+        Map<Path, FileTime> lastUse = new HashMap<>();
+        long total = 0;
+        for (Path file : entries) {
+            lastUse.put(file, Files.getLastModifiedTime(file));
+            total += Files.size(file);
+        }
+        entries.sort(Comparator.comparing(lastUse::get));
+        for (Path file : entries) {
+            if (total <= maxBytes) break;
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                total -= size;
+            }
+        }
+        totalBytes = total;
+    }
+
+    private List<Path> entries() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(EXTENSION)) {
+                    entries.add(file);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private String key(ByteBuffer source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(CompilerPipeline.VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source.duplicate());
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    // -----------------------
+    // FORMATO BINARIO
+    // -----------------------
+
+    private byte[] encode(CompilationResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+
+        out.writeInt(result.getTokens().size());
+        for (Token token : result.getTokens()) {
+            out.writeByte(token.getType().ordinal());
+            out.writeInt(token.getOffset());
+            writeString(out, token.getValue());
+        }
+
+        // Cada símbolo se numera según su orden en el recorrido de las tablas; el índice de
+        // referencias los nombra por ese número
+        Map<Symbol, Integer> symbolIds = new IdentityHashMap<>();
+        writeTable(out, result.getSymbolTable(), symbolIds);
+
+        // Los errores se guardan sin armar: código, token, ocurrencias y argumentos
+        List<Diagnostic> diagnostics = result.getDiagnostics().getDiagnostics();
+        out.writeInt(diagnostics.size());
+        for (Diagnostic diagnostic : diagnostics) {
+            out.writeByte(diagnostic.getCode().ordinal());
+            out.writeInt(diagnostic.getToken());
+            out.writeInt(diagnostic.getOccurrences());
+            out.writeByte(diagnostic.getArgumentCount());
+            for (int i = 0; i < diagnostic.getArgumentCount(); i++) {
+                writeString(out, String.valueOf(diagnostic.getArgument(i)));
+            }
+        }
+
+        // Los símbolos predefinidos no están en ninguna tabla: se nombran -2 - posición
+        List<Symbol> predefined = Lexer.predefinedSymbols();
+        ReferenceIndex references = result.getReferences();
+        out.writeBoolean(references != null);
+        if (references != null) {
+            references.write(out, symbol -> {
+                Integer id = symbolIds.get(symbol);
+                if (id != null) {
+                    return id;
+                }
+                for (int i = 0; i < predefined.size(); i++) {
+                    if (predefined.get(i) == symbol) {
+                        return -2 - i;
+                    }
+                }
+                return -1;
+            });
+        }
+
+        byte[] ast = AstWriter.toBytes(result.getAst());
+        out.writeInt(ast.length);
+        out.write(ast);
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private CompilationResult decode(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Formato de caché desconocido");
+        }
+
+        TokenType[] types = TokenType.values();
+        int tokenCount = in.getInt();
+        List<Token> tokens = new ArrayList<>(tokenCount);
+        for (int i = 0; i < tokenCount; i++) {
+            TokenType type = types[in.get()];
+            int offset = in.getInt();
+            tokens.add(new Token(type, readString(in), offset));
+        }
+
+        List<Symbol> symbolsById = new ArrayList<>();
+        SymbolTable root = readTable(in, symbolsById);
+
+        // Tal como se guardaron: el límite y la agrupación ya se aplicaron al analizar
+        DiagnosticCode[] codes = DiagnosticCode.values();
+        int errorCount = in.getInt();
+        Diagnostics errors = new Diagnostics().limit(Integer.MAX_VALUE).deduplicate(false);
+        for (int i = 0; i < errorCount; i++) {
+            DiagnosticCode code = codes[in.get()];
+            int token = in.getInt();
+            int occurrences = in.getInt();
+            Object[] arguments = new Object[in.get()];
+            for (int j = 0; j < arguments.length; j++) {
+                arguments[j] = readString(in);
+            }
+            errors.report(Diagnostic.restore(code, token, occurrences, arguments));
+        }
+
+        // Los predefinidos vuelven a ser las instancias compartidas; -1 es un símbolo desconocido
+        List<Symbol> predefined = Lexer.predefinedSymbols();
+        ReferenceIndex references = in.get() != 0
+                ? ReferenceIndex.read(in, id -> id >= 0 ? symbolsById.get(id)
+                        : id <= -2 ? predefined.get(-2 - id) : new Symbol("?", "unknown", "global"))
+                : null;
+
+        // El AST se lee sobre el mismo buffer mapeado, sin copiarlo
+        int astLength = in.getInt();
+        ByteBuffer astBytes = in.slice();
+        astBytes.limit(astLength);
+        AstReader reader = new AstReader(astBytes);
+        Node astRoot = reader.toNode(reader.root());
+
+        return new CompilationResult(tokens, astRoot, root, errors, references, true);
+    }
+
+    // Tablas en preorden: símbolos del ámbito y cantidad de hijos. Sin recursión, como
+    // getAllTables: un programa muy anidado tiene una cadena de ámbitos igual de larga
+    private void writeTable(DataOutputStream out, SymbolTable root, Map<Symbol, Integer> symbolIds) throws IOException {
+        for (SymbolTable table : root.getAllTables()) {
+            Map<String, Symbol> symbols = table.getLocalSymbols();
+            out.writeInt(symbols.size());
+            for (Map.Entry<String, Symbol> entry : symbols.entrySet()) {
+                Symbol symbol = entry.getValue();
+                symbolIds.put(symbol, symbolIds.size());
+                writeString(out, entry.getKey());
+                writeString(out, symbol.getName());
+                writeString(out, symbol.getType());
+                writeString(out, symbol.getScope());
+                out.writeInt(symbol.getOffset());
+            }
+            out.writeInt(table.getChildren().size());
+        }
+    }
+
+    private SymbolTable readTable(ByteBuffer in, List<Symbol> symbolsById) {
+        SymbolTable root = null;
+        // Tablas con hijos todavía por leer, y cuántos les faltan
+        Deque<SymbolTable> parents = new ArrayDeque<>();
+        Deque<int[]> remaining = new ArrayDeque<>();
+        do {
+            SymbolTable parent = parents.peek();
+            SymbolTable table = parent != null ? new SymbolTable(parent) : Lexer.newRootTable();
+            int symbolCount = in.getInt();
+            for (int i = 0; i < symbolCount; i++) {
+                String key = readString(in);
+                Symbol symbol = new Symbol(readString(in), readString(in), readString(in), in.getInt());
+                symbolsById.add(symbol);
+                table.insert(key, symbol);
+            }
+            if (parent == null) {
+                root = table;
+            } else {
+                parent.addChild(table);
+                remaining.peek()[0]--;
+            }
+            int childCount = in.getInt();
+            if (childCount > 0) {
+                parents.push(table);
+                remaining.push(new int[]{childCount});
+            }
+            while (!remaining.isEmpty() && remaining.peek()[0] == 0) {
+                parents.pop();
+                remaining.pop();
+            }
+        } while (!parents.isEmpty());
+        return root;
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    public synchronized String getStatsSummary() {
+        return "Caché: " + hits + " aciertos, " + misses + " fallos";
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,61 @@
+package compiler;
+
+import ast.Node;
+import diagnostics.Diagnostics;
+import lexer.Token;
+import symboltable.ReferenceIndex;
+import symboltable.SymbolTable;
+
+import java.util.List;
+
+public class CompilationResult {
+    private final List<Token> tokens;
+    private final Node ast;
+    private final SymbolTable symbolTable; // tabla raíz (global)
+    private final Diagnostics diagnostics;
+    private final ReferenceIndex references; // null si no se construyó
+    private final boolean fromCache;
+
+    public CompilationResult(List<Token> tokens, Node ast, SymbolTable symbolTable, Diagnostics diagnostics, boolean fromCache) {
+        this(tokens, ast, symbolTable, diagnostics, null, fromCache);
+    }
+
+    public CompilationResult(List<Token> tokens, Node ast, SymbolTable symbolTable, Diagnostics diagnostics,
+                             ReferenceIndex references, boolean fromCache) {
+        this.tokens = tokens;
+        this.ast = ast;
+        this.symbolTable = symbolTable;
+        this.diagnostics = diagnostics;
+        this.references = references;
+        this.fromCache = fromCache;
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+
+    public Node getAst() {
+        return ast;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    // Los mensajes de los errores, armados a medida que se piden
+    public List<String> getSemanticErrors() {
+        return diagnostics.messages();
+    }
+
+    public ReferenceIndex getReferences() {
+        return references;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+}
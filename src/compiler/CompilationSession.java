@@ -0,0 +1,47 @@
+package compiler;
+
+import ast.NodeInterner;
+import lexer.Lexer;
+import lexer.LexerBuffers;
+import lexer.TokenPool;
+
+// Estado que una corrida por lotes (la CLI con muchos archivos) reutiliza de un archivo al
+// siguiente: la lista de tokens y la copia del fuente del Lexer, el pool de textos de token y
+// las hojas del AST (NodeInterner), que se pueden compartir entre archivos porque son inmutables.
+// Los tokens de un resultado viven en el buffer de la sesión: valen hasta la próxima
+// compilación, así que quien guarda resultados (Project, el servidor de lenguaje) no usa una.
+// No es seguro entre hilos.
+public final class CompilationSession {
+    // Pasado este tamaño el interner empieza de nuevo, así una corrida larga no acumula las
+    // hojas de todos los archivos
+    public static final int MAX_INTERNED_NODES = 1 << 16;
+
+    private final LexerBuffers lexerBuffers;
+    private final NodeInterner interner = new NodeInterner();
+    private int files;
+
+    public CompilationSession() {
+        this(new TokenPool());
+    }
+
+    public CompilationSession(TokenPool pool) {
+        this.lexerBuffers = new LexerBuffers(pool);
+    }
+
+    Lexer lexer(CharSequence code) {
+        files++;
+        return new Lexer(code, lexerBuffers);
+    }
+
+    NodeInterner interner() {
+        if (interner.size() > MAX_INTERNED_NODES) {
+            interner.clear();
+        }
+        return interner;
+    }
+
+    // Archivos analizados con la sesión (los aciertos de caché no cuentan)
+    public int getFileCount() {
+        return files;
+    }
+}
@@ -0,0 +1,175 @@
+package compiler;
+
+import analysis.FlowChecker;
+import ast.Node;
+import ast.NodeStructure;
+import cache.CompilationCache;
+import diagnostics.Diagnostic;
+import diagnostics.Diagnostics;
+import lexer.Lexer;
+import lexer.ParallelLexer;
+import lexer.SourceLoader;
+import lexer.Token;
+import parser.Parser;
+import stats.CompilationStats;
+import symboltable.ReferenceIndex;
+import symboltable.SymbolTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Ejecuta las fases léxica, sintáctica y semántica sobre un archivo fuente
+public class CompilerPipeline {
+    // Forma parte de la clave de la caché: cambiarla invalida todas las entradas
+    public static final String VERSION = "1.9";
+
+    private static final String IN_MEMORY = "<memoria>";
+
+    private final CompilationCache cache; // null = sin caché
+    private CompilationStats stats = CompilationStats.DISABLED;
+    private int maxDiagnostics = Diagnostics.DEFAULT_LIMIT;
+    private Consumer<Diagnostic> diagnosticListener; // null = nadie escucha
+    private CompilationSession session; // null = buffers nuevos en cada archivo
+
+    public CompilerPipeline() {
+        this(null);
+    }
+
+    public CompilerPipeline(CompilationCache cache) {
+        this.cache = cache;
+    }
+
+    // El archivo se mapea en memoria: la clave de la caché se calcula sobre los bytes
+    // mapeados y solo se decodifica si hay que analizarlo
+    public CompilationResult compileFile(Path file) throws IOException {
+        CompilationStats.Phase phase = stats.begin("carga", file.toString());
+        ByteBuffer source = SourceLoader.map(file);
+        phase.end();
+        return compile(source, file.toString());
+    }
+
+    public CompilationResult compile(String code) {
+        if (cache != null) {
+            return compile(ByteBuffer.wrap(code.getBytes(StandardCharsets.UTF_8)), IN_MEMORY);
+        }
+        return analyze(code, IN_MEMORY);
+    }
+
+    public CompilationResult compile(ByteBuffer source) {
+        return compile(source, IN_MEMORY);
+    }
+
+    private CompilationResult compile(ByteBuffer source, String file) {
+        if (cache != null) {
+            CompilationStats.Phase phase = stats.begin("caché", file);
+            CompilationResult cached = cache.load(source);
+            phase.end();
+            if (cached != null) {
+                return replay(cached);
+            }
+        }
+
+        CompilationStats.Phase phase = stats.begin("decodificación", file);
+        CharSequence code = SourceLoader.decode(source);
+        phase.end();
+
+        CompilationResult result = analyze(code, file);
+        // Con errores descartados por el límite la entrada dependería del límite usado
+        if (cache != null && result.getDiagnostics().suppressedCount() == 0) {
+            phase = stats.begin("caché", file);
+            cache.store(source, result);
+            phase.end();
+        }
+        return result;
+    }
+
+    private CompilationResult analyze(CharSequence code, String file) {
+        CompilationStats.Phase phase = stats.begin("léxico", file);
+        Lexer lexer = session != null ? session.lexer(code) : new Lexer(code);
+        List<Token> tokens = code.length() >= ParallelLexer.PARALLEL_THRESHOLD
+                ? lexer.tokenizeParallel()
+                : lexer.tokenize();
+        if (phase.isActive()) {
+            phase.tokens(tokens.size());
+        }
+        phase.end();
+
+        // El análisis semántico se hace durante el sintáctico, así que se miden juntos
+        phase = stats.begin("sintáctico", file);
+        Parser parser = new Parser(tokens, lexer.getSymbolTable());
+        Diagnostics diagnostics = newDiagnostics();
+        parser.setDiagnostics(diagnostics);
+        if (session != null) {
+            parser.setInterner(session.interner());
+        }
+        ReferenceIndex references = new ReferenceIndex();
+        parser.setReferenceIndex(references);
+        Node ast = parser.parse();
+        SymbolTable root = parser.getGlobalSymbolTable();
+        if (phase.isActive()) {
+            int symbols = 0;
+            List<SymbolTable> tables = root.getAllTables();
+            for (SymbolTable table : tables) {
+                symbols += table.getLocalSymbols().size();
+            }
+            phase.nodes(NodeStructure.count(ast)).scopes(tables.size()).symbols(symbols);
+        }
+        phase.end();
+
+        phase = stats.begin("flujo", file);
+        FlowChecker.check(ast, diagnostics);
+        phase.end();
+
+        return new CompilationResult(tokens, ast, root, diagnostics, references, false);
+    }
+
+    private Diagnostics newDiagnostics() {
+        Diagnostics diagnostics = new Diagnostics().limit(maxDiagnostics);
+        if (diagnosticListener != null) {
+            diagnostics.listener(diagnosticListener);
+        }
+        return diagnostics;
+    }
+
+    // Los errores de la caché pasan otra vez por el límite actual y llegan al oyente como si se
+    // acabaran de encontrar
+    private CompilationResult replay(CompilationResult cached) {
+        Diagnostics diagnostics = newDiagnostics();
+        for (Diagnostic diagnostic : cached.getDiagnostics().getDiagnostics()) {
+            diagnostics.report(diagnostic);
+        }
+        return new CompilationResult(cached.getTokens(), cached.getAst(), cached.getSymbolTable(), diagnostics,
+                cached.getReferences(), true);
+    }
+
+    // Errores que se guardan por archivo; los demás solo se cuentan
+    public void setMaxDiagnostics(int maxDiagnostics) {
+        this.maxDiagnostics = maxDiagnostics;
+    }
+
+    // Recibe cada error en cuanto se encuentra (o se lee de la caché)
+    public void setDiagnosticListener(Consumer<Diagnostic> diagnosticListener) {
+        this.diagnosticListener = diagnosticListener;
+    }
+
+    // Con una sesión los tokens de cada resultado valen hasta la próxima compilación
+    public void setSession(CompilationSession session) {
+        this.session = session;
+    }
+
+    public void setStats(CompilationStats stats) {
+        this.stats = stats;
+    }
+
+    public CompilationStats getStats() {
+        return stats;
+    }
+
+    public CompilationCache getCache() {
+        return cache;
+    }
+}
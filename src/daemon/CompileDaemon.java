@@ -0,0 +1,220 @@
+package daemon;
+
+import compiler.CompilationResult;
+import compiler.CompilerPipeline;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Proceso residente que compila a pedido a través de un socket Unix local. Al no
+// reiniciar la JVM en cada compilación, el Lexer y el Parser ya están compilados por el JIT.
+public class CompileDaemon {
+    private static final int QUEUE_CAPACITY = 64;
+    // Un cliente que conecta y no termina de mandar la petición ocuparía un hilo trabajador para siempre
+    private static final long DEFAULT_READ_TIMEOUT_MILLIS = 10_000;
+
+    private final Path socketPath;
+    private final ThreadPoolExecutor executor;
+    // Un pipeline por hilo trabajador, reutilizado entre peticiones
+    private final ThreadLocal<CompilerPipeline> pipelines = ThreadLocal.withInitial(CompilerPipeline::new);
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private volatile boolean running = true;
+    private ServerSocketChannel server;
+    private long readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+
+    public CompileDaemon(Path socketPath) {
+        this(socketPath, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CompileDaemon(Path socketPath, int threads) {
+        this.socketPath = socketPath;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+    }
+
+    // Plazo para recibir la petición entera, contado desde que el trabajador toma la conexión
+    public CompileDaemon readTimeout(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Error: El plazo de lectura tiene que ser positivo");
+        }
+        this.readTimeoutMillis = millis;
+        return this;
+    }
+
+    public static Path defaultSocket() {
+        return DaemonProtocol.defaultSocket();
+    }
+
+    // Bloquea hasta que llegue una petición SHUTDOWN o se llame a stop()
+    public void run() throws IOException {
+        if (Files.exists(socketPath)) {
+            if (isListening(socketPath)) {
+                throw new IOException("Ya hay un daemon escuchando en " + socketPath);
+            }
+            // Quedó de una ejecución que terminó sin borrarlo e impide el bind
+            Files.deleteIfExists(socketPath);
+        }
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+        ready.countDown();
+        try {
+            while (running) {
+                SocketChannel client;
+                try {
+                    client = server.accept();
+                } catch (IOException e) {
+                    if (!running) break;
+                    throw e;
+                }
+                try {
+                    executor.execute(() -> handle(client));
+                } catch (RejectedExecutionException e) {
+                    reject(client);
+                }
+            }
+        } finally {
+            executor.shutdown();
+            server.close();
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    // Si alguien acepta la conexión, el socket es de un daemon vivo y no se toca
+    private static boolean isListening(Path socketPath) {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // El archivo del socket aparece antes de que el servidor acepte conexiones
+    public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+        return ready.await(timeout, unit);
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            if (server != null) server.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (SocketChannel channel = client) {
+            String command;
+            String argument = null;
+            // La petición se lee sin bloquear, esperando con el selector solo lo que queda del plazo
+            try (Selector selector = Selector.open()) {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(
+                        new DeadlineInputStream(channel, selector, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeoutMillis))));
+                command = DaemonProtocol.readString(in);
+                if (!command.equals(DaemonProtocol.SHUTDOWN)) {
+                    argument = DaemonProtocol.readString(in);
+                }
+            }
+            // Cerrar el selector quita el registro; la respuesta se escribe bloqueando como antes
+            channel.configureBlocking(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            if (command.equals(DaemonProtocol.SHUTDOWN)) {
+                writeResponse(out, DaemonProtocol.OK, "Daemon detenido", Collections.emptyList(), 0);
+                stop();
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                CompilerPipeline pipeline = pipelines.get();
+                CompilationResult result = command.equals(DaemonProtocol.FILE)
+                        ? pipeline.compileFile(Paths.get(argument))
+                        : pipeline.compile(argument);
+                writeResponse(out, DaemonProtocol.OK, "", result.getSemanticErrors(), System.nanoTime() - start);
+            } catch (IOException e) {
+                writeResponse(out, DaemonProtocol.FAILED, "Error al cargar el archivo: " + e.getMessage(),
+                        Collections.emptyList(), System.nanoTime() - start);
+            } catch (RuntimeException e) {
+                writeResponse(out, DaemonProtocol.FAILED, "Error en el análisis: " + e.getMessage(),
+                        Collections.emptyList(), System.nanoTime() - start);
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión o no mandó la petición a tiempo: no hay a quién responder
+        }
+    }
+
+    // Lee de un canal no bloqueante hasta un instante fijo; pasado ese instante la lectura falla y
+    // la conexión se cierra
+    private static final class DeadlineInputStream extends InputStream {
+        private final SocketChannel channel;
+        private final Selector selector;
+        private final long deadline;
+
+        DeadlineInputStream(SocketChannel channel, Selector selector, long deadline) {
+            this.channel = channel;
+            this.selector = selector;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+            while (true) {
+                int read = channel.read(target);
+                if (read != 0) {
+                    return read;
+                }
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new SocketTimeoutException("Error: La petición no llegó a tiempo");
+                }
+                selector.select(remaining);
+                selector.selectedKeys().clear();
+            }
+        }
+    }
+
+    private void reject(SocketChannel client) {
+        try (SocketChannel channel = client;
+             DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel))) {
+            writeResponse(out, DaemonProtocol.BUSY, "Daemon ocupado", Collections.emptyList(), 0);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void writeResponse(DataOutputStream out, byte status, String message, List<String> errors, long nanos)
+            throws IOException {
+        out.writeByte(status);
+        DaemonProtocol.writeString(out, message);
+        out.writeInt(errors.size());
+        for (String error : errors) {
+            DaemonProtocol.writeString(out, error);
+        }
+        out.writeLong(nanos);
+        out.flush();
+    }
+}
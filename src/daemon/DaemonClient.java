@@ -0,0 +1,69 @@
+package daemon;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cliente del CompileDaemon. Los métodos devuelven null si no hay un daemon escuchando,
+// para que quien llama compile en el mismo proceso.
+public class DaemonClient {
+    private final Path socketPath;
+
+    public DaemonClient() {
+        this(DaemonProtocol.defaultSocket());
+    }
+
+    public DaemonClient(Path socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    public DaemonResponse compileFile(Path file) {
+        return send(DaemonProtocol.FILE, file.toAbsolutePath().toString());
+    }
+
+    public DaemonResponse compileSource(String code) {
+        return send(DaemonProtocol.SOURCE, code);
+    }
+
+    public boolean shutdown() {
+        return send(DaemonProtocol.SHUTDOWN, null) != null;
+    }
+
+    private DaemonResponse send(String command, String argument) {
+        if (!Files.exists(socketPath)) {
+            return null;
+        }
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            DaemonProtocol.writeString(out, command);
+            if (argument != null) {
+                DaemonProtocol.writeString(out, argument);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            byte status = in.readByte();
+            String message = DaemonProtocol.readString(in);
+            int count = in.readInt();
+            List<String> errors = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                errors.add(DaemonProtocol.readString(in));
+            }
+            long nanos = in.readLong();
+            if (status == DaemonProtocol.BUSY) {
+                return null;
+            }
+            return new DaemonResponse(status == DaemonProtocol.OK, message, errors, nanos);
+        } catch (IOException e) {
+            // Socket huérfano o daemon caído
+            return null;
+        }
+    }
+}
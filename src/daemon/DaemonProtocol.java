@@ -0,0 +1,49 @@
+package daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Formato de los mensajes entre cliente y daemon (uno por conexión):
+//   petición  := comando:string [argumento:string]
+//   respuesta := estado:byte mensaje:string nErrores:int error:string* nanos:long
+// string = largo:int + bytes UTF-8, con el largo entre 0 y MAX_STRING_BYTES
+final class DaemonProtocol {
+    // Alcanza para un fuente grande; un largo mayor es un cliente roto y no se reserva
+    static final int MAX_STRING_BYTES = 64 * 1024 * 1024;
+
+    static final String FILE = "FILE";
+    static final String SOURCE = "SOURCE";
+    static final String SHUTDOWN = "SHUTDOWN";
+
+    static final byte OK = 0;
+    static final byte FAILED = 1;
+    static final byte BUSY = 2;
+
+    private DaemonProtocol() {
+    }
+
+    static Path defaultSocket() {
+        return Paths.get(System.getProperty("java.io.tmpdir"),
+                "proyectocompiladores-" + System.getProperty("user.name") + ".sock");
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Largo de string inválido en el protocolo: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package daemon;
+
+import java.util.List;
+
+public class DaemonResponse {
+    private final boolean success;
+    private final String message;
+    private final List<String> semanticErrors;
+    private final long serverNanos;
+
+    DaemonResponse(boolean success, String message, List<String> semanticErrors, long serverNanos) {
+        this.success = success;
+        this.message = message;
+        this.semanticErrors = semanticErrors;
+        this.serverNanos = serverNanos;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    // Descripción del fallo (archivo ilegible, error de sintaxis, daemon ocupado)
+    public String getMessage() {
+        return message;
+    }
+
+    public List<String> getSemanticErrors() {
+        return semanticErrors;
+    }
+
+    // Tiempo de compilación medido dentro del daemon
+    public long getServerNanos() {
+        return serverNanos;
+    }
+}
@@ -0,0 +1,56 @@
+package diagnostics;
+
+// Un diagnóstico: el código, dónde está y los argumentos tal como los tenía quien lo informó
+// (nombres de tokens, tipos). El mensaje se arma recién al pedirlo.
+public final class Diagnostic {
+    private final DiagnosticCode code;
+    private final int token; // índice del token donde se detectó; -1 si no tiene (errores de flujo)
+    private final Object[] arguments;
+    int occurrences = 1; // veces que se informó, si se agrupó por símbolo
+
+    public Diagnostic(DiagnosticCode code, int token, Object... arguments) {
+        this.code = code;
+        this.token = token;
+        this.arguments = arguments;
+    }
+
+    // Un diagnóstico leído de la caché, con las ocurrencias que ya se habían agrupado
+    public static Diagnostic restore(DiagnosticCode code, int token, int occurrences, Object[] arguments) {
+        Diagnostic diagnostic = new Diagnostic(code, token, arguments);
+        diagnostic.occurrences = occurrences;
+        return diagnostic;
+    }
+
+    public DiagnosticCode getCode() {
+        return code;
+    }
+
+    public Severity getSeverity() {
+        return code.severity();
+    }
+
+    public int getToken() {
+        return token;
+    }
+
+    public int getArgumentCount() {
+        return arguments.length;
+    }
+
+    public Object getArgument(int index) {
+        return arguments[index];
+    }
+
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    public String message() {
+        return code.format(arguments);
+    }
+
+    @Override
+    public String toString() {
+        return message();
+    }
+}
@@ -0,0 +1,72 @@
+package diagnostics;
+
+// Cada diagnóstico que puede dar el compilador, con su gravedad y el texto con huecos {0}, {1}
+// para los argumentos. El texto se arma recién al mostrarlo (ver Diagnostic.message).
+// Los marcados con 'bySymbol' se informan una sola vez por símbolo (el primer argumento): un
+// nombre mal escrito usado mil veces es un solo error.
+public enum DiagnosticCode {
+    // Parser
+    SWITCH_TYPE("Error: No se puede usar switch sobre un valor de tipo '{0}'"),
+    CASE_NOT_CONSTANT("Error: El valor de un caso debe ser una constante"),
+    CASE_TYPE("Error: Un caso de tipo '{0}' no es compatible con un switch de tipo '{1}'"),
+    DUPLICATE_CASE("Error: Caso duplicado {0} en switch"),
+    DUPLICATE_STRING_CASE("Error: Caso duplicado \"{0}\" en switch"),
+    DUPLICATE_DEFAULT("Error: Más de un 'default' en switch"),
+    UNDECLARED_EXCEPTION("Error: Tipo de excepción '{0}' no declarado", true),
+    UNREACHABLE_CATCH("Error: El catch de '{0}' es inalcanzable: '{1}' ya se captura antes"),
+    REDEFINED_VARIABLE("Error: Redefinición de variable '{0}'"),
+    INCOMPATIBLE_ASSIGNMENT("Error: No se puede asignar un valor de tipo '{0}' a una variable de tipo '{1}'"),
+    UNDECLARED_SYMBOL("Error: Símbolo '{0}' no declarado", true),
+    INCOMPATIBLE_OPERANDS("Error: Tipos incompatibles en operación binaria: {0} y {1}"),
+    UNDECLARED_VARIABLE("Error: Variable '{0}' usada sin declarar.", true),
+    NUMBER_OUT_OF_RANGE("Error: El literal {0} está fuera del rango de '{1}'"),
+    MALFORMED_NUMBER("Error: Literal numérico mal formado: {0}"),
+    // FlowChecker
+    UNREACHABLE_CODE_AFTER("Error: Código inalcanzable después de '{0}' en el método '{1}'"),
+    UNREACHABLE_CODE("Error: Código inalcanzable en el método '{0}'"),
+    MISSING_RETURN("Error: El método '{0}' puede terminar sin devolver un valor de tipo '{1}'"),
+    UNASSIGNED_VARIABLE("Error: La variable '{0}' puede usarse sin haber sido asignada en el método '{1}'"),
+    // Proyecto
+    DUPLICATE_DECLARATION("Error: '{0}' ya se declara en {1}"),
+    // Servidor de lenguaje
+    UNUSED_SYMBOL(Severity.WARNING, "'{0}' se declara pero nunca se usa", false);
+
+    private final Severity severity;
+    private final String template;
+    private final boolean bySymbol;
+
+    DiagnosticCode(String template) {
+        this(Severity.ERROR, template, false);
+    }
+
+    DiagnosticCode(String template, boolean bySymbol) {
+        this(Severity.ERROR, template, bySymbol);
+    }
+
+    DiagnosticCode(Severity severity, String template, boolean bySymbol) {
+        this.severity = severity;
+        this.template = template;
+        this.bySymbol = bySymbol;
+    }
+
+    public Severity severity() {
+        return severity;
+    }
+
+    public boolean bySymbol() {
+        return bySymbol;
+    }
+
+    // Reemplaza cada {n} por el argumento n
+    public String format(Object... arguments) {
+        StringBuilder out = new StringBuilder(template.length() + 16 * arguments.length);
+        int from = 0;
+        for (int i = template.indexOf('{'); i >= 0; i = template.indexOf('{', from)) {
+            int close = template.indexOf('}', i);
+            out.append(template, from, i);
+            out.append(arguments[Integer.parseInt(template.substring(i + 1, close))]);
+            from = close + 1;
+        }
+        return out.append(template, from, template.length()).toString();
+    }
+}
@@ -0,0 +1,128 @@
+package diagnostics;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Diagnósticos de un archivo. Los de un código 'bySymbol' se agrupan por símbolo: el primero
+// queda y los demás solo suman a sus ocurrencias. Pasado el límite (100 por defecto, como javac)
+// los nuevos se cuentan pero no se guardan; uno agrupado por símbolo se recuerda igual, así sus
+// repeticiones suman ocurrencias y no cuentan como otros errores ocultos. Cada diagnóstico que se guarda se entrega en el
+// momento a los oyentes, así la CLI y la interfaz lo muestran sin esperar a que termine el análisis.
+public final class Diagnostics {
+    public static final int DEFAULT_LIMIT = 100;
+
+    private int limit = DEFAULT_LIMIT;
+    private boolean deduplicate = true;
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private final Map<DiagnosticCode, Map<Object, Diagnostic>> bySymbol = new EnumMap<>(DiagnosticCode.class);
+    private final List<Consumer<Diagnostic>> listeners = new ArrayList<>();
+    // Los agrupados por símbolo que pasaron el límite, con sus ocurrencias
+    private final List<Diagnostic> hidden = new ArrayList<>();
+    private int suppressed;
+
+    public Diagnostics limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    // false: cada ocurrencia es un diagnóstico aparte (el servidor de lenguaje las marca todas)
+    public Diagnostics deduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+        return this;
+    }
+
+    public Diagnostics listener(Consumer<Diagnostic> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    public void report(DiagnosticCode code, int token, Object... arguments) {
+        if (deduplicate && code.bySymbol()) {
+            Diagnostic first = bySymbol.computeIfAbsent(code, c -> new HashMap<>()).get(arguments[0]);
+            if (first != null) {
+                first.occurrences++;
+                return;
+            }
+        }
+        add(new Diagnostic(code, token, arguments));
+    }
+
+    public void report(Diagnostic diagnostic) {
+        if (deduplicate && diagnostic.getCode().bySymbol()) {
+            Diagnostic first = bySymbol.computeIfAbsent(diagnostic.getCode(), c -> new HashMap<>()).get(diagnostic.getArgument(0));
+            if (first != null) {
+                first.occurrences += diagnostic.occurrences;
+                return;
+            }
+        }
+        add(diagnostic);
+    }
+
+    private void add(Diagnostic diagnostic) {
+        if (deduplicate && diagnostic.getCode().bySymbol()) {
+            bySymbol.get(diagnostic.getCode()).put(diagnostic.getArgument(0), diagnostic);
+        }
+        if (diagnostics.size() >= limit) {
+            suppressed++;
+            if (deduplicate && diagnostic.getCode().bySymbol()) {
+                hidden.add(diagnostic);
+            }
+            return;
+        }
+        diagnostics.add(diagnostic);
+        for (Consumer<Diagnostic> listener : listeners) {
+            listener.accept(diagnostic);
+        }
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return Collections.unmodifiableList(diagnostics);
+    }
+
+    // Los mensajes, armados a medida que se piden
+    public List<String> messages() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return diagnostics.get(index).message();
+            }
+
+            @Override
+            public int size() {
+                return diagnostics.size();
+            }
+        };
+    }
+
+    public int size() {
+        return diagnostics.size();
+    }
+
+    public boolean isEmpty() {
+        return diagnostics.isEmpty();
+    }
+
+    // Diagnósticos distintos que no se guardaron por pasar el límite (un símbolo repetido es uno)
+    public int suppressedCount() {
+        return suppressed;
+    }
+
+    // Cada diagnóstico informado, contando las repeticiones agrupadas y los que pasaron el límite
+    public int totalCount() {
+        int total = suppressed;
+        for (Diagnostic diagnostic : diagnostics) {
+            total += diagnostic.occurrences;
+        }
+        // Cada oculto ya cuenta una vez en 'suppressed'
+        for (Diagnostic diagnostic : hidden) {
+            total += diagnostic.occurrences - 1;
+        }
+        return total;
+    }
+}
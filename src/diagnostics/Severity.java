@@ -0,0 +1,6 @@
+package diagnostics;
+
+public enum Severity {
+    ERROR,
+    WARNING
+}
@@ -0,0 +1,88 @@
+package interpreter;
+
+// Operación binaria que se especializa según los tipos que ve. Empieza sin inicializar; en la
+// primera ejecución pasa a enteros o a strings según los operandos, y si después llega otro
+// tipo queda genérica para siempre. Especializada en enteros pide los operandos con executeInt
+// y no encajona nada.
+final class BinaryNode extends ExprNode {
+    private static final int UNINITIALIZED = 0, INT = 1, STRING = 2, GENERIC = 3;
+
+    private final Operator operator;
+    private final ExprNode left;
+    private final ExprNode right;
+    private int state;
+
+    BinaryNode(Operator operator, ExprNode left, ExprNode right, boolean specialize) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.state = specialize ? UNINITIALIZED : GENERIC;
+    }
+
+    @Override
+    int executeInt(Frame frame) throws UnexpectedResult {
+        if (state != INT || operator.comparison) {
+            return super.executeInt(frame);
+        }
+        int a;
+        try {
+            a = left.executeInt(frame);
+        } catch (UnexpectedResult e) {
+            throw new UnexpectedResult(generalize(e.value, right.execute(frame)));
+        }
+        int b;
+        try {
+            b = right.executeInt(frame);
+        } catch (UnexpectedResult e) {
+            throw new UnexpectedResult(generalize(a, e.value));
+        }
+        return operator.apply(a, b);
+    }
+
+    @Override
+    boolean executeBoolean(Frame frame) throws UnexpectedResult {
+        if (state != INT || !operator.comparison) {
+            return super.executeBoolean(frame);
+        }
+        int a;
+        try {
+            a = left.executeInt(frame);
+        } catch (UnexpectedResult e) {
+            throw new UnexpectedResult(generalize(e.value, right.execute(frame)));
+        }
+        int b;
+        try {
+            b = right.executeInt(frame);
+        } catch (UnexpectedResult e) {
+            throw new UnexpectedResult(generalize(a, e.value));
+        }
+        return operator.compare(a, b);
+    }
+
+    @Override
+    Object execute(Frame frame) {
+        if (state == INT) {
+            // Solo se encajona el resultado
+            try {
+                return operator.comparison ? (Object) executeBoolean(frame) : (Object) executeInt(frame);
+            } catch (UnexpectedResult e) {
+                return e.value;
+            }
+        }
+        Object a = left.execute(frame);
+        Object b = right.execute(frame);
+        if (state == UNINITIALIZED) {
+            state = a instanceof Integer && b instanceof Integer ? INT
+                    : operator == Operator.ADD && (a instanceof String || b instanceof String) ? STRING : GENERIC;
+        } else if (state == STRING && !(a instanceof String || b instanceof String)) {
+            state = GENERIC;
+        }
+        return state == STRING ? String.valueOf(a) + b : operator.apply(a, b);
+    }
+
+    // Llegó un operando de otro tipo: el nodo deja de estar especializado
+    private Object generalize(Object a, Object b) {
+        state = GENERIC;
+        return operator.apply(a, b);
+    }
+}
@@ -0,0 +1,329 @@
+package interpreter;
+
+import ast.*;
+import lowering.SwitchLowering;
+import optimizer.CallGraph;
+
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Arma el árbol ejecutable a partir del AST. Los ámbitos siguen a los del Parser: cada bloque
+// abre uno, la inicialización del for queda en el que lo contiene, los casos de un switch
+// comparten uno y la variable de un catch tiene el suyo. Cada variable recibe un lugar en el
+// frame de su método (o en el global) y un tipo fijo según su declaración.
+// Lo que no se puede ejecutar (atributos, nombres sin resolver) es IllegalArgumentException; en
+// el cuerpo de un método el error queda guardado y se da recién si el método se llama.
+final class Builder {
+    private final CallGraph graph;
+    private final PrintStream out;
+    private final boolean specialize;
+    private final Frame globals;
+    private final Map<MethodDeclaration, MethodCode> methods = new IdentityHashMap<>();
+    private final Deque<Map<String, Slot>> scopes = new ArrayDeque<>();
+
+    // Método que se está armando (null en el código de nivel superior) y su clase
+    private MethodCode method;
+    private String returnType;
+    private ClassDeclaration owner;
+    private int nextSlot;
+
+    private static final class Slot {
+        final int index;
+        final byte kind;
+        final String type;
+        final MethodCode method;
+
+        Slot(int index, String type, MethodCode method) {
+            this.index = index;
+            this.kind = Frame.kindOf(type);
+            this.type = type;
+            this.method = method;
+        }
+    }
+
+    Builder(Node program, PrintStream out, boolean specialize, Frame globals) {
+        this.graph = CallGraph.build(program);
+        this.out = out;
+        this.specialize = specialize;
+        this.globals = globals;
+        for (MethodDeclaration declaration : graph.getMethods()) {
+            String[] types = new String[declaration.parameters.size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = declaration.parameters.get(i).type;
+            }
+            ClassDeclaration declaringClass = graph.ownerOf(declaration);
+            String name = declaringClass != null ? declaringClass.getName() + "." + declaration.name : declaration.name;
+            byte returnKind = declaration.returnType.equals("void") ? MethodCode.VOID : Frame.kindOf(declaration.returnType);
+            methods.put(declaration, new MethodCode(name, returnKind, types));
+        }
+    }
+
+    // Código de nivel superior; deja el frame global del tamaño necesario
+    StmtNode program(Node program) {
+        StmtNode main = statement(program);
+        globals.grow(nextSlot);
+        return main;
+    }
+
+    // Método de nivel superior con ese nombre, o null
+    MethodCode method(String name) {
+        MethodDeclaration declaration = graph.resolve(name, null);
+        return declaration != null ? methods.get(declaration) : null;
+    }
+
+    private StmtNode statement(Node node) {
+        if (node == null) {
+            return StmtNodes.NOP;
+        }
+        if (node instanceof BlockStatement) {
+            scopes.push(new HashMap<>());
+            try {
+                return block(((BlockStatement) node).statements);
+            } finally {
+                scopes.pop();
+            }
+        }
+        if (node instanceof VariableDeclaration) {
+            VariableDeclaration declaration = (VariableDeclaration) node;
+            Slot slot = declare(declaration.identifier, declaration.type);
+            if (declaration.initializer == null) {
+                return StmtNodes.NOP;
+            }
+            return new StmtNodes.Eval(write(declaration.identifier, slot, expression(declaration.initializer)));
+        }
+        if (node instanceof ExpressionStatement) {
+            Expression expression = ((ExpressionStatement) node).expression;
+            if (expression instanceof VariableReference) {
+                // El Parser deja así las sentencias que no analiza (x++;, x.y = ...;)
+                throw new IllegalArgumentException("Error: La sentencia que empieza con '"
+                        + ((VariableReference) expression).name + "' no se puede ejecutar");
+            }
+            return new StmtNodes.Eval(expression(expression));
+        }
+        if (node instanceof IfStatement) {
+            IfStatement stmt = (IfStatement) node;
+            return new StmtNodes.If(expression(stmt.condition), statement(stmt.thenBranch), statement(stmt.elseBranch));
+        }
+        if (node instanceof WhileStatement) {
+            WhileStatement stmt = (WhileStatement) node;
+            return new StmtNodes.While(expression(stmt.condition), statement(stmt.body));
+        }
+        if (node instanceof ForStatement) {
+            ForStatement stmt = (ForStatement) node;
+            StmtNode initializer = statement(stmt.initializer);
+            return new StmtNodes.For(initializer, stmt.condition != null ? expression(stmt.condition) : null,
+                    stmt.update != null ? expression(stmt.update) : null, statement(stmt.body));
+        }
+        if (node instanceof SwitchStatement) {
+            SwitchStatement stmt = (SwitchStatement) node;
+            ExprNode expression = expression(stmt.expression);
+            scopes.push(new HashMap<>());
+            try {
+                List<StmtNode> cases = new ArrayList<>();
+                for (CaseStatement label : stmt.cases) {
+                    cases.add(label.body != null ? block(label.body.statements) : StmtNodes.NOP);
+                }
+                return new StmtNodes.Switch(expression, SwitchLowering.lower(stmt), cases);
+            } finally {
+                scopes.pop();
+            }
+        }
+        if (node instanceof TryCatchStatement) {
+            TryCatchStatement stmt = (TryCatchStatement) node;
+            StmtNode tryBlock = statement(stmt.tryBlock);
+            List<StmtNodes.Catch> catches = new ArrayList<>();
+            for (CatchClause clause : stmt.catchClauses) {
+                scopes.push(new HashMap<>());
+                try {
+                    Slot slot = declare(clause.exceptionVariable, clause.exceptionType);
+                    catches.add(new StmtNodes.Catch(clause.exceptionType, slot.index, statement(clause.body)));
+                } finally {
+                    scopes.pop();
+                }
+            }
+            return new StmtNodes.Try(tryBlock, catches, stmt.finallyBlock != null ? statement(stmt.finallyBlock) : null);
+        }
+        if (node instanceof ReturnStatement) {
+            Expression value = ((ReturnStatement) node).value;
+            if (method == null) {
+                return new StmtNodes.Return(value != null ? expression(value) : null, MethodCode.VOID);
+            }
+            return new StmtNodes.Return(value != null ? widen(expression(value), returnType) : null, method.returnKind);
+        }
+        if (node instanceof BreakStatement) {
+            return StmtNodes.BREAK;
+        }
+        if (node instanceof ContinueStatement) {
+            return StmtNodes.CONTINUE;
+        }
+        if (node instanceof MethodDeclaration) {
+            method((MethodDeclaration) node);
+            return StmtNodes.NOP;
+        }
+        if (node instanceof ClassDeclaration) {
+            ClassDeclaration saved = owner;
+            owner = (ClassDeclaration) node;
+            try {
+                for (MethodDeclaration member : owner.getMethods()) {
+                    method(member);
+                }
+            } finally {
+                owner = saved;
+            }
+            return StmtNodes.NOP;
+        }
+        throw new IllegalArgumentException("Error: La sentencia " + node.getClass().getSimpleName() + " no se puede ejecutar");
+    }
+
+    // Sentencias en el ámbito actual
+    private StmtNode block(List<Node> statements) {
+        List<StmtNode> nodes = new ArrayList<>();
+        for (Node child : statements) {
+            StmtNode built = statement(child);
+            if (built != StmtNodes.NOP) {
+                nodes.add(built);
+            }
+        }
+        return nodes.size() == 1 ? nodes.get(0) : new StmtNodes.Block(nodes);
+    }
+
+    private void method(MethodDeclaration declaration) {
+        MethodCode code = methods.get(declaration);
+        MethodCode savedMethod = method;
+        String savedReturnType = returnType;
+        int savedSlot = nextSlot;
+        int depth = scopes.size();
+        method = code;
+        returnType = declaration.returnType;
+        nextSlot = 0;
+        scopes.push(new HashMap<>());
+        try {
+            for (VariableDeclaration parameter : declaration.parameters) {
+                declare(parameter.identifier, parameter.type);
+            }
+            StmtNode body = statement(declaration.body);
+            code.define(body, nextSlot);
+        } catch (IllegalArgumentException e) {
+            code.fail(e.getMessage());
+        } finally {
+            while (scopes.size() > depth) {
+                scopes.pop();
+            }
+            method = savedMethod;
+            returnType = savedReturnType;
+            nextSlot = savedSlot;
+        }
+    }
+
+    private ExprNode expression(Node node) {
+        if (node instanceof NumberLiteral) {
+            return new ExprNodes.IntConstant(((NumberLiteral) node).value);
+        }
+        if (node instanceof StringLiteral) {
+            String text = ((StringLiteral) node).value;
+            return new ExprNodes.Constant(text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")
+                    ? text.substring(1, text.length() - 1) : text);
+        }
+        // long, float y double no tienen nodos especializados: van como objetos
+        if (node instanceof LongLiteral) {
+            return new ExprNodes.Constant(((LongLiteral) node).value);
+        }
+        if (node instanceof DoubleLiteral) {
+            DoubleLiteral literal = (DoubleLiteral) node;
+            return new ExprNodes.Constant(literal.isFloat ? (Object) (float) literal.value : (Object) literal.value);
+        }
+        if (node instanceof LiteralExpression) {
+            return new ExprNodes.Constant(((LiteralExpression) node).value);
+        }
+        if (node instanceof VariableReference || node instanceof VariableReferenceExpression) {
+            String name = node instanceof VariableReference ? ((VariableReference) node).name : ((VariableReferenceExpression) node).name;
+            Slot slot = lookup(name);
+            return new ExprNodes.ReadLocal(slot.index, slot.kind, fixed(slot));
+        }
+        if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            return new BinaryNode(Operator.of(binary.getOperator()), expression(binary.getLeft()), expression(binary.getRight()), specialize);
+        }
+        if (node instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) node;
+            return new ExprNodes.UnaryNode(unary.operator, expression(unary.operand));
+        }
+        if (node instanceof PostfixExpression && ((PostfixExpression) node).getTarget() instanceof VariableReference) {
+            PostfixExpression postfix = (PostfixExpression) node;
+            String name = ((VariableReference) postfix.getTarget()).name;
+            Slot slot = lookup(name);
+            return new ExprNodes.Increment(name, slot.index, slot.kind, fixed(slot), postfix.getOperator().equals("++") ? 1 : -1);
+        }
+        if (node instanceof Assignment) {
+            Assignment assignment = (Assignment) node;
+            return write(assignment.identifier, lookup(assignment.identifier), expression(assignment.value));
+        }
+        if (node instanceof AssignmentExpression && ((AssignmentExpression) node).target instanceof VariableReference) {
+            AssignmentExpression assignment = (AssignmentExpression) node;
+            String name = ((VariableReference) assignment.target).name;
+            return write(name, lookup(name), expression(assignment.value));
+        }
+        if (node instanceof FunctionCall) {
+            FunctionCall call = (FunctionCall) node;
+            List<ExprNode> arguments = new ArrayList<>();
+            for (Expression argument : call.getArguments()) {
+                arguments.add(expression(argument));
+            }
+            MethodDeclaration target = graph.resolve(call.getName(), owner);
+            if (target != null) {
+                MethodCode code = methods.get(target);
+                if (code.parameterKinds.length != arguments.size()) {
+                    throw new IllegalArgumentException("Error: '" + call.getName() + "' recibe " + code.parameterKinds.length
+                            + " argumentos y se llama con " + arguments.size());
+                }
+                for (int i = 0; i < arguments.size(); i++) {
+                    arguments.set(i, widen(arguments.get(i), code.parameterTypes[i]));
+                }
+                return new ExprNodes.Call(code, arguments);
+            }
+            if (call.getName().equals("println") && !graph.isAmbiguous("println", owner)) {
+                return new ExprNodes.Println(out, arguments);
+            }
+            throw new IllegalArgumentException("Error: No se puede resolver la llamada a '" + call.getName() + "'");
+        }
+        throw new IllegalArgumentException("Error: La expresión " + node.getClass().getSimpleName() + " no se puede ejecutar");
+    }
+
+    private ExprNode write(String name, Slot slot, ExprNode value) {
+        return new ExprNodes.WriteLocal(name, slot.index, slot.kind, fixed(slot), widen(value, slot.type));
+    }
+
+    // Un int que va a un lugar long, float o double se ensancha al guardarlo, como en Java
+    private static ExprNode widen(ExprNode value, String type) {
+        return ExprNode.widens(type) ? new ExprNodes.Widen(type, value) : value;
+    }
+
+    private Slot declare(String name, String type) {
+        Slot slot = new Slot(nextSlot++, type, method);
+        scopes.peek().put(name, slot);
+        return slot;
+    }
+
+    private Slot lookup(String name) {
+        for (Map<String, Slot> scope : scopes) {
+            Slot slot = scope.get(name);
+            if (slot != null) {
+                if (slot.method != null && slot.method != method) {
+                    throw new IllegalArgumentException("Error: '" + name + "' es una variable local de otro método");
+                }
+                return slot;
+            }
+        }
+        throw new IllegalArgumentException("Error: La variable '" + name + "' no se puede ejecutar (no es local ni global)");
+    }
+
+    private Frame fixed(Slot slot) {
+        return slot.method == null ? globals : null;
+    }
+}
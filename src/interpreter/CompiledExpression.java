@@ -0,0 +1,114 @@
+package interpreter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+// Expresión lista para evaluar sobre las variables de su ExpressionCompiler: un MethodHandle sin
+// parámetros (compile) o un árbol del intérprete (interpret). evaluateInt y evaluateBoolean no
+// encajonan cuando la expresión es de ese tipo; si es de otro miran el valor al evaluar.
+// El handle está en un campo de instancia: HotSpot no lo toma como constante y cada evaluación
+// lo invoca sin incluirlo en el que llama (ver ExpressionCompiler).
+public final class CompiledExpression {
+    private final MethodHandle handle; // null si es un árbol
+    private final MethodHandle boxed;
+    private final ExprNode tree;
+    private final Frame frame;
+    private final byte kind;
+
+    CompiledExpression(MethodHandle handle, byte kind) {
+        this.handle = handle;
+        this.boxed = handle.asType(MethodType.methodType(Object.class));
+        this.tree = null;
+        this.frame = null;
+        this.kind = kind;
+    }
+
+    CompiledExpression(ExprNode tree, Frame frame, byte kind) {
+        this.handle = null;
+        this.boxed = null;
+        this.tree = tree;
+        this.frame = frame;
+        this.kind = kind;
+    }
+
+    // "int", "boolean" u "Object" si recién se sabe al evaluar
+    public String getType() {
+        return kind == Frame.INT ? "int" : kind == Frame.BOOLEAN ? "boolean" : "Object";
+    }
+
+    // El handle ()int, ()boolean u ()Object según getType, para guardarlo en un campo static
+    // final y llamarlo con invokeExact: así sí es una constante para HotSpot, que puede compilar la
+    // expresión dentro del método que la evalúa. Es IllegalStateException si es un árbol.
+    public MethodHandle getHandle() {
+        if (handle == null) {
+            throw new IllegalStateException("Error: La expresión es un árbol del intérprete y no tiene handle");
+        }
+        return handle;
+    }
+
+    public Object evaluate() {
+        if (tree != null) {
+            return tree.execute(frame);
+        }
+        try {
+            return (Object) boxed.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int evaluateInt() {
+        if (kind != Frame.INT) {
+            Object value = evaluate();
+            if (value instanceof Integer) {
+                return (Integer) value;
+            }
+            throw unexpected(value, "int");
+        }
+        if (tree != null) {
+            try {
+                return tree.executeInt(frame);
+            } catch (UnexpectedResult e) {
+                throw unexpected(e.value, "int");
+            }
+        }
+        try {
+            return (int) handle.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public boolean evaluateBoolean() {
+        if (kind != Frame.BOOLEAN) {
+            Object value = evaluate();
+            if (value instanceof Boolean) {
+                return (Boolean) value;
+            }
+            throw unexpected(value, "boolean");
+        }
+        if (tree != null) {
+            try {
+                return tree.executeBoolean(frame);
+            } catch (UnexpectedResult e) {
+                throw unexpected(e.value, "boolean");
+            }
+        }
+        try {
+            return (boolean) handle.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RuntimeError unexpected(Object value, String type) {
+        return new RuntimeError("RuntimeException", "Error: La expresión da un valor de tipo '"
+                + ExprNode.typeName(value) + "' y no '" + type + "'");
+    }
+}
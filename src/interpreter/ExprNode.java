@@ -0,0 +1,83 @@
+package interpreter;
+
+// Nodo ejecutable de una expresión. execute() devuelve el valor encajonado; executeInt y
+// executeBoolean lo devuelven sin encajonar cuando el nodo está especializado en ese tipo, y si
+// el valor resulta ser de otro tipo lanzan UnexpectedResult con el valor.
+abstract class ExprNode {
+    abstract Object execute(Frame frame);
+
+    int executeInt(Frame frame) throws UnexpectedResult {
+        Object value = execute(frame);
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        throw new UnexpectedResult(value);
+    }
+
+    boolean executeBoolean(Frame frame) throws UnexpectedResult {
+        Object value = execute(frame);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw new UnexpectedResult(value);
+    }
+
+    // Como sentencia: el valor no se usa, así que no hace falta encajonarlo
+    void executeVoid(Frame frame) {
+        execute(frame);
+    }
+
+    // El valor como se guarda en 'primitives' para una variable de tipo 'kind' (INT o BOOLEAN)
+    static long primitive(ExprNode node, Frame frame, byte kind, String target) {
+        try {
+            return kind == Frame.INT ? node.executeInt(frame) : node.executeBoolean(frame) ? 1 : 0;
+        } catch (UnexpectedResult e) {
+            throw new RuntimeError("RuntimeException", "Error: No se puede guardar un valor de tipo '"
+                    + typeName(e.value) + "' en " + target + " de tipo '" + (kind == Frame.INT ? "int" : "boolean") + "'");
+        }
+    }
+
+    static Object box(long value, byte kind) {
+        return kind == Frame.INT ? (Object) (int) value : (Object) (value != 0);
+    }
+
+    // -x para long, float y double, que van encajonados; el int lo resuelve cada nodo
+    static Object negate(Object value) {
+        if (value instanceof Integer) return -(Integer) value;
+        if (value instanceof Long) return -(Long) value;
+        if (value instanceof Float) return -(Float) value;
+        if (value instanceof Double) return -(Double) value;
+        throw new RuntimeError("RuntimeException", "Error: No se puede aplicar '-' a " + typeName(value));
+    }
+
+    // Conversión de ensanchamiento al guardar en una variable, parámetro o retorno de tipo
+    // 'type' (int a long, int o long a float, cualquier número a double). Lo demás queda igual.
+    static Object widen(Object value, String type) {
+        switch (type) {
+            case "long":
+                return value instanceof Integer ? (Object) (long) (Integer) value : value;
+            case "float":
+                return value instanceof Integer || value instanceof Long ? (Object) ((Number) value).floatValue() : value;
+            case "double":
+                return Operator.isNumber(value) ? (Object) ((Number) value).doubleValue() : value;
+            default:
+                return value;
+        }
+    }
+
+    static boolean widens(String type) {
+        return type.equals("long") || type.equals("float") || type.equals("double");
+    }
+
+    static String typeName(Object value) {
+        if (value == null) return "null";
+        if (value instanceof Integer) return "int";
+        if (value instanceof Boolean) return "boolean";
+        if (value instanceof Long) return "long";
+        if (value instanceof Float) return "float";
+        if (value instanceof Double) return "double";
+        if (value instanceof String) return "String";
+        if (value instanceof RuntimeError) return ((RuntimeError) value).getType();
+        return value.getClass().getSimpleName();
+    }
+}
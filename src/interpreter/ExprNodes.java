@@ -0,0 +1,329 @@
+package interpreter;
+
+import java.io.PrintStream;
+import java.util.List;
+
+// Nodos de expresión ejecutables. Los que leen o escriben variables guardan el lugar ya
+// resuelto; 'fixed' es el frame global para las variables de nivel superior, que se ven desde
+// cualquier método, y null para las locales, que están en el frame de la invocación.
+final class ExprNodes {
+    private ExprNodes() {
+    }
+
+    static final class IntConstant extends ExprNode {
+        private final int value;
+        private final Integer boxed;
+
+        IntConstant(int value) {
+            this.value = value;
+            this.boxed = value;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return boxed;
+        }
+
+        @Override
+        int executeInt(Frame frame) {
+            return value;
+        }
+    }
+
+    static final class Constant extends ExprNode {
+        private final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return value;
+        }
+    }
+
+    static final class ReadLocal extends ExprNode {
+        private final int slot;
+        private final byte kind;
+        private final Frame fixed;
+
+        ReadLocal(int slot, byte kind, Frame fixed) {
+            this.slot = slot;
+            this.kind = kind;
+            this.fixed = fixed;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            Frame target = fixed != null ? fixed : frame;
+            return kind == Frame.OBJECT ? target.objects[slot] : box(target.primitives[slot], kind);
+        }
+
+        @Override
+        int executeInt(Frame frame) throws UnexpectedResult {
+            if (kind != Frame.INT) {
+                return super.executeInt(frame);
+            }
+            return (int) (fixed != null ? fixed : frame).primitives[slot];
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) throws UnexpectedResult {
+            if (kind != Frame.BOOLEAN) {
+                return super.executeBoolean(frame);
+            }
+            return (fixed != null ? fixed : frame).primitives[slot] != 0;
+        }
+    }
+
+    // Asignación o declaración con valor inicial
+    static final class WriteLocal extends ExprNode {
+        private final String description;
+        private final int slot;
+        private final byte kind;
+        private final Frame fixed;
+        private final ExprNode value;
+
+        WriteLocal(String name, int slot, byte kind, Frame fixed, ExprNode value) {
+            this.description = "'" + name + "'";
+            this.slot = slot;
+            this.kind = kind;
+            this.fixed = fixed;
+            this.value = value;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            Frame target = store(frame);
+            return kind == Frame.OBJECT ? target.objects[slot] : box(target.primitives[slot], kind);
+        }
+
+        @Override
+        int executeInt(Frame frame) throws UnexpectedResult {
+            if (kind != Frame.INT) {
+                return super.executeInt(frame);
+            }
+            return (int) store(frame).primitives[slot];
+        }
+
+        @Override
+        void executeVoid(Frame frame) {
+            store(frame);
+        }
+
+        // Evalúa el valor en 'frame' y lo guarda; devuelve el frame donde quedó
+        private Frame store(Frame frame) {
+            Frame target = fixed != null ? fixed : frame;
+            if (kind == Frame.OBJECT) {
+                target.objects[slot] = value.execute(frame);
+            } else {
+                target.primitives[slot] = primitive(value, frame, kind, description);
+            }
+            return target;
+        }
+    }
+
+    // x++ y x--: devuelve el valor anterior
+    static final class Increment extends ExprNode {
+        private final String name;
+        private final int slot;
+        private final byte kind;
+        private final Frame fixed;
+        private final int delta;
+
+        Increment(String name, int slot, byte kind, Frame fixed, int delta) {
+            this.name = name;
+            this.slot = slot;
+            this.kind = kind;
+            this.fixed = fixed;
+            this.delta = delta;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            if (kind == Frame.INT) {
+                return increment(frame);
+            }
+            Frame target = fixed != null ? fixed : frame;
+            Object old = kind == Frame.OBJECT ? target.objects[slot] : box(target.primitives[slot], kind);
+            if (!Operator.isNumber(old)) {
+                throw new RuntimeError("RuntimeException", "Error: No se puede incrementar '" + name
+                        + "' de tipo '" + typeName(old) + "'");
+            }
+            target.objects[slot] = Operator.ADD.apply(old, delta);
+            return old;
+        }
+
+        @Override
+        int executeInt(Frame frame) throws UnexpectedResult {
+            return kind == Frame.INT ? increment(frame) : super.executeInt(frame);
+        }
+
+        @Override
+        void executeVoid(Frame frame) {
+            if (kind == Frame.INT) {
+                increment(frame);
+            } else {
+                execute(frame);
+            }
+        }
+
+        private int increment(Frame frame) {
+            long[] primitives = (fixed != null ? fixed : frame).primitives;
+            int old = (int) primitives[slot];
+            primitives[slot] = old + delta;
+            return old;
+        }
+    }
+
+    // -x y !x; el '-' de un long, float o double devuelve el valor encajonado
+    static final class UnaryNode extends ExprNode {
+        private final boolean negate;
+        private final ExprNode operand;
+
+        UnaryNode(String operator, ExprNode operand) {
+            this.negate = operator.equals("-");
+            this.operand = operand;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            if (!negate) {
+                return not(frame);
+            }
+            try {
+                return -operand.executeInt(frame);
+            } catch (UnexpectedResult e) {
+                return ExprNode.negate(e.value);
+            }
+        }
+
+        @Override
+        int executeInt(Frame frame) throws UnexpectedResult {
+            if (!negate) {
+                return super.executeInt(frame);
+            }
+            try {
+                return -operand.executeInt(frame);
+            } catch (UnexpectedResult e) {
+                throw new UnexpectedResult(ExprNode.negate(e.value));
+            }
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) throws UnexpectedResult {
+            return negate ? super.executeBoolean(frame) : not(frame);
+        }
+
+        private boolean not(Frame frame) {
+            try {
+                return !operand.executeBoolean(frame);
+            } catch (UnexpectedResult e) {
+                throw new RuntimeError("RuntimeException", "Error: No se puede aplicar '!' a " + typeName(e.value));
+            }
+        }
+    }
+
+    // Valor que se guarda en una variable, parámetro o retorno long, float o double: ensancha
+    // los int y long que lleguen, como Java al asignar
+    static final class Widen extends ExprNode {
+        private final String type;
+        private final ExprNode value;
+
+        Widen(String type, ExprNode value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            return widen(value.execute(frame), type);
+        }
+    }
+
+    // println predefinido: los argumentos separados por un espacio
+    static final class Println extends ExprNode {
+        private final PrintStream out;
+        private final ExprNode[] arguments;
+
+        Println(PrintStream out, List<ExprNode> arguments) {
+            this.out = out;
+            this.arguments = arguments.toArray(new ExprNode[0]);
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) line.append(' ');
+                line.append(arguments[i].execute(frame));
+            }
+            out.println(line);
+            return null;
+        }
+    }
+
+    // Llamada a un método del programa. Los argumentos int y boolean pasan sin encajonar al frame
+    // nuevo, y el resultado vuelve igual si se pide con executeInt o executeBoolean.
+    static final class Call extends ExprNode {
+        private final MethodCode target;
+        private final ExprNode[] arguments;
+        // Para los mensajes de error, armados una sola vez
+        private final String[] parameters;
+
+        Call(MethodCode target, List<ExprNode> arguments) {
+            this.target = target;
+            this.arguments = arguments.toArray(new ExprNode[0]);
+            this.parameters = new String[this.arguments.length];
+            for (int i = 0; i < parameters.length; i++) {
+                parameters[i] = "el parámetro " + (i + 1) + " de '" + target.name + "'";
+            }
+        }
+
+        @Override
+        Object execute(Frame frame) {
+            Frame callee = invoke(frame);
+            switch (target.returnKind) {
+                case MethodCode.VOID: return null;
+                case Frame.OBJECT: return callee.returnObject;
+                default: return box(callee.returnPrimitive, target.returnKind);
+            }
+        }
+
+        @Override
+        int executeInt(Frame frame) throws UnexpectedResult {
+            if (target.returnKind != Frame.INT) {
+                return super.executeInt(frame);
+            }
+            return (int) invoke(frame).returnPrimitive;
+        }
+
+        @Override
+        boolean executeBoolean(Frame frame) throws UnexpectedResult {
+            if (target.returnKind != Frame.BOOLEAN) {
+                return super.executeBoolean(frame);
+            }
+            return invoke(frame).returnPrimitive != 0;
+        }
+
+        @Override
+        void executeVoid(Frame frame) {
+            invoke(frame);
+        }
+
+        private Frame invoke(Frame frame) {
+            Frame callee = target.newFrame();
+            for (int i = 0; i < arguments.length; i++) {
+                byte kind = target.parameterKinds[i];
+                if (kind == Frame.OBJECT) {
+                    callee.objects[i] = arguments[i].execute(frame);
+                } else {
+                    callee.primitives[i] = primitive(arguments[i], frame, kind, parameters[i]);
+                }
+            }
+            target.body().execute(callee);
+            return callee;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package interpreter;
+
+import ast.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compila expresiones sueltas (reglas de configuración) a un MethodHandle. Cada subexpresión es
+// un handle (Frame)int, (Frame)boolean o (Frame)Object según su tipo, que se deduce de los tipos
+// declarados de las variables, y los operadores los combinan con filterArguments; el handle final
+// se ata al frame del compilador. interpret() arma la misma expresión como árbol del intérprete,
+// sobre el mismo frame, para comparar.
+//
+// Sobre el JIT: CompiledExpression guarda el handle en un campo de instancia, y para HotSpot ese
+// handle no es una constante, así que no lo incluye en el método que llama: cada evaluación es
+// una invocación del handle (el JDK especializa su código después de unas cuantas, pero sigue
+// siendo una llamada aparte). Solo con el handle en un campo static final (ver getHandle) HotSpot
+// puede incluir la expresión entera en el método que la evalúa; aun así los combinadores dejan
+// lecturas del frame y chequeos que la misma expresión escrita en Java no tiene.
+//
+// Uso:
+//   ExpressionCompiler rules = new ExpressionCompiler().variable("edad", "int");
+//   CompiledExpression mayor = rules.compile(expression);  // 'edad >= 18'
+//   int edad = rules.slot("edad");                         // una vez, fuera del bucle
+//   rules.set(edad, 20);
+//   boolean ok = mayor.evaluateBoolean();
+//
+// Solo se compilan expresiones sin efectos: literales, variables, operadores binarios y '-'/'!'.
+// Lo que no se puede compilar es IllegalArgumentException; los errores al evaluar son los mismos
+// RuntimeError del intérprete.
+public final class ExpressionCompiler {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodHandle PRIMITIVES;
+    private static final MethodHandle OBJECTS;
+    private static final MethodHandle NONZERO;
+    private static final MethodHandle NEGATE;
+    private static final MethodHandle NOT;
+    private static final MethodHandle IS_ZERO;
+    private static final MethodHandle IS_INTEGER;
+    private static final MethodHandle DIVISION_BY_ZERO;
+    private static final MethodHandle NEGATE_OBJECT;
+    private static final MethodHandle NEGATE_NUMBER;
+    private static final MethodHandle APPLY_INT;
+    private static final MethodHandle COMPARE_INT;
+    private static final MethodHandle APPLY_OBJECT;
+
+    static {
+        try {
+            PRIMITIVES = LOOKUP.findGetter(Frame.class, "primitives", long[].class);
+            OBJECTS = LOOKUP.findGetter(Frame.class, "objects", Object[].class);
+            NONZERO = helper("nonzero", boolean.class, long.class);
+            NEGATE = helper("negate", int.class, int.class);
+            NOT = helper("not", boolean.class, boolean.class);
+            IS_ZERO = helper("isZero", boolean.class, int.class);
+            IS_INTEGER = helper("isInteger", boolean.class, Object.class);
+            DIVISION_BY_ZERO = helper("divisionByZero", int.class, int.class, int.class);
+            NEGATE_OBJECT = helper("negateObject", Object.class, Object.class);
+            NEGATE_NUMBER = helper("negateNumber", Object.class, Object.class);
+            APPLY_INT = LOOKUP.findVirtual(Operator.class, "apply", MethodType.methodType(int.class, int.class, int.class));
+            COMPARE_INT = LOOKUP.findVirtual(Operator.class, "compare", MethodType.methodType(boolean.class, int.class, int.class));
+            APPLY_OBJECT = LOOKUP.findVirtual(Operator.class, "apply", MethodType.methodType(Object.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Frame frame = new Frame(0);
+    private final Map<String, Integer> slots = new HashMap<>();
+    // Por lugar, para los set(int, ...) que no pasan por el nombre
+    private final List<String> names = new ArrayList<>();
+    private byte[] kinds = new byte[0];
+
+    // Declara una variable; int y boolean van sin encajonar, el resto como objeto
+    public ExpressionCompiler variable(String name, String type) {
+        if (slots.containsKey(name)) {
+            throw new IllegalArgumentException("Error: La variable '" + name + "' ya está declarada");
+        }
+        int slot = slots.size();
+        slots.put(name, slot);
+        names.add(name);
+        kinds = Arrays.copyOf(kinds, slot + 1);
+        kinds[slot] = Frame.kindOf(type);
+        frame.grow(slot + 1);
+        return this;
+    }
+
+    // Lugar de una variable en el frame, para asignarla con set(int, ...) sin buscar el nombre
+    public int slot(String name) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            throw new IllegalArgumentException("Error: La variable '" + name + "' no está declarada");
+        }
+        return slot;
+    }
+
+    public ExpressionCompiler set(String name, int value) {
+        return set(slot(name), value);
+    }
+
+    public ExpressionCompiler set(String name, boolean value) {
+        return set(slot(name), value);
+    }
+
+    public ExpressionCompiler set(String name, Object value) {
+        return set(slot(name), value);
+    }
+
+    public ExpressionCompiler set(int slot, int value) {
+        if (kind(slot) != Frame.INT) {
+            return set(slot, (Object) value);
+        }
+        frame.primitives[slot] = value;
+        return this;
+    }
+
+    public ExpressionCompiler set(int slot, boolean value) {
+        if (kind(slot) != Frame.BOOLEAN) {
+            return set(slot, (Object) value);
+        }
+        frame.primitives[slot] = value ? 1 : 0;
+        return this;
+    }
+
+    public ExpressionCompiler set(int slot, Object value) {
+        byte kind = kind(slot);
+        if (kind == Frame.OBJECT) {
+            frame.objects[slot] = value;
+        } else if (kind == Frame.INT && value instanceof Integer) {
+            frame.primitives[slot] = (Integer) value;
+        } else if (kind == Frame.BOOLEAN && value instanceof Boolean) {
+            frame.primitives[slot] = (Boolean) value ? 1 : 0;
+        } else {
+            throw new IllegalArgumentException("Error: La variable '" + names.get(slot) + "' es de tipo '"
+                    + (kind == Frame.INT ? "int" : "boolean") + "' y el valor de tipo '" + ExprNode.typeName(value) + "'");
+        }
+        return this;
+    }
+
+    public CompiledExpression compile(Expression expression) {
+        MethodHandle handle = handle(expression);
+        return new CompiledExpression(handle.bindTo(frame), kindOf(handle));
+    }
+
+    // La misma expresión como árbol del intérprete, con nodos especializados. El tipo es el que
+    // deduce compile(), así las dos aceptan las mismas expresiones.
+    public CompiledExpression interpret(Expression expression) {
+        return new CompiledExpression(node(expression), frame, kindOf(handle(expression)));
+    }
+
+    private byte kind(int slot) {
+        if (slot < 0 || slot >= kinds.length) {
+            throw new IllegalArgumentException("Error: No hay una variable en el lugar " + slot);
+        }
+        return kinds[slot];
+    }
+
+    private static byte kindOf(MethodHandle handle) {
+        Class<?> type = handle.type().returnType();
+        return type == int.class ? Frame.INT : type == boolean.class ? Frame.BOOLEAN : Frame.OBJECT;
+    }
+
+    // -----------------------
+    // HANDLES
+    // -----------------------
+
+    private MethodHandle handle(Node node) {
+        if (node instanceof NumberLiteral) {
+            return constant(int.class, ((NumberLiteral) node).value);
+        }
+        if (node instanceof StringLiteral || node instanceof LongLiteral || node instanceof DoubleLiteral
+                || node instanceof LiteralExpression) {
+            Object value = literal(node);
+            if (value instanceof Integer) {
+                return constant(int.class, value);
+            }
+            return value instanceof Boolean ? constant(boolean.class, value) : constant(Object.class, value);
+        }
+        if (node instanceof VariableReference || node instanceof VariableReferenceExpression) {
+            String name = node instanceof VariableReference ? ((VariableReference) node).name : ((VariableReferenceExpression) node).name;
+            int slot = slot(name);
+            return read(slot, kinds[slot]);
+        }
+        if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            return binary(Operator.of(binary.getOperator()), binary.getRight(), handle(binary.getLeft()), handle(binary.getRight()));
+        }
+        if (node instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) node;
+            return unary(unary.operator, handle(unary.operand));
+        }
+        throw new IllegalArgumentException("Error: La expresión " + node.getClass().getSimpleName() + " no se puede compilar");
+    }
+
+    // (Frame)T que devuelve siempre el mismo valor
+    private static MethodHandle constant(Class<?> type, Object value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(type, value), 0, Frame.class);
+    }
+
+    // frame.primitives[slot] o frame.objects[slot]; el arreglo se lee cada vez porque grow() lo cambia
+    private static MethodHandle read(int slot, byte kind) {
+        if (kind == Frame.OBJECT) {
+            MethodHandle element = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(Object[].class), 1, slot);
+            return MethodHandles.filterReturnValue(OBJECTS, element);
+        }
+        MethodHandle element = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(long[].class), 1, slot);
+        MethodHandle value = MethodHandles.filterReturnValue(PRIMITIVES, element);
+        return kind == Frame.INT
+                ? MethodHandles.explicitCastArguments(value, MethodType.methodType(int.class, Frame.class))
+                : MethodHandles.filterReturnValue(value, NONZERO);
+    }
+
+    private static MethodHandle binary(Operator operator, Expression rightNode, MethodHandle left, MethodHandle right) {
+        MethodHandle combined;
+        if (left.type().returnType() == int.class && right.type().returnType() == int.class) {
+            if (operator.comparison) {
+                combined = COMPARE_INT.bindTo(operator);
+            } else if (operator == Operator.DIV && !(rightNode instanceof NumberLiteral && ((NumberLiteral) rightNode).value != 0)) {
+                // La división por cero queda en una rama aparte; con un divisor literal no hace falta
+                MethodHandle zero = MethodHandles.dropArguments(IS_ZERO, 0, int.class);
+                combined = MethodHandles.guardWithTest(zero, DIVISION_BY_ZERO, APPLY_INT.bindTo(operator));
+            } else {
+                combined = APPLY_INT.bindTo(operator);
+            }
+        } else {
+            // Algún operando no es int: la versión genérica, con los primitivos encajonados
+            combined = APPLY_OBJECT.bindTo(operator);
+            left = left.asType(left.type().changeReturnType(Object.class));
+            right = right.asType(right.type().changeReturnType(Object.class));
+        }
+        // (Frame, Frame)T evaluando cada lado en su frame, y después los dos del mismo
+        MethodHandle both = MethodHandles.filterArguments(combined, 0, left, right);
+        return MethodHandles.permuteArguments(both, MethodType.methodType(combined.type().returnType(), Frame.class), 0, 0);
+    }
+
+    private static MethodHandle unary(String operator, MethodHandle operand) {
+        Class<?> type = operand.type().returnType();
+        if (operator.equals("-")) {
+            if (type == int.class) {
+                return MethodHandles.filterReturnValue(operand, NEGATE);
+            }
+            if (type == Object.class) {
+                // Una variable no primitiva puede tener un Integer u otro número: se mira al evaluar
+                return MethodHandles.filterReturnValue(operand, MethodHandles.guardWithTest(IS_INTEGER, NEGATE_OBJECT, NEGATE_NUMBER));
+            }
+        } else if (operator.equals("!") && type == boolean.class) {
+            return MethodHandles.filterReturnValue(operand, NOT);
+        }
+        throw new IllegalArgumentException("Error: No se puede aplicar '" + operator + "' a "
+                + (type == Object.class ? "un valor no booleano" : type.getName()));
+    }
+
+    private static MethodHandle helper(String name, Class<?> returnType, Class<?>... parameters) throws ReflectiveOperationException {
+        return LOOKUP.findStatic(ExpressionCompiler.class, name, MethodType.methodType(returnType, parameters));
+    }
+
+    private static boolean nonzero(long value) {
+        return value != 0;
+    }
+
+    private static int negate(int value) {
+        return -value;
+    }
+
+    private static boolean not(boolean value) {
+        return !value;
+    }
+
+    private static boolean isZero(int value) {
+        return value == 0;
+    }
+
+    private static boolean isInteger(Object value) {
+        return value instanceof Integer;
+    }
+
+    private static int divisionByZero(int a, int b) {
+        throw new RuntimeError("ArithmeticException", "Error: División por cero");
+    }
+
+    private static Object negateObject(Object value) {
+        return -(Integer) value;
+    }
+
+    // long, float o double; lo que no es un número es el mismo error que en el árbol
+    private static Object negateNumber(Object value) {
+        return ExprNode.negate(value);
+    }
+
+    // Valor de un literal que no es int, como lo arma Builder
+    private static Object literal(Node node) {
+        if (node instanceof StringLiteral) {
+            String text = ((StringLiteral) node).value;
+            return text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")
+                    ? text.substring(1, text.length() - 1) : text;
+        }
+        if (node instanceof LongLiteral) {
+            return ((LongLiteral) node).value;
+        }
+        if (node instanceof DoubleLiteral) {
+            DoubleLiteral literal = (DoubleLiteral) node;
+            return literal.isFloat ? (Object) (float) literal.value : (Object) literal.value;
+        }
+        return ((LiteralExpression) node).value;
+    }
+
+    // -----------------------
+    // ÁRBOL
+    // -----------------------
+
+    // Igual que Builder.expression, con las variables en el frame del compilador
+    private ExprNode node(Node node) {
+        if (node instanceof NumberLiteral) {
+            return new ExprNodes.IntConstant(((NumberLiteral) node).value);
+        }
+        if (node instanceof StringLiteral || node instanceof LongLiteral || node instanceof DoubleLiteral
+                || node instanceof LiteralExpression) {
+            return new ExprNodes.Constant(literal(node));
+        }
+        if (node instanceof VariableReference || node instanceof VariableReferenceExpression) {
+            String name = node instanceof VariableReference ? ((VariableReference) node).name : ((VariableReferenceExpression) node).name;
+            int slot = slot(name);
+            return new ExprNodes.ReadLocal(slot, kinds[slot], frame);
+        }
+        if (node instanceof BinaryExpression) {
+            BinaryExpression binary = (BinaryExpression) node;
+            return new BinaryNode(Operator.of(binary.getOperator()), node(binary.getLeft()), node(binary.getRight()), true);
+        }
+        if (node instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) node;
+            return new ExprNodes.UnaryNode(unary.operator, node(unary.operand));
+        }
+        throw new IllegalArgumentException("Error: La expresión " + node.getClass().getSimpleName() + " no se puede compilar");
+    }
+}
@@ -0,0 +1,35 @@
+package interpreter;
+
+import java.util.Arrays;
+
+// Variables de una invocación. Cada variable tiene un lugar fijo, asignado al armar el árbol
+// ejecutable según su tipo declarado: las int y boolean van sin encajonar en 'primitives'
+// (boolean como 0 o 1) y el resto en 'objects'. Así un bucle sobre enteros no crea objetos.
+final class Frame {
+    static final byte INT = 0;
+    static final byte BOOLEAN = 1;
+    static final byte OBJECT = 2;
+
+    long[] primitives;
+    Object[] objects;
+    // Valor del último return, en uno u otro según el tipo del método
+    long returnPrimitive;
+    Object returnObject;
+
+    Frame(int slots) {
+        primitives = new long[slots];
+        objects = new Object[slots];
+    }
+
+    static byte kindOf(String type) {
+        return type.equals("int") ? INT : type.equals("boolean") ? BOOLEAN : OBJECT;
+    }
+
+    // El frame global se crea antes de saber cuántas variables declara el programa
+    void grow(int slots) {
+        if (slots > primitives.length) {
+            primitives = Arrays.copyOf(primitives, slots);
+            objects = Arrays.copyOf(objects, slots);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package interpreter;
+
+import ast.Node;
+
+import java.io.PrintStream;
+
+// Intérprete de árbol con nodos especializados por tipo. Las variables int y boolean viven sin
+// encajonar en el frame, y cada operación binaria se especializa en la primera ejecución según
+// los tipos que ve: mientras sigan siendo enteros pide los operandos con executeInt y no crea
+// ningún objeto. Si llega otro tipo el nodo pasa a genérico con el valor ya calculado, sin
+// volver a evaluar los operandos (que podrían tener efectos).
+//
+// Uso:
+//   Interpreter interpreter = new Interpreter().output(System.out).load(ast);
+//   interpreter.run();                    // código de nivel superior
+//   Object r = interpreter.call("f", 3);  // un método de nivel superior
+//
+// El árbol ejecutable se recorre con recursión, como en cualquier intérprete de árbol; un
+// desborde de pila del programa se informa como StackOverflowError del programa.
+public final class Interpreter {
+    private PrintStream out = System.out;
+    private boolean specialize = true;
+    private Frame globals;
+    private StmtNode main;
+    private Builder builder;
+
+    public Interpreter output(PrintStream out) {
+        this.out = out;
+        return this;
+    }
+
+    // false: las operaciones arrancan genéricas y todo valor intermedio se encajona (para comparar)
+    public Interpreter specialize(boolean specialize) {
+        this.specialize = specialize;
+        return this;
+    }
+
+    // El programa tiene que haber pasado los chequeos semánticos. IllegalArgumentException si el
+    // código de nivel superior usa algo que no se puede ejecutar.
+    public Interpreter load(Node program) {
+        globals = new Frame(0);
+        builder = new Builder(program, out, specialize, globals);
+        main = builder.program(program);
+        return this;
+    }
+
+    public void run() {
+        try {
+            main.execute(globals);
+        } catch (StackOverflowError e) {
+            throw overflow();
+        }
+    }
+
+    // Llama a un método de nivel superior; los argumentos son Integer, Long, Float, Double, Boolean
+    // o String, y un Integer para un parámetro long se ensancha como en una llamada del programa. Devuelve
+    // el resultado encajonado, o null si el método es void.
+    public Object call(String name, Object... args) {
+        MethodCode code = builder.method(name);
+        if (code == null) {
+            throw new IllegalArgumentException("Error: No hay un método '" + name + "' de nivel superior");
+        }
+        if (args.length != code.parameterKinds.length) {
+            throw new IllegalArgumentException("Error: '" + name + "' recibe " + code.parameterKinds.length + " argumentos");
+        }
+        Frame frame = code.newFrame();
+        for (int i = 0; i < args.length; i++) {
+            byte kind = code.parameterKinds[i];
+            if (kind == Frame.OBJECT) {
+                frame.objects[i] = ExprNode.widen(args[i], code.parameterTypes[i]);
+            } else if (kind == Frame.INT && args[i] instanceof Integer) {
+                frame.primitives[i] = (Integer) args[i];
+            } else if (kind == Frame.BOOLEAN && args[i] instanceof Boolean) {
+                frame.primitives[i] = (Boolean) args[i] ? 1 : 0;
+            } else {
+                throw new IllegalArgumentException("Error: El argumento " + (i + 1) + " de '" + name
+                        + "' es de tipo '" + ExprNode.typeName(args[i]) + "'");
+            }
+        }
+        try {
+            code.body().execute(frame);
+        } catch (StackOverflowError e) {
+            throw overflow();
+        }
+        switch (code.returnKind) {
+            case MethodCode.VOID: return null;
+            case Frame.OBJECT: return frame.returnObject;
+            default: return ExprNode.box(frame.returnPrimitive, code.returnKind);
+        }
+    }
+
+    private static RuntimeError overflow() {
+        return new RuntimeError("StackOverflowError", "Error: Desbordamiento de pila");
+    }
+}
@@ -0,0 +1,51 @@
+package interpreter;
+
+// Un método del programa listo para ejecutar. Se crea vacío para todos los métodos antes de
+// armar cualquier cuerpo, así las llamadas (también las recursivas) apuntan directo al
+// destino; el cuerpo se completa al llegar a la declaración. Los parámetros ocupan los
+// primeros lugares del frame.
+final class MethodCode {
+    static final byte VOID = 3;
+
+    final String name;
+    final byte returnKind;
+    final byte[] parameterKinds;
+    // Tipos declarados, para ensanchar los argumentos long, float y double
+    final String[] parameterTypes;
+    int slots;
+    private StmtNode body;
+    // Motivo por el que no se pudo armar el cuerpo; el error se da recién si se llama
+    private String unsupported;
+
+    MethodCode(String name, byte returnKind, String[] parameterTypes) {
+        this.name = name;
+        this.returnKind = returnKind;
+        this.parameterTypes = parameterTypes;
+        this.parameterKinds = new byte[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterKinds[i] = Frame.kindOf(parameterTypes[i]);
+        }
+        this.slots = parameterTypes.length;
+    }
+
+    void define(StmtNode body, int slots) {
+        this.body = body;
+        this.slots = slots;
+    }
+
+    void fail(String message) {
+        this.unsupported = message;
+    }
+
+    Frame newFrame() {
+        return new Frame(slots);
+    }
+
+    StmtNode body() {
+        if (body == null) {
+            throw new IllegalArgumentException(unsupported != null ? unsupported
+                    : "Error: El método '" + name + "' no tiene cuerpo ejecutable");
+        }
+        return body;
+    }
+}
@@ -0,0 +1,136 @@
+package interpreter;
+
+import java.util.Objects;
+
+// Operadores binarios, con la versión sobre enteros sin encajonar y la genérica. La genérica
+// promueve los números como Java: si hay un double la cuenta es en double, si no con un float en
+// float, si no con un long en long.
+enum Operator {
+    ADD("+", false), SUB("-", false), MUL("*", false), DIV("/", false),
+    LT("<", true), GT(">", true), LE("<=", true), GE(">=", true), EQ("==", true), NE("!=", true);
+
+    final String symbol;
+    final boolean comparison;
+
+    Operator(String symbol, boolean comparison) {
+        this.symbol = symbol;
+        this.comparison = comparison;
+    }
+
+    static Operator of(String symbol) {
+        for (Operator operator : values()) {
+            if (operator.symbol.equals(symbol)) {
+                return operator;
+            }
+        }
+        throw new IllegalArgumentException("Error: El operador '" + symbol + "' no se puede ejecutar");
+    }
+
+    int apply(int a, int b) {
+        switch (this) {
+            case ADD: return a + b;
+            case SUB: return a - b;
+            case MUL: return a * b;
+            case DIV:
+                if (b == 0) {
+                    throw new RuntimeError("ArithmeticException", "Error: División por cero");
+                }
+                return a / b;
+            default: throw new IllegalStateException(symbol + " no es aritmético");
+        }
+    }
+
+    boolean compare(int a, int b) {
+        switch (this) {
+            case LT: return a < b;
+            case GT: return a > b;
+            case LE: return a <= b;
+            case GE: return a >= b;
+            case EQ: return a == b;
+            case NE: return a != b;
+            default: throw new IllegalStateException(symbol + " no es una comparación");
+        }
+    }
+
+    long apply(long a, long b) {
+        switch (this) {
+            case ADD: return a + b;
+            case SUB: return a - b;
+            case MUL: return a * b;
+            case DIV:
+                if (b == 0) {
+                    throw new RuntimeError("ArithmeticException", "Error: División por cero");
+                }
+                return a / b;
+            default: throw new IllegalStateException(symbol + " no es aritmético");
+        }
+    }
+
+    boolean compare(long a, long b) {
+        return compare(Long.compare(a, b), 0);
+    }
+
+    // Como en Java, dividir un double por cero da infinito o NaN
+    double apply(double a, double b) {
+        switch (this) {
+            case ADD: return a + b;
+            case SUB: return a - b;
+            case MUL: return a * b;
+            case DIV: return a / b;
+            default: throw new IllegalStateException(symbol + " no es aritmético");
+        }
+    }
+
+    // No se usa Double.compare: NaN tiene que dar false en todo salvo '!='
+    boolean compare(double a, double b) {
+        switch (this) {
+            case LT: return a < b;
+            case GT: return a > b;
+            case LE: return a <= b;
+            case GE: return a >= b;
+            case EQ: return a == b;
+            case NE: return a != b;
+            default: throw new IllegalStateException(symbol + " no es una comparación");
+        }
+    }
+
+    // Los tipos numéricos del lenguaje: int, long, float y double
+    static boolean isNumber(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Float || value instanceof Double;
+    }
+
+    Object apply(Object a, Object b) {
+        if (a instanceof Integer && b instanceof Integer) {
+            int x = (Integer) a;
+            int y = (Integer) b;
+            return comparison ? (Object) compare(x, y) : (Object) apply(x, y);
+        }
+        if (this == ADD && (a instanceof String || b instanceof String)) {
+            return String.valueOf(a) + b;
+        }
+        if (isNumber(a) && isNumber(b)) {
+            if (a instanceof Double || b instanceof Double) {
+                double x = ((Number) a).doubleValue();
+                double y = ((Number) b).doubleValue();
+                return comparison ? (Object) compare(x, y) : (Object) apply(x, y);
+            }
+            if (a instanceof Float || b instanceof Float) {
+                float x = ((Number) a).floatValue();
+                float y = ((Number) b).floatValue();
+                // Una operación en double redondeada a float da lo mismo que hacerla en float
+                return comparison ? (Object) compare(x, y) : (Object) (float) apply(x, y);
+            }
+            long x = ((Number) a).longValue();
+            long y = ((Number) b).longValue();
+            return comparison ? (Object) compare(x, y) : (Object) apply(x, y);
+        }
+        if (this == EQ || this == NE) {
+            return Objects.equals(a, b) == (this == EQ);
+        }
+        if (comparison && a instanceof String && b instanceof String) {
+            return compare(((String) a).compareTo((String) b), 0);
+        }
+        throw new RuntimeError("RuntimeException", "Error: No se puede aplicar '" + symbol + "' a "
+                + ExprNode.typeName(a) + " y " + ExprNode.typeName(b));
+    }
+}
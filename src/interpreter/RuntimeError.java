@@ -0,0 +1,18 @@
+package interpreter;
+
+// Excepción lanzada por el programa en ejecución, como la división por cero. 'type' es el
+// nombre de la clase con que la comparan los catch (ver CatchClause.catches).
+public class RuntimeError extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String type;
+
+    public RuntimeError(String type, String message) {
+        super(message);
+        this.type = type;
+    }
+
+    public String getType() {
+        return type;
+    }
+}
@@ -0,0 +1,22 @@
+package interpreter;
+
+// Nodo ejecutable de una sentencia. execute() devuelve cómo terminó: normalmente, o por un
+// break, continue o return que el nodo que lo contiene tiene que atender. El valor del return
+// queda en el frame.
+abstract class StmtNode {
+    static final int NORMAL = 0;
+    static final int BREAK = 1;
+    static final int CONTINUE = 2;
+    static final int RETURN = 3;
+
+    abstract int execute(Frame frame);
+
+    static boolean condition(ExprNode node, Frame frame) {
+        try {
+            return node.executeBoolean(frame);
+        } catch (UnexpectedResult e) {
+            throw new RuntimeError("RuntimeException", "Error: La condición es de tipo '"
+                    + ExprNode.typeName(e.value) + "' y no boolean");
+        }
+    }
+}
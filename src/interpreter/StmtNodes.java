@@ -0,0 +1,270 @@
+package interpreter;
+
+import ast.CatchClause;
+import lowering.SwitchDispatch;
+
+import java.util.List;
+
+// Nodos de sentencia ejecutables
+final class StmtNodes {
+    private StmtNodes() {
+    }
+
+    static final StmtNode NOP = new StmtNode() {
+        @Override
+        int execute(Frame frame) {
+            return NORMAL;
+        }
+    };
+
+    static final StmtNode BREAK = new StmtNode() {
+        @Override
+        int execute(Frame frame) {
+            return BREAK;
+        }
+    };
+
+    static final StmtNode CONTINUE = new StmtNode() {
+        @Override
+        int execute(Frame frame) {
+            return CONTINUE;
+        }
+    };
+
+    static final class Block extends StmtNode {
+        private final StmtNode[] statements;
+
+        Block(List<StmtNode> statements) {
+            this.statements = statements.toArray(new StmtNode[0]);
+        }
+
+        @Override
+        int execute(Frame frame) {
+            for (StmtNode statement : statements) {
+                int completion = statement.execute(frame);
+                if (completion != NORMAL) {
+                    return completion;
+                }
+            }
+            return NORMAL;
+        }
+    }
+
+    // Expresión usada como sentencia: el valor se descarta
+    static final class Eval extends StmtNode {
+        private final ExprNode expression;
+
+        Eval(ExprNode expression) {
+            this.expression = expression;
+        }
+
+        @Override
+        int execute(Frame frame) {
+            expression.executeVoid(frame);
+            return NORMAL;
+        }
+    }
+
+    static final class If extends StmtNode {
+        private final ExprNode condition;
+        private final StmtNode thenBranch;
+        private final StmtNode elseBranch;
+
+        If(ExprNode condition, StmtNode thenBranch, StmtNode elseBranch) {
+            this.condition = condition;
+            this.thenBranch = thenBranch;
+            this.elseBranch = elseBranch;
+        }
+
+        @Override
+        int execute(Frame frame) {
+            return condition(condition, frame) ? thenBranch.execute(frame) : elseBranch.execute(frame);
+        }
+    }
+
+    static final class While extends StmtNode {
+        private final ExprNode condition;
+        private final StmtNode body;
+
+        While(ExprNode condition, StmtNode body) {
+            this.condition = condition;
+            this.body = body;
+        }
+
+        @Override
+        int execute(Frame frame) {
+            while (condition(condition, frame)) {
+                int completion = body.execute(frame);
+                if (completion == BREAK) {
+                    break;
+                }
+                if (completion == RETURN) {
+                    return RETURN;
+                }
+            }
+            return NORMAL;
+        }
+    }
+
+    // Sin condición se repite hasta un break o return; sin actualización 'update' es null
+    static final class For extends StmtNode {
+        private final StmtNode initializer;
+        private final ExprNode condition;
+        private final ExprNode update;
+        private final StmtNode body;
+
+        For(StmtNode initializer, ExprNode condition, ExprNode update, StmtNode body) {
+            this.initializer = initializer;
+            this.condition = condition;
+            this.update = update;
+            this.body = body;
+        }
+
+        @Override
+        int execute(Frame frame) {
+            initializer.execute(frame);
+            while (condition == null || condition(condition, frame)) {
+                int completion = body.execute(frame);
+                if (completion == BREAK) {
+                    break;
+                }
+                if (completion == RETURN) {
+                    return RETURN;
+                }
+                if (update != null) {
+                    update.executeVoid(frame);
+                }
+            }
+            return NORMAL;
+        }
+    }
+
+    // El despacho elige el caso donde empezar y desde ahí se siguen los casos hasta un break
+    static final class Switch extends StmtNode {
+        private final ExprNode expression;
+        private final SwitchDispatch dispatch;
+        private final StmtNode[] cases;
+
+        Switch(ExprNode expression, SwitchDispatch dispatch, List<StmtNode> cases) {
+            this.expression = expression;
+            this.dispatch = dispatch;
+            this.cases = cases.toArray(new StmtNode[0]);
+        }
+
+        @Override
+        int execute(Frame frame) {
+            int start = dispatch.strategy() == SwitchDispatch.Strategy.HASH ? target(expression.execute(frame)) : intTarget(frame);
+            if (start < 0) {
+                return NORMAL;
+            }
+            for (int i = start; i < cases.length; i++) {
+                int completion = cases[i].execute(frame);
+                if (completion == BREAK) {
+                    return NORMAL;
+                }
+                if (completion != NORMAL) {
+                    return completion;
+                }
+            }
+            return NORMAL;
+        }
+
+        private int intTarget(Frame frame) {
+            try {
+                return dispatch.target(expression.executeInt(frame));
+            } catch (UnexpectedResult e) {
+                return target(e.value);
+            }
+        }
+
+        private int target(Object value) {
+            if (value instanceof Integer) return dispatch.target((int) (Integer) value);
+            if (value instanceof String) return dispatch.target((String) value);
+            return dispatch.defaultTarget();
+        }
+    }
+
+    static final class Catch {
+        final String type;
+        final int slot;
+        final StmtNode body;
+
+        Catch(String type, int slot, StmtNode body) {
+            this.type = type;
+            this.slot = slot;
+            this.body = body;
+        }
+    }
+
+    // Un finally que termina con break, continue o return reemplaza la forma en que terminó
+    // el try (y descarta la excepción pendiente), como en Java
+    static final class Try extends StmtNode {
+        private final StmtNode tryBlock;
+        private final Catch[] catches;
+        private final StmtNode finallyBlock;
+
+        Try(StmtNode tryBlock, List<Catch> catches, StmtNode finallyBlock) {
+            this.tryBlock = tryBlock;
+            this.catches = catches.toArray(new Catch[0]);
+            this.finallyBlock = finallyBlock;
+        }
+
+        @Override
+        int execute(Frame frame) {
+            int completion = NORMAL;
+            RuntimeError pending = null;
+            try {
+                completion = tryBlock.execute(frame);
+            } catch (RuntimeError e) {
+                pending = e;
+                for (Catch clause : catches) {
+                    if (CatchClause.catches(clause.type, e.getType())) {
+                        pending = null;
+                        frame.objects[clause.slot] = e;
+                        try {
+                            completion = clause.body.execute(frame);
+                        } catch (RuntimeError inner) {
+                            pending = inner;
+                        }
+                        break;
+                    }
+                }
+            }
+            if (finallyBlock != null) {
+                int finallyCompletion = finallyBlock.execute(frame);
+                if (finallyCompletion != NORMAL) {
+                    return finallyCompletion;
+                }
+            }
+            if (pending != null) {
+                throw pending;
+            }
+            return completion;
+        }
+    }
+
+    // El valor se guarda sin encajonar si el método devuelve int o boolean
+    static final class Return extends StmtNode {
+        private final ExprNode value;
+        private final byte kind;
+
+        Return(ExprNode value, byte kind) {
+            this.value = value;
+            this.kind = kind;
+        }
+
+        @Override
+        int execute(Frame frame) {
+            if (value != null) {
+                if (kind == Frame.OBJECT) {
+                    frame.returnObject = value.execute(frame);
+                } else if (kind == MethodCode.VOID) {
+                    value.executeVoid(frame);
+                } else {
+                    frame.returnPrimitive = ExprNode.primitive(value, frame, kind, "el valor de retorno");
+                }
+            }
+            return RETURN;
+        }
+    }
+}
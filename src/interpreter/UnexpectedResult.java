@@ -0,0 +1,15 @@
+package interpreter;
+
+// Un nodo especializado en un tipo produjo un valor de otro. Lleva el valor ya calculado para
+// que quien lo pidió siga por el camino genérico sin volver a evaluar nada. Sin traza: es
+// control de flujo y solo ocurre cuando cambia el tipo que ve un nodo.
+final class UnexpectedResult extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    final Object value;
+
+    UnexpectedResult(Object value) {
+        super(null, null, false, false);
+        this.value = value;
+    }
+}
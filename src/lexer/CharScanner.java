@@ -0,0 +1,59 @@
+package lexer;
+
+// Búsqueda del fin de rachas de caracteres de una misma clase, la parte del análisis léxico
+// donde se va casi todo el tiempo. Cada método devuelve el primer índice en [from, end) que
+// no pertenece a la clase (o end si todos pertenecen).
+//
+// Si la JVM tiene el módulo jdk.incubator.vector (--add-modules jdk.incubator.vector) se usa
+// la versión vectorial; si no, la escalar. -Dlexer.vector=false fuerza la escalar.
+public abstract class CharScanner {
+    private static final CharScanner BEST = loadBest();
+
+    public static CharScanner best() {
+        return BEST;
+    }
+
+    public static CharScanner scalar() {
+        return ScalarCharScanner.INSTANCE;
+    }
+
+    // [ \t\n\x0B\f\r], lo mismo que \s en las expresiones regulares de Java
+    public abstract int skipWhitespace(char[] chars, int from, int end);
+
+    // [A-Za-z0-9_], lo mismo que \w
+    public abstract int skipWord(char[] chars, int from, int end);
+
+    public abstract int skipDigits(char[] chars, int from, int end);
+
+    // Índice de la primera aparición de c en [from, end), o -1
+    public abstract int indexOf(char[] chars, char c, int from, int end);
+
+    public abstract String name();
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    static boolean isWord(char c) {
+        char lower = (char) (c | 0x20);
+        return (lower >= 'a' && lower <= 'z') || isDigit(c) || c == '_';
+    }
+
+    // Sin el módulo la clase vectorial no se puede enlazar; se carga por reflexión para
+    // que ese fallo quede acá y no impida usar el Lexer
+    private static CharScanner loadBest() {
+        if (!Boolean.parseBoolean(System.getProperty("lexer.vector", "true"))) {
+            return ScalarCharScanner.INSTANCE;
+        }
+        try {
+            Class<?> type = Class.forName("lexer.VectorCharScanner");
+            return (CharScanner) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return ScalarCharScanner.INSTANCE;
+        }
+    }
+}
@@ -3,76 +3,157 @@ package lexer;
 import symboltable.Symbol;
 import symboltable.SymbolTable;
 
+import java.nio.CharBuffer;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.*;
 
 public class Lexer {
     private SymbolTable symbolTable;
-    private String input;
+    private CharSequence input;
     private List<Token> tokens;
+    private final LexerBuffers buffers; // null = nada se reutiliza
 
+    // Gramática de los tokens. tokenize() la implementa a mano (TokenScanner) y el patrón queda
+    // como referencia para tokenizeWithPattern().
+    // \G ancla cada token al final del anterior. Los espacios y comentarios se saltan
+    // dentro del mismo patrón (en forma posesiva, sin retroceso), así no hace falta copiar
+    // la entrada para quitarlos antes.
     private static final Pattern TOKEN_PATTERN = Pattern.compile(
-            "\\s*(?:(\\d+)|" +
+            "\\G(?:\\s++|//.*|/\\*(?s:.*?)\\*/)*+" +
+                    "(?:(0[xX][0-9a-fA-F]+[lL]?|\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?[lLfFdD]?)|" +
                     "(\"[^\"]*\")|" +
                     "(\\w+)|" +
-                    "(\\+\\+|\\-\\-|==|!=|<=|>=|<|>|\\+|\\-|\\*|\\/|=|\\{|\\}|\\(|\\)|;|\\.|\\,)|" +
+                    "(\\+\\+|\\-\\-|==|!=|<=|>=|<|>|\\+|\\-|\\*|\\/|=|\\{|\\}|\\(|\\)|;|\\.|\\,|:)|" +
                     "(\\S))"
     );
 
 
     private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList(
-            "if", "else", "for", "while", "do", "switch", "case", "break", "continue",
+            "if", "else", "for", "while", "do", "switch", "case", "default", "break", "continue",
             "return", "public", "private", "protected", "class", "static", "void", "try", "catch", "finally"
     ));
 
     private static final Set<String> DATA_TYPES = new HashSet<>(Arrays.asList(
-            "int", "float", "double", "char", "boolean", "String", "void"
+            "int", "long", "float", "double", "char", "boolean", "String", "void"
     ));
 
-    public Lexer(String input) {
-        this.input = removeComments(input);
-        this.tokens = new ArrayList<>();
-        this.symbolTable = new SymbolTable(null);  // null = no padre, raíz del ámbito
-        // Cargar símbolos predefinidos
-        symbolTable.insert("System", new Symbol("System", "class", "global"));
-        symbolTable.insert("println", new Symbol("println", "method", "global"));
+    // Símbolos predefinidos: los Symbol son inmutables, así que todas las raíces comparten este mapa
+    private static final Map<String, Symbol> PREDEFINED = predefined();
+
+    public Lexer(CharSequence input) {
+        this(input, null);
+    }
+
+    // Con buffers, la lista de tokens es la de los buffers: vale hasta el próximo Lexer que los use
+    public Lexer(CharSequence input, LexerBuffers buffers) {
+        this.input = input;
+        this.buffers = buffers;
+        if (buffers != null) {
+            buffers.tokens.clear();
+            this.tokens = buffers.tokens;
+        } else {
+            this.tokens = new ArrayList<>();
+        }
+        this.symbolTable = newRootTable();
+    }
+
+    private static Map<String, Symbol> predefined() {
+        Map<String, Symbol> symbols = new LinkedHashMap<>();
+        symbols.put("System", new Symbol("System", "class", "global"));
+        symbols.put("println", new Symbol("println", "method", "global"));
+        // Excepciones predefinidas (su jerarquía está en CatchClause.catches)
+        symbols.put("Exception", new Symbol("Exception", "class", "global"));
+        symbols.put("RuntimeException", new Symbol("RuntimeException", "class", "global"));
+        symbols.put("ArithmeticException", new Symbol("ArithmeticException", "class", "global"));
+        return Collections.unmodifiableMap(symbols);
+    }
+
+    // Tabla raíz de un archivo, que ve los símbolos predefinidos
+    public static SymbolTable newRootTable() {
+        return SymbolTable.root(PREDEFINED);
     }
 
-    private String removeComments(String code) {
-        // Elimina comentarios multilínea /* ... */
-        code = code.replaceAll("/\\*.*?\\*/", ""); // modo DOTALL no necesario si se usa (?s)
-        // Elimina comentarios de línea //...
-        code = code.replaceAll("//.*", "");
-        return code;
+    // En un orden fijo, para numerarlos (la caché los nombra por su posición)
+    public static List<Symbol> predefinedSymbols() {
+        return List.copyOf(PREDEFINED.values());
     }
 
     public List<Token> tokenize() {
+        return tokenize(CharScanner.best());
+    }
+
+    public List<Token> tokenize(CharScanner scanner) {
+        char[] chars = buffers != null ? buffers.chars(input) : chars(input);
+        TokenScanner tokenScanner = new TokenScanner(chars, input.length(), scanner, buffers != null ? buffers.pool : null);
+        int position = 0;
+        while (tokenScanner.next(position)) {
+            tokens.add(tokenScanner.token());
+            position = tokenScanner.end;
+        }
+        return tokens;
+    }
+
+    // Versión paralela para entradas grandes; el resultado es idéntico al de tokenize(). Sin más
+    // de un hilo en el pool común (uno o dos procesadores) solo agrega la especulación y la
+    // validación de los trozos, así que se analiza en secuencia.
+    public List<Token> tokenizeParallel() {
+        if (ForkJoinPool.getCommonPoolParallelism() <= 1) {
+            return tokenize();
+        }
+        tokens.addAll(ParallelLexer.tokenize(input));
+        return tokens;
+    }
+
+    // Definición de referencia de los tokens; tokenize() tiene que coincidir con esta
+    public List<Token> tokenizeWithPattern() {
         Matcher matcher = TOKEN_PATTERN.matcher(input);
 
         while (matcher.find()) {
             if (matcher.group(1) != null) {
-                tokens.add(new Token(TokenType.NUMBER, matcher.group(1)));
+                tokens.add(NumberLiterals.token(matcher.group(1), matcher.start(1)));
             } else if (matcher.group(2) != null) {
-                tokens.add(new Token(TokenType.STRING, matcher.group(2)));
+                tokens.add(new Token(TokenType.STRING, matcher.group(2), matcher.start(2)));
             } else if (matcher.group(3) != null) {
                 String identifier = matcher.group(3);
-                if (DATA_TYPES.contains(identifier)) {
-                    tokens.add(new Token(TokenType.DATA_TYPE, identifier));
-                } else if (RESERVED_WORDS.contains(identifier)) {
-                    tokens.add(new Token(TokenType.RESERVED, identifier));
-                } else {
-                    tokens.add(new Token(TokenType.IDENTIFIER, identifier));
-                }
+                tokens.add(new Token(classifyWord(identifier), identifier, matcher.start(3)));
             } else if (matcher.group(4) != null) {
                 String operator = matcher.group(4);
-                tokens.add(new Token(TokenType.OPERATOR, operator));
+                tokens.add(new Token(TokenType.OPERATOR, operator, matcher.start(4)));
             } else if (matcher.group(5) != null) {
-                tokens.add(new Token(TokenType.UNKNOWN, matcher.group(5)));
+                tokens.add(new Token(TokenType.UNKNOWN, matcher.group(5), matcher.start(5)));
             }
         }
         return tokens;
     }
 
+    static TokenType classifyWord(String word) {
+        if (DATA_TYPES.contains(word)) {
+            return TokenType.DATA_TYPE;
+        } else if (RESERVED_WORDS.contains(word)) {
+            return TokenType.RESERVED;
+        }
+        return TokenType.IDENTIFIER;
+    }
+
+    // El CharBuffer que arma SourceLoader ya tiene un arreglo detrás; el resto se copia una vez
+    static char[] chars(CharSequence input) {
+        if (input instanceof CharBuffer) {
+            CharBuffer buffer = (CharBuffer) input;
+            if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0) {
+                return buffer.array();
+            }
+        }
+        if (input instanceof String) {
+            return ((String) input).toCharArray();
+        }
+        char[] chars = new char[input.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = input.charAt(i);
+        }
+        return chars;
+    }
+
     public SymbolTable getSymbolTable() {
         return symbolTable;
     }
@@ -0,0 +1,39 @@
+package lexer;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Lo que un Lexer puede reutilizar de un archivo al siguiente: la lista de tokens, el arreglo
+// donde se copia el fuente y el pool de textos (ver compiler.CompilationSession). Cada Lexer
+// creado con estos buffers vacía la lista del anterior. No es seguro entre hilos.
+public final class LexerBuffers {
+    final List<Token> tokens = new ArrayList<>();
+    final TokenPool pool;
+    private char[] chars = new char[0];
+
+    public LexerBuffers(TokenPool pool) {
+        this.pool = pool;
+    }
+
+    // Como Lexer.chars, pero la copia va a un arreglo que se reutiliza (puede sobrar al final)
+    char[] chars(CharSequence input) {
+        if (input instanceof CharBuffer) {
+            CharBuffer buffer = (CharBuffer) input;
+            if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0) {
+                return buffer.array();
+            }
+        }
+        if (chars.length < input.length()) {
+            chars = new char[Math.max(input.length(), chars.length * 2)];
+        }
+        if (input instanceof String) {
+            ((String) input).getChars(0, input.length(), chars, 0);
+        } else {
+            for (int i = 0; i < input.length(); i++) {
+                chars[i] = input.charAt(i);
+            }
+        }
+        return chars;
+    }
+}
@@ -0,0 +1,22 @@
+package lexer;
+
+// Tipo de un literal numérico según su forma: sufijo L, f o d, punto decimal o exponente
+public enum NumberKind {
+    INT("int"),
+    LONG("long"),
+    FLOAT("float"),
+    DOUBLE("double"),
+    // Mal formado, como 1.5L: el Parser da un error
+    INVALID("unknown");
+
+    private final String typeName;
+
+    NumberKind(String typeName) {
+        this.typeName = typeName;
+    }
+
+    // Nombre del tipo en el lenguaje (el de DATA_TYPES)
+    public String typeName() {
+        return typeName;
+    }
+}
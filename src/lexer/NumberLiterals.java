@@ -0,0 +1,206 @@
+package lexer;
+
+// Literales numéricos: dónde terminan en el fuente (scan) y su valor (token). El valor se saca
+// recorriendo los caracteres del fuente, saltando el prefijo 0x y el sufijo, sin armar el texto
+// del token ni cortarlo para Integer.parseInt. La gramática es la del grupo de números de Lexer.TOKEN_PATTERN:
+//   0[xX][0-9a-fA-F]+[lL]?  |  \d+(\.\d+)?([eE][+-]?\d+)?[lLfFdD]?
+public final class NumberLiterals {
+    // Potencias de diez que un double (o un float) representa sin error
+    private static final double[] DOUBLE_POWERS = new double[23];
+    private static final float[] FLOAT_POWERS = new float[11];
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final long MAX_EXACT_FLOAT = 1L << 24;
+    // Con más dígitos la mantisa no entra en un long; lo resuelve Double.parseDouble
+    private static final int MAX_FAST_DIGITS = 18;
+
+    static {
+        DOUBLE_POWERS[0] = 1;
+        for (int i = 1; i < DOUBLE_POWERS.length; i++) {
+            DOUBLE_POWERS[i] = DOUBLE_POWERS[i - 1] * 10;
+        }
+        FLOAT_POWERS[0] = 1;
+        for (int i = 1; i < FLOAT_POWERS.length; i++) {
+            FLOAT_POWERS[i] = FLOAT_POWERS[i - 1] * 10;
+        }
+    }
+
+    private NumberLiterals() {
+    }
+
+    // Fin del literal que empieza en el dígito chars[p]
+    static int scan(char[] chars, int p, int length, CharScanner scanner) {
+        int end = scanner.skipDigits(chars, p + 1, length);
+        if (chars[p] == '0' && end == p + 1 && end + 1 < length && (chars[end] | 0x20) == 'x' && hexDigit(chars[end + 1]) >= 0) {
+            end += 2;
+            while (end < length && hexDigit(chars[end]) >= 0) {
+                end++;
+            }
+            return end < length && (chars[end] | 0x20) == 'l' ? end + 1 : end;
+        }
+        if (end + 1 < length && chars[end] == '.' && CharScanner.isDigit(chars[end + 1])) {
+            end = scanner.skipDigits(chars, end + 2, length);
+        }
+        if (end < length && (chars[end] | 0x20) == 'e') {
+            int q = end + 1;
+            if (q < length && (chars[q] == '+' || chars[q] == '-')) {
+                q++;
+            }
+            if (q < length && CharScanner.isDigit(chars[q])) {
+                end = scanner.skipDigits(chars, q + 1, length);
+            }
+        }
+        if (end < length) {
+            int suffix = chars[end] | 0x20;
+            if (suffix == 'l' || suffix == 'f' || suffix == 'd') {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    // Convierte el texto de un literal ya reconocido por el patrón (o armado a mano)
+    public static NumberToken token(String text, int offset) {
+        return token(text.toCharArray(), 0, text.length(), offset, text);
+    }
+
+    // Convierte chars[start, end) sin armar el texto: el token lo arma recién si se lo piden.
+    // 'text' es el texto si ya se tiene (null si no).
+    static NumberToken token(char[] chars, int start, int end, String text) {
+        return token(chars, start, end, start, text);
+    }
+
+    private static NumberToken token(char[] chars, int start, int end, int offset, String text) {
+        int suffix = chars[end - 1] | 0x20;
+        if (end - start > 2 && chars[start] == '0' && (chars[start + 1] | 0x20) == 'x') {
+            return hex(chars, start, end, offset, text, suffix == 'l');
+        }
+        boolean floating = suffix == 'f' || suffix == 'd';
+        for (int i = start; i < end && !floating; i++) {
+            char c = chars[i];
+            floating = c == '.' || c == 'e' || c == 'E';
+        }
+        if (!floating) {
+            return decimal(chars, start, end, offset, text, suffix == 'l');
+        }
+        if (suffix == 'l') {
+            return new NumberToken(text, chars, start, end, offset, NumberKind.INVALID, 0, false, false);
+        }
+        return floating(chars, start, end, offset, text, suffix == 'f');
+    }
+
+    private static NumberToken decimal(char[] chars, int start, int end, int offset, String text, boolean isLong) {
+        int digits = isLong ? end - 1 : end;
+        // Magnitud sin signo; al pasarse de 2^64 ya está fuera de cualquier rango
+        long magnitude = 0;
+        boolean overflow = false;
+        for (int i = start; i < digits && !overflow; i++) {
+            int digit = chars[i] - '0';
+            if (Long.compareUnsigned(magnitude, 0x1999999999999999L) > 0
+                    || (magnitude == 0x1999999999999999L && digit > 5)) {
+                overflow = true;
+            }
+            magnitude = magnitude * 10 + digit;
+        }
+        long max = isLong ? Long.MAX_VALUE : Integer.MAX_VALUE;
+        NumberKind kind = isLong ? NumberKind.LONG : NumberKind.INT;
+        if (!overflow && Long.compareUnsigned(magnitude, max) <= 0) {
+            return new NumberToken(text, chars, start, end, offset, kind, magnitude, false, false);
+        }
+        if (!overflow && magnitude == max + 1) {
+            long minimum = isLong ? Long.MIN_VALUE : Integer.MIN_VALUE;
+            return new NumberToken(text, chars, start, end, offset, kind, minimum, false, true);
+        }
+        return new NumberToken(text, chars, start, end, offset, kind, 0, true, false);
+    }
+
+    // Como en Java, 0xFFFFFFFF es -1: el límite es la cantidad de dígitos, no el valor
+    private static NumberToken hex(char[] chars, int start, int end, int offset, String text, boolean isLong) {
+        int digitsEnd = isLong ? end - 1 : end;
+        int i = start + 2;
+        while (i < digitsEnd - 1 && chars[i] == '0') {
+            i++;
+        }
+        NumberKind kind = isLong ? NumberKind.LONG : NumberKind.INT;
+        if (digitsEnd - i > (isLong ? 16 : 8)) {
+            return new NumberToken(text, chars, start, end, offset, kind, 0, true, false);
+        }
+        long value = 0;
+        for (; i < digitsEnd; i++) {
+            value = (value << 4) | hexDigit(chars[i]);
+        }
+        return new NumberToken(text, chars, start, end, offset, kind, isLong ? value : (int) value, false, false);
+    }
+
+    // Con pocos dígitos y exponente chico la cuenta es exacta y da el mismo redondeo que
+    // Double.parseDouble; si no, se usa ese (acepta el sufijo f o d, así que va el texto entero).
+    // Solo ese caso arma un String.
+    private static NumberToken floating(char[] chars, int start, int end, int offset, String text, boolean isFloat) {
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean nonZero = false;
+        boolean fraction = false;
+        int i = start;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.') {
+                fraction = true;
+            } else if (CharScanner.isDigit(c)) {
+                if (c != '0' || significant > 0) {
+                    nonZero |= c != '0';
+                    if (significant < MAX_FAST_DIGITS) {
+                        mantissa = mantissa * 10 + (c - '0');
+                    } else if (!fraction) {
+                        exponent++;
+                    }
+                    significant++;
+                }
+                if (fraction && significant <= MAX_FAST_DIGITS) {
+                    exponent--;
+                }
+            } else {
+                break;
+            }
+        }
+        if (i < end && (chars[i] | 0x20) == 'e') {
+            i++;
+            boolean negative = chars[i] == '-';
+            if (chars[i] == '+' || chars[i] == '-') {
+                i++;
+            }
+            int written = 0;
+            for (; i < end && CharScanner.isDigit(chars[i]); i++) {
+                // Pasado este valor el resultado ya es infinito o cero
+                written = Math.min(written * 10 + (chars[i] - '0'), 100_000);
+            }
+            exponent += negative ? -written : written;
+        }
+
+        double value;
+        if (isFloat) {
+            float single;
+            if (significant <= MAX_FAST_DIGITS && mantissa <= MAX_EXACT_FLOAT && Math.abs(exponent) < FLOAT_POWERS.length) {
+                single = exponent >= 0 ? mantissa * FLOAT_POWERS[exponent] : mantissa / FLOAT_POWERS[-exponent];
+            } else {
+                single = Float.parseFloat(text != null ? text : new String(chars, start, end - start));
+            }
+            value = single;
+        } else if (significant <= MAX_FAST_DIGITS && mantissa <= MAX_EXACT_DOUBLE && Math.abs(exponent) < DOUBLE_POWERS.length) {
+            value = exponent >= 0 ? mantissa * DOUBLE_POWERS[exponent] : mantissa / DOUBLE_POWERS[-exponent];
+        } else {
+            value = Double.parseDouble(text != null ? text : new String(chars, start, end - start));
+        }
+        // Infinito, o un valor distinto de cero que se redondea a cero: Java los rechaza
+        boolean outOfRange = Double.isInfinite(value) || (value == 0 && nonZero);
+        return new NumberToken(text, chars, start, end, offset, isFloat ? NumberKind.FLOAT : NumberKind.DOUBLE,
+                Double.doubleToRawLongBits(outOfRange ? 0 : value), outOfRange, false);
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        int lower = c | 0x20;
+        return lower >= 'a' && lower <= 'f' ? lower - 'a' + 10 : -1;
+    }
+}
@@ -0,0 +1,68 @@
+package lexer;
+
+// Token de un literal numérico con el valor ya convertido por el Lexer, así el Parser no
+// vuelve a leer el texto. 'bits' es el valor de los enteros (ya truncado a int para INT) o los
+// bits del double (Double.doubleToRawLongBits) para FLOAT y DOUBLE.
+// El texto se arma recién cuando alguien lo pide (el Parser no lo necesita); hasta entonces el
+// token apunta a los caracteres del fuente, que el Lexer no vuelve a escribir.
+public final class NumberToken extends Token {
+    private String text;
+    private final char[] source;
+    private final int start;
+    private final int end;
+    private final NumberKind kind;
+    private final long bits;
+    private final boolean outOfRange;
+    private final boolean needsMinus;
+
+    NumberToken(String text, char[] source, int start, int end, int offset, NumberKind kind, long bits,
+                boolean outOfRange, boolean needsMinus) {
+        super(TokenType.NUMBER, null, offset);
+        this.text = text;
+        this.source = text != null ? null : source;
+        this.start = start;
+        this.end = end;
+        this.kind = kind;
+        this.bits = bits;
+        this.outOfRange = outOfRange;
+        this.needsMinus = needsMinus;
+    }
+
+    // Si dos hilos lo piden a la vez arman el mismo texto: no hace falta sincronizar
+    @Override
+    public String getValue() {
+        String value = text;
+        if (value == null) {
+            value = new String(source, start, end - start);
+            text = value;
+        }
+        return value;
+    }
+
+    public NumberKind getKind() {
+        return kind;
+    }
+
+    public int intValue() {
+        return (int) bits;
+    }
+
+    public long longValue() {
+        return bits;
+    }
+
+    public double doubleValue() {
+        return Double.longBitsToDouble(bits);
+    }
+
+    // No entra en el tipo (ni siquiera con un '-' delante); el valor queda en 0
+    public boolean isOutOfRange() {
+        return outOfRange;
+    }
+
+    // 2147483648 o 9223372036854775808 en decimal: solo valen como operando de '-', y el valor
+    // guardado ya es el mínimo del tipo (negarlo lo deja igual, como en Java)
+    public boolean needsMinus() {
+        return needsMinus;
+    }
+}
@@ -0,0 +1,131 @@
+package lexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Análisis léxico de un solo archivo grande en varios hilos.
+//
+// La entrada se corta en trozos que empiezan después de un salto de línea y cada trozo se
+// analiza por separado, suponiendo que su inicio no cae dentro de un string ni de un
+// comentario. Después se valida en orden: desde donde terminó el trozo anterior se busca
+// el primer token real y, si no coincide con el primero que encontró la especulación, ese
+// trozo se vuelve a analizar desde el punto correcto. Como el reconocimiento de un token solo
+// mira hacia adelante, a partir de un mismo inicio de token los resultados son idénticos.
+public class ParallelLexer {
+    // Por debajo de este tamaño no compensa repartir el trabajo
+    public static final int PARALLEL_THRESHOLD = 4 << 20;
+    private static final int MIN_CHUNK = 256 << 10;
+
+    private ParallelLexer() {
+    }
+
+    public static List<Token> tokenize(CharSequence input) {
+        int parallelism = ForkJoinPool.commonPool().getParallelism();
+        int chunkSize = Math.max(MIN_CHUNK, input.length() / (parallelism * 4));
+        return tokenize(input, ForkJoinPool.commonPool(), chunkSize);
+    }
+
+    public static List<Token> tokenize(CharSequence input, ForkJoinPool pool, int chunkSize) {
+        char[] chars = Lexer.chars(input);
+        int length = input.length();
+        CharScanner scanner = CharScanner.best();
+        List<Chunk> chunks = split(chars, length, chunkSize);
+        if (chunks.size() == 1) {
+            chunks.get(0).lex(new TokenScanner(chars, length, scanner), 0);
+            return chunks.get(0).tokens;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<>();
+                for (Chunk chunk : chunks) {
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            chunk.lex(new TokenScanner(chars, length, scanner), chunk.start);
+                        }
+                    });
+                }
+                invokeAll(tasks);
+            }
+        });
+
+        int total = 0;
+        int exit = 0;
+        TokenScanner probe = new TokenScanner(chars, length, scanner);
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk chunk = chunks.get(i);
+            // El primer trozo empieza en 0 y nunca es especulativo
+            if (i > 0 && !chunk.startsAt(probe.next(exit) ? probe.start : -1)) {
+                chunk.lex(probe, exit);
+            }
+            if (!chunk.tokens.isEmpty()) {
+                exit = chunk.exit;
+            }
+            total += chunk.tokens.size();
+        }
+
+        List<Token> tokens = new ArrayList<>(total);
+        for (Chunk chunk : chunks) {
+            tokens.addAll(chunk.tokens);
+        }
+        return tokens;
+    }
+
+    // Los cortes caen justo después de un '\n', el caso habitual de inicio de token
+    private static List<Chunk> split(char[] chars, int length, int chunkSize) {
+        List<Chunk> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < length) {
+            int end = (int) Math.min(length, (long) start + chunkSize);
+            while (end < length && chars[end - 1] != '\n') {
+                end++;
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(new Chunk(0, 0));
+        }
+        return chunks;
+    }
+
+    private static final class Chunk {
+        final int start;
+        final int end;
+        List<Token> tokens;
+        int firstStart = -1; // inicio del primer token propio, -1 si no tiene
+        int exit;            // fin del último token propio
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        // Un token pertenece al trozo si empieza antes de su fin, aunque termine más allá
+        void lex(TokenScanner scanner, int from) {
+            tokens = new ArrayList<>();
+            firstStart = -1;
+            exit = from;
+            int position = from;
+            while (scanner.next(position) && scanner.start < end) {
+                if (firstStart < 0) {
+                    firstStart = scanner.start;
+                }
+                tokens.add(scanner.token());
+                position = exit = scanner.end;
+            }
+        }
+
+        // La especulación vale si el análisis secuencial llegaría al mismo primer token
+        // (sequentialStart es -1 si desde ahí ya no hay tokens)
+        boolean startsAt(int sequentialStart) {
+            if (sequentialStart < 0 || sequentialStart >= end) {
+                return firstStart < 0;
+            }
+            return firstStart == sequentialStart;
+        }
+    }
+}
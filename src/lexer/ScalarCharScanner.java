@@ -0,0 +1,40 @@
+package lexer;
+
+// Un carácter por iteración; es la referencia y el respaldo de VectorCharScanner
+final class ScalarCharScanner extends CharScanner {
+    static final ScalarCharScanner INSTANCE = new ScalarCharScanner();
+
+    @Override
+    public int skipWhitespace(char[] chars, int from, int end) {
+        int i = from;
+        while (i < end && isWhitespace(chars[i])) i++;
+        return i;
+    }
+
+    @Override
+    public int skipWord(char[] chars, int from, int end) {
+        int i = from;
+        while (i < end && isWord(chars[i])) i++;
+        return i;
+    }
+
+    @Override
+    public int skipDigits(char[] chars, int from, int end) {
+        int i = from;
+        while (i < end && isDigit(chars[i])) i++;
+        return i;
+    }
+
+    @Override
+    public int indexOf(char[] chars, char c, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (chars[i] == c) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public String name() {
+        return "escalar";
+    }
+}
@@ -0,0 +1,53 @@
+package lexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Carga archivos fuente sin pasar por String: el archivo se mapea en memoria y se
+// decodifica UTF-8 directamente a un CharBuffer, que el Lexer usa como CharSequence.
+public final class SourceLoader {
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private SourceLoader() {
+    }
+
+    public static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    public static CharBuffer load(Path file) throws IOException {
+        return decode(map(file));
+    }
+
+    // En UTF-8 nunca hay más caracteres que bytes, así que un solo buffer alcanza
+    public static CharBuffer decode(ByteBuffer bytes) {
+        ByteBuffer in = bytes.duplicate();
+        CharBuffer out = CharBuffer.allocate(in.remaining());
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        // Se decodifica por bloques de 1 MB; los bytes de un carácter cortado por el
+        // bloque quedan en el buffer de entrada para la siguiente vuelta
+        int end = in.limit();
+        boolean last;
+        do {
+            last = end - in.position() <= CHUNK_SIZE;
+            in.limit(last ? end : in.position() + CHUNK_SIZE);
+            decoder.decode(in, out, last);
+        } while (!last);
+        decoder.flush(out);
+        out.flip();
+        return out;
+    }
+}
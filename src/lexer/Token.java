@@ -3,10 +3,16 @@ package lexer;
 public class Token {
     private TokenType type;
     private String value;
+    private int offset; // posición en el fuente, -1 si no se conoce (tokens de la caché)
 
     public Token(TokenType type, String value) {
+        this(type, value, -1);
+    }
+
+    public Token(TokenType type, String value, int offset) {
         this.type = type;
         this.value = value;
+        this.offset = offset;
     }
 
     public TokenType getType() {
@@ -17,8 +23,12 @@ public class Token {
         return value;
     }
 
+    public int getOffset() {
+        return offset;
+    }
+
     @Override
     public String toString() {
-        return "Token{" + "type=" + type + ", value='" + value + '\'' + '}';
+        return "Token{" + "type=" + type + ", value='" + getValue() + '\'' + '}';
     }
-}
\ No newline at end of file
+}
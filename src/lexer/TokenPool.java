@@ -0,0 +1,71 @@
+package lexer;
+
+import java.util.Arrays;
+
+// Textos de token ya vistos, para que cada identificador, palabra reservada u operador repetido
+// sea un solo String. La búsqueda compara contra el char[] del fuente, así el String se crea
+// solo la primera vez que aparece un texto. Direccionamiento abierto con el mismo hash que
+// String; al llegar al máximo se vacía, así una corrida larga no acumula los nombres de todos
+// los archivos. No es seguro entre hilos.
+public final class TokenPool {
+    public static final int DEFAULT_MAX_SIZE = 1 << 15;
+    // Los textos largos (literales de string) casi nunca se repiten
+    private static final int MAX_LENGTH = 64;
+
+    private final String[] table;
+    private final int maxSize;
+    private int size;
+
+    public TokenPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public TokenPool(int maxSize) {
+        this.maxSize = maxSize;
+        // Ocupación de a lo sumo la mitad
+        this.table = new String[Integer.highestOneBit(Math.max(2, maxSize) * 2 - 1) * 2];
+    }
+
+    public String intern(char[] chars, int start, int length) {
+        if (length > MAX_LENGTH) {
+            return new String(chars, start, length);
+        }
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int mask = table.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        for (String candidate = table[slot]; candidate != null; candidate = table[slot]) {
+            if (matches(candidate, chars, start, length)) {
+                return candidate;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size >= maxSize) {
+            Arrays.fill(table, null);
+            size = 0;
+            slot = (hash ^ (hash >>> 16)) & mask;
+        }
+        String value = new String(chars, start, length);
+        table[slot] = value;
+        size++;
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static boolean matches(String candidate, char[] chars, int start, int length) {
+        if (candidate.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (candidate.charAt(i) != chars[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,147 @@
+package lexer;
+
+// Reconoce los mismos tokens que Lexer.TOKEN_PATTERN, pero a mano sobre un char[]: las
+// rachas de espacios, identificadores y dígitos las resuelve el CharScanner, y la búsqueda
+// del cierre de strings y comentarios usa indexOf. Un objeto por hilo; el arreglo se puede
+// compartir porque solo se lee.
+final class TokenScanner {
+    private final char[] chars;
+    private final int length;
+    private final CharScanner scanner;
+    private final TokenPool pool; // null = un String nuevo por token
+
+    // Último token reconocido por next()
+    int start;
+    int end;
+    TokenType type; // IDENTIFIER se usa para cualquier palabra; token() la clasifica
+
+    TokenScanner(char[] chars, int length, CharScanner scanner) {
+        this(chars, length, scanner, null);
+    }
+
+    TokenScanner(char[] chars, int length, CharScanner scanner, TokenPool pool) {
+        this.chars = chars;
+        this.length = length;
+        this.scanner = scanner;
+        this.pool = pool;
+    }
+
+    // Busca el siguiente token a partir de 'from'; false si solo quedan espacios y comentarios
+    boolean next(int from) {
+        int p = skipTrivia(from);
+        if (p >= length) {
+            return false;
+        }
+        start = p;
+        char c = chars[p];
+        if (CharScanner.isDigit(c)) {
+            end = NumberLiterals.scan(chars, p, length, scanner);
+            type = TokenType.NUMBER;
+        } else if (c == '"' && (end = scanner.indexOf(chars, '"', p + 1, length)) >= 0) {
+            end++;
+            type = TokenType.STRING;
+        } else if (CharScanner.isWord(c)) {
+            end = scanner.skipWord(chars, p + 1, length);
+            type = TokenType.IDENTIFIER;
+        } else {
+            int operator = operatorLength(p);
+            if (operator > 0) {
+                end = p + operator;
+                type = TokenType.OPERATOR;
+            } else {
+                // Como \S, un par sustituto cuenta como un solo carácter
+                end = Character.isHighSurrogate(c) && p + 1 < length && Character.isLowSurrogate(chars[p + 1])
+                        ? p + 2 : p + 1;
+                type = TokenType.UNKNOWN;
+            }
+        }
+        return true;
+    }
+
+    Token token() {
+        if (type == TokenType.NUMBER) {
+            // El valor sale de los caracteres y el texto queda para cuando se pida. Con pool el
+            // arreglo se reutiliza en el próximo archivo: el texto va ya, del pool
+            return NumberLiterals.token(chars, start, end, pool != null ? pool.intern(chars, start, end - start) : null);
+        }
+        String value = pool != null ? pool.intern(chars, start, end - start) : new String(chars, start, end - start);
+        return new Token(type == TokenType.IDENTIFIER ? Lexer.classifyWord(value) : type, value, start);
+    }
+
+    // Equivale a (?:\s++|//.*|/\*(?s:.*?)\*/)*+ : un comentario de bloque sin cerrar no se
+    // salta, y la barra queda como operador
+    private int skipTrivia(int p) {
+        while (p < length) {
+            char c = chars[p];
+            if (CharScanner.isWhitespace(c)) {
+                p = scanner.skipWhitespace(chars, p + 1, length);
+            } else if (c == '/' && p + 1 < length && chars[p + 1] == '/') {
+                p = endOfLine(p + 2);
+            } else if (c == '/' && p + 1 < length && chars[p + 1] == '*') {
+                int close = commentEnd(p + 2);
+                if (close < 0) {
+                    return p;
+                }
+                p = close + 2;
+            } else {
+                return p;
+            }
+        }
+        return p;
+    }
+
+    // '.' no incluye ninguno de los terminadores de línea de java.util.regex
+    private int endOfLine(int p) {
+        while (p < length) {
+            char c = chars[p];
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return p;
+            }
+            p++;
+        }
+        return p;
+    }
+
+    private int commentEnd(int p) {
+        while (true) {
+            int star = scanner.indexOf(chars, '*', p, length - 1);
+            if (star < 0) {
+                return -1;
+            }
+            if (chars[star + 1] == '/') {
+                return star;
+            }
+            p = star + 1;
+        }
+    }
+
+    // Mismo orden que el grupo de operadores del patrón: primero los de dos caracteres
+    private int operatorLength(int p) {
+        char c = chars[p];
+        char next = p + 1 < length ? chars[p + 1] : 0;
+        switch (c) {
+            case '+':
+            case '-':
+                return next == c ? 2 : 1;
+            case '=':
+            case '<':
+            case '>':
+                return next == '=' ? 2 : 1;
+            case '!':
+                return next == '=' ? 2 : 0;
+            case '*':
+            case '/':
+            case '{':
+            case '}':
+            case '(':
+            case ')':
+            case ';':
+            case '.':
+            case ',':
+            case ':':
+                return 1;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package lexer;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Clasifica un vector entero de caracteres por vez (16 con AVX2, 32 con AVX-512) y busca el
+// primero que cae fuera de la clase. Los char se cargan como short con signo: los valores
+// desde 0x8000 quedan negativos y no entran en ninguno de los rangos ASCII, como debe ser.
+// Solo se instancia desde CharScanner.best(), por reflexión.
+final class VectorCharScanner extends CharScanner {
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    public int skipWhitespace(char[] chars, int from, int end) {
+        // Las rachas de un solo carácter son las más comunes: no vale la pena cargar un vector
+        if (from >= end || !isWhitespace(chars[from])) {
+            return from;
+        }
+        int i = from;
+        for (; i + LANES <= end; i += LANES) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+            VectorMask<Short> space = v.eq((short) ' ')
+                    .or(v.compare(VectorOperators.GE, (short) '\t').and(v.compare(VectorOperators.LE, (short) '\r')));
+            if (!space.allTrue()) {
+                return i + space.not().firstTrue();
+            }
+        }
+        return ScalarCharScanner.INSTANCE.skipWhitespace(chars, i, end);
+    }
+
+    @Override
+    public int skipWord(char[] chars, int from, int end) {
+        if (from >= end || !isWord(chars[from])) {
+            return from;
+        }
+        int i = from;
+        for (; i + LANES <= end; i += LANES) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+            // Con el bit 0x20 prendido las mayúsculas pasan a minúsculas
+            ShortVector lower = v.or((short) 0x20);
+            VectorMask<Short> word = lower.compare(VectorOperators.GE, (short) 'a')
+                    .and(lower.compare(VectorOperators.LE, (short) 'z'))
+                    .or(v.compare(VectorOperators.GE, (short) '0').and(v.compare(VectorOperators.LE, (short) '9')))
+                    .or(v.eq((short) '_'));
+            if (!word.allTrue()) {
+                return i + word.not().firstTrue();
+            }
+        }
+        return ScalarCharScanner.INSTANCE.skipWord(chars, i, end);
+    }
+
+    @Override
+    public int skipDigits(char[] chars, int from, int end) {
+        if (from >= end || !isDigit(chars[from])) {
+            return from;
+        }
+        int i = from;
+        for (; i + LANES <= end; i += LANES) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, chars, i);
+            VectorMask<Short> digit = v.compare(VectorOperators.GE, (short) '0')
+                    .and(v.compare(VectorOperators.LE, (short) '9'));
+            if (!digit.allTrue()) {
+                return i + digit.not().firstTrue();
+            }
+        }
+        return ScalarCharScanner.INSTANCE.skipDigits(chars, i, end);
+    }
+
+    @Override
+    public int indexOf(char[] chars, char c, int from, int end) {
+        int i = from;
+        for (; i + LANES <= end; i += LANES) {
+            VectorMask<Short> found = ShortVector.fromCharArray(SPECIES, chars, i).eq((short) c);
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        return ScalarCharScanner.INSTANCE.indexOf(chars, c, i, end);
+    }
+
+    @Override
+    public String name() {
+        return "vectorial (" + LANES + " caracteres)";
+    }
+}
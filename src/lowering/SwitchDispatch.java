@@ -0,0 +1,157 @@
+package lowering;
+
+// Despacho de un switch ya bajado por SwitchLowering: dado el valor de la expresión devuelve
+// el índice (en SwitchStatement.cases) del caso donde empieza la ejecución; desde ahí se sigue
+// por los casos siguientes hasta un break. Si no coincide ninguno devuelve el del default, o
+// -1 si no hay default. Un valor del otro tipo (un String en un switch de enteros) no coincide
+// con ningún caso.
+public abstract class SwitchDispatch {
+    public enum Strategy {
+        JUMP_TABLE,     // arreglo indexado por valor - mínimo; los huecos van al default
+        BINARY_SEARCH,  // claves ordenadas
+        HASH            // tabla hash de strings con direccionamiento abierto
+    }
+
+    final int defaultTarget;
+
+    SwitchDispatch(int defaultTarget) {
+        this.defaultTarget = defaultTarget;
+    }
+
+    public abstract Strategy strategy();
+
+    // Cantidad de entradas de la tabla (con huecos, en una tabla de saltos)
+    public abstract int tableSize();
+
+    public int target(int value) {
+        return defaultTarget;
+    }
+
+    public int target(String value) {
+        return defaultTarget;
+    }
+
+    public int defaultTarget() {
+        return defaultTarget;
+    }
+
+    static final class JumpTable extends SwitchDispatch {
+        private final int min;
+        private final int[] targets;
+
+        JumpTable(int min, int[] targets, int defaultTarget) {
+            super(defaultTarget);
+            this.min = min;
+            this.targets = targets;
+        }
+
+        @Override
+        public Strategy strategy() {
+            return Strategy.JUMP_TABLE;
+        }
+
+        @Override
+        public int tableSize() {
+            return targets.length;
+        }
+
+        @Override
+        public int target(int value) {
+            // En long para que value - min no desborde con rangos que cruzan el cero
+            long index = (long) value - min;
+            return index >= 0 && index < targets.length ? targets[(int) index] : defaultTarget;
+        }
+    }
+
+    static final class BinarySearchTable extends SwitchDispatch {
+        private final int[] keys;
+        private final int[] targets;
+
+        BinarySearchTable(int[] keys, int[] targets, int defaultTarget) {
+            super(defaultTarget);
+            this.keys = keys;
+            this.targets = targets;
+        }
+
+        @Override
+        public Strategy strategy() {
+            return Strategy.BINARY_SEARCH;
+        }
+
+        @Override
+        public int tableSize() {
+            return keys.length;
+        }
+
+        // Sin salto dependiente del dato dentro del bucle (el JIT usa un movimiento condicional):
+        // con consultas al azar una búsqueda binaria con ramas falla la predicción en cada paso
+        @Override
+        public int target(int value) {
+            int base = 0;
+            int length = keys.length;
+            if (length == 0) {
+                return defaultTarget;
+            }
+            while (length > 1) {
+                int half = length >>> 1;
+                base = keys[base + half] <= value ? base + half : base;
+                length -= half;
+            }
+            return keys[base] == value ? targets[base] : defaultTarget;
+        }
+    }
+
+    static final class HashDispatch extends SwitchDispatch {
+        // Al menos el doble de posiciones que claves: las sondas lineales quedan cortas
+        private final String[] keys;
+        private final int[] hashes;
+        private final int[] targets;
+        private final int mask;
+
+        HashDispatch(String[] caseKeys, int[] caseTargets, int defaultTarget) {
+            super(defaultTarget);
+            int capacity = Integer.highestOneBit(Math.max(2, caseKeys.length * 2 - 1)) << 1;
+            keys = new String[capacity];
+            hashes = new int[capacity];
+            targets = new int[capacity];
+            mask = capacity - 1;
+            for (int i = 0; i < caseKeys.length; i++) {
+                int hash = caseKeys[i].hashCode();
+                int slot = spread(hash) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = caseKeys[i];
+                hashes[slot] = hash;
+                targets[slot] = caseTargets[i];
+            }
+        }
+
+        @Override
+        public Strategy strategy() {
+            return Strategy.HASH;
+        }
+
+        @Override
+        public int tableSize() {
+            return keys.length;
+        }
+
+        @Override
+        public int target(String value) {
+            int hash = value.hashCode();
+            for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                // Se compara el hash guardado antes que el texto, como el switch de strings de javac
+                if (hashes[slot] == hash && keys[slot].equals(value)) {
+                    return targets[slot];
+                }
+            }
+            return defaultTarget;
+        }
+
+        // Mezcla los bits altos en los bajos: la máscara solo mira los bajos
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package lowering;
+
+import ast.CaseStatement;
+import ast.SwitchStatement;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Elige cómo despachar cada switch según sus casos:
+//   - enteros densos: tabla de saltos, O(1)
+//   - enteros dispersos: búsqueda binaria sobre las claves ordenadas
+//   - strings: tabla hash
+// Para decidir entre las dos primeras se usa el mismo costo que javac para tableswitch y
+// lookupswitch (espacio + 3 * tiempo): una tabla con pocos huecos gana aunque ocupe más.
+// El switch tiene que haber pasado los chequeos del Parser (casos constantes, de un solo
+// tipo y sin repetir).
+public final class SwitchLowering {
+    private SwitchLowering() {
+    }
+
+    public static SwitchDispatch lower(SwitchStatement stmt) {
+        List<CaseStatement> cases = stmt.cases;
+        int defaultTarget = -1;
+        int count = 0;
+        boolean strings = false;
+        for (int i = 0; i < cases.size(); i++) {
+            CaseStatement label = cases.get(i);
+            if (label.isDefault()) {
+                defaultTarget = i;
+                continue;
+            }
+            Object constant = label.constantValue();
+            if (constant == null) {
+                throw new IllegalArgumentException("El caso " + i + " del switch no es constante");
+            }
+            strings = constant instanceof String;
+            count++;
+        }
+
+        if (strings) {
+            String[] keys = new String[count];
+            int[] targets = new int[count];
+            int next = 0;
+            for (int i = 0; i < cases.size(); i++) {
+                Object constant = cases.get(i).constantValue();
+                if (constant == null) continue;
+                if (!(constant instanceof String)) {
+                    throw new IllegalArgumentException("El switch mezcla casos de tipo int y String");
+                }
+                keys[next] = (String) constant;
+                targets[next++] = i;
+            }
+            return new SwitchDispatch.HashDispatch(keys, targets, defaultTarget);
+        }
+
+        // Pares (clave, caso) en un long para ordenarlos juntos
+        long[] pairs = new long[count];
+        int next = 0;
+        for (int i = 0; i < cases.size(); i++) {
+            Object constant = cases.get(i).constantValue();
+            if (constant == null) continue;
+            if (!(constant instanceof Integer)) {
+                throw new IllegalArgumentException("El switch mezcla casos de tipo int y String");
+            }
+            pairs[next++] = ((long) (Integer) constant << 32) | i;
+        }
+        Arrays.sort(pairs);
+        int[] keys = new int[count];
+        int[] targets = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = (int) (pairs[i] >> 32);
+            targets[i] = (int) pairs[i];
+            if (i > 0 && keys[i] == keys[i - 1]) {
+                throw new IllegalArgumentException("Caso duplicado " + keys[i] + " en switch");
+            }
+        }
+
+        if (count > 0 && useJumpTable(keys[0], keys[count - 1], count)) {
+            int[] table = new int[keys[count - 1] - keys[0] + 1];
+            Arrays.fill(table, defaultTarget);
+            for (int i = 0; i < count; i++) {
+                table[keys[i] - keys[0]] = targets[i];
+            }
+            return new SwitchDispatch.JumpTable(keys[0], table, defaultTarget);
+        }
+        return new SwitchDispatch.BinarySearchTable(keys, targets, defaultTarget);
+    }
+
+    static boolean useJumpTable(int min, int max, int count) {
+        long tableSpace = 4 + ((long) max - min + 1);
+        long tableTime = 3;
+        long lookupSpace = 3 + 2L * count;
+        long lookupTime = count;
+        return tableSpace + 3 * tableTime <= lookupSpace + 3 * lookupTime;
+    }
+}
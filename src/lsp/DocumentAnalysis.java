@@ -0,0 +1,211 @@
+package lsp;
+
+import analysis.FlowChecker;
+import ast.Node;
+import diagnostics.Diagnostic;
+import diagnostics.DiagnosticCode;
+import diagnostics.Diagnostics;
+import diagnostics.Severity;
+import lexer.Lexer;
+import lexer.Token;
+import parser.Parser;
+import symboltable.ReferenceIndex;
+import symboltable.Symbol;
+import symboltable.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+// Resultado del análisis de una versión de un documento. Es inmutable: las consultas del
+// editor (hover, ir a la definición, referencias, renombrar) se responden desde acá sin
+// volver a analizar.
+public final class DocumentAnalysis {
+    private final String uri;
+    private final int version;
+    private final String text;
+    private final int[] lineStarts;
+    private final List<Token> tokens;
+    private final Node ast;                // null si hubo un error de sintaxis
+    private final SymbolTable symbolTable;
+    private final ReferenceIndex references;
+    private final List<Problem> problems;
+
+    // Un error o advertencia con el rango de caracteres al que corresponde
+    public static final class Problem {
+        public final int start;
+        public final int end;
+        public final String message;
+        public final boolean warning;
+
+        Problem(int start, int end, String message, boolean warning) {
+            this.start = start;
+            this.end = end;
+            this.message = message;
+            this.warning = warning;
+        }
+    }
+
+    private DocumentAnalysis(String uri, int version, String text, List<Token> tokens, Node ast,
+                             SymbolTable symbolTable, ReferenceIndex references, List<Problem> problems) {
+        this.uri = uri;
+        this.version = version;
+        this.text = text;
+        this.lineStarts = lineStarts(text);
+        this.tokens = tokens;
+        this.ast = ast;
+        this.symbolTable = symbolTable;
+        this.references = references;
+        this.problems = problems;
+    }
+
+    // Devuelve null si 'cancelled' indica que esta versión ya no interesa
+    public static DocumentAnalysis analyze(String uri, int version, String text, BooleanSupplier cancelled) {
+        Lexer lexer = new Lexer(text);
+        List<Token> tokens = lexer.tokenize();
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+
+        Parser parser = new Parser(tokens, lexer.getSymbolTable());
+        ReferenceIndex references = new ReferenceIndex();
+        parser.setReferenceIndex(references);
+        // El editor marca cada ocurrencia, no solo la primera de cada símbolo
+        Diagnostics diagnostics = new Diagnostics().limit(Integer.MAX_VALUE).deduplicate(false);
+        parser.setDiagnostics(diagnostics);
+        List<Problem> problems = new ArrayList<>();
+        Node ast = null;
+        try {
+            ast = parser.parse();
+        } catch (RuntimeException e) {
+            // El análisis se corta en el primer error de sintaxis; se marca el token donde quedó
+            int index = Math.min(parser.getPosition(), tokens.size() - 1);
+            int start = index >= 0 ? tokens.get(index).getOffset() : text.length();
+            int end = index >= 0 ? start + tokens.get(index).getValue().length() : text.length();
+            problems.add(new Problem(start, end, e.getMessage(), false));
+        }
+        references.freeze(); // parse() no llega a cerrarlo si hubo un error de sintaxis
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+
+        for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+            Token token = tokens.get(diagnostic.getToken());
+            problems.add(new Problem(token.getOffset(), token.getOffset() + token.getValue().length(),
+                    diagnostic.message(), diagnostic.getSeverity() == Severity.WARNING));
+        }
+        // Los errores de flujo no tienen token propio: se marcan en el nombre del método
+        FlowChecker.check(ast, (method, message) -> {
+            int start = 0;
+            for (Symbol symbol : references.lookup(method.name)) {
+                if (symbol.getScope().equals("method") && symbol.getOffset() >= 0) {
+                    start = symbol.getOffset();
+                    break;
+                }
+            }
+            problems.add(new Problem(start, start + method.name.length(), message, false));
+        });
+        for (Symbol unused : references.unusedSymbols()) {
+            problems.add(new Problem(unused.getOffset(), unused.getOffset() + unused.getName().length(),
+                    DiagnosticCode.UNUSED_SYMBOL.format(unused.getName()), true));
+        }
+        return new DocumentAnalysis(uri, version, text, tokens, ast, parser.getGlobalSymbolTable(),
+                references, Collections.unmodifiableList(problems));
+    }
+
+    // Índice del token que contiene el desplazamiento (o termina justo ahí), o -1
+    public int tokenAt(int offset) {
+        int low = 0;
+        int high = tokens.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (tokens.get(middle).getOffset() <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (high < 0) {
+            return -1;
+        }
+        Token token = tokens.get(high);
+        return offset <= token.getOffset() + token.getValue().length() ? high : -1;
+    }
+
+    // Símbolo al que resuelve el identificador en esa posición, o null
+    public Symbol symbolAt(int offset) {
+        return references.symbolAt(offset);
+    }
+
+    // Las posiciones del protocolo son línea y columna en unidades UTF-16, igual que los char
+    public int offsetOf(int line, int character) {
+        if (line >= lineStarts.length) {
+            return text.length();
+        }
+        int lineEnd = line + 1 < lineStarts.length ? lineStarts[line + 1] : text.length();
+        return Math.min(lineStarts[line] + character, lineEnd);
+    }
+
+    public int lineOf(int offset) {
+        int low = 0;
+        int high = lineStarts.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStarts[middle] <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    public int columnOf(int offset) {
+        return offset - lineStarts[lineOf(offset)];
+    }
+
+    private static int[] lineStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || (c == '\r' && (i + 1 == text.length() || text.charAt(i + 1) != '\n'))) {
+                starts.add(i + 1);
+            }
+        }
+        int[] result = new int[starts.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = starts.get(i);
+        }
+        return result;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public List<Token> getTokens() {
+        return tokens;
+    }
+
+    public Node getAst() {
+        return ast;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    public ReferenceIndex getReferences() {
+        return references;
+    }
+
+    public List<Problem> getProblems() {
+        return problems;
+    }
+}
@@ -0,0 +1,113 @@
+package lsp;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Estado por documento abierto. Cada cambio reprograma el análisis después de una pausa
+// (debounce) y cancela el que estaba pendiente o en curso: al escribir rápido solo se analiza
+// la última versión. Los documentos distintos se analizan en paralelo en el pool de trabajo.
+public class DocumentManager {
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService workers;
+    private final long debounceMillis;
+    private final Consumer<DocumentAnalysis> listener;
+
+    private static final class Document {
+        final String uri;
+        volatile int version;
+        volatile String text;
+        volatile DocumentAnalysis latest;
+        Future<?> pending; // análisis programado o en curso; se accede con el Document bloqueado
+
+        Document(String uri) {
+            this.uri = uri;
+        }
+    }
+
+    public DocumentManager(long debounceMillis, int threads, Consumer<DocumentAnalysis> listener) {
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("lsp-debounce"));
+        this.workers = Executors.newFixedThreadPool(threads, daemonThreads("lsp-analysis"));
+    }
+
+    // Al abrir no hay nada que esperar: se analiza enseguida
+    public void open(String uri, int version, String text) {
+        Document document = new Document(uri);
+        documents.put(uri, document);
+        update(document, version, text, 0);
+    }
+
+    public void change(String uri, int version, String text) {
+        Document document = documents.computeIfAbsent(uri, Document::new);
+        update(document, version, text, debounceMillis);
+    }
+
+    public void close(String uri) {
+        Document document = documents.remove(uri);
+        if (document != null) {
+            synchronized (document) {
+                if (document.pending != null) document.pending.cancel(true);
+            }
+        }
+    }
+
+    // Último análisis terminado; puede corresponder a una versión anterior a la actual
+    public DocumentAnalysis latest(String uri) {
+        Document document = documents.get(uri);
+        return document != null ? document.latest : null;
+    }
+
+    // Versión del texto que mandó el cliente por última vez, o -1 si el documento no está abierto
+    public int version(String uri) {
+        Document document = documents.get(uri);
+        return document != null ? document.version : -1;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void update(Document document, int version, String text, long delay) {
+        synchronized (document) {
+            document.version = version;
+            document.text = text;
+            if (document.pending != null) {
+                document.pending.cancel(true);
+            }
+            CompletableFuture<Void> task = new CompletableFuture<>();
+            ScheduledFuture<?> timer = scheduler.schedule(() -> {
+                if (!task.isCancelled()) {
+                    workers.execute(() -> run(document, version, text, task));
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+            // Cancelar la tarea cancela también el temporizador si todavía no venció
+            task.whenComplete((ignored, error) -> timer.cancel(false));
+            document.pending = task;
+        }
+    }
+
+    private void run(Document document, int version, String text, CompletableFuture<Void> task) {
+        if (task.isDone()) {
+            return;
+        }
+        DocumentAnalysis analysis = DocumentAnalysis.analyze(document.uri, version, text,
+                () -> task.isCancelled() || document.version != version);
+        task.complete(null);
+        if (analysis != null && document.version == version && documents.get(document.uri) == document) {
+            document.latest = analysis;
+            listener.accept(analysis);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package optimizer;
+
+import ast.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Copia el cuerpo de un método para pegarlo en el lugar de una llamada. Las variables locales
+// (parámetros incluidos) se renombran agregándoles un sufijo con '$', que no puede aparecer en un
+// nombre del fuente, así no chocan con las del método que llama. Los ámbitos son los del Parser:
+// un bloque abre uno, el inicializador de un for queda en el de afuera, los casos de un switch
+// comparten uno y la variable de un catch tiene el suyo.
+// De paso anota los nombres libres (atributos o globales, que no se renombran) y los métodos
+// llamados: al pegar la copia tienen que seguir refiriéndose a lo mismo.
+final class BodyCopier {
+    private final String suffix;
+    private final Deque<Map<String, String>> scopes = new ArrayDeque<>();
+    // Reemplazos de parámetros por los argumentos, para pegar una expresión (ver substitute)
+    private Map<String, Expression> arguments = Map.of();
+    final Set<String> freeNames = new HashSet<>();
+    final Set<String> calledNames = new HashSet<>();
+
+    BodyCopier(String suffix) {
+        this.suffix = suffix;
+    }
+
+    void enterScope() {
+        scopes.push(new HashMap<>());
+    }
+
+    void exitScope() {
+        scopes.pop();
+    }
+
+    // Declara una local en el ámbito actual y devuelve su nombre nuevo
+    String declare(String name) {
+        String renamed = name + suffix;
+        scopes.peek().put(name, renamed);
+        return renamed;
+    }
+
+    // Copia de 'expression' con cada parámetro reemplazado por su argumento (sin renombrar nada:
+    // la expresión no declara locales)
+    Expression substitute(Expression expression, Map<String, Expression> arguments) {
+        this.arguments = arguments;
+        try {
+            return (Expression) copy(expression);
+        } finally {
+            this.arguments = Map.of();
+        }
+    }
+
+    Node copy(Node node) {
+        if (node == null) {
+            return null;
+        }
+        switch (NodeKind.of(node)) {
+            case BLOCK: {
+                enterScope();
+                BlockStatement block = copyStatements((BlockStatement) node);
+                exitScope();
+                return block;
+            }
+            case VARIABLE_DECLARATION: {
+                VariableDeclaration decl = (VariableDeclaration) node;
+                // El inicializador todavía no ve la variable
+                Node initializer = copy(decl.initializer);
+                return new VariableDeclaration(decl.type, declare(decl.identifier), initializer);
+            }
+            case SWITCH: {
+                SwitchStatement stmt = (SwitchStatement) node;
+                Expression expression = (Expression) copy(stmt.expression);
+                List<CaseStatement> cases = new ArrayList<>();
+                enterScope();
+                for (CaseStatement label : stmt.cases) {
+                    cases.add(new CaseStatement((Expression) copy(label.caseValue), copyStatements(label.body)));
+                }
+                exitScope();
+                return new SwitchStatement(expression, cases);
+            }
+            case TRY: {
+                TryCatchStatement stmt = (TryCatchStatement) node;
+                BlockStatement tryBlock = (BlockStatement) copy(stmt.tryBlock);
+                List<CatchClause> catches = new ArrayList<>();
+                for (CatchClause clause : stmt.catchClauses) {
+                    enterScope();
+                    String variable = declare(clause.exceptionVariable);
+                    catches.add(new CatchClause(clause.exceptionType, variable, (BlockStatement) copy(clause.body)));
+                    exitScope();
+                }
+                return new TryCatchStatement(tryBlock, catches, (BlockStatement) copy(stmt.finallyBlock));
+            }
+            case VARIABLE_REFERENCE: {
+                String name = ((VariableReference) node).getName();
+                Expression argument = arguments.get(name);
+                return argument != null ? argument : new VariableReference(rename(name));
+            }
+            case VARIABLE_REFERENCE_EXPRESSION: {
+                String name = ((VariableReferenceExpression) node).name;
+                Expression argument = arguments.get(name);
+                return argument != null ? argument : new VariableReferenceExpression(rename(name));
+            }
+            case ASSIGNMENT: {
+                Assignment assignment = (Assignment) node;
+                Node value = copy(assignment.value);
+                return new Assignment(rename(assignment.identifier), value);
+            }
+            case FUNCTION_CALL:
+                calledNames.add(((FunctionCall) node).getName());
+                return copyChildren(node);
+            case METHOD_DECLARATION:
+            case CLASS_DECLARATION:
+                throw new IllegalArgumentException("No se puede copiar una declaración anidada");
+            default:
+                return copyChildren(node);
+        }
+    }
+
+    // Las sentencias del bloque, en el ámbito actual
+    private BlockStatement copyStatements(BlockStatement block) {
+        List<Node> statements = new ArrayList<>();
+        for (Node statement : block.statements) {
+            statements.add(copy(statement));
+        }
+        return new BlockStatement(statements);
+    }
+
+    private Node copyChildren(Node node) {
+        Node[] children = NodeStructure.children(node);
+        for (int i = 0; i < children.length; i++) {
+            children[i] = copy(children[i]);
+        }
+        return NodeStructure.build(NodeKind.of(node), NodeStructure.payload(node), children);
+    }
+
+    private String rename(String name) {
+        for (Map<String, String> scope : scopes) {
+            String renamed = scope.get(name);
+            if (renamed != null) {
+                return renamed;
+            }
+        }
+        freeNames.add(name);
+        return name;
+    }
+}
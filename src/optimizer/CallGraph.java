@@ -0,0 +1,224 @@
+package optimizer;
+
+import ast.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Grafo de llamadas de un programa: un nodo por método declarado y una arista hacia cada método
+// que llama por nombre. Una llamada se resuelve como en el Parser: primero entre los métodos de
+// la clase del que llama y después entre los de nivel superior. Un nombre declarado más de una
+// vez en el mismo lugar, o por un método anidado en otro, queda sin resolver: no se sabe a cuál
+// se refiere.
+// Las componentes fuertemente conexas (Tarjan) dicen qué métodos son recursivos, directa o
+// indirectamente, y dan el orden de abajo hacia arriba: cada método después de los que llama.
+public final class CallGraph {
+    private final List<MethodDeclaration> methods = new ArrayList<>();
+    private final Map<MethodDeclaration, Integer> ids = new IdentityHashMap<>();
+    private final Map<MethodDeclaration, ClassDeclaration> owners = new IdentityHashMap<>();
+    // Métodos por nombre, por clase (la clave null es el nivel superior)
+    private final Map<ClassDeclaration, Map<String, List<MethodDeclaration>>> byOwner = new HashMap<>();
+    private final Set<String> nestedNames = new HashSet<>();
+    private int[][] callees;
+    private boolean[] recursive;
+    private final List<MethodDeclaration> bottomUp = new ArrayList<>();
+
+    private CallGraph() {
+    }
+
+    public static CallGraph build(Node program) {
+        CallGraph graph = new CallGraph();
+        graph.collect(program);
+        graph.callees = new int[graph.methods.size()][];
+        for (int i = 0; i < graph.methods.size(); i++) {
+            MethodDeclaration method = graph.methods.get(i);
+            int[] targets = calledNames(method).stream()
+                    .map(name -> graph.resolve(name, graph.owners.get(method)))
+                    .filter(target -> target != null)
+                    .mapToInt(graph.ids::get)
+                    .distinct()
+                    .toArray();
+            graph.callees[i] = targets;
+        }
+        graph.components();
+        return graph;
+    }
+
+    public List<MethodDeclaration> getMethods() {
+        return Collections.unmodifiableList(methods);
+    }
+
+    // Clase donde está declarado el método; null si es de nivel superior
+    public ClassDeclaration ownerOf(MethodDeclaration method) {
+        return owners.get(method);
+    }
+
+    // Método al que llama 'name' desde un método de 'owner', o null si no se puede resolver
+    public MethodDeclaration resolve(String name, ClassDeclaration owner) {
+        List<MethodDeclaration> candidates = candidates(name, owner);
+        return candidates.size() == 1 && !nestedNames.contains(name) ? candidates.get(0) : null;
+    }
+
+    // Hay más de un método con ese nombre que podría ser el llamado
+    public boolean isAmbiguous(String name, ClassDeclaration owner) {
+        return nestedNames.contains(name) || candidates(name, owner).size() > 1;
+    }
+
+    public List<MethodDeclaration> callees(MethodDeclaration method) {
+        List<MethodDeclaration> result = new ArrayList<>();
+        for (int target : callees[ids.get(method)]) {
+            result.add(methods.get(target));
+        }
+        return result;
+    }
+
+    // Se llama a sí mismo o está en un ciclo de llamadas
+    public boolean isRecursive(MethodDeclaration method) {
+        Integer id = ids.get(method);
+        return id != null && recursive[id];
+    }
+
+    // Cada método aparece después de todos los que llama (salvo dentro de un ciclo)
+    public List<MethodDeclaration> bottomUpOrder() {
+        return Collections.unmodifiableList(bottomUp);
+    }
+
+    public int edgeCount() {
+        int count = 0;
+        for (int[] targets : callees) {
+            count += targets.length;
+        }
+        return count;
+    }
+
+    private List<MethodDeclaration> candidates(String name, ClassDeclaration owner) {
+        if (owner != null) {
+            List<MethodDeclaration> members = byOwner.getOrDefault(owner, Map.of()).get(name);
+            if (members != null) {
+                return members;
+            }
+        }
+        return byOwner.getOrDefault(null, Map.of()).getOrDefault(name, List.of());
+    }
+
+    // Recorre las declaraciones con una pila explícita, anotando la clase de cada método
+    private void collect(Node program) {
+        Deque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{program, null, false});
+        while (!stack.isEmpty()) {
+            Object[] entry = stack.pop();
+            Node node = (Node) entry[0];
+            ClassDeclaration owner = (ClassDeclaration) entry[1];
+            boolean insideMethod = (Boolean) entry[2];
+            if (node instanceof MethodDeclaration) {
+                MethodDeclaration method = (MethodDeclaration) node;
+                ids.put(method, methods.size());
+                methods.add(method);
+                owners.put(method, owner);
+                if (insideMethod) {
+                    nestedNames.add(method.name);
+                } else {
+                    byOwner.computeIfAbsent(owner, key -> new HashMap<>())
+                            .computeIfAbsent(method.name, key -> new ArrayList<>()).add(method);
+                }
+                insideMethod = true;
+            } else if (node instanceof ClassDeclaration) {
+                owner = (ClassDeclaration) node;
+            }
+            Node[] children = NodeStructure.children(node);
+            for (int i = children.length - 1; i >= 0; i--) {
+                if (children[i] != null) {
+                    stack.push(new Object[]{children[i], owner, insideMethod});
+                }
+            }
+        }
+    }
+
+    // Nombres llamados en el cuerpo, sin entrar en las declaraciones anidadas (son otros nodos)
+    static Set<String> calledNames(MethodDeclaration method) {
+        Set<String> names = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        if (method.body != null) stack.push(method.body);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node instanceof FunctionCall) {
+                names.add(((FunctionCall) node).getName());
+            }
+            for (Node child : NodeStructure.children(node)) {
+                if (child != null && !(child instanceof MethodDeclaration) && !(child instanceof ClassDeclaration)) {
+                    stack.push(child);
+                }
+            }
+        }
+        return names;
+    }
+
+    // Tarjan sin recursión: el grafo puede tener cadenas de miles de llamadas.
+    // Las componentes salen en orden topológico inverso, que es justo de abajo hacia arriba.
+    private void components() {
+        int n = methods.size();
+        recursive = new boolean[n];
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] cursor = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] path = new int[n];
+        Arrays.fill(index, -1);
+        int counter = 0;
+        int top = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            index[root] = low[root] = counter++;
+            stack[top++] = root;
+            onStack[root] = true;
+            path[depth++] = root;
+            while (depth > 0) {
+                int node = path[depth - 1];
+                if (cursor[node] < callees[node].length) {
+                    int next = callees[node][cursor[node]++];
+                    if (next == node) {
+                        recursive[node] = true;
+                    } else if (index[next] < 0) {
+                        index[next] = low[next] = counter++;
+                        stack[top++] = next;
+                        onStack[next] = true;
+                        path[depth++] = next;
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    int first = bottomUp.size();
+                    int member;
+                    do {
+                        member = stack[--top];
+                        onStack[member] = false;
+                        bottomUp.add(methods.get(member));
+                    } while (member != node);
+                    if (bottomUp.size() - first > 1) {
+                        for (int i = first; i < bottomUp.size(); i++) {
+                            recursive[ids.get(bottomUp.get(i))] = true;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package optimizer;
+
+import ast.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Reemplaza llamadas a métodos chicos por el cuerpo del método llamado. Los métodos se procesan
+// de abajo hacia arriba en el grafo de llamadas, así lo que se pega ya tiene reemplazadas sus
+// propias llamadas; los recursivos (directa o indirectamente) nunca se pegan.
+//   - Dentro de una expresión solo se reemplaza un método "return expr;": cada parámetro pasa
+//     a ser su argumento, y por eso los argumentos no pueden tener efectos.
+//   - Como sentencia (f(a); x = f(a); T x = f(a); return f(a);) alcanza con que el único return
+//     sea el último: se pega un bloque que declara los parámetros con los argumentos, sigue con
+//     el cuerpo y termina usando el valor del return.
+// Las locales pegadas se renombran (ver BodyCopier); si un nombre libre del método llamado
+// (un atributo o una global) queda tapado por una local del que llama, la llamada no se toca.
+// Límites: tamaño del método pegado, profundidad (cuántos niveles de llamadas se aplastan en un
+// mismo lugar) y crecimiento de cada método respecto de su tamaño original.
+public final class Inliner {
+    private enum Tail {
+        DISCARD,    // f(a);
+        ASSIGN,     // x = f(a); o T x = f(a);
+        RETURN      // return f(a);
+    }
+
+    private int maxCalleeSize = 40;
+    private int maxDepth = 3;
+    private int maxGrowthPercent = 200;
+    private int nextSite;
+
+    // Nodos del cuerpo del método llamado (ya con sus propias llamadas reemplazadas)
+    public Inliner maxCalleeSize(int nodes) {
+        this.maxCalleeSize = nodes;
+        return this;
+    }
+
+    public Inliner maxDepth(int depth) {
+        this.maxDepth = depth;
+        return this;
+    }
+
+    // Un método puede crecer este porcentaje de su tamaño original, o lo que ocupa un método
+    // del tamaño máximo si es más: si no, a los métodos muy chicos no se les podría pegar nada
+    public Inliner maxGrowthPercent(int percent) {
+        this.maxGrowthPercent = percent;
+        return this;
+    }
+
+    // Modifica el AST en el lugar
+    public InliningReport inline(Node program) {
+        CallGraph graph = CallGraph.build(program);
+        InliningReport report = new InliningReport();
+        // Profundidad y tamaño de cada método ya procesado: su cuerpo no vuelve a cambiar
+        Map<MethodDeclaration, Integer> depths = new IdentityHashMap<>();
+        Map<MethodDeclaration, Integer> sizes = new IdentityHashMap<>();
+        nextSite = 0;
+        for (MethodDeclaration method : graph.bottomUpOrder()) {
+            if (method.body == null) {
+                continue;
+            }
+            MethodInliner inliner = new MethodInliner(graph, method, depths, sizes, report);
+            inliner.block(method.body.statements);
+            depths.put(method, inliner.depth);
+            sizes.put(method, inliner.size);
+            ClassDeclaration owner = graph.ownerOf(method);
+            report.add(new InliningReport.MethodResult(owner != null ? owner.getName() + "." + method.name : method.name,
+                    inliner.originalSize, inliner.size, inliner.sites));
+        }
+        return report;
+    }
+
+    private final class MethodInliner {
+        final CallGraph graph;
+        final MethodDeclaration method;
+        final ClassDeclaration owner;
+        final Map<MethodDeclaration, Integer> depths;
+        final Map<MethodDeclaration, Integer> sizes;
+        final InliningReport report;
+        final int originalSize;
+        final int budget;
+        // Locales y parámetros del método, y atributos de su clase
+        final Set<String> localNames = new HashSet<>();
+        final Set<String> fieldNames = new HashSet<>();
+        int size;
+        int depth;
+        int sites;
+        String reason; // por qué falló el último intento
+
+        MethodInliner(CallGraph graph, MethodDeclaration method, Map<MethodDeclaration, Integer> depths,
+                       Map<MethodDeclaration, Integer> sizes, InliningReport report) {
+            this.graph = graph;
+            this.method = method;
+            this.owner = graph.ownerOf(method);
+            this.depths = depths;
+            this.sizes = sizes;
+            this.report = report;
+            originalSize = NodeStructure.count(method.body);
+            size = originalSize;
+            budget = Math.max(originalSize * (100 + maxGrowthPercent) / 100, originalSize + maxCalleeSize);
+            for (VariableDeclaration parameter : method.parameters) {
+                localNames.add(parameter.identifier);
+            }
+            declaredNames(method.body, localNames);
+            if (owner != null) {
+                for (VariableDeclaration attribute : owner.getAttributes()) {
+                    fieldNames.add(attribute.identifier);
+                }
+            }
+        }
+
+        // Lo que hay adentro de una sentencia compuesta se procesa antes que la sentencia
+        // siguiente, como en un recorrido recursivo, pero con una pila de listas pendientes
+        void block(List<Node> root) {
+            Deque<Pending> stack = new ArrayDeque<>();
+            stack.push(new Pending(root, null));
+            while (!stack.isEmpty()) {
+                Pending top = stack.peek();
+                if (top.index == top.statements.size()) {
+                    stack.pop();
+                    if (top.done != null) top.done.run();
+                    continue;
+                }
+                int i = top.index;
+                List<Pending> inner = new ArrayList<>();
+                List<Node> replacement = statement(top.statements.get(i), inner);
+                if (replacement != null) {
+                    top.statements.remove(i);
+                    top.statements.addAll(i, replacement);
+                    top.index = i + replacement.size();
+                } else {
+                    top.index = i + 1;
+                }
+                for (int k = inner.size() - 1; k >= 0; k--) {
+                    stack.push(inner.get(k));
+                }
+            }
+        }
+
+        // null si la sentencia se queda (quizás cambiada por dentro); si no, las que la reemplazan.
+        // Las listas de sentencias que contiene quedan en 'inner', en orden, para procesarlas después.
+        private List<Node> statement(Node node, List<Pending> inner) {
+            if (node instanceof BlockStatement) {
+                inner.add(new Pending(((BlockStatement) node).statements, null));
+            } else if (node instanceof ExpressionStatement) {
+                ExpressionStatement stmt = (ExpressionStatement) node;
+                if (stmt.expression instanceof FunctionCall) {
+                    Node result = site((FunctionCall) stmt.expression, Tail.DISCARD, null);
+                    if (result instanceof BlockStatement) return List.of(result);
+                    stmt.expression = (Expression) result;
+                } else if (stmt.expression instanceof Assignment && ((Assignment) stmt.expression).value instanceof FunctionCall) {
+                    Assignment assignment = (Assignment) stmt.expression;
+                    Node result = site((FunctionCall) assignment.value, Tail.ASSIGN, assignment.identifier);
+                    if (result instanceof BlockStatement) return List.of(result);
+                    assignment.value = result;
+                } else {
+                    stmt.expression = (Expression) expression(stmt.expression);
+                }
+            } else if (node instanceof VariableDeclaration) {
+                VariableDeclaration decl = (VariableDeclaration) node;
+                if (decl.initializer instanceof FunctionCall) {
+                    Node result = site((FunctionCall) decl.initializer, Tail.ASSIGN, decl.identifier);
+                    if (result instanceof BlockStatement) {
+                        return List.of(new VariableDeclaration(decl.type, decl.identifier, null), result);
+                    }
+                    decl.initializer = result;
+                } else {
+                    decl.initializer = expression(decl.initializer);
+                }
+            } else if (node instanceof ReturnStatement) {
+                ReturnStatement stmt = (ReturnStatement) node;
+                if (stmt.value instanceof FunctionCall) {
+                    Node result = site((FunctionCall) stmt.value, Tail.RETURN, null);
+                    if (result instanceof BlockStatement) return List.of(result);
+                    stmt.value = (Expression) result;
+                } else {
+                    stmt.value = (Expression) expression(stmt.value);
+                }
+            } else if (node instanceof IfStatement) {
+                IfStatement stmt = (IfStatement) node;
+                stmt.condition = expression(stmt.condition);
+                nested(stmt.thenBranch, branch -> stmt.thenBranch = branch, inner);
+                nested(stmt.elseBranch, branch -> stmt.elseBranch = branch, inner);
+            } else if (node instanceof WhileStatement) {
+                WhileStatement stmt = (WhileStatement) node;
+                stmt.condition = (Expression) expression(stmt.condition);
+                inner.add(new Pending(stmt.body.statements, null));
+            } else if (node instanceof ForStatement) {
+                // El inicializador y la actualización no son lugares donde pegar un bloque
+                ForStatement stmt = (ForStatement) node;
+                if (stmt.initializer != null) {
+                    stmt.initializer.initializer = expression(stmt.initializer.initializer);
+                }
+                stmt.condition = (Expression) expression(stmt.condition);
+                stmt.update = (Expression) expression(stmt.update);
+                inner.add(new Pending(stmt.body.statements, null));
+            } else if (node instanceof SwitchStatement) {
+                SwitchStatement stmt = (SwitchStatement) node;
+                stmt.expression = (Expression) expression(stmt.expression);
+                for (CaseStatement label : stmt.cases) {
+                    inner.add(new Pending(label.body.statements, null));
+                }
+            } else if (node instanceof TryCatchStatement) {
+                TryCatchStatement stmt = (TryCatchStatement) node;
+                inner.add(new Pending(stmt.tryBlock.statements, null));
+                for (CatchClause clause : stmt.catchClauses) {
+                    inner.add(new Pending(clause.body.statements, null));
+                }
+                if (stmt.finallyBlock != null) {
+                    inner.add(new Pending(stmt.finallyBlock.statements, null));
+                }
+            }
+            // Las clases y métodos anidados son otros nodos del grafo de llamadas
+            return null;
+        }
+
+        // Rama de un if: si no es un bloque y hay que reemplazarla por varias, se las envuelve
+        private void nested(Node node, Consumer<Node> replace, List<Pending> inner) {
+            if (node == null) {
+                return;
+            }
+            if (node instanceof BlockStatement) {
+                inner.add(new Pending(((BlockStatement) node).statements, null));
+                return;
+            }
+            List<Node> single = new ArrayList<>(List.of(node));
+            inner.add(new Pending(single, () -> replace.accept(single.size() == 1 ? single.get(0) : new BlockStatement(single))));
+        }
+
+        // Llamada en posición de sentencia. Devuelve la expresión o el bloque que la reemplaza,
+        // o la llamada misma (con sus argumentos ya procesados) si no se pudo.
+        private Node site(FunctionCall original, Tail tail, String target) {
+            FunctionCall call = (FunctionCall) rebuild(original);
+            MethodDeclaration callee = candidate(call);
+            if (callee == null) {
+                return call;
+            }
+            // Como expresión no agrega un bloque; una llamada suelta se pega siempre como sentencia
+            if (tail != Tail.DISCARD) {
+                Expression inlined = inlineExpression(call, callee);
+                if (inlined != null) {
+                    return inlined;
+                }
+            }
+            BlockStatement block = inlineStatement(call, callee, tail, target);
+            if (block != null) {
+                return block;
+            }
+            report.reject(reason);
+            return call;
+        }
+
+        // Copia de la expresión con sus llamadas reemplazadas donde se pueda
+        private Node expression(Node node) {
+            return rewrite(node, true);
+        }
+
+        // Como expression, pero sin intentar pegar la raíz
+        private Node rebuild(Node node) {
+            return rewrite(node, false);
+        }
+
+        // Recorre en postorden con una pila explícita (los argumentos antes que la llamada, como
+        // al evaluar): una expresión de miles de términos es igual de profunda. Un nodo se
+        // reconstruye solo si cambió algún hijo; los nodos del AST no se modifican (las hojas
+        // pueden estar compartidas por el NodeInterner).
+        private Node rewrite(Node root, boolean inlineRoot) {
+            if (root == null) {
+                return null;
+            }
+            Deque<Rewrite> stack = new ArrayDeque<>();
+            stack.push(new Rewrite(root));
+            while (true) {
+                Rewrite frame = stack.peek();
+                if (frame.next < frame.children.length) {
+                    Node child = frame.children[frame.next];
+                    if (child == null) {
+                        frame.next++;
+                    } else {
+                        stack.push(new Rewrite(child));
+                    }
+                    continue;
+                }
+                stack.pop();
+                Node result = frame.changed
+                        ? NodeStructure.build(NodeKind.of(frame.node), NodeStructure.payload(frame.node), frame.children)
+                        : frame.node;
+                if (!stack.isEmpty() || inlineRoot) {
+                    result = inlineCall(result);
+                }
+                if (stack.isEmpty()) {
+                    return result;
+                }
+                Rewrite parent = stack.peek();
+                if (result != parent.children[parent.next]) {
+                    parent.children[parent.next] = result;
+                    parent.changed = true;
+                }
+                parent.next++;
+            }
+        }
+
+        // La expresión pegada si 'node' es una llamada que se puede reemplazar; si no, 'node'
+        private Node inlineCall(Node node) {
+            if (node instanceof FunctionCall) {
+                FunctionCall call = (FunctionCall) node;
+                MethodDeclaration callee = candidate(call);
+                if (callee != null) {
+                    Expression inlined = inlineExpression(call, callee);
+                    if (inlined != null) {
+                        return inlined;
+                    }
+                    report.reject(reason);
+                }
+            }
+            return node;
+        }
+
+        // Método al que se puede pegar la llamada según los límites, o null
+        private MethodDeclaration candidate(FunctionCall call) {
+            MethodDeclaration callee = graph.resolve(call.getName(), owner);
+            if (callee == null) {
+                // Si no está declarado en el programa es una función predefinida (println)
+                if (graph.isAmbiguous(call.getName(), owner)) report.reject("ambiguo");
+                return null;
+            }
+            if (callee.body == null) {
+                return null;
+            }
+            String failure = null;
+            if (callee == method || graph.isRecursive(callee)) {
+                failure = "recursivo";
+            } else if (callee.parameters.size() != call.getArguments().size()) {
+                failure = "argumentos";
+            } else if (sizes.get(callee) > maxCalleeSize) {
+                failure = "tamaño";
+            } else if (depths.getOrDefault(callee, 0) + 1 > maxDepth) {
+                failure = "profundidad";
+            }
+            if (failure != null) {
+                report.reject(failure);
+                return null;
+            }
+            return callee;
+        }
+
+        // Método de la forma "return expr;": la expresión con cada parámetro reemplazado por su argumento
+        private Expression inlineExpression(FunctionCall call, MethodDeclaration callee) {
+            List<Node> body = callee.body.statements;
+            if (body.size() != 1 || !(body.get(0) instanceof ReturnStatement)
+                    || ((ReturnStatement) body.get(0)).value == null || writes(((ReturnStatement) body.get(0)).value)) {
+                reason = "forma";
+                return null;
+            }
+            Expression value = ((ReturnStatement) body.get(0)).value;
+            // Los argumentos se evalúan donde se usa el parámetro (varias veces o ninguna), y si
+            // el método llama a otro, después de esa llamada: solo pueden leer locales, que
+            // ningún otro método puede cambiar
+            boolean calls = contains(value, FunctionCall.class);
+            Map<String, Expression> arguments = new HashMap<>();
+            for (int i = 0; i < callee.parameters.size(); i++) {
+                Expression argument = call.getArguments().get(i);
+                if (writes(argument) || contains(argument, FunctionCall.class) || (calls && readsNonLocal(argument))) {
+                    reason = "argumentos";
+                    return null;
+                }
+                arguments.put(callee.parameters.get(i).identifier, argument);
+            }
+            BodyCopier copier = new BodyCopier(suffix(callee));
+            Expression inlined = copier.substitute(value, arguments);
+            if (captures(copier, callee)) {
+                reason = "captura";
+                return null;
+            }
+            return accept(callee, NodeStructure.count(inlined) - NodeStructure.count(call)) ? inlined : null;
+        }
+
+        // { T1 p1$f = a1; ...; cuerpo; x = valor; }
+        private BlockStatement inlineStatement(FunctionCall call, MethodDeclaration callee, Tail tail, String target) {
+            List<Node> body = callee.body.statements;
+            ReturnStatement last = !body.isEmpty() && body.get(body.size() - 1) instanceof ReturnStatement
+                    ? (ReturnStatement) body.get(body.size() - 1) : null;
+            if (!singleExit(callee.body, last, 0, false) || (tail != Tail.DISCARD && (last == null || last.value == null))) {
+                reason = "forma";
+                return null;
+            }
+            BodyCopier copier = new BodyCopier(suffix(callee));
+            List<Node> statements = new ArrayList<>();
+            copier.enterScope();
+            for (int i = 0; i < callee.parameters.size(); i++) {
+                VariableDeclaration parameter = callee.parameters.get(i);
+                statements.add(new VariableDeclaration(parameter.type, copier.declare(parameter.identifier),
+                        call.getArguments().get(i)));
+            }
+            copier.enterScope();
+            for (int i = 0; i < body.size(); i++) {
+                if (body.get(i) != last) {
+                    statements.add(copier.copy(body.get(i)));
+                }
+            }
+            Expression value = last != null ? (Expression) copier.copy(last.value) : null;
+            copier.exitScope();
+            copier.exitScope();
+            if (captures(copier, callee)) {
+                reason = "captura";
+                return null;
+            }
+            if (tail == Tail.ASSIGN) {
+                statements.add(new ExpressionStatement(new Assignment(target, value)));
+            } else if (tail == Tail.RETURN) {
+                statements.add(new ReturnStatement(value));
+            } else if (value != null && (writes(value) || contains(value, FunctionCall.class))) {
+                // El valor se descarta, pero sus efectos no
+                statements.add(new ExpressionStatement(value));
+            }
+            BlockStatement block = new BlockStatement(statements);
+            return accept(callee, NodeStructure.count(block) - NodeStructure.count(call)) ? block : null;
+        }
+
+        private boolean accept(MethodDeclaration callee, int growth) {
+            if (size + growth > budget) {
+                reason = "crecimiento";
+                return false;
+            }
+            size += growth;
+            depth = Math.max(depth, depths.getOrDefault(callee, 0) + 1);
+            sites++;
+            return true;
+        }
+
+        // Algo del cuerpo pegado se referiría a otra cosa en el método que llama
+        private boolean captures(BodyCopier copier, MethodDeclaration callee) {
+            ClassDeclaration calleeOwner = graph.ownerOf(callee);
+            for (String name : copier.freeNames) {
+                // Un método de nivel superior ve las globales; pegado en una clase, los atributos las tapan
+                if (localNames.contains(name) || (calleeOwner != owner && fieldNames.contains(name))) {
+                    return true;
+                }
+            }
+            for (String name : copier.calledNames) {
+                if (localNames.contains(name) || graph.resolve(name, owner) != graph.resolve(name, calleeOwner)
+                        || graph.isAmbiguous(name, owner) != graph.isAmbiguous(name, calleeOwner)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Un argumento que lee algo que no es una local o un parámetro del método que llama
+        private boolean readsNonLocal(Node root) {
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                if (node instanceof VariableReference) {
+                    if (!localNames.contains(((VariableReference) node).getName())) return true;
+                } else if (node instanceof VariableReferenceExpression) {
+                    if (!localNames.contains(((VariableReferenceExpression) node).name)) return true;
+                } else if (node instanceof FieldAccess) {
+                    return true;
+                } else {
+                    for (Node child : NodeStructure.children(node)) {
+                        if (child != null) stack.push(child);
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    // Sentencias de una lista que faltan procesar; 'done' corre al terminar la lista
+    private static final class Pending {
+        final List<Node> statements;
+        final Runnable done;
+        int index;
+
+        Pending(List<Node> statements, Runnable done) {
+            this.statements = statements;
+            this.done = done;
+        }
+    }
+
+    // Un nodo de la expresión que se está reescribiendo, con sus hijos ya procesados hasta 'next'
+    private static final class Rewrite {
+        final Node node;
+        final Node[] children;
+        int next;
+        boolean changed;
+
+        Rewrite(Node node) {
+            this.node = node;
+            this.children = NodeStructure.children(node);
+        }
+    }
+
+    private String suffix(MethodDeclaration callee) {
+        return "$" + callee.name + (++nextSite);
+    }
+
+    // El único return es 'last' (o no hay ninguno) y no hay break ni continue que salgan del
+    // cuerpo. El método pegado es chico, la recursión no llega lejos.
+    private static boolean singleExit(Node node, ReturnStatement last, int loops, boolean inSwitch) {
+        if (node == null) {
+            return true;
+        }
+        if (node instanceof ReturnStatement) {
+            return node == last;
+        }
+        if (node instanceof BreakStatement) {
+            return loops > 0 || inSwitch;
+        }
+        if (node instanceof ContinueStatement) {
+            return loops > 0;
+        }
+        if (node instanceof MethodDeclaration || node instanceof ClassDeclaration) {
+            return false;
+        }
+        boolean loop = node instanceof WhileStatement || node instanceof ForStatement;
+        boolean isSwitch = node instanceof SwitchStatement;
+        for (Node child : NodeStructure.children(node)) {
+            if (!singleExit(child, last, loop ? loops + 1 : loops, inSwitch || isSwitch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Asigna a alguna variable
+    private static boolean writes(Node node) {
+        return contains(node, Assignment.class) || contains(node, AssignmentExpression.class)
+                || contains(node, PostfixExpression.class);
+    }
+
+    private static boolean contains(Node root, Class<? extends Node> type) {
+        Deque<Node> stack = new ArrayDeque<>();
+        if (root != null) stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (type.isInstance(node)) {
+                return true;
+            }
+            for (Node child : NodeStructure.children(node)) {
+                if (child != null) stack.push(child);
+            }
+        }
+        return false;
+    }
+
+    // Nombres declarados en el cuerpo (locales y variables de catch), sin las declaraciones anidadas
+    private static void declaredNames(Node root, Set<String> names) {
+        Deque<Node> stack = new ArrayDeque<>();
+        if (root != null) stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            if (node instanceof VariableDeclaration) {
+                names.add(((VariableDeclaration) node).identifier);
+            } else if (node instanceof CatchClause) {
+                names.add(((CatchClause) node).exceptionVariable);
+            }
+            for (Node child : NodeStructure.children(node)) {
+                if (child != null && !(child instanceof MethodDeclaration) && !(child instanceof ClassDeclaration)) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+}
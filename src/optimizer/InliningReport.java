@@ -0,0 +1,93 @@
+package optimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Resultado de una pasada del Inliner: por método, cuántas llamadas se reemplazaron y cuánto
+// creció (en nodos del AST), y por qué motivo se descartó cada llamada que no se reemplazó
+public final class InliningReport {
+    public static final class MethodResult {
+        public final String name;       // Clase.metodo para los métodos de una clase
+        public final int sizeBefore;
+        public final int sizeAfter;
+        public final int inlinedSites;
+
+        MethodResult(String name, int sizeBefore, int sizeAfter, int inlinedSites) {
+            this.name = name;
+            this.sizeBefore = sizeBefore;
+            this.sizeAfter = sizeAfter;
+            this.inlinedSites = inlinedSites;
+        }
+
+        // Crecimiento en porcentaje sobre el tamaño original
+        public double growth() {
+            return sizeBefore == 0 ? 0 : 100.0 * (sizeAfter - sizeBefore) / sizeBefore;
+        }
+    }
+
+    private final List<MethodResult> methods = new ArrayList<>();
+    private final Map<String, Integer> rejections = new TreeMap<>();
+
+    void add(MethodResult result) {
+        methods.add(result);
+    }
+
+    void reject(String reason) {
+        rejections.merge(reason, 1, Integer::sum);
+    }
+
+    // En el orden en que se procesaron (de abajo hacia arriba en el grafo de llamadas)
+    public List<MethodResult> getMethods() {
+        return Collections.unmodifiableList(methods);
+    }
+
+    // Llamadas descartadas por motivo
+    public Map<String, Integer> getRejections() {
+        return Collections.unmodifiableMap(rejections);
+    }
+
+    public int inlinedSites() {
+        int total = 0;
+        for (MethodResult method : methods) {
+            total += method.inlinedSites;
+        }
+        return total;
+    }
+
+    public int sizeBefore() {
+        int total = 0;
+        for (MethodResult method : methods) {
+            total += method.sizeBefore;
+        }
+        return total;
+    }
+
+    public int sizeAfter() {
+        int total = 0;
+        for (MethodResult method : methods) {
+            total += method.sizeAfter;
+        }
+        return total;
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-28s %8s %8s %8s %12s%n", "método", "llamadas", "antes", "después", "crecimiento"));
+        for (MethodResult method : methods) {
+            out.append(String.format("%-28s %8d %8d %8d %11.1f%%%n", method.name, method.inlinedSites,
+                    method.sizeBefore, method.sizeAfter, method.growth()));
+        }
+        int before = sizeBefore();
+        out.append(String.format("Total: %d llamadas reemplazadas, %d -> %d nodos (%+.1f%%)%n", inlinedSites(),
+                before, sizeAfter(), before == 0 ? 0.0 : 100.0 * (sizeAfter() - before) / before));
+        if (!rejections.isEmpty()) {
+            out.append("Descartadas:");
+            rejections.forEach((reason, count) -> out.append(' ').append(reason).append(' ').append(count));
+            out.append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -1,24 +1,56 @@
 package parser;
 
+import arena.AstArena;
 import ast.*;
+import diagnostics.DiagnosticCode;
+import diagnostics.Diagnostics;
 import lexer.*;
 import symboltable.*;
 
 import java.util.*;
 
 public class Parser {
+    // De menor a mayor: cada uno se puede asignar a los que le siguen
+    private static final List<String> NUMERIC_TYPES = List.of("int", "long", "float", "double");
+
     private final List<Token> tokens;
     private int current = 0;
     List<Symbol> parameters = new ArrayList<>();
 
     private SymbolTable symbolTable;
-    private final List<String> semanticErrors = new ArrayList<>();
+    // Errores semánticos; cada uno guarda el índice del token donde se detectó
+    private Diagnostics diagnostics = new Diagnostics();
+    // Declaraciones y usos de cada símbolo; null si no se pidió construirlo
+    private ReferenceIndex references;
+    private NodeInterner interner = new NodeInterner();
+    // Pilas de evaluateExpressionType: una sola vez por Parser y no por cada expresión
+    private final Deque<Expression> typePending = new ArrayDeque<>();
+    private final Deque<Boolean> typeVisited = new ArrayDeque<>(); // ya se evaluaron sus operandos
+    private final Deque<String> types = new ArrayDeque<>();
+    // Índice del token numérico que sigue a un '-' unario (-2147483648 es válido, 2147483648 no)
+    private int negatedNumber = -1;
 
     public Parser(List<Token> tokens, SymbolTable initialTable) {
         this.tokens = tokens;
         this.symbolTable = initialTable;
     }
 
+    // Registra en el índice cada identificador resuelto. Cuesta una búsqueda en la tabla de
+    // símbolos por cada identificador usado en expresiones; el índice se cierra al terminar parse()
+    public void setReferenceIndex(ReferenceIndex references) {
+        this.references = references;
+    }
+
+    // Las hojas son inmutables: una sesión comparte el mismo interner entre archivos
+    public void setInterner(NodeInterner interner) {
+        this.interner = interner;
+    }
+
+    // Para cambiar el límite, la agrupación por símbolo o escuchar los errores a medida que aparecen
+    public void setDiagnostics(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
     public Node parse() {
         List<Node> statements = new ArrayList<>();
         while (!isAtEnd()) {
@@ -27,29 +59,83 @@ public class Parser {
                 statements.add(stmt);
             }
         }
+        if (references != null) {
+            references.freeze();
+        }
         return new BlockStatement(statements);
     }
 
+    // Igual que parse(), pero cada sentencia de primer nivel se copia al arena apenas se
+    // analiza, así el árbol de objetos completo nunca está en memoria a la vez.
+    // Devuelve el índice del bloque raíz.
+    public int parseInto(AstArena arena) {
+        int root = arena.add(NodeKind.BLOCK, null);
+        int last = -1;
+        while (!isAtEnd()) {
+            Node stmt = parseStatement();
+            if (stmt != null) {
+                int index = arena.fromNode(stmt);
+                arena.appendChild(root, last, index);
+                last = index;
+            }
+        }
+        arena.trimToSize();
+        if (references != null) {
+            references.freeze();
+        }
+        return root;
+    }
+
+    // Las sentencias compuestas no se analizan con recursión: cada una abierta es un marco en una
+    // pila explícita que avanza por partes (encabezado, bloques anidados, cierre), así un archivo
+    // generado con miles de bloques anidados no desborda la pila. Las expresiones siguen siendo
+    // de descenso recursivo.
     private Node parseStatement() {
-        Token token = peek();
-        if (token.getType() == TokenType.DATA_TYPE || (token.getType() == TokenType.RESERVED && token.getValue().equals("void"))) {
-            // Lookahead para ver si es una función
-            if (tokens.size() > current + 2 && tokens.get(current + 2).getValue().equals("(")) {
-                return parseMethodDeclaration(); // ahora se permite globalmente
-            } else {
-                return parseDeclaration();
+        Deque<StatementFrame> stack = new ArrayDeque<>();
+        stack.push(statementFrame());
+        while (true) {
+            StatementFrame frame = stack.peek();
+            StatementFrame nested = frame.next();
+            if (nested != null) {
+                stack.push(nested);
+                continue;
+            }
+            stack.pop();
+            if (stack.isEmpty()) {
+                return frame.result;
             }
+            stack.peek().accept(frame.result);
         }
-        else if (token.getType() == TokenType.DATA_TYPE) {
-            return parseDeclaration();
-        } else if (token.getType() == TokenType.IDENTIFIER) {
-            return parseAssignmentOrCall();
+    }
+
+    private StatementFrame statementFrame() {
+        Token token = peek();
+        if ((token.getType() == TokenType.DATA_TYPE || (token.getType() == TokenType.RESERVED && token.getValue().equals("void")))
+                && tokens.size() > current + 2 && tokens.get(current + 2).getValue().equals("(")) {
+            return new MethodFrame(); // ahora se permite globalmente
         } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("if")) {
-            return parseIf();
+            return new IfFrame();
         } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("while")) {
-            return parseWhile();
+            return new WhileFrame();
         } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("for")) {
-            return parseFor();
+            return new ForFrame();
+        } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("switch")) {
+            return new SwitchFrame();
+        } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("try")) {
+            return new TryFrame();
+        } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("class")) {
+            return new ClassFrame();
+        }
+        return new SimpleFrame();
+    }
+
+    // Sentencias sin otras sentencias adentro
+    private Node parseSimpleStatement() {
+        Token token = peek();
+        if (token.getType() == TokenType.DATA_TYPE || (token.getType() == TokenType.RESERVED && token.getValue().equals("void"))) {
+            return parseDeclaration();
+        } else if (token.getType() == TokenType.IDENTIFIER) {
+            return parseAssignmentOrCall();
         } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("return")) {
             return parseReturn();
         } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("break")) {
@@ -60,8 +146,6 @@ public class Parser {
             advance();
             match(TokenType.OPERATOR, ";");
             return new ContinueStatement();
-        } else if (token.getType() == TokenType.RESERVED && token.getValue().equals("class")) {
-            return parseClass();
         } else if (token.getType() == TokenType.OPERATOR && token.getValue().equals("{")) {
             enterScope();
             advance();
@@ -76,47 +160,275 @@ public class Parser {
         }
     }
 
-    private Node parseWhile() {
-        advance(); // consume 'while'
-        if (!match(TokenType.OPERATOR, "(")) {
-            throw new RuntimeException("Error: Se esperaba '(' después de 'while'.");
+    // Una sentencia en análisis. next() avanza hasta necesitar una sentencia anidada, que
+    // devuelve como marco nuevo, o hasta terminar: entonces devuelve null y deja la sentencia
+    // armada en result (null si no produce nada, como una llave suelta).
+    private abstract class StatementFrame {
+        Node result;
+        int state;
+
+        abstract StatementFrame next();
+
+        // La sentencia anidada pedida por el último next()
+        void accept(Node nested) {
         }
-        Expression condition = parseExpression();
-        if (!match(TokenType.OPERATOR, ")")) {
-            throw new RuntimeException("Error: Se esperaba ')' después de la condición.");
+    }
+
+    private final class SimpleFrame extends StatementFrame {
+        @Override
+        StatementFrame next() {
+            result = parseSimpleStatement();
+            return null;
         }
-        BlockStatement body = (BlockStatement) parseBlock();
-        return new WhileStatement(condition, body);
     }
 
-    private Node parseFor() {
-        advance(); // consume 'for'
-        if (!match(TokenType.OPERATOR, "(")) {
-            throw new RuntimeException("Error: Se esperaba '(' después de 'for'.");
+    private final class WhileFrame extends StatementFrame {
+        Expression condition;
+        BlockStatement body;
+
+        @Override
+        StatementFrame next() {
+            if (state == 0) {
+                advance(); // consume 'while'
+                if (!match(TokenType.OPERATOR, "(")) {
+                    throw new RuntimeException("Error: Se esperaba '(' después de 'while'.");
+                }
+                condition = parseExpression();
+                if (!match(TokenType.OPERATOR, ")")) {
+                    throw new RuntimeException("Error: Se esperaba ')' después de la condición.");
+                }
+                state = 1;
+                return new BlockFrame();
+            }
+            result = new WhileStatement(condition, body);
+            return null;
         }
 
-        VariableDeclaration initializer = null;
-        if (!peek().getValue().equals(";")) {
-            initializer = (VariableDeclaration) parseDeclaration();
-        } else {
-            match(TokenType.OPERATOR, ";");
+        @Override
+        void accept(Node nested) {
+            body = (BlockStatement) nested;
         }
+    }
 
-        Expression condition = null;
-        if (!peek().getValue().equals(";")) {
-            condition = parseExpression();
+    private final class ForFrame extends StatementFrame {
+        VariableDeclaration initializer;
+        Expression condition;
+        Expression update;
+        BlockStatement body;
+
+        @Override
+        StatementFrame next() {
+            if (state == 0) {
+                advance(); // consume 'for'
+                if (!match(TokenType.OPERATOR, "(")) {
+                    throw new RuntimeException("Error: Se esperaba '(' después de 'for'.");
+                }
+
+                if (!peek().getValue().equals(";")) {
+                    initializer = (VariableDeclaration) parseDeclaration();
+                } else {
+                    match(TokenType.OPERATOR, ";");
+                }
+
+                if (!peek().getValue().equals(";")) {
+                    condition = parseExpression();
+                }
+                match(TokenType.OPERATOR, ";");
+
+                if (!peek().getValue().equals(")")) {
+                    update = parseExpression();
+                }
+                match(TokenType.OPERATOR, ")");
+                state = 1;
+                return new BlockFrame();
+            }
+            result = new ForStatement(initializer, condition, update, body);
+            return null;
+        }
+
+        @Override
+        void accept(Node nested) {
+            body = (BlockStatement) nested;
+        }
+    }
+
+    // switch (expr) { case c: ... default: ... }. Todos los casos comparten un ámbito, como en
+    // Java, y sin break la ejecución sigue en el caso siguiente
+    private final class SwitchFrame extends StatementFrame {
+        Expression expression;
+        String type;
+        final List<CaseStatement> cases = new ArrayList<>();
+        final Set<Object> seen = new HashSet<>();
+        boolean hasDefault;
+        CaseStatement label;        // caso cuyo cuerpo se está analizando
+        List<Node> statements;
+
+        @Override
+        StatementFrame next() {
+            if (state == 0) {
+                header();
+                state = 1;
+            }
+            while (true) {
+                if (label != null) {
+                    if (!isAtEnd() && !peek().getValue().equals("}") && !isCaseLabel(peek())) {
+                        // "case 1: { ... }" es común: el bloque se analiza entero para que su '}' no cierre el switch
+                        return peek().getValue().equals("{") ? new BlockFrame() : statementFrame();
+                    }
+                    label.body = new BlockStatement(statements);
+                    cases.add(label);
+                    label = null;
+                }
+                if (isAtEnd() || peek().getValue().equals("}")) {
+                    match(TokenType.OPERATOR, "}");
+                    exitScope();
+                    result = new SwitchStatement(expression, cases);
+                    return null;
+                }
+                caseLabel();
+            }
+        }
+
+        @Override
+        void accept(Node nested) {
+            if (nested != null) statements.add(nested);
+        }
+
+        private void header() {
+            advance(); // consume 'switch'
+            if (!match(TokenType.OPERATOR, "(")) {
+                throw new RuntimeException("Error: Se esperaba '(' después de 'switch'.");
+            }
+            expression = parseExpression();
+            if (!match(TokenType.OPERATOR, ")")) {
+                throw new RuntimeException("Error: Se esperaba ')' después de la expresión del switch.");
+            }
+            type = evaluateExpressionType(expression);
+            if (!type.equals("int") && !type.equals("String") && !type.equals("unknown")) {
+                semanticError(DiagnosticCode.SWITCH_TYPE, type);
+            }
+            if (!match(TokenType.OPERATOR, "{")) {
+                throw new RuntimeException("Error: Se esperaba '{' después de 'switch'.");
+            }
+            enterScope();
+        }
+
+        private void caseLabel() {
+            if (match(TokenType.RESERVED, "case")) {
+                label = new CaseStatement(parseExpression(), null);
+                Object constant = label.constantValue();
+                String caseType = constant instanceof String ? "String" : "int";
+                if (constant == null) {
+                    semanticError(DiagnosticCode.CASE_NOT_CONSTANT);
+                } else if ((type.equals("int") || type.equals("String")) && !type.equals(caseType)) {
+                    semanticError(DiagnosticCode.CASE_TYPE, caseType, type);
+                } else if (!seen.add(constant)) {
+                    semanticError(constant instanceof String ? DiagnosticCode.DUPLICATE_STRING_CASE : DiagnosticCode.DUPLICATE_CASE, constant);
+                }
+            } else if (match(TokenType.RESERVED, "default")) {
+                label = new CaseStatement(null, null);
+                if (hasDefault) {
+                    semanticError(DiagnosticCode.DUPLICATE_DEFAULT);
+                }
+                hasDefault = true;
+            } else {
+                throw new RuntimeException("Error: Se esperaba 'case' o 'default' dentro del switch.");
+            }
+            if (!match(TokenType.OPERATOR, ":")) {
+                throw new RuntimeException("Error: Se esperaba ':' después del caso.");
+            }
+            statements = new ArrayList<>();
+        }
+    }
+
+    private static boolean isCaseLabel(Token token) {
+        return token.getType() == TokenType.RESERVED
+                && (token.getValue().equals("case") || token.getValue().equals("default"));
+    }
+
+    // try { ... } catch (Tipo e) { ... } ... finally { ... }. La variable de cada catch va en
+    // un ámbito propio que envuelve al cuerpo, como los parámetros de un método, así que deja
+    // de existir al cerrarse el catch
+    private final class TryFrame extends StatementFrame {
+        private static final int TRY_BLOCK = 1, CATCHES = 2, CATCH_BODY = 3, FINALLY = 4, DONE = 5;
+
+        BlockStatement tryBlock;
+        final List<CatchClause> clauses = new ArrayList<>();
+        String catchType;
+        String catchVariable;
+        BlockStatement finallyBlock;
+
+        @Override
+        StatementFrame next() {
+            if (state == 0) {
+                advance(); // consume 'try'
+                state = TRY_BLOCK;
+                return new BlockFrame();
+            }
+            if (state == CATCHES && match(TokenType.RESERVED, "catch")) {
+                catchHeader();
+                state = CATCH_BODY;
+                return new BlockFrame();
+            }
+            if (state == CATCHES && match(TokenType.RESERVED, "finally")) {
+                state = FINALLY;
+                return new BlockFrame();
+            }
+            if (clauses.isEmpty() && finallyBlock == null) {
+                throw new RuntimeException("Error: Se esperaba 'catch' o 'finally' después del bloque try.");
+            }
+            result = new TryCatchStatement(tryBlock, clauses, finallyBlock);
+            return null;
         }
-        match(TokenType.OPERATOR, ";");
 
-        Expression update = null;
-        if (!peek().getValue().equals(")")) {
-            update = parseExpression();
+        @Override
+        void accept(Node nested) {
+            if (state == TRY_BLOCK) {
+                tryBlock = (BlockStatement) nested;
+                state = CATCHES;
+            } else if (state == CATCH_BODY) {
+                exitScope();
+                clauses.add(new CatchClause(catchType, catchVariable, (BlockStatement) nested));
+                state = CATCHES;
+            } else {
+                finallyBlock = (BlockStatement) nested;
+                state = DONE;
+            }
         }
-        match(TokenType.OPERATOR, ")");
 
-        BlockStatement body = (BlockStatement) parseBlock();
+        private void catchHeader() {
+            if (!match(TokenType.OPERATOR, "(")) {
+                throw new RuntimeException("Error: Se esperaba '(' después de 'catch'.");
+            }
+            Token type = advance();
+            Token variable = advance();
+            if (type.getType() != TokenType.IDENTIFIER || variable.getType() != TokenType.IDENTIFIER) {
+                throw new RuntimeException("Error: Se esperaba el tipo y el nombre de la excepción en el catch.");
+            }
+            if (!match(TokenType.OPERATOR, ")")) {
+                throw new RuntimeException("Error: Se esperaba ')' después de la variable del catch.");
+            }
 
-        return new ForStatement(initializer, condition, update, body);
+            Symbol typeSymbol = symbolTable.lookup(type.getValue());
+            resolve(current - 3, typeSymbol);
+            if (typeSymbol == null || !typeSymbol.getType().equals("class")) {
+                semanticErrorAt(current - 3, DiagnosticCode.UNDECLARED_EXCEPTION, type.getValue());
+            } else {
+                for (CatchClause previous : clauses) {
+                    if (CatchClause.catches(previous.exceptionType, type.getValue())) {
+                        semanticErrorAt(current - 3, DiagnosticCode.UNREACHABLE_CATCH, type.getValue(), previous.exceptionType);
+                        break;
+                    }
+                }
+            }
+
+            enterScope();
+            symbolTable.insert(variable.getValue(),
+                    new Symbol(variable.getValue(), type.getValue(), "catch", variable.getOffset()));
+            resolve(current - 2, symbolTable.lookup(variable.getValue()));
+            catchType = type.getValue();
+            catchVariable = variable.getValue();
+        }
     }
 
     private Node parseReturn() {
@@ -135,10 +447,12 @@ public class Parser {
 
         if (identifier.getType() == TokenType.IDENTIFIER) {
             if (symbolTable.containsInCurrentScope(identifier.getValue())) {
-                semanticErrors.add("Error: Redefinición de variable '" + identifier.getValue() + "'");
+                semanticError(DiagnosticCode.REDEFINED_VARIABLE, identifier.getValue());
             } else {
-                symbolTable.insert(identifier.getValue(), new Symbol(identifier.getValue(), type, "variable"));
+                symbolTable.insert(identifier.getValue(),
+                        new Symbol(identifier.getValue(), type, "variable", identifier.getOffset()));
             }
+            resolve(current - 1, symbolTable.lookup(identifier.getValue()));
         }
 
         Expression initializer = null;
@@ -146,8 +460,8 @@ public class Parser {
         if (match(TokenType.OPERATOR, "=")) {
             initializer = parseExpression();
             String valueType = evaluateExpressionType(initializer);
-            if (!type.equals(valueType)) {
-                semanticErrors.add("Error: No se puede asignar un valor de tipo '" + valueType + "' a una variable de tipo '" + type + "'");
+            if (!type.equals(valueType) && !(isNumeric(valueType) && widens(valueType, type))) {
+                semanticError(DiagnosticCode.INCOMPATIBLE_ASSIGNMENT, valueType, type);
             }
         }
 
@@ -163,9 +477,10 @@ public class Parser {
     private Node parseAssignmentOrCall() {
         Token identifier = advance();
         Symbol symbol = symbolTable.lookup(identifier.getValue());
+        resolve(current - 1, symbol);
 
         if (symbol == null) {
-            semanticErrors.add("Error: Símbolo '" + identifier.getValue() + "' no declarado");
+            semanticError(DiagnosticCode.UNDECLARED_SYMBOL, identifier.getValue());
         }
 
         if (match(TokenType.OPERATOR, "(")) {
@@ -179,121 +494,202 @@ public class Parser {
             match(TokenType.OPERATOR, ")");
             match(TokenType.OPERATOR, ";");
             return new ExpressionStatement(new FunctionCall(identifier.getValue(), args));
+        } else if (match(TokenType.OPERATOR, "=")) {
+            // Asignación simple: x = expr;
+            Expression value = parseExpression();
+            skipToEndOfStatement();
+            return new ExpressionStatement(new Assignment(identifier.getValue(), value));
         } else {
-            // Solo referencia o asignación (puedes extender esto si soportas asignaciones reales)
-            while (!isAtEnd() && !peek().getValue().equals(";")) {
-                advance();
-            }
-            if (!isAtEnd()) advance(); // consumir ;
-            return new ExpressionStatement(new VariableReference(identifier.getValue()));
+            // Solo referencia u otra forma que no se analiza (x++, x.y = ...)
+            skipToEndOfStatement();
+            return new ExpressionStatement(interner.reference(identifier.getValue()));
         }
     }
 
-
-    private Node parseIf() {
-        advance(); // consume 'if'
-        if (!match(TokenType.OPERATOR, "(")) {
-            throw new RuntimeException("Error: Se esperaba '(' después de 'if'.");
+    // Salta hasta el ';' inclusive; los identificadores salteados igual quedan en el índice
+    private void skipToEndOfStatement() {
+        while (!isAtEnd() && !peek().getValue().equals(";")) {
+            Token skipped = advance();
+            if (references != null && skipped.getType() == TokenType.IDENTIFIER) {
+                resolve(current - 1, symbolTable.lookup(skipped.getValue()));
+            }
         }
+        if (!isAtEnd()) advance(); // consumir ;
+    }
 
-        Node condition = parseExpression();
 
-        if (!match(TokenType.OPERATOR, ")")) {
-            throw new RuntimeException("Error: Se esperaba ')' después de la condición.");
-        }
+    private final class IfFrame extends StatementFrame {
+        Node condition;
+        Node thenBranch;
+        Node elseBranch;
 
-        Node thenBranch = parseBlock();
-        Node elseBranch = null;
+        @Override
+        StatementFrame next() {
+            if (state == 0) {
+                advance(); // consume 'if'
+                if (!match(TokenType.OPERATOR, "(")) {
+                    throw new RuntimeException("Error: Se esperaba '(' después de 'if'.");
+                }
+
+                condition = parseExpression();
 
-        if (match(TokenType.RESERVED, "else")) {
-            elseBranch = parseBlock();
+                if (!match(TokenType.OPERATOR, ")")) {
+                    throw new RuntimeException("Error: Se esperaba ')' después de la condición.");
+                }
+                state = 1;
+                return new BlockFrame();
+            }
+            if (state == 2 && match(TokenType.RESERVED, "else")) {
+                state = 3;
+                return new BlockFrame();
+            }
+            result = new IfStatement(condition, thenBranch, elseBranch);
+            return null;
         }
 
-        return new IfStatement(condition, thenBranch, elseBranch);
+        @Override
+        void accept(Node nested) {
+            if (state == 1) {
+                thenBranch = nested;
+                state = 2;
+            } else {
+                elseBranch = nested;
+                state = 4;
+            }
+        }
     }
 
-    private Node parseBlock() {
-        if (match(TokenType.OPERATOR, "{")) {
-            List<Node> statements = new ArrayList<>();
-            enterScope();
-            while (!isAtEnd() && !peek().getValue().equals("}")) {
-                Node stmt = parseStatement();
-                if (stmt != null) statements.add(stmt);
+    // { sentencias } en un ámbito propio
+    private final class BlockFrame extends StatementFrame {
+        final List<Node> statements = new ArrayList<>();
+
+        @Override
+        StatementFrame next() {
+            if (state == 0) {
+                if (!match(TokenType.OPERATOR, "{")) {
+                    throw new RuntimeException("Error: Se esperaba un bloque de código.");
+                }
+                enterScope();
+                state = 1;
+            }
+            if (!isAtEnd() && !peek().getValue().equals("}")) {
+                return statementFrame();
             }
             match(TokenType.OPERATOR, "}");
             exitScope();
-            return new BlockStatement(statements);
+            result = new BlockStatement(statements);
+            return null;
+        }
+
+        @Override
+        void accept(Node nested) {
+            if (nested != null) statements.add(nested);
         }
-        throw new RuntimeException("Error: Se esperaba un bloque de código.");
     }
 
-    private Node parseClass() {
-        advance(); // consume "class"
-        Token className = advance();
+    private final class ClassFrame extends StatementFrame {
+        Token className;
+        final List<VariableDeclaration> fields = new ArrayList<>();
+        final List<MethodDeclaration> methods = new ArrayList<>();
 
-        symbolTable.insert(className.getValue(), new Symbol(className.getValue(), "class", "global"));
+        @Override
+        StatementFrame next() {
+            if (state == 0) {
+                advance(); // consume "class"
+                className = advance();
 
-        if (!match(TokenType.OPERATOR, "{")) {
-            throw new RuntimeException("Error: Se esperaba '{' después del nombre de la clase.");
-        }
+                symbolTable.insert(className.getValue(), new Symbol(className.getValue(), "class", "global", className.getOffset()));
+                resolve(current - 1, symbolTable.lookup(className.getValue()));
 
-        enterScope();
+                if (!match(TokenType.OPERATOR, "{")) {
+                    throw new RuntimeException("Error: Se esperaba '{' después del nombre de la clase.");
+                }
 
-        List<VariableDeclaration> fields = new ArrayList<>();
-        List<MethodDeclaration> methods = new ArrayList<>();
+                enterScope();
+                state = 1;
+            }
 
-        while (!isAtEnd() && !peek().getValue().equals("}")) {
-            Token next = peek();
-            if (next.getType() == TokenType.DATA_TYPE) {
-                Token lookahead = tokens.get(current + 2);
-                if (lookahead.getValue().equals("(")) {
-                    methods.add(parseMethodDeclaration());
+            while (!isAtEnd() && !peek().getValue().equals("}")) {
+                Token next = peek();
+                if (next.getType() == TokenType.DATA_TYPE) {
+                    Token lookahead = tokens.get(current + 2);
+                    if (lookahead.getValue().equals("(")) {
+                        return new MethodFrame();
+                    } else {
+                        VariableDeclaration field = (VariableDeclaration) parseDeclaration();
+                        fields.add(field);
+                    }
                 } else {
-                    VariableDeclaration field = (VariableDeclaration) parseDeclaration();
-                    fields.add(field);
+                    advance();
                 }
-            } else {
-                advance();
             }
-        }
-
-        match(TokenType.OPERATOR, "}");
-        exitScope();
 
-        return new ClassDeclaration(className.getValue(), fields, methods);
-    }
+            match(TokenType.OPERATOR, "}");
+            exitScope();
 
-    private MethodDeclaration parseMethodDeclaration() {
-        String returnType = advance().getValue();
-        String methodName = advance().getValue();
+            result = new ClassDeclaration(className.getValue(), fields, methods);
+            return null;
+        }
 
-        symbolTable.insert(methodName, new Symbol(methodName, returnType, "method"));
+        @Override
+        void accept(Node nested) {
+            methods.add((MethodDeclaration) nested);
+        }
+    }
 
-        if (!match(TokenType.OPERATOR, "(")) {
-            throw new RuntimeException("Error: Se esperaba '(' en la declaración del método.");
+    private final class MethodFrame extends StatementFrame {
+        String returnType;
+        String methodName;
+        final List<VariableDeclaration> parameters = new ArrayList<>();
+        BlockStatement body;
+
+        @Override
+        StatementFrame next() {
+            if (state == 0) {
+                header();
+                state = 1;
+                return new BlockFrame();
+            }
+            exitScope();
+            result = new MethodDeclaration(returnType, methodName, parameters, body);
+            return null;
         }
 
-        List<VariableDeclaration> parameters = new ArrayList<>();
-        enterScope();
+        @Override
+        void accept(Node nested) {
+            body = (BlockStatement) nested;
+        }
 
-        while (!peek().getValue().equals(")")) {
-            String paramType = advance().getValue();
-            String paramName = advance().getValue();
+        private void header() {
+            returnType = advance().getValue();
+            Token name = advance();
+            methodName = name.getValue();
 
-            parameters.add(new VariableDeclaration(paramType, paramName, null));
-            symbolTable.insert(paramName, new Symbol(paramName, paramType, "parameter"));
+            symbolTable.insert(methodName, new Symbol(methodName, returnType, "method", name.getOffset()));
+            resolve(current - 1, symbolTable.lookup(methodName));
 
-            if (!peek().getValue().equals(")")) {
-                match(TokenType.OPERATOR, ",");
+            if (!match(TokenType.OPERATOR, "(")) {
+                throw new RuntimeException("Error: Se esperaba '(' en la declaración del método.");
             }
-        }
 
-        match(TokenType.OPERATOR, ")");
+            enterScope();
 
-        BlockStatement body = (BlockStatement) parseBlock();
-        exitScope();
+            while (!peek().getValue().equals(")")) {
+                String paramType = advance().getValue();
+                Token paramToken = advance();
+                String paramName = paramToken.getValue();
 
-        return new MethodDeclaration(returnType, methodName, parameters, body);
+                parameters.add(new VariableDeclaration(paramType, paramName, null));
+                symbolTable.insert(paramName, new Symbol(paramName, paramType, "parameter", paramToken.getOffset()));
+                resolve(current - 1, symbolTable.lookup(paramName));
+
+                if (!peek().getValue().equals(")")) {
+                    match(TokenType.OPERATOR, ",");
+                }
+            }
+
+            match(TokenType.OPERATOR, ")");
+        }
     }
 
     // -----------------------
@@ -354,6 +750,9 @@ public class Parser {
     private Expression parseUnary() {
         if (match(TokenType.OPERATOR, "-") || match(TokenType.OPERATOR, "!")) {
             String operator = previous().getValue();
+            if (operator.equals("-") && !isAtEnd() && peek().getType() == TokenType.NUMBER) {
+                negatedNumber = current;
+            }
             Expression right = parseUnary();
             return new UnaryExpression(operator, right);
         }
@@ -385,18 +784,59 @@ public class Parser {
 
         if (token.getType() == TokenType.NUMBER) {
             advance();
-            return new NumberLiteral(Integer.parseInt(token.getValue()));
+            return numberLiteral(token, current - 1 == negatedNumber);
         } else if (token.getType() == TokenType.STRING) {
             advance();
-            return new StringLiteral(token.getValue());
+            return interner.string(token.getValue());
         } else if (token.getType() == TokenType.IDENTIFIER) {
             advance();
-            return new VariableReference(token.getValue());
+            if (references != null) {
+                resolve(current - 1, symbolTable.lookup(token.getValue()));
+            }
+            if (match(TokenType.OPERATOR, "(")) {
+                // Llamada dentro de una expresión: f(a, b) + 1
+                List<Expression> args = new ArrayList<>();
+                if (!peek().getValue().equals(")")) {
+                    do {
+                        args.add(parseExpression());
+                    } while (match(TokenType.OPERATOR, ","));
+                }
+                if (!match(TokenType.OPERATOR, ")")) {
+                    throw new RuntimeException("Error: Se esperaba ')' después de los argumentos de '" + token.getValue() + "'.");
+                }
+                return new FunctionCall(token.getValue(), args);
+            }
+            return interner.reference(token.getValue());
         }
 
         throw new RuntimeException("Token inesperado en expresión: " + token);
     }
 
+    // El Lexer ya convirtió el valor; los tokens que no lo traen (los del patrón de referencia
+    // o armados a mano) se convierten acá. Un literal fuera de rango es un error y queda en 0.
+    private Expression numberLiteral(Token token, boolean negated) {
+        NumberToken number = token instanceof NumberToken
+                ? (NumberToken) token
+                : NumberLiterals.token(token.getValue(), token.getOffset());
+        boolean valid = false;
+        if (number.getKind() == NumberKind.INVALID) {
+            semanticError(DiagnosticCode.MALFORMED_NUMBER, token.getValue());
+        } else if (number.isOutOfRange() || (number.needsMinus() && !negated)) {
+            semanticError(DiagnosticCode.NUMBER_OUT_OF_RANGE, token.getValue(), number.getKind().typeName());
+        } else {
+            valid = true;
+        }
+        switch (number.getKind()) {
+            case LONG:
+                return new LongLiteral(valid ? number.longValue() : 0);
+            case FLOAT:
+            case DOUBLE:
+                return new DoubleLiteral(valid ? number.doubleValue() : 0, number.getKind() == NumberKind.FLOAT);
+            default:
+                return interner.number(valid ? number.intValue() : 0);
+        }
+    }
+
     // -----------------------
     // UTILIDADES
     // -----------------------
@@ -438,9 +878,62 @@ public class Parser {
         return false;
     }
 
+    // Con una pila explícita: una suma de miles de términos arma un árbol igual de profundo.
+    // Los errores salen en el mismo orden que en un recorrido recursivo (izquierda, derecha, operación).
     private String evaluateExpressionType(Expression expr) {
+        typePending.push(expr);
+        typeVisited.push(Boolean.FALSE);
+        while (!typePending.isEmpty()) {
+            Expression next = typePending.pop();
+            boolean visited = typeVisited.pop();
+            if (next instanceof BinaryExpression) {
+                BinaryExpression bin = (BinaryExpression) next;
+                if (!visited) {
+                    typePending.push(bin);
+                    typeVisited.push(Boolean.TRUE);
+                    typePending.push(bin.getRight());
+                    typeVisited.push(Boolean.FALSE);
+                    typePending.push(bin.getLeft());
+                    typeVisited.push(Boolean.FALSE);
+                    continue;
+                }
+                String rightType = types.pop();
+                String leftType = types.pop();
+                if (leftType.equals(rightType)) {
+                    types.push(leftType);
+                } else if (isNumeric(leftType) && isNumeric(rightType)) {
+                    // Promoción numérica: el resultado es del más ancho de los dos
+                    types.push(widens(leftType, rightType) ? rightType : leftType);
+                } else {
+                    semanticError(DiagnosticCode.INCOMPATIBLE_OPERANDS, leftType, rightType);
+                    types.push(leftType);
+                }
+            } else if (next instanceof UnaryExpression) {
+                UnaryExpression unary = (UnaryExpression) next;
+                if (!visited) {
+                    typePending.push(unary);
+                    typeVisited.push(Boolean.TRUE);
+                    typePending.push(unary.operand);
+                    typeVisited.push(Boolean.FALSE);
+                    continue;
+                }
+                // '-' deja el tipo del operando (-5 es int, -5L es long); '!' da boolean
+                String operandType = types.pop();
+                types.push(unary.operator.equals("!") ? "boolean" : operandType);
+            } else {
+                types.push(operandType(next));
+            }
+        }
+        return types.pop();
+    }
+
+    private String operandType(Expression expr) {
         if (expr instanceof NumberLiteral) {
             return "int";
+        } else if (expr instanceof LongLiteral) {
+            return "long";
+        } else if (expr instanceof DoubleLiteral) {
+            return ((DoubleLiteral) expr).typeName();
         } else if (expr instanceof StringLiteral) {
             return "String";
         } else if (expr instanceof VariableReference) {
@@ -448,23 +941,57 @@ public class Parser {
             Symbol symbol = symbolTable.lookup(ref.getName());
             if (symbol != null) return symbol.getType();
             else {
-                semanticErrors.add("Error: Variable '" + ref.getName() + "' usada sin declarar.");
+                semanticError(DiagnosticCode.UNDECLARED_VARIABLE, ref.getName());
                 return "unknown";
             }
-        } else if (expr instanceof BinaryExpression) {
-            BinaryExpression bin = (BinaryExpression) expr;
-            String leftType = evaluateExpressionType(bin.getLeft());
-            String rightType = evaluateExpressionType(bin.getRight());
-            if (!leftType.equals(rightType)) {
-                semanticErrors.add("Error: Tipos incompatibles en operación binaria: " + leftType + " y " + rightType);
-            }
-            return leftType;
+        } else if (expr instanceof FunctionCall) {
+            // El tipo de una llamada es el que devuelve el método
+            Symbol symbol = symbolTable.lookup(((FunctionCall) expr).getName());
+            if (symbol != null && symbol.getScope().equals("method")) return symbol.getType();
+            return "unknown";
         }
         return "unknown";
     }
 
+    private static boolean isNumeric(String type) {
+        return NUMERIC_TYPES.indexOf(type) >= 0;
+    }
+
+    // Conversión de ensanchamiento: int -> long -> float -> double
+    private static boolean widens(String from, String to) {
+        int target = NUMERIC_TYPES.indexOf(to);
+        return target >= 0 && NUMERIC_TYPES.indexOf(from) <= target;
+    }
+
+    // Los argumentos se guardan tal cual; el mensaje se arma recién si alguien lo muestra
+    private void semanticError(DiagnosticCode code, Object... arguments) {
+        semanticErrorAt(current - 1, code, arguments);
+    }
+
+    private void semanticErrorAt(int tokenIndex, DiagnosticCode code, Object... arguments) {
+        diagnostics.report(code, Math.max(0, tokenIndex), arguments);
+    }
+
+    private void resolve(int tokenIndex, Symbol symbol) {
+        if (references != null && symbol != null) {
+            int offset = tokens.get(tokenIndex).getOffset();
+            if (offset >= 0) {
+                references.add(symbol, offset);
+            }
+        }
+    }
+
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
     public List<String> getSemanticErrors() {
-        return semanticErrors;
+        return diagnostics.messages();
+    }
+
+    // Índice del token siguiente; tras un error de sintaxis, dónde se detuvo el análisis
+    public int getPosition() {
+        return current;
     }
 
     public SymbolTable getGlobalSymbolTable() {
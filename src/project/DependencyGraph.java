@@ -0,0 +1,87 @@
+package project;
+
+import symboltable.Symbol;
+
+import java.util.*;
+
+// Qué nombres de otros archivos usa cada archivo del proyecto.
+//   uses:      archivo -> nombre -> archivo que lo exporta (null si nadie lo exporta todavía)
+//   importers: nombre -> archivos que lo buscaron fuera de sí mismos
+// Los nombres sin dueño también se guardan: si otro archivo empieza a exportarlos, los que
+// los buscaban tienen que volver a analizarse.
+public class DependencyGraph {
+    private final Map<SourceFile, Map<String, SourceFile>> uses = new HashMap<>();
+    private final Map<String, Set<SourceFile>> importers = new HashMap<>();
+
+    // Se llama en cada búsqueda que sale del archivo, así que suele repetirse
+    void record(SourceFile from, String name, SourceFile owner) {
+        uses.computeIfAbsent(from, file -> new HashMap<>()).put(name, owner);
+        importers.computeIfAbsent(name, key -> new HashSet<>()).add(from);
+    }
+
+    // Antes de volver a analizar un archivo se olvida todo lo que usaba
+    void clear(SourceFile file) {
+        Map<String, SourceFile> previous = uses.remove(file);
+        if (previous == null) {
+            return;
+        }
+        for (String name : previous.keySet()) {
+            Set<SourceFile> set = importers.get(name);
+            set.remove(file);
+            if (set.isEmpty()) {
+                importers.remove(name);
+            }
+        }
+    }
+
+    Set<SourceFile> importersOf(String name) {
+        return importers.getOrDefault(name, Set.of());
+    }
+
+    // Archivos de los que este usa algún símbolo
+    public Set<SourceFile> dependenciesOf(SourceFile file) {
+        Set<SourceFile> result = new LinkedHashSet<>();
+        for (SourceFile owner : uses.getOrDefault(file, Map.of()).values()) {
+            if (owner != null) {
+                result.add(owner);
+            }
+        }
+        return result;
+    }
+
+    // Archivos que usan algún símbolo exportado por este
+    public Set<SourceFile> dependentsOf(SourceFile file) {
+        Set<SourceFile> result = new LinkedHashSet<>();
+        for (Symbol export : file.exports) {
+            for (SourceFile importer : importersOf(export.getName())) {
+                if (uses.get(importer).get(export.getName()) == file) {
+                    result.add(importer);
+                }
+            }
+        }
+        return result;
+    }
+
+    public Set<SourceFile> transitiveDependents(SourceFile file) {
+        Set<SourceFile> result = new LinkedHashSet<>();
+        Deque<SourceFile> pending = new ArrayDeque<>(dependentsOf(file));
+        while (!pending.isEmpty()) {
+            SourceFile next = pending.pop();
+            if (next != file && result.add(next)) {
+                pending.addAll(dependentsOf(next));
+            }
+        }
+        return result;
+    }
+
+    // Pares (archivo, nombre) resueltos a otro archivo
+    public int edgeCount() {
+        int edges = 0;
+        for (Map<String, SourceFile> names : uses.values()) {
+            for (SourceFile owner : names.values()) {
+                if (owner != null) edges++;
+            }
+        }
+        return edges;
+    }
+}
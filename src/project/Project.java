@@ -0,0 +1,280 @@
+package project;
+
+import analysis.FlowChecker;
+import ast.Node;
+import compiler.CompilationResult;
+import diagnostics.DiagnosticCode;
+import diagnostics.Diagnostics;
+import lexer.Lexer;
+import lexer.ParallelLexer;
+import lexer.SourceLoader;
+import lexer.Token;
+import lexer.TokenType;
+import parser.Parser;
+import symboltable.ReferenceIndex;
+import symboltable.Symbol;
+import symboltable.SymbolTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Compilación de varios archivos. Las clases y métodos de primer nivel de cada archivo forman
+// el ámbito del proyecto: cualquier archivo puede usarlos sin declararlos. Cada búsqueda que
+// sale de un archivo queda en el DependencyGraph.
+//
+// Al cambiar un archivo se vuelve a analizar ese archivo y los que usaban sus símbolos (o
+// buscaban sin éxito alguno de los nombres que ahora exporta). No hace falta seguir más allá:
+// lo que exporta un archivo sale solo de su propio texto, así que analizar de nuevo a un
+// dependiente no cambia nada para los dependientes de este.
+public class Project {
+    // Los fuentes de ejemplo usan .txt
+    public static final String SOURCE_EXTENSION = ".txt";
+
+    private final Map<Path, SourceFile> files = new LinkedHashMap<>();
+    // Archivos que exportan cada nombre, en orden de registro; el primero es el que se usa
+    private final Map<String, List<SourceFile>> owners = new HashMap<>();
+    private final DependencyGraph graph = new DependencyGraph();
+
+    // Todos los fuentes del directorio (y subdirectorios), ya analizados
+    public static Project load(Path directory) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(SOURCE_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+        Project project = new Project();
+        for (Path path : paths) {
+            project.stage(path, SourceLoader.load(path));
+        }
+        project.build();
+        return project;
+    }
+
+    // Agrega o reemplaza el texto de un archivo sin analizarlo; build() analiza todo junto.
+    // Hace falta registrar primero las exportaciones de todos, si no el orden importaría.
+    public void stage(Path path, CharSequence text) {
+        SourceFile file = files.computeIfAbsent(path, SourceFile::new);
+        unregister(file);
+        lex(file, text);
+        register(file);
+    }
+
+    public void build() {
+        for (SourceFile file : files.values()) {
+            analyze(file);
+        }
+    }
+
+    // Cambio (o alta) de un archivo. Devuelve los archivos que se volvieron a analizar.
+    public Set<SourceFile> update(Path path, CharSequence text) {
+        Set<SourceFile> dirty = stageUpdate(path, text);
+        for (SourceFile next : dirty) {
+            analyze(next);
+        }
+        return dirty;
+    }
+
+    // Baja de un archivo. Devuelve los archivos que se volvieron a analizar.
+    public Set<SourceFile> remove(Path path) {
+        Set<SourceFile> dirty = stageRemove(path);
+        for (SourceFile next : dirty) {
+            analyze(next);
+        }
+        return dirty;
+    }
+
+    // update() sin analizar: devuelve los archivos a los que les falta reanalyze(). Con varios
+    // cambios juntos, cada afectado se analiza una sola vez en lugar de una por cambio.
+    public Set<SourceFile> stageUpdate(Path path, CharSequence text) {
+        SourceFile file = files.computeIfAbsent(path, SourceFile::new);
+        Set<String> names = exportNames(file);
+        unregister(file);
+        lex(file, text);
+        register(file);
+        names.addAll(exportNames(file));
+
+        Set<SourceFile> dirty = new LinkedHashSet<>();
+        dirty.add(file);
+        affectedBy(names, dirty);
+        return dirty;
+    }
+
+    // remove() sin analizar, como stageUpdate()
+    public Set<SourceFile> stageRemove(Path path) {
+        SourceFile file = files.remove(path);
+        if (file == null) {
+            return Set.of();
+        }
+        Set<String> names = exportNames(file);
+        unregister(file);
+        graph.clear(file);
+
+        Set<SourceFile> dirty = new LinkedHashSet<>();
+        affectedBy(names, dirty);
+        return dirty;
+    }
+
+    // Analiza un archivo que devolvió stageUpdate() o stageRemove(), si sigue en el proyecto
+    public void reanalyze(SourceFile file) {
+        if (files.get(file.getPath()) == file) {
+            analyze(file);
+        }
+    }
+
+    // Los que buscaron alguno de esos nombres y los que también los exportan (un conflicto
+    // puede haber aparecido o desaparecido)
+    private void affectedBy(Set<String> names, Set<SourceFile> dirty) {
+        for (String name : names) {
+            dirty.addAll(graph.importersOf(name));
+            dirty.addAll(owners.getOrDefault(name, List.of()));
+        }
+    }
+
+    private static Set<String> exportNames(SourceFile file) {
+        Set<String> names = new HashSet<>();
+        for (Symbol export : file.exports) {
+            names.add(export.getName());
+        }
+        return names;
+    }
+
+    // -----------------------
+    // ANÁLISIS DE UN ARCHIVO
+    // -----------------------
+
+    private void lex(SourceFile file, CharSequence text) {
+        Lexer lexer = new Lexer(text);
+        file.text = text;
+        file.tokens = text.length() >= ParallelLexer.PARALLEL_THRESHOLD
+                ? lexer.tokenizeParallel()
+                : lexer.tokenize();
+        file.exports = scanExports(file.tokens);
+    }
+
+    // Clases y métodos declarados fuera de toda llave, con el mismo criterio que el Parser
+    static List<Symbol> scanExports(List<Token> tokens) {
+        List<Symbol> exports = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int depth = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.getType() == TokenType.OPERATOR) {
+                if (token.getValue().equals("{")) depth++;
+                else if (token.getValue().equals("}") && depth > 0) depth--;
+                continue;
+            }
+            if (depth > 0 || i + 1 >= tokens.size()) {
+                continue;
+            }
+            Token name = tokens.get(i + 1);
+            if (token.getType() == TokenType.RESERVED && token.getValue().equals("class")) {
+                if (seen.add(name.getValue())) {
+                    exports.add(new Symbol(name.getValue(), "class", "global", name.getOffset()));
+                }
+                i++;
+            } else if ((token.getType() == TokenType.DATA_TYPE
+                    || (token.getType() == TokenType.RESERVED && token.getValue().equals("void")))
+                    && i + 2 < tokens.size() && tokens.get(i + 2).getValue().equals("(")) {
+                if (seen.add(name.getValue())) {
+                    exports.add(new Symbol(name.getValue(), token.getValue(), "method", name.getOffset()));
+                }
+                i++;
+            }
+        }
+        return exports;
+    }
+
+    private void analyze(SourceFile file) {
+        graph.clear(file);
+        SymbolTable root = Lexer.newRootTable();
+        // Las exportaciones se declaran antes de analizar: el Parser las encuentra ya insertadas
+        // y usa los mismos Symbol que ven los demás archivos
+        for (Symbol export : file.exports) {
+            root.insert(export.getName(), export);
+        }
+        root.setImports(name -> resolveImport(file, name));
+
+        Parser parser = new Parser(file.tokens, root);
+        ReferenceIndex references = new ReferenceIndex();
+        parser.setReferenceIndex(references);
+        Diagnostics diagnostics = new Diagnostics();
+        parser.setDiagnostics(diagnostics);
+        Node ast = null;
+        file.syntaxError = null;
+        try {
+            ast = parser.parse();
+        } catch (RuntimeException e) {
+            file.syntaxError = e.getMessage();
+            references.freeze();
+        }
+
+        FlowChecker.check(ast, diagnostics);
+        for (Symbol export : file.exports) {
+            SourceFile owner = owners.get(export.getName()).get(0);
+            if (owner != file) {
+                diagnostics.report(DiagnosticCode.DUPLICATE_DECLARATION, -1, export.getName(), owner.getPath());
+            }
+        }
+        file.result = new CompilationResult(file.tokens, ast, root, diagnostics, references, false);
+    }
+
+    private Symbol resolveImport(SourceFile from, String name) {
+        List<SourceFile> candidates = owners.get(name);
+        SourceFile owner = candidates != null ? candidates.get(0) : null;
+        graph.record(from, name, owner);
+        if (owner == null) {
+            return null;
+        }
+        for (Symbol export : owner.exports) {
+            if (export.getName().equals(name)) {
+                return export;
+            }
+        }
+        return null;
+    }
+
+    private void register(SourceFile file) {
+        for (Symbol export : file.exports) {
+            owners.computeIfAbsent(export.getName(), name -> new ArrayList<>()).add(file);
+        }
+    }
+
+    private void unregister(SourceFile file) {
+        for (Symbol export : file.exports) {
+            List<SourceFile> list = owners.get(export.getName());
+            list.remove(file);
+            if (list.isEmpty()) {
+                owners.remove(export.getName());
+            }
+        }
+    }
+
+    // -----------------------
+    // CONSULTAS
+    // -----------------------
+
+    public SourceFile getFile(Path path) {
+        return files.get(path);
+    }
+
+    public Collection<SourceFile> getFiles() {
+        return files.values();
+    }
+
+    public DependencyGraph getGraph() {
+        return graph;
+    }
+
+    public int errorCount() {
+        int count = 0;
+        for (SourceFile file : files.values()) {
+            count += file.getErrors().size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,291 @@
+package project;
+
+import lexer.SourceLoader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+// Modo vigilancia: un WatchService sobre el árbol de fuentes. Los eventos de una ráfaga (un
+// guardado suele dar varios: crear, escribir, renombrar) se juntan y, pasada una pausa sin
+// cambios (debounce), se recompilan en un hilo de fondo solo los archivos cambiados y los que
+// dependen de ellos: primero se leen todos los cambios de la tanda (Project.stageUpdate) y
+// después se analiza una vez cada afectado. Si llegan cambios mientras se recompila, la tanda en
+// curso se corta entre un archivo y el siguiente y lo que faltaba pasa a la próxima, que ya lee
+// la versión nueva: solo se avisa el resultado de la última.
+//
+// Project no es seguro entre hilos: solo lo usa el hilo de compilación.
+public class ProjectWatcher implements Closeable {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 100;
+
+    private final Path root;
+    private final long debounceMillis;
+    private final Consumer<WatchUpdate> listener;
+    private final Project project = new Project();
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("watch-debounce"));
+    private final ExecutorService compiler = Executors.newSingleThreadExecutor(daemonThreads("watch-compile"));
+    private final Thread events;
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    // Rutas cambiadas todavía sin recompilar (archivos o directorios); con 'this' bloqueado
+    private final Set<Path> changed = new LinkedHashSet<>();
+    private long lastChange; // System.nanoTime() del último evento
+    private ScheduledFuture<?> timer;
+    // Sube con cada evento: una tanda que ve otro número ya quedó vieja
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+
+    // Solo en el hilo de compilación: leídos pero sin analizar todavía, y recompilados en tandas
+    // cortadas que todavía no se avisaron
+    private final Set<SourceFile> pending = new LinkedHashSet<>();
+    private final Set<SourceFile> unpublished = new LinkedHashSet<>();
+    private final Set<Path> unpublishedChanges = new LinkedHashSet<>();
+
+    private ProjectWatcher(Path root, long debounceMillis, Consumer<WatchUpdate> listener) throws IOException {
+        this.root = root;
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+        this.watchService = root.getFileSystem().newWatchService();
+        this.events = new Thread(this::watch, "watch-events");
+        this.events.setDaemon(true);
+    }
+
+    // Registra el árbol, compila todo (el primer aviso trae todos los archivos) y empieza a vigilar
+    public static ProjectWatcher start(Path root, long debounceMillis, Consumer<WatchUpdate> listener) throws IOException {
+        ProjectWatcher watcher = new ProjectWatcher(root, debounceMillis, listener);
+        try {
+            watcher.registerTree(root);
+        } catch (IOException e) {
+            watcher.close();
+            throw e;
+        }
+        synchronized (watcher) {
+            watcher.changed.add(root);
+            watcher.lastChange = System.nanoTime();
+        }
+        watcher.compiler.execute(watcher::rebuild);
+        watcher.events.start();
+        return watcher;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    // Tandas abandonadas porque llegaron cambios nuevos mientras se recompilaban
+    public long getSupersededCount() {
+        return superseded.get();
+    }
+
+    // Bloquea hasta close()
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+            // Se está cerrando igual
+        }
+        scheduler.shutdownNow();
+        compiler.shutdownNow();
+        closed.countDown();
+    }
+
+    // -----------------------
+    // EVENTOS
+    // -----------------------
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directory = directories.get(key);
+                List<Path> paths = new ArrayList<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        // Se perdieron eventos: se revisa todo el árbol
+                        paths.add(root);
+                    } else if (directory != null) {
+                        Path path = directory.resolve((Path) event.context());
+                        if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                            try {
+                                registerTree(path);
+                            } catch (IOException | UncheckedIOException e) {
+                                // Ya se borró, o cambió mientras se recorría: el evento que sigue lo aclara
+                            }
+                            paths.add(path);
+                        } else if (isSource(path) || event.kind() == ENTRY_DELETE) {
+                            // Un directorio borrado se reconoce recién al recompilar
+                            paths.add(path);
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    directories.remove(key);
+                }
+                if (!paths.isEmpty()) {
+                    changed(paths);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close()
+        }
+    }
+
+    private void registerTree(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) walk.filter(Files::isDirectory)::iterator) {
+                directories.put(path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), path);
+            }
+        }
+    }
+
+    // Cada evento reprograma la recompilación: se hace recién cuando pasa la pausa sin cambios
+    private synchronized void changed(List<Path> paths) {
+        changed.addAll(paths);
+        lastChange = System.nanoTime();
+        generation.incrementAndGet();
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        try {
+            timer = scheduler.schedule(() -> compiler.execute(this::rebuild), debounceMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // close()
+        }
+    }
+
+    // -----------------------
+    // RECOMPILACIÓN
+    // -----------------------
+
+    private void rebuild() {
+        List<Path> batch;
+        long since;
+        long seen;
+        synchronized (this) {
+            if (changed.isEmpty() && pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(changed);
+            changed.clear();
+            since = lastChange;
+            seen = generation.get();
+        }
+        long start = System.nanoTime();
+        List<Path> files = expand(batch);
+        for (int i = 0; i < files.size(); i++) {
+            if (generation.get() != seen) {
+                // Hay una versión más nueva: lo que falta se suma a la próxima tanda
+                synchronized (this) {
+                    changed.addAll(files.subList(i, files.size()));
+                }
+                superseded.incrementAndGet();
+                return;
+            }
+            Path path = files.get(i);
+            unpublishedChanges.add(path);
+            if (Files.isRegularFile(path)) {
+                try {
+                    pending.addAll(project.stageUpdate(path, read(path)));
+                } catch (IOException e) {
+                    // Se borró o se está escribiendo: el evento siguiente lo vuelve a traer
+                }
+            } else {
+                pending.addAll(project.stageRemove(path));
+            }
+        }
+        for (Iterator<SourceFile> it = pending.iterator(); it.hasNext(); ) {
+            if (generation.get() != seen) {
+                // Los que faltan analizar quedan en pending para la próxima tanda
+                superseded.incrementAndGet();
+                return;
+            }
+            SourceFile file = it.next();
+            it.remove();
+            project.reanalyze(file);
+            unpublished.add(file);
+        }
+        publish(start, since);
+    }
+
+    // Un directorio nuevo aporta sus fuentes; uno que ya no existe, los que tenía el proyecto
+    private List<Path> expand(List<Path> batch) {
+        Set<Path> files = new LinkedHashSet<>();
+        for (Path path : batch) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    walk.filter(ProjectWatcher::isSource).filter(Files::isRegularFile).sorted().forEach(files::add);
+                } catch (IOException | UncheckedIOException e) {
+                    // Se borró mientras tanto
+                }
+                // Los que el proyecto tenía ahí y ya no están
+                for (SourceFile file : project.getFiles()) {
+                    if (file.getPath().startsWith(path) && !Files.exists(file.getPath())) {
+                        files.add(file.getPath());
+                    }
+                }
+            } else if (Files.exists(path)) {
+                files.add(path);
+            } else {
+                for (SourceFile file : project.getFiles()) {
+                    if (file.getPath().startsWith(path)) {
+                        files.add(file.getPath());
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    private void publish(long start, long since) {
+        Map<Path, List<String>> errors = new LinkedHashMap<>();
+        for (SourceFile file : unpublished) {
+            if (project.getFile(file.getPath()) == file) {
+                errors.put(file.getPath(), file.getErrors());
+            }
+        }
+        List<Path> removed = new ArrayList<>();
+        for (Path path : unpublishedChanges) {
+            if (project.getFile(path) == null) {
+                removed.add(path);
+            }
+        }
+        long end = System.nanoTime();
+        WatchUpdate update = new WatchUpdate(errors, removed, unpublishedChanges.size(), end - start, end - since);
+        unpublished.clear();
+        unpublishedChanges.clear();
+        listener.accept(update);
+    }
+
+    // Leído a memoria y no mapeado: el editor puede estar truncando el archivo en este momento
+    private static CharSequence read(Path path) throws IOException {
+        return SourceLoader.decode(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    private static boolean isSource(Path path) {
+        return path.toString().endsWith(Project.SOURCE_EXTENSION);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
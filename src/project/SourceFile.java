@@ -0,0 +1,62 @@
+package project;
+
+import compiler.CompilationResult;
+import lexer.Token;
+import symboltable.Symbol;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Un archivo del proyecto: su texto, sus tokens, lo que exporta y el resultado del último análisis
+public final class SourceFile {
+    private final Path path;
+    CharSequence text;
+    List<Token> tokens;
+    // Clases y métodos de primer nivel, en orden de aparición. Los mismos objetos Symbol se
+    // insertan en la tabla raíz del archivo y los ven los archivos que los usan.
+    List<Symbol> exports = List.of();
+    CompilationResult result;
+    String syntaxError; // null si el análisis sintáctico terminó
+
+    SourceFile(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public CharSequence getText() {
+        return text;
+    }
+
+    public List<Symbol> getExports() {
+        return exports;
+    }
+
+    public CompilationResult getResult() {
+        return result;
+    }
+
+    public String getSyntaxError() {
+        return syntaxError;
+    }
+
+    // Error de sintaxis (si hubo) seguido de los semánticos
+    public List<String> getErrors() {
+        List<String> errors = new ArrayList<>();
+        if (syntaxError != null) {
+            errors.add(syntaxError);
+        }
+        if (result != null) {
+            errors.addAll(result.getSemanticErrors());
+        }
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package project;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+// Resultado de una recompilación del modo vigilancia. Los errores se copian al armarlo: el
+// Project sigue cambiando en el hilo de compilación después de avisar.
+public final class WatchUpdate {
+    private final Map<Path, List<String>> errors;
+    private final List<Path> removed;
+    private final int changedCount;
+    private final long compileNanos;
+    private final long latencyNanos;
+
+    WatchUpdate(Map<Path, List<String>> errors, List<Path> removed, int changedCount, long compileNanos, long latencyNanos) {
+        this.errors = errors;
+        this.removed = removed;
+        this.changedCount = changedCount;
+        this.compileNanos = compileNanos;
+        this.latencyNanos = latencyNanos;
+    }
+
+    // Errores de cada archivo recompilado (los cambiados y los que dependen de ellos), en el
+    // orden en que se analizaron; una lista vacía quiere decir que ya no tiene errores
+    public Map<Path, List<String>> getErrors() {
+        return errors;
+    }
+
+    // Archivos que se borraron: sus errores ya no valen
+    public List<Path> getRemoved() {
+        return removed;
+    }
+
+    // Archivos cambiados en disco; el resto de los recompilados dependen de ellos
+    public int getChangedCount() {
+        return changedCount;
+    }
+
+    public int getErrorCount() {
+        int count = 0;
+        for (List<String> list : errors.values()) {
+            count += list.size();
+        }
+        return count;
+    }
+
+    // Solo el análisis, sin la espera del debounce
+    public long getCompileNanos() {
+        return compileNanos;
+    }
+
+    // Desde el último evento de cambio de la tanda hasta tener los errores
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public String formatSummary() {
+        return String.format("%d archivos recompilados (%d cambiados), %d errores, %.1f ms de análisis, %.1f ms desde el cambio",
+                errors.size(), changedCount, getErrorCount(), compileNanos / 1e6, latencyNanos / 1e6);
+    }
+}
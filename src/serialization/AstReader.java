@@ -0,0 +1,222 @@
+package serialization;
+
+import ast.Node;
+import ast.NodeKind;
+import ast.NodeStructure;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Navega un AST codificado por AstWriter directamente sobre el buffer (por ejemplo un
+// MappedByteBuffer), sin crear objetos Node salvo que se pida con toNode().
+// Un nodo se identifica por su posición en el buffer; los hijos ausentes también tienen
+// posición (kind() devuelve null para ellos).
+public final class AstReader {
+    private final ByteBuffer buffer;
+    private final int[] stringOffsets;
+    private final String[] decodedStrings;
+    private final int root;
+    private int cursor; // posición tras la última lectura de varint
+
+    public AstReader(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        for (int i = 0; i < AstWriter.MAGIC.length; i++) {
+            if (buffer.get(i) != AstWriter.MAGIC[i]) {
+                throw new IOException("No es un AST binario");
+            }
+        }
+        cursor = AstWriter.MAGIC.length;
+        long version = readVarint(cursor);
+        if (version != AstWriter.VERSION) {
+            throw new IOException("Versión de AST binario no soportada: " + version);
+        }
+        int count = (int) readVarint(cursor);
+        stringOffsets = new int[count];
+        decodedStrings = new String[count];
+        for (int i = 0; i < count; i++) {
+            stringOffsets[i] = cursor;
+            int length = (int) readVarint(cursor);
+            cursor += length;
+        }
+        root = cursor;
+    }
+
+    public static AstReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new AstReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int root() {
+        return root;
+    }
+
+    public NodeKind kind(int node) {
+        int tag = buffer.get(node) & 0xFF;
+        return tag == 0 ? null : NodeKind.fromOrdinal(tag - 1);
+    }
+
+    public int payloadCount(int node) {
+        return (int) readVarint(contentStart(node));
+    }
+
+    public boolean isStringPayload(int node, int index) {
+        return (payloadAt(node, index) & 1) != 0;
+    }
+
+    public String stringPayload(int node, int index) {
+        long value = payloadAt(node, index);
+        if ((value & 1) == 0) {
+            throw new IllegalArgumentException("El dato " + index + " no es un string");
+        }
+        return string((int) (value >>> 1));
+    }
+
+    public int intPayload(int node, int index) {
+        long value = payloadAt(node, index);
+        if ((value & 1) != 0) {
+            throw new IllegalArgumentException("El dato " + index + " no es un entero");
+        }
+        int zigzag = (int) (value >>> 1);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public int childCount(int node) {
+        return (int) readVarint(skipPayload(node));
+    }
+
+    public int child(int node, int index) {
+        int count = (int) readVarint(skipPayload(node));
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Hijo " + index + " de " + count);
+        }
+        int position = cursor;
+        for (int i = 0; i < index; i++) {
+            position = end(position);
+        }
+        return position;
+    }
+
+    // Posición inmediatamente después del nodo (el siguiente hermano, si existe)
+    public int end(int node) {
+        if (buffer.get(node) == 0) {
+            return node + 1;
+        }
+        long length = readVarint(node + 1);
+        return cursor + (int) length;
+    }
+
+    public int stringCount() {
+        return stringOffsets.length;
+    }
+
+    public String string(int index) {
+        String value = decodedStrings[index];
+        if (value == null) {
+            int length = (int) readVarint(stringOffsets[index]);
+            byte[] bytes = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(cursor);
+            view.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decodedStrings[index] = value;
+        }
+        return value;
+    }
+
+    // Reconstruye los objetos Node del subárbol (postorden con pila explícita)
+    public Node toNode(int node) {
+        if (kind(node) == null) {
+            return null;
+        }
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(node));
+        Node result = null;
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.next < frame.children.length) {
+                int childPosition = frame.childPosition;
+                frame.childPosition = end(childPosition);
+                if (kind(childPosition) == null) {
+                    frame.children[frame.next++] = null;
+                } else {
+                    stack.push(new Frame(childPosition));
+                }
+                continue;
+            }
+            stack.pop();
+            Node built = NodeStructure.build(frame.kind, frame.payload, frame.children);
+            if (stack.isEmpty()) {
+                result = built;
+            } else {
+                Frame parent = stack.peek();
+                parent.children[parent.next++] = built;
+            }
+        }
+        return result;
+    }
+
+    private class Frame {
+        final NodeKind kind;
+        final Object[] payload;
+        final Node[] children;
+        int childPosition;
+        int next = 0;
+
+        Frame(int node) {
+            kind = kind(node);
+            payload = new Object[payloadCount(node)];
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] = isStringPayload(node, i) ? stringPayload(node, i) : (Object) intPayload(node, i);
+            }
+            children = new Node[(int) readVarint(skipPayload(node))];
+            childPosition = cursor;
+        }
+    }
+
+    private int contentStart(int node) {
+        readVarint(node + 1);
+        return cursor;
+    }
+
+    private long payloadAt(int node, int index) {
+        int count = (int) readVarint(contentStart(node));
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Dato " + index + " de " + count);
+        }
+        long value = 0;
+        for (int i = 0; i <= index; i++) {
+            value = readVarint(cursor);
+        }
+        return value;
+    }
+
+    // Devuelve la posición del contador de hijos
+    private int skipPayload(int node) {
+        int count = (int) readVarint(contentStart(node));
+        for (int i = 0; i < count; i++) {
+            readVarint(cursor);
+        }
+        return cursor;
+    }
+
+    private long readVarint(int position) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        cursor = position;
+        return value;
+    }
+}
@@ -0,0 +1,185 @@
+package serialization;
+
+import ast.Node;
+import ast.NodeKind;
+import ast.NodeStructure;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Codifica el AST en el formato binario versionado:
+//
+//   archivo := "ASTB" version:varint nStrings:varint (len:varint utf8)* nodo
+//   nodo    := 0                                   (hijo ausente)
+//            | (tipo+1):byte largo:varint contenido
+//   contenido := nDatos:varint dato* nHijos:varint nodo*
+//   dato    := (indiceString << 1) | 1  ó  (zigzag(entero) << 1)
+//
+// "largo" es el tamaño del contenido, así un lector puede saltar subárboles sin decodificarlos.
+// Los recorridos usan pilas explícitas para soportar árboles muy profundos.
+public final class AstWriter {
+    public static final byte[] MAGIC = {'A', 'S', 'T', 'B'};
+    public static final int VERSION = 1;
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+
+    // Nodos en preorden con sus datos codificados, índices de hijos (-1 = null) y tamaño total
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<long[]> payloads = new ArrayList<>();
+    private final List<int[]> children = new ArrayList<>();
+    private long[] sizes;
+
+    private AstWriter() {
+    }
+
+    public static byte[] toBytes(Node root) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(root, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void write(Node root, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(root, out);
+        }
+    }
+
+    public static void write(Node root, OutputStream out) throws IOException {
+        AstWriter writer = new AstWriter();
+        writer.flatten(root);
+        writer.computeSizes();
+        writer.emit(out);
+    }
+
+    private void flatten(Node root) {
+        // Cada entrada pendiente: nodo, índice del padre y posición entre sus hijos
+        Deque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{root, -1, 0});
+        while (!stack.isEmpty()) {
+            Object[] pending = stack.pop();
+            Node node = (Node) pending[0];
+            int parent = (Integer) pending[1];
+            int slot = (Integer) pending[2];
+            if (node == null) {
+                continue; // el padre ya tiene -1 en esa posición
+            }
+
+            int index = nodes.size();
+            nodes.add(node);
+            if (parent >= 0) {
+                children.get(parent)[slot] = index;
+            }
+
+            Object[] data = NodeStructure.payload(node);
+            long[] encoded = new long[data.length];
+            for (int i = 0; i < data.length; i++) {
+                encoded[i] = encodePayload(data[i]);
+            }
+            payloads.add(encoded);
+
+            Node[] kids = NodeStructure.children(node);
+            int[] kidIndexes = new int[kids.length];
+            Arrays.fill(kidIndexes, -1);
+            children.add(kidIndexes);
+            for (int i = kids.length - 1; i >= 0; i--) {
+                stack.push(new Object[]{kids[i], index, i});
+            }
+        }
+    }
+
+    private long encodePayload(Object value) {
+        if (value instanceof String) {
+            String text = (String) value;
+            Integer index = stringIndex.get(text);
+            if (index == null) {
+                index = strings.size();
+                strings.add(text);
+                stringIndex.put(text, index);
+            }
+            return ((long) index << 1) | 1;
+        }
+        int number = (Integer) value;
+        long zigzag = ((number << 1) ^ (number >> 31)) & 0xFFFFFFFFL;
+        return zigzag << 1;
+    }
+
+    // Los hijos siempre aparecen después del padre en preorden: se recorre al revés
+    private void computeSizes() {
+        sizes = new long[nodes.size()];
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            long content = contentSize(i);
+            sizes[i] = 1 + varintSize(content) + content;
+        }
+    }
+
+    private long contentSize(int index) {
+        long[] data = payloads.get(index);
+        int[] kids = children.get(index);
+        long size = varintSize(data.length);
+        for (long value : data) {
+            size += varintSize(value);
+        }
+        size += varintSize(kids.length);
+        for (int kid : kids) {
+            size += kid < 0 ? 1 : sizes[kid];
+        }
+        return size;
+    }
+
+    private void emit(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        writeVarint(out, VERSION);
+        writeVarint(out, strings.size());
+        for (String text : strings) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes);
+        }
+
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(0);
+        while (!stack.isEmpty()) {
+            int index = stack.pop();
+            if (index < 0) {
+                out.write(0);
+                continue;
+            }
+            long[] data = payloads.get(index);
+            int[] kids = children.get(index);
+            out.write(NodeKind.of(nodes.get(index)).ordinal() + 1);
+            writeVarint(out, contentSize(index));
+            writeVarint(out, data.length);
+            for (long value : data) {
+                writeVarint(out, value);
+            }
+            writeVarint(out, kids.length);
+            for (int i = kids.length - 1; i >= 0; i--) {
+                stack.push(kids[i]);
+            }
+        }
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,32 @@
+package stats;
+
+import jdk.jfr.*;
+
+// Evento de JDK Flight Recorder emitido al terminar cada fase de cada archivo
+@Name("proyectocompiladores.CompilationPhase")
+@Label("Fase de compilación")
+@Category("Compilador")
+@StackTrace(false)
+public class CompilationPhaseEvent extends Event {
+    @Label("Fase")
+    String phase;
+
+    @Label("Archivo")
+    String file;
+
+    @Label("Tokens")
+    int tokens;
+
+    @Label("Nodos del AST")
+    int nodes;
+
+    @Label("Ámbitos creados")
+    int scopes;
+
+    @Label("Símbolos insertados")
+    int symbols;
+
+    @Label("Bytes asignados")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,169 @@
+package stats;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Mide cada fase de la compilación. Los datos van a eventos JFR (si hay una grabación
+// activa) y, si se pidió con --stats, a un resumen acumulado. Si no se cumple ninguna de
+// las dos condiciones begin() devuelve una fase vacía y no se mide nada.
+public class CompilationStats {
+    public static final CompilationStats DISABLED = new CompilationStats(false);
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final boolean summaryEnabled;
+    private final Map<String, Totals> totals = new LinkedHashMap<>();
+    private final Map<String, Totals> lastFile = new LinkedHashMap<>();
+    private String lastFileName;
+
+    public CompilationStats(boolean summaryEnabled) {
+        this.summaryEnabled = summaryEnabled;
+    }
+
+    public Phase begin(String phase, String file) {
+        CompilationPhaseEvent event = new CompilationPhaseEvent();
+        if (!summaryEnabled && !event.isEnabled()) {
+            return Phase.INACTIVE;
+        }
+        return new Phase(this, event, phase, file);
+    }
+
+    private synchronized void record(Phase phase, long nanos, long allocated) {
+        if (!summaryEnabled) return;
+        if (!phase.file.equals(lastFileName)) {
+            lastFile.clear();
+            lastFileName = phase.file;
+        }
+        totals.computeIfAbsent(phase.name, k -> new Totals()).add(phase, nanos, allocated);
+        lastFile.computeIfAbsent(phase.name, k -> new Totals()).add(phase, nanos, allocated);
+    }
+
+    public synchronized String formatSummary() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-14s %8s %10s %10s %10s %10s %8s %9s %12s%n",
+                "Fase", "Veces", "Total ms", "Media ms", "Tokens", "Nodos", "Ámbitos", "Símbolos", "KB asignados"));
+        for (Map.Entry<String, Totals> entry : totals.entrySet()) {
+            Totals t = entry.getValue();
+            out.append(String.format("%-14s %8d %10.2f %10.3f %10d %10d %8d %9d %12d%n",
+                    entry.getKey(), t.count, t.nanos / 1e6, t.nanos / 1e6 / t.count,
+                    t.tokens, t.nodes, t.scopes, t.symbols, t.allocated / 1024));
+        }
+        return out.toString();
+    }
+
+    // Una línea con las fases del último archivo, para la barra de estado de la interfaz
+    public synchronized String formatLastFile() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Totals> entry : lastFile.entrySet()) {
+            if (out.length() > 0) out.append(" · ");
+            out.append(String.format("%s %.1f ms", entry.getKey(), entry.getValue().nanos / 1e6));
+        }
+        return out.toString();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static final class Totals {
+        int count;
+        long nanos;
+        long allocated;
+        long tokens;
+        long nodes;
+        long scopes;
+        long symbols;
+
+        void add(Phase phase, long phaseNanos, long phaseAllocated) {
+            count++;
+            nanos += phaseNanos;
+            allocated += phaseAllocated;
+            tokens += phase.tokens;
+            nodes += phase.nodes;
+            scopes += phase.scopes;
+            symbols += phase.symbols;
+        }
+    }
+
+    public static final class Phase {
+        static final Phase INACTIVE = new Phase(null, null, null, null);
+
+        private final CompilationStats owner;
+        private final CompilationPhaseEvent event;
+        private final String name;
+        private final String file;
+        private final long startNanos;
+        private final long startAllocated;
+        private int tokens;
+        private int nodes;
+        private int scopes;
+        private int symbols;
+
+        private Phase(CompilationStats owner, CompilationPhaseEvent event, String name, String file) {
+            this.owner = owner;
+            this.event = event;
+            this.name = name;
+            this.file = file;
+            if (event != null) {
+                event.begin();
+            }
+            this.startAllocated = owner == null ? 0 : allocatedBytes();
+            this.startNanos = owner == null ? 0 : System.nanoTime();
+        }
+
+        // Los contadores solo valen la pena calcularlos si la fase se está midiendo
+        public boolean isActive() {
+            return owner != null;
+        }
+
+        public Phase tokens(int count) {
+            tokens = count;
+            return this;
+        }
+
+        public Phase nodes(int count) {
+            nodes = count;
+            return this;
+        }
+
+        public Phase scopes(int count) {
+            scopes = count;
+            return this;
+        }
+
+        public Phase symbols(int count) {
+            symbols = count;
+            return this;
+        }
+
+        public void end() {
+            if (owner == null) return;
+            long nanos = System.nanoTime() - startNanos;
+            long allocated = allocatedBytes() - startAllocated;
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.file = file;
+                event.tokens = tokens;
+                event.nodes = nodes;
+                event.scopes = scopes;
+                event.symbols = symbols;
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+            owner.record(this, nanos, allocated);
+        }
+    }
+}
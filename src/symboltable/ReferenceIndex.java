@@ -0,0 +1,366 @@
+package symboltable;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+// Índice de referencias cruzadas: para cada símbolo, dónde se declara y dónde se usa.
+//
+// El Parser lo llena mientras analiza (add con la posición de cada identificador resuelto).
+// Después de freeze() queda compacto y de solo lectura:
+//   - por símbolo, las posiciones de uso como varints delta en un único byte[]
+//   - todas las apariciones ordenadas por posición (para saber qué símbolo hay en un punto),
+//     también como varints delta, en bloques de BLOCK con la posición inicial de cada bloque
+//     en un int[] aparte
+//   - los símbolos ordenados por nombre
+// Las dos consultas son búsquedas binarias, O(log n); por posición se decodifica además un
+// solo bloque.
+public class ReferenceIndex {
+    private static final int BLOCK = 32;
+
+    private final Map<Symbol, Integer> ids = new IdentityHashMap<>();
+    private final List<Symbol> symbols = new ArrayList<>();
+
+    // Durante la construcción
+    private List<int[]> building = new ArrayList<>();  // usos por símbolo, [0] = cantidad
+    private int[] occurrenceOffsets = new int[64];
+    private int[] occurrenceSymbols = new int[64];
+    private int occurrenceCount;
+
+    // Después de freeze()
+    private boolean frozen;
+    private byte[] postings;
+    private int[] postingStart;
+    private int[] referenceCounts;
+    private byte[] occurrences;      // por aparición: delta de posición y número de símbolo
+    private int[] blockOffsets;      // posición en el fuente de la primera aparición del bloque
+    private int[] blockStarts;       // dónde empieza el bloque en 'occurrences'
+    private int[] byName;
+
+    // Registra una aparición; si la posición es la de la declaración del símbolo, es su definición
+    public void add(Symbol symbol, int offset) {
+        if (frozen) {
+            throw new IllegalStateException("El índice ya está cerrado");
+        }
+        int id = idOf(symbol);
+        if (offset != symbol.getOffset()) {
+            int[] list = building.get(id);
+            if (list[0] + 1 == list.length) {
+                list = Arrays.copyOf(list, list.length * 2);
+                building.set(id, list);
+            }
+            list[++list[0]] = offset;
+        }
+        if (occurrenceCount == occurrenceOffsets.length) {
+            occurrenceOffsets = Arrays.copyOf(occurrenceOffsets, occurrenceCount * 2);
+            occurrenceSymbols = Arrays.copyOf(occurrenceSymbols, occurrenceCount * 2);
+        }
+        occurrenceOffsets[occurrenceCount] = offset;
+        occurrenceSymbols[occurrenceCount] = id;
+        occurrenceCount++;
+    }
+
+    private int idOf(Symbol symbol) {
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            id = symbols.size();
+            ids.put(symbol, id);
+            symbols.add(symbol);
+            building.add(new int[4]);
+        }
+        return id;
+    }
+
+    public ReferenceIndex freeze() {
+        if (frozen) {
+            return this;
+        }
+        // El Parser avanza de izquierda a derecha, así que las posiciones ya vienen ordenadas;
+        // solo se ordena si alguien agregó fuera de orden
+        sortOccurrences();
+
+        VarintBuffer out = new VarintBuffer();
+        postingStart = new int[symbols.size()];
+        referenceCounts = new int[symbols.size()];
+        for (int id = 0; id < symbols.size(); id++) {
+            int[] list = building.get(id);
+            Arrays.sort(list, 1, list[0] + 1);
+            postingStart[id] = out.size;
+            referenceCounts[id] = list[0];
+            int previous = 0;
+            for (int i = 1; i <= list[0]; i++) {
+                out.write(list[i] - previous);
+                previous = list[i];
+            }
+        }
+        postings = out.toArray();
+
+        out = new VarintBuffer();
+        int blocks = (occurrenceCount + BLOCK - 1) / BLOCK;
+        blockOffsets = new int[blocks];
+        blockStarts = new int[blocks];
+        for (int i = 0; i < occurrenceCount; i++) {
+            if (i % BLOCK == 0) {
+                blockOffsets[i / BLOCK] = occurrenceOffsets[i];
+                blockStarts[i / BLOCK] = out.size;
+            }
+            out.write(occurrenceOffsets[i] - (i % BLOCK == 0 ? occurrenceOffsets[i] : occurrenceOffsets[i - 1]));
+            out.write(occurrenceSymbols[i]);
+        }
+        occurrences = out.toArray();
+        occurrenceOffsets = null;
+        occurrenceSymbols = null;
+        building = null;
+        byName = sortByName();
+        frozen = true;
+        return this;
+    }
+
+    private void sortOccurrences() {
+        for (int i = 1; i < occurrenceCount; i++) {
+            if (occurrenceOffsets[i] < occurrenceOffsets[i - 1]) {
+                long[] pairs = new long[occurrenceCount];
+                for (int j = 0; j < occurrenceCount; j++) {
+                    pairs[j] = ((long) occurrenceOffsets[j] << 32) | occurrenceSymbols[j];
+                }
+                Arrays.sort(pairs);
+                for (int j = 0; j < occurrenceCount; j++) {
+                    occurrenceOffsets[j] = (int) (pairs[j] >> 32);
+                    occurrenceSymbols[j] = (int) pairs[j];
+                }
+                return;
+            }
+        }
+    }
+
+    private int[] sortByName() {
+        Integer[] order = new Integer[symbols.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(id -> symbols.get(id).getName()));
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) result[i] = order[i];
+        return result;
+    }
+
+    // -----------------------
+    // CONSULTAS (requieren freeze)
+    // -----------------------
+
+    // Símbolo cuyo nombre cubre la posición (declaración o uso), o null
+    public Symbol symbolAt(int offset) {
+        checkFrozen();
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (blockOffsets[middle] <= offset) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (high < 0) {
+            return null;
+        }
+        // Última aparición del bloque que empieza antes de la posición
+        int[] cursor = {blockStarts[high]};
+        int entries = Math.min(BLOCK, occurrenceCount - high * BLOCK);
+        int start = blockOffsets[high];
+        int id = -1;
+        for (int i = 0; i < entries; i++) {
+            int next = start + readVarint(occurrences, cursor);
+            int symbol = readVarint(occurrences, cursor);
+            if (next > offset) break;
+            start = next;
+            id = symbol;
+        }
+        Symbol symbol = symbols.get(id);
+        return offset <= start + symbol.getName().length() ? symbol : null;
+    }
+
+    // Todos los símbolos con ese nombre (uno por ámbito donde se declaró)
+    public List<Symbol> lookup(String name) {
+        checkFrozen();
+        int low = 0;
+        int high = byName.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (symbols.get(byName[middle]).getName().compareTo(name) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<Symbol> result = new ArrayList<>();
+        for (int i = low; i < byName.length && symbols.get(byName[i]).getName().equals(name); i++) {
+            result.add(symbols.get(byName[i]));
+        }
+        return result;
+    }
+
+    // Posiciones de los usos, en orden, sin la declaración
+    public int[] references(Symbol symbol) {
+        checkFrozen();
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            return new int[0];
+        }
+        int[] result = new int[referenceCounts[id]];
+        int[] cursor = {postingStart[id]};
+        int value = 0;
+        for (int i = 0; i < result.length; i++) {
+            value += readVarint(postings, cursor);
+            result[i] = value;
+        }
+        return result;
+    }
+
+    public int referenceCount(Symbol symbol) {
+        checkFrozen();
+        Integer id = ids.get(symbol);
+        return id != null ? referenceCounts[id] : 0;
+    }
+
+    // Declaración y usos juntos, en orden: lo que hay que reescribir para renombrar
+    public int[] occurrences(Symbol symbol) {
+        int[] references = references(symbol);
+        if (symbol.getOffset() < 0) {
+            return references;
+        }
+        int[] result = new int[references.length + 1];
+        int insert = 0;
+        while (insert < references.length && references[insert] < symbol.getOffset()) insert++;
+        System.arraycopy(references, 0, result, 0, insert);
+        result[insert] = symbol.getOffset();
+        System.arraycopy(references, insert, result, insert + 1, references.length - insert);
+        return result;
+    }
+
+    // Variables y parámetros declarados en el fuente que nunca se usan
+    public List<Symbol> unusedSymbols() {
+        checkFrozen();
+        List<Symbol> unused = new ArrayList<>();
+        for (int id = 0; id < symbols.size(); id++) {
+            Symbol symbol = symbols.get(id);
+            boolean variable = symbol.getScope().equals("variable") || symbol.getScope().equals("parameter");
+            if (variable && symbol.getOffset() >= 0 && referenceCounts[id] == 0) {
+                unused.add(symbol);
+            }
+        }
+        return unused;
+    }
+
+    public List<Symbol> getSymbols() {
+        return Collections.unmodifiableList(symbols);
+    }
+
+    public int getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public long usedBytes() {
+        checkFrozen();
+        return postings.length + occurrences.length
+                + 4L * (postingStart.length + referenceCounts.length + byName.length
+                + blockOffsets.length + blockStarts.length);
+    }
+
+    private void checkFrozen() {
+        if (!frozen) {
+            throw new IllegalStateException("Falta llamar a freeze()");
+        }
+    }
+
+    // -----------------------
+    // SERIALIZACIÓN
+    // -----------------------
+
+    // Los símbolos no se copian: se escriben como números que da 'ids' (por ejemplo, su
+    // posición en el recorrido de la tabla de símbolos) y se recuperan con 'symbolsById'
+    public void write(DataOutputStream out, ToIntFunction<Symbol> symbolIds) throws IOException {
+        freeze();
+        out.writeInt(symbols.size());
+        for (int id = 0; id < symbols.size(); id++) {
+            out.writeInt(symbolIds.applyAsInt(symbols.get(id)));
+            out.writeInt(postingStart[id]);
+            out.writeInt(referenceCounts[id]);
+        }
+        out.writeInt(postings.length);
+        out.write(postings);
+        out.writeInt(occurrenceCount);
+        out.writeInt(occurrences.length);
+        out.write(occurrences);
+        for (int i = 0; i < blockOffsets.length; i++) {
+            out.writeInt(blockOffsets[i]);
+            out.writeInt(blockStarts[i]);
+        }
+    }
+
+    public static ReferenceIndex read(ByteBuffer in, IntFunction<Symbol> symbolsById) {
+        ReferenceIndex index = new ReferenceIndex();
+        int symbolCount = in.getInt();
+        index.postingStart = new int[symbolCount];
+        index.referenceCounts = new int[symbolCount];
+        for (int id = 0; id < symbolCount; id++) {
+            Symbol symbol = symbolsById.apply(in.getInt());
+            index.ids.put(symbol, id);
+            index.symbols.add(symbol);
+            index.postingStart[id] = in.getInt();
+            index.referenceCounts[id] = in.getInt();
+        }
+        index.postings = new byte[in.getInt()];
+        in.get(index.postings);
+        index.occurrenceCount = in.getInt();
+        index.occurrences = new byte[in.getInt()];
+        in.get(index.occurrences);
+        int blocks = (index.occurrenceCount + BLOCK - 1) / BLOCK;
+        index.blockOffsets = new int[blocks];
+        index.blockStarts = new int[blocks];
+        for (int i = 0; i < blocks; i++) {
+            index.blockOffsets[i] = in.getInt();
+            index.blockStarts[i] = in.getInt();
+        }
+        index.occurrenceOffsets = null;
+        index.occurrenceSymbols = null;
+        index.building = null;
+        index.byName = index.sortByName();
+        index.frozen = true;
+        return index;
+    }
+
+    // Lee un varint en cursor[0] y deja el cursor después
+    private static int readVarint(byte[] bytes, int[] cursor) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static final class VarintBuffer {
+        byte[] bytes = new byte[64];
+        int size;
+
+        void write(int value) {
+            if (size + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -4,11 +4,17 @@ public class Symbol {
     private String name;
     private String type;
     private String scope;
+    private int offset; // posición de la declaración en el fuente, -1 para los predefinidos
 
     public Symbol(String name, String type, String scope) {
+        this(name, type, scope, -1);
+    }
+
+    public Symbol(String name, String type, String scope, int offset) {
         this.name = name;
         this.type = type;
         this.scope = scope;
+        this.offset = offset;
     }
 
     // Getters
@@ -24,6 +30,10 @@ public class Symbol {
         return scope;
     }
 
+    public int getOffset() {
+        return offset;
+    }
+
     @Override
     public String toString() {
         return "Symbol{name='" + name + "', type='" + type + "', scope='" + scope + "'}";
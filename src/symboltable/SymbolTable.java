@@ -1,62 +1,112 @@
 package symboltable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
+// Los recorridos de la jerarquía usan bucles o pilas explícitas: con miles de bloques anidados
+// la cadena de padres es igual de larga y la recursión desbordaría la pila.
 public class SymbolTable {
-    private Map<String, Symbol> symbols;
+    // Muchos ámbitos (bloques de un if, cuerpos de bucles) no declaran nada: el mapa y la lista
+    // de hijas se crean con el primer elemento
+    private Map<String, Symbol> symbols = Collections.emptyMap();
     private SymbolTable parent;
-    private List<SymbolTable> children = new ArrayList<>();
+    private List<SymbolTable> children = Collections.emptyList();
+    // Solo en la raíz: los símbolos predefinidos, un mapa inmutable compartido por todas las
+    // raíces. Se buscan después de los declarados en la raíz y antes que los importados.
+    private Map<String, Symbol> predefined = Collections.emptyMap();
+    // Solo en la raíz: resuelve los nombres que no se declaran en el archivo (los que exportan
+    // otros archivos del proyecto). null al compilar un archivo suelto.
+    private Function<String, Symbol> imports;
 
     public SymbolTable(SymbolTable parent) {
-        this.symbols = new HashMap<>();
         this.parent = parent;
     }
 
+    // Raíz de un archivo que ve los símbolos predefinidos sin copiarlos
+    public static SymbolTable root(Map<String, Symbol> predefined) {
+        SymbolTable root = new SymbolTable(null);
+        root.predefined = predefined;
+        return root;
+    }
+
     public SymbolTable getParent() {
         return parent;
     }
 
     // Inserta un símbolo en el ámbito actual
     public boolean insert(String name, Symbol symbol) {
-        if (symbols.containsKey(name)) {
+        if (containsInCurrentScope(name)) {
             return false; // Ya existe en el ámbito actual
         }
+        if (symbols.isEmpty()) {
+            symbols = new HashMap<>();
+        }
         symbols.put(name, symbol);
         return true;
     }
 
     // Busca en todos los ámbitos (actual y padres)
     public Symbol lookup(String name) {
-        Symbol symbol = symbols.get(name);
-        if (symbol != null) {
-            return symbol;
-        }
-        if (parent != null) {
-            return parent.lookup(name);
+        SymbolTable table = this;
+        while (true) {
+            Symbol symbol = table.symbols.get(name);
+            if (symbol != null) {
+                return symbol;
+            }
+            if (table.parent == null) {
+                symbol = table.predefined.get(name);
+                if (symbol != null) {
+                    return symbol;
+                }
+                return table.imports != null ? table.imports.apply(name) : null;
+            }
+            table = table.parent;
         }
-        return null;
+    }
+
+    public void setImports(Function<String, Symbol> imports) {
+        this.imports = imports;
     }
 
     // Busca solo en el ámbito actual (para detectar redefiniciones)
     public boolean containsInCurrentScope(String name) {
-        return symbols.containsKey(name);
+        return symbols.containsKey(name) || predefined.containsKey(name);
     }
 
     // Para depuración
     public void printTable(String indent) {
-        for (Map.Entry<String, Symbol> entry : symbols.entrySet()) {
-            System.out.println(indent + entry.getKey() + " -> " + entry.getValue());
-        }
-        for (SymbolTable child : children) {
-            System.out.println(indent + "↓ Child Scope:");
-            child.printTable(indent + "  ");
+        // Cada entrada: tabla y sangría; las hijas se imprimen después del encabezado del padre
+        Deque<Object[]> stack = new ArrayDeque<>();
+        stack.push(new Object[]{this, indent});
+        while (!stack.isEmpty()) {
+            Object[] entry = stack.pop();
+            SymbolTable table = (SymbolTable) entry[0];
+            String tableIndent = (String) entry[1];
+            if (table != this) {
+                System.out.println(tableIndent.substring(0, tableIndent.length() - 2) + "↓ Child Scope:");
+            }
+            for (Map.Entry<String, Symbol> symbol : table.predefined.entrySet()) {
+                System.out.println(tableIndent + symbol.getKey() + " -> " + symbol.getValue());
+            }
+            for (Map.Entry<String, Symbol> symbol : table.symbols.entrySet()) {
+                System.out.println(tableIndent + symbol.getKey() + " -> " + symbol.getValue());
+            }
+            for (int i = table.children.size() - 1; i >= 0; i--) {
+                stack.push(new Object[]{table.children.get(i), tableIndent + "  "});
+            }
         }
     }
 
     public void addChild(SymbolTable child) {
+        if (children.isEmpty()) {
+            children = new ArrayList<>();
+        }
         children.add(child);
     }
 
@@ -66,20 +116,41 @@ public class SymbolTable {
 
     // Devuelve TODAS las tablas (esta y las hijas recursivamente)
     public List<SymbolTable> getAllTables() {
+        // Preorden, como el recorrido recursivo: cada tabla antes que sus hijas, en orden
         List<SymbolTable> all = new ArrayList<>();
-        all.add(this);
-        for (SymbolTable child : children) {
-            all.addAll(child.getAllTables());
+        Deque<SymbolTable> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            SymbolTable table = stack.pop();
+            all.add(table);
+            for (int i = table.children.size() - 1; i >= 0; i--) {
+                stack.push(table.children.get(i));
+            }
         }
         return all;
     }
 
+    // Solo los símbolos declarados en este ámbito; en la raíz, sin los predefinidos
+    public Map<String, Symbol> getLocalSymbols() {
+        return symbols;
+    }
+
+    // Vacío salvo en la raíz
+    public Map<String, Symbol> getPredefinedSymbols() {
+        return predefined;
+    }
+
+    // Los visibles desde este ámbito: se cargan desde la raíz para que los internos tapen a los externos
     public Map<String, Symbol> getAllSymbols() {
+        Deque<SymbolTable> chain = new ArrayDeque<>();
+        for (SymbolTable table = this; table != null; table = table.parent) {
+            chain.push(table);
+        }
         Map<String, Symbol> allSymbols = new HashMap<>();
-        if (parent != null) {
-            allSymbols.putAll(parent.getAllSymbols());
+        for (SymbolTable table : chain) {
+            allSymbols.putAll(table.predefined);
+            allSymbols.putAll(table.symbols);
         }
-        allSymbols.putAll(symbols);
         return allSymbols;
     }
 